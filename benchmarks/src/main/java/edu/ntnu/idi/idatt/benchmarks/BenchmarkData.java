@@ -0,0 +1,114 @@
+package edu.ntnu.idi.idatt.benchmarks;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.Recipe;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds fridges and cookbooks of a given size for the benchmarks. The content is drawn from a
+ * seeded random generator, so every run measures the same data.
+ */
+public final class BenchmarkData {
+
+  /**
+   * The first best-before date used for generated items.
+   */
+  public static final LocalDate START_DATE = LocalDate.of(2024, 12, 1);
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * Returns the number of different ingredient names used for a fridge of the given size. There
+   * are on average ten lots per name.
+   *
+   * @param lots the number of lots in the fridge
+   * @return the number of different names
+   */
+  public static int nameCount(int lots) {
+    return Math.max(10, lots / 10);
+  }
+
+  /**
+   * Returns the name of the ingredient with the given number.
+   *
+   * @param index the number of the ingredient
+   * @return the name of the ingredient
+   */
+  public static String name(int index) {
+    return "Item" + index;
+  }
+
+  /**
+   * Creates a fridge with the given number of lots, spread over 60 days of best-before dates.
+   *
+   * @param lots the number of lots
+   * @param seed the seed of the random generator
+   * @return the new fridge
+   */
+  public static FoodStorage fridge(int lots, long seed) {
+    Random random = new Random(seed);
+    int names = nameCount(lots);
+    FoodStorage fridge = new FoodStorage();
+    for (int i = 0; i < lots; i++) {
+      // Unik pris per vare gjør at ingen varer slås sammen
+      fridge.addItem(new Ingredient(name(i % names), 1 + random.nextInt(20), "pcs",
+          1 + i * 1e-6, START_DATE.plusDays(random.nextInt(60))));
+    }
+    return fridge;
+  }
+
+  /**
+   * Creates a cookbook with the given number of recipes. Each recipe needs 3 to 8 of the
+   * ingredients used by {@link #fridge(int, long)} for a fridge of {@code lots} lots.
+   *
+   * @param recipes the number of recipes
+   * @param lots    the number of lots in the fridge the recipes are made from
+   * @param seed    the seed of the random generator
+   * @return the new cookbook
+   */
+  public static CookBook cookBook(int recipes, int lots, long seed) {
+    return fill(new CookBook(), recipes, lots, seed);
+  }
+
+  /**
+   * Adds the recipes of {@link #cookBook(int, int, long)} to an existing cookbook, for example one
+   * with a different similarity index.
+   *
+   * @param cookBook the cookbook to add the recipes to
+   * @param recipes  the number of recipes
+   * @param lots     the number of lots in the fridge the recipes are made from
+   * @param seed     the seed of the random generator
+   * @return the cookbook
+   */
+  public static CookBook fill(CookBook cookBook, int recipes, int lots, long seed) {
+    Random random = new Random(seed);
+    int names = nameCount(lots);
+    for (int i = 0; i < recipes; i++) {
+      int size = 3 + random.nextInt(6);
+      List<Ingredient> ingredients = new ArrayList<>(size);
+      for (int j = 0; j < size; j++) {
+        ingredients.add(new Ingredient(name(random.nextInt(names)), 1 + random.nextInt(10), "pcs",
+            0.0, LocalDate.MAX));
+      }
+      cookBook.addRecipe(new Recipe(recipeName(i), "Generated recipe", "Mix everything",
+          ingredients, 1 + random.nextInt(6)));
+    }
+    return cookBook;
+  }
+
+  /**
+   * Returns the name of the recipe with the given number.
+   *
+   * @param index the number of the recipe
+   * @return the name of the recipe
+   */
+  public static String recipeName(int index) {
+    return "Recipe" + index;
+  }
+}
@@ -0,0 +1,32 @@
+package edu.ntnu.idi.idatt.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled, so that the allocation rate is reported
+ * together with throughput and average time. Takes the same arguments as the JMH command line,
+ * for example {@code FoodStorageBenchmark -p lots=10,1000}.
+ */
+public class BenchmarkRunner {
+
+  /**
+   * Main method that runs the benchmarks.
+   *
+   * @param args the JMH command line arguments
+   * @throws RunnerException            if a benchmark fails
+   * @throws CommandLineOptionException if the arguments are invalid
+   */
+  public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+    Options options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,98 @@
+package edu.ntnu.idi.idatt.benchmarks;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the operations of {@link CookBook} for cookbooks from 10 to 1 million recipes, checked
+ * against a fridge of a fixed size that can be changed with the {@code lots} parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CookBookBenchmark {
+
+  @Param({"10", "1000", "100000", "1000000"})
+  public int recipes;
+
+  @Param({"1000"})
+  public int lots;
+
+  private CookBook cookBook;
+  private FoodStorage fridge;
+  private int next;
+
+  /**
+   * Creates the cookbook and the fridge before the measurement starts.
+   */
+  @Setup
+  public void setUp() {
+    fridge = BenchmarkData.fridge(lots, 42);
+    cookBook = BenchmarkData.cookBook(recipes, lots, 7);
+  }
+
+  private String nextRecipe() {
+    next = (next + 1) % recipes;
+    return BenchmarkData.recipeName(next);
+  }
+
+  /**
+   * Changes one ingredient in the fridge and leaves it as it was, which invalidates cached results
+   * that read that ingredient.
+   */
+  private void touchFridge() {
+    fridge.addItem(new Ingredient(BenchmarkData.name(0), 1, "pcs", 1.0, BenchmarkData.START_DATE));
+    fridge.removeItem(BenchmarkData.name(0), 1);
+  }
+
+  /**
+   * Expands a different recipe each time.
+   */
+  @Benchmark
+  public String expandRecipe() {
+    return cookBook.expandRecipe(nextRecipe());
+  }
+
+  /**
+   * Checks a different recipe each time. Results may be served from the query cache.
+   */
+  @Benchmark
+  public String canMakeRecipe() {
+    return cookBook.canMakeRecipe(nextRecipe(), fridge);
+  }
+
+  /**
+   * Suggests recipes from an unchanged fridge, which is served from the query cache after the
+   * first call.
+   */
+  @Benchmark
+  public List<String> suggestRecipe() {
+    return cookBook.suggestRecipe(fridge);
+  }
+
+  /**
+   * Suggests recipes after the fridge has changed, so every recipe has to be checked again.
+   */
+  @Benchmark
+  public List<String> suggestRecipe_afterChange() {
+    touchFridge();
+    return cookBook.suggestRecipe(fridge);
+  }
+}
@@ -0,0 +1,137 @@
+package edu.ntnu.idi.idatt.benchmarks;
+
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the operations of {@link FoodStorage} for fridges from 10 to 10 million lots. Every
+ * benchmark either changes the quantity of a lot that is already in the fridge, or adds a lot and
+ * uses it up again, so the number of lots stays the same during the measurement. Filling the
+ * largest fridge takes a few minutes and about 3 GB of heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx5g")
+public class FoodStorageBenchmark {
+
+  @Param({"10", "1000", "100000", "10000000"})
+  public int lots;
+
+  private FoodStorage fridge;
+  private int names;
+  private int next;
+
+  /**
+   * The lot of every ingredient that expires first, which is the lot
+   * {@link FoodStorage#removeItem(String, double)} takes from first.
+   */
+  private Ingredient[] firstLots;
+
+  /**
+   * Fills the fridge before the measurement starts.
+   */
+  @Setup
+  public void setUp() {
+    fridge = BenchmarkData.fridge(lots, 42);
+    names = BenchmarkData.nameCount(lots);
+    firstLots = new Ingredient[names];
+    for (int i = 0; i < names; i++) {
+      firstLots[i] = fridge.searchItem(BenchmarkData.name(i)).getFirst();
+    }
+  }
+
+  private String nextName() {
+    next = (next + 1) % names;
+    return BenchmarkData.name(next);
+  }
+
+  /**
+   * Adds to a lot that already exists, so the quantities are combined.
+   */
+  @Benchmark
+  public String addItem_combinesWithExistingLot() {
+    return fridge.addItem(sameLot(firstLots[0]));
+  }
+
+  /**
+   * Adds a new lot and removes it again.
+   */
+  @Benchmark
+  public String addItem_thenRemoveItem() {
+    fridge.addItem(new Ingredient("Fresh", 1, "pcs", 1.0, BenchmarkData.START_DATE));
+    return fridge.removeItem("Fresh", 1);
+  }
+
+  /**
+   * Searches for a different name each time.
+   */
+  @Benchmark
+  public List<Ingredient> searchItem() {
+    return fridge.searchItem(nextName());
+  }
+
+  /**
+   * Adds one unit to the first lot of an ingredient, removes it again and then searches for the
+   * ingredient. The unit is removed from the same lot, since it expires first.
+   */
+  @Benchmark
+  public List<Ingredient> searchItem_afterChange() {
+    next = (next + 1) % names;
+    Ingredient lot = firstLots[next];
+    fridge.addItem(sameLot(lot));
+    fridge.removeItem(lot.getNameItem(), 1);
+    return fridge.searchItem(lot.getNameItem());
+  }
+
+  /**
+   * Finds the items expiring within the first week of the generated dates.
+   */
+  @Benchmark
+  public List<Ingredient> getItemsBeforeDate() {
+    return fridge.getItemsBeforeDate(BenchmarkData.START_DATE.plusDays(7));
+  }
+
+  /**
+   * Finds the expired items.
+   */
+  @Benchmark
+  public List<Ingredient> getExpiredItems() {
+    return fridge.getExpiredItems();
+  }
+
+  /**
+   * Calculates the total value of the fridge.
+   */
+  @Benchmark
+  public double calculateTotalValue() {
+    return fridge.calculateTotalValue();
+  }
+
+  /**
+   * Returns one unit of an item with the same name, best-before date and price as a lot, so that
+   * adding it combines with the lot.
+   *
+   * @param lot the lot to combine with
+   * @return the item to add
+   */
+  private static Ingredient sameLot(Ingredient lot) {
+    return new Ingredient(lot.getNameItem(), 1, lot.getUnitItem(), lot.getPricePerUnit(),
+        lot.getBestBefore());
+  }
+}
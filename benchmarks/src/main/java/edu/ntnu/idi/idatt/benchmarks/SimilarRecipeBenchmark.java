@@ -0,0 +1,77 @@
+package edu.ntnu.idi.idatt.benchmarks;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.SimilarRecipe;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the MinHash index of {@link CookBook#findSimilarRecipes(String, int)} with the linear
+ * scan of {@link CookBook#findSimilarRecipesExact(String, int)} for cookbooks from 1000 to 1
+ * million recipes. The {@code bands} and {@code rows} parameters change the index, so the
+ * trade-off between speed and recall can be measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimilarRecipeBenchmark {
+
+  @Param({"1000", "100000", "1000000"})
+  public int recipes;
+
+  @Param({"1000"})
+  public int lots;
+
+  @Param({"16"})
+  public int bands;
+
+  @Param({"4"})
+  public int rows;
+
+  private CookBook cookBook;
+  private int next;
+
+  /**
+   * Creates the cookbook with the given index before the measurement starts.
+   */
+  @Setup
+  public void setUp() {
+    cookBook = BenchmarkData.fill(new CookBook(bands, rows), recipes, lots, 7);
+  }
+
+  private String nextRecipe() {
+    next = (next + 1) % recipes;
+    return BenchmarkData.recipeName(next);
+  }
+
+  /**
+   * Finds the ten most similar recipes of a different recipe each time, using the index.
+   */
+  @Benchmark
+  public List<SimilarRecipe> findSimilarRecipes() {
+    return cookBook.findSimilarRecipes(nextRecipe(), 10);
+  }
+
+  /**
+   * Finds the ten most similar recipes of a different recipe each time, comparing it with every
+   * recipe.
+   */
+  @Benchmark
+  public List<SimilarRecipe> findSimilarRecipesExact() {
+    return cookBook.findSimilarRecipesExact(nextRecipe(), 10);
+  }
+}
@@ -1,21 +1,68 @@
 package edu.ntnu.idi.idatt;
 
 import edu.ntnu.idi.idatt.views.UserInterface;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Static main method to run the fridge and cookbook application.
  */
 public class Main {
 
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int DEFAULT_PORT = 8080;
+
   /**
-   * Main method that runs the application.
+   * Main method that runs the application. With the argument {@code --batch}, commands are read
+   * from standard input, or from the file given after it, instead of running the menu. With the
+   * argument {@code --http}, an HTTP server is started on the port given after it (8080 by
+   * default), and runs until the program is stopped. The fridge and the cookbook start out empty
+   * in both cases, and are only filled with the example data when the menu is run.
    *
    * @param args the arguments for the main method
    */
   public static void main(String[] args) {
     UserInterface ui = new UserInterface();
-    ui.init();
-    ui.start();
+    if (args.length > 0 && args[0].equals("--batch")) {
+      runBatch(ui, args.length > 1 ? Path.of(args[1]) : null);
+    } else if (args.length > 0 && args[0].equals("--http")) {
+      int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+      try {
+        ui.startServer(port);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      System.out.println("Listening on http://localhost:" + port);
+    } else {
+      ui.init(); // Eksempeldata brukes bare i menyen, ikke i skript og på serveren
+      ui.start();
+    }
   }
-}
 
+  /**
+   * Runs the commands from a file, or from standard input if no file is given, and writes the
+   * results to standard output.
+   *
+   * @param ui   the user interface to run the commands in
+   * @param file the file with the commands, or null to read from standard input
+   */
+  private static void runBatch(UserInterface ui, Path file) {
+    Writer output = new BufferedWriter(
+        new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    try (BufferedReader input = file == null
+        ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), BUFFER_SIZE)
+        : Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      ui.startBatch(input, output);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,409 @@
+package edu.ntnu.idi.idatt.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.ItemCursor;
+import edu.ntnu.idi.idatt.models.Recipe;
+import edu.ntnu.idi.idatt.utils.Utils;
+import edu.ntnu.idi.idatt.views.CommandProcessor;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A small HTTP/JSON server that gives other services access to a fridge and a cookbook. It is
+ * built on the HTTP server in the JDK, and every request is handled on its own virtual thread.
+ * Connections are kept alive between requests.
+ *
+ * <table>
+ *   <caption>Endpoints</caption>
+ *   <tr><th>Request</th><th>Operation</th></tr>
+ *   <tr><td>GET /items</td><td>all items in the fridge</td></tr>
+ *   <tr><td>POST /items?name=&amp;quantity=&amp;unit=&amp;price=&amp;bestBefore=</td>
+ *       <td>add an item, with the date as dd-MM-yyyy</td></tr>
+ *   <tr><td>DELETE /items?name=&amp;quantity=</td><td>remove a quantity of an item</td></tr>
+ *   <tr><td>GET /items/search?name=</td><td>search for an item</td></tr>
+ *   <tr><td>GET /items/before?date=</td><td>items with best-before before a date</td></tr>
+ *   <tr><td>GET /items/expired</td><td>expired items</td></tr>
+ *   <tr><td>GET /value</td><td>total value of the fridge</td></tr>
+ *   <tr><td>GET /value/risk</td><td>value expiring within 1, 3, 7 and 30 days</td></tr>
+ *   <tr><td>GET /recipes</td><td>names of all recipes</td></tr>
+ *   <tr><td>GET /recipes/expand?name=</td><td>details of a recipe</td></tr>
+ *   <tr><td>GET /recipes/check?name=</td><td>check if a recipe can be made</td></tr>
+ *   <tr><td>GET /recipes/suggest</td><td>recipes that can be made</td></tr>
+ *   <tr><td>POST /batch</td><td>run many commands at once, see {@link CommandProcessor}</td></tr>
+ * </table>
+ *
+ * <p>The search, before and expired endpoints also take {@code offset} and {@code limit}, which
+ * are read lazily from the ordered indexes of the fridge, so one page costs the same no matter how
+ * many items match.</p>
+ *
+ * <p>Invalid input gives status 400 with a JSON object {@code {"error": "..."}}, and any other
+ * failure gives status 500 with the same kind of object. The fridge and the cookbook are not
+ * thread-safe, so every request holds a lock for each of the objects it uses, always taking the
+ * cookbook lock before the fridge lock. The locks are {@link ReentrantLock}s rather than monitors,
+ * so a request that waits for a lock does not pin the carrier thread of its virtual thread. Other
+ * code that uses the fridge or the cookbook while the server runs should take the same locks, see
+ * {@link #getFoodStorageLock()} and {@link #getCookBookLock()}.</p>
+ */
+public class HttpApiServer implements AutoCloseable {
+
+  private static final String JSON = "application/json; charset=utf-8";
+  private static final String TEXT = "text/plain; charset=utf-8";
+  private static final int BACKLOG = 1024;
+
+  private final FoodStorage foodStorage;
+  private final CookBook cookBook;
+  private final CommandProcessor commandProcessor;
+  private final ReentrantLock foodStorageLock;
+  private final ReentrantLock cookBookLock;
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  /**
+   * Constructor that creates a server on the loopback address. The server is not started.
+   *
+   * @param foodStorage the fridge to serve
+   * @param cookBook    the cookbook to serve
+   * @param port        the port to listen on, or 0 to choose a free port
+   * @throws IOException              if the server cannot be bound to the port
+   * @throws IllegalArgumentException if the fridge or the cookbook is null
+   */
+  public HttpApiServer(FoodStorage foodStorage, CookBook cookBook, int port) throws IOException {
+    this(foodStorage, cookBook, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+  }
+
+  /**
+   * Constructor that creates a server on the given address. The server is not started.
+   *
+   * @param foodStorage the fridge to serve
+   * @param cookBook    the cookbook to serve
+   * @param address     the address to listen on
+   * @throws IOException              if the server cannot be bound to the address
+   * @throws IllegalArgumentException if the fridge, the cookbook or the address is null
+   */
+  public HttpApiServer(FoodStorage foodStorage, CookBook cookBook, InetSocketAddress address)
+      throws IOException {
+    if (foodStorage == null || cookBook == null || address == null) {
+      throw new IllegalArgumentException("Food storage, cookbook and address cannot be null");
+    }
+    this.foodStorage = foodStorage;
+    this.cookBook = cookBook;
+    this.commandProcessor = new CommandProcessor(foodStorage, cookBook);
+    this.foodStorageLock = new ReentrantLock();
+    this.cookBookLock = new ReentrantLock();
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    this.server = HttpServer.create(address, BACKLOG);
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+  }
+
+  /**
+   * Starts accepting requests.
+   */
+  public void start() {
+    server.start();
+  }
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Returns the lock the server holds while it uses the fridge.
+   *
+   * @return the lock of the fridge
+   */
+  public ReentrantLock getFoodStorageLock() {
+    return foodStorageLock;
+  }
+
+  /**
+   * Returns the lock the server holds while it uses the cookbook. It is always taken before the
+   * lock of the fridge.
+   *
+   * @return the lock of the cookbook
+   */
+  public ReentrantLock getCookBookLock() {
+    return cookBookLock;
+  }
+
+  /**
+   * Stops the server, letting requests that are running finish for up to one second.
+   */
+  @Override
+  public void close() {
+    server.stop(1);
+    executor.shutdownNow();
+  }
+
+  /**
+   * Handles one request and always sends a response.
+   *
+   * @param exchange the request and response
+   * @throws IOException if the response cannot be sent
+   */
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      Response response;
+      try {
+        response = route(exchange);
+      } catch (IllegalArgumentException e) {
+        response = new Response(400, JSON, Json.field("error", Json.string(e.getMessage())));
+      } catch (RuntimeException e) {
+        // Feil i serveren skal ikke lukke forbindelsen uten svar
+        response = new Response(500, JSON, Json.field("error", Json.string("Internal error")));
+      }
+      byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", response.contentType());
+      exchange.sendResponseHeaders(response.status(), body.length == 0 ? -1 : body.length);
+      if (body.length > 0) {
+        try (OutputStream output = exchange.getResponseBody()) {
+          output.write(body);
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds the operation for the path and method of a request and runs it.
+   *
+   * @param exchange the request
+   * @return the response to send
+   * @throws IOException if the request body cannot be read
+   */
+  private Response route(HttpExchange exchange) throws IOException {
+    String method = exchange.getRequestMethod();
+    String path = exchange.getRequestURI().getPath();
+    Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+    return switch (path) {
+      case "/items" -> switch (method) {
+        case "GET" -> json(fridge(() -> Json.items(foodStorage.getItems())));
+        case "POST" -> {
+          Ingredient item = new Ingredient(required(query, "name"), number(query, "quantity"),
+              required(query, "unit"), number(query, "price"), date(query, "bestBefore"));
+          yield json(Json.field("message", Json.string(fridge(() -> foodStorage.addItem(item)))));
+        }
+        case "DELETE" -> {
+          String name = required(query, "name");
+          double quantity = number(query, "quantity");
+          if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+          }
+          yield json(Json.field("message",
+              Json.string(fridge(() -> foodStorage.removeItem(name, quantity)))));
+        }
+        default -> notAllowed();
+      };
+      case "/items/search" -> get(method, () -> {
+        String name = required(query, "name");
+        return isPaged(query)
+            ? page(query, () -> foodStorage.searchCursor(name))
+            : fridge(() -> Json.items(foodStorage.searchItem(name)));
+      });
+      case "/items/before" -> get(method, () -> {
+        LocalDate date = date(query, "date");
+        return isPaged(query)
+            ? page(query, () -> foodStorage.beforeDateCursor(date))
+            : fridge(() -> Json.items(foodStorage.getItemsBeforeDate(date)));
+      });
+      case "/items/expired" -> get(method, () -> isPaged(query)
+          ? page(query, foodStorage::expiredCursor)
+          : fridge(() -> Json.items(foodStorage.getExpiredItems())));
+      case "/value" -> get(method,
+          () -> Json.field("value", String.valueOf(fridge(foodStorage::calculateTotalValue))));
+      case "/value/risk" -> get(method, () -> fridge(() -> Json.field("expired",
+          String.valueOf(foodStorage.getExpiredValue()),
+          "risk", Json.values(foodStorage.getValueAtRisk()))));
+      case "/recipes" -> get(method, () -> recipes(() -> Json.strings(
+          cookBook.getRecipes().stream().map(Recipe::getNameRecipe).toList())));
+      case "/recipes/expand" -> get(method, () -> {
+        String name = required(query, "name");
+        return Json.field("details", Json.string(recipes(() -> cookBook.expandRecipe(name))));
+      });
+      case "/recipes/check" -> get(method, () -> {
+        String name = required(query, "name");
+        return Json.field("message",
+            Json.string(both(() -> cookBook.canMakeRecipe(name, foodStorage))));
+      });
+      case "/recipes/suggest" -> get(method,
+          () -> Json.strings(both(() -> cookBook.suggestRecipe(foodStorage))));
+      case "/batch" -> "POST".equals(method) ? batch(exchange) : notAllowed();
+      default -> new Response(404, JSON, Json.field("error", Json.string("Not found: " + path)));
+    };
+  }
+
+  /**
+   * Runs the commands in the body of a request, one per line, and answers with one result line
+   * per command. The whole body is read before the locks are taken, so a slow client does not
+   * hold up other requests.
+   *
+   * @param exchange the request
+   * @return the result lines
+   * @throws IOException if the body cannot be read
+   */
+  private Response batch(HttpExchange exchange) throws IOException {
+    String body;
+    try (InputStream input = exchange.getRequestBody()) {
+      body = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    StringWriter output = new StringWriter();
+    cookBookLock.lock();
+    foodStorageLock.lock();
+    try {
+      commandProcessor.run(new BufferedReader(new StringReader(body)), output);
+    } finally {
+      foodStorageLock.unlock();
+      cookBookLock.unlock();
+    }
+    return new Response(200, TEXT, output.toString());
+  }
+
+  /**
+   * Reads one page of a query from a cursor, skipping {@code offset} items and returning at most
+   * {@code limit} items.
+   *
+   * @param query  the query parameters
+   * @param cursor the cursor of the query
+   * @return the items of the page as JSON
+   */
+  private String page(Map<String, String> query, Supplier<ItemCursor> cursor) {
+    long offset = count(query, "offset", 0);
+    int limit = (int) Math.min(count(query, "limit", Integer.MAX_VALUE), Integer.MAX_VALUE);
+    return fridge(() -> Json.items(cursor.get().skip(offset).next(limit)));
+  }
+
+  private <T> T fridge(Supplier<T> operation) {
+    return locked(foodStorageLock, operation);
+  }
+
+  private <T> T recipes(Supplier<T> operation) {
+    return locked(cookBookLock, operation);
+  }
+
+  private <T> T both(Supplier<T> operation) {
+    return locked(cookBookLock, () -> locked(foodStorageLock, operation));
+  }
+
+  private static <T> T locked(ReentrantLock lock, Supplier<T> operation) {
+    lock.lock();
+    try {
+      return operation.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static Response get(String method, Supplier<String> operation) {
+    return "GET".equals(method) ? json(operation.get()) : notAllowed();
+  }
+
+  private static Response json(String body) {
+    return new Response(200, JSON, body);
+  }
+
+  private static Response notAllowed() {
+    return new Response(405, JSON, Json.field("error", Json.string("Method not allowed")));
+  }
+
+  /**
+   * Splits a raw query string into decoded parameters.
+   *
+   * @param rawQuery the query string, or null if there is none
+   * @return the parameters by name
+   */
+  private static Map<String, String> parseQuery(String rawQuery) {
+    Map<String, String> parameters = new HashMap<>();
+    if (rawQuery == null || rawQuery.isEmpty()) {
+      return parameters;
+    }
+    for (String pair : rawQuery.split("&")) {
+      int equals = pair.indexOf('=');
+      String name = equals < 0 ? pair : pair.substring(0, equals);
+      String value = equals < 0 ? "" : pair.substring(equals + 1);
+      parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+          URLDecoder.decode(value, StandardCharsets.UTF_8));
+    }
+    return parameters;
+  }
+
+  private static String required(Map<String, String> query, String name) {
+    String value = query.get(name);
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException("Missing parameter: " + name);
+    }
+    return value;
+  }
+
+  private static double number(Map<String, String> query, String name) {
+    String value = required(query, name);
+    double number;
+    try {
+      number = Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid number for " + name + ": " + value);
+    }
+    if (!Double.isFinite(number)) {
+      // NaN og uendelig kan ikke skrives som JSON
+      throw new IllegalArgumentException("Invalid number for " + name + ": " + value);
+    }
+    return number;
+  }
+
+  private static boolean isPaged(Map<String, String> query) {
+    return query.containsKey("offset") || query.containsKey("limit");
+  }
+
+  private static long count(Map<String, String> query, String name, long defaultValue) {
+    String value = query.get(name);
+    if (value == null || value.isBlank()) {
+      return defaultValue;
+    }
+    try {
+      long count = Long.parseLong(value);
+      if (count < 0) {
+        throw new IllegalArgumentException(name + " cannot be negative");
+      }
+      return count;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid number for " + name + ": " + value);
+    }
+  }
+
+  private static LocalDate date(Map<String, String> query, String name) {
+    LocalDate date = Utils.parseDate(required(query, name));
+    if (date == null) {
+      throw new IllegalArgumentException("Invalid date format, please use dd-MM-yyyy.");
+    }
+    return date;
+  }
+
+  /**
+   * A response with its status code, content type and body.
+   */
+  private record Response(int status, String contentType, String body) {
+  }
+}
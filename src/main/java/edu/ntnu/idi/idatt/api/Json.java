@@ -0,0 +1,141 @@
+package edu.ntnu.idi.idatt.api;
+
+import edu.ntnu.idi.idatt.models.Ingredient;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the JSON responses of the {@link HttpApiServer}, without any external libraries.
+ */
+final class Json {
+
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+  private Json() {
+  }
+
+  /**
+   * Writes a list of items as a JSON array of objects.
+   *
+   * @param items the items to write
+   * @return the JSON array
+   */
+  static String items(List<Ingredient> items) {
+    StringBuilder json = new StringBuilder(items.size() * 96 + 2).append('[');
+    for (int i = 0; i < items.size(); i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      Ingredient item = items.get(i);
+      json.append("{\"name\":");
+      string(json, item.getNameItem());
+      json.append(",\"quantity\":").append(item.getQuantityItem())
+          .append(",\"unit\":");
+      string(json, item.getUnitItem());
+      json.append(",\"pricePerUnit\":").append(item.getPricePerUnit())
+          .append(",\"bestBefore\":\"").append(DATE_FORMAT.format(item.getBestBefore()))
+          .append("\"}");
+    }
+    return json.append(']').toString();
+  }
+
+  /**
+   * Writes a list of strings as a JSON array.
+   *
+   * @param values the strings to write
+   * @return the JSON array
+   */
+  static String strings(List<String> values) {
+    StringBuilder json = new StringBuilder().append('[');
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      string(json, values.get(i));
+    }
+    return json.append(']').toString();
+  }
+
+  /**
+   * Writes an object with a single field.
+   *
+   * @param name  the name of the field
+   * @param value the value of the field, which must already be valid JSON
+   * @return the JSON object
+   */
+  static String field(String name, String value) {
+    StringBuilder json = new StringBuilder().append('{');
+    string(json, name);
+    return json.append(':').append(value).append('}').toString();
+  }
+
+  /**
+   * Writes an object with two fields.
+   *
+   * @param name1  the name of the first field
+   * @param value1 the value of the first field, which must already be valid JSON
+   * @param name2  the name of the second field
+   * @param value2 the value of the second field, which must already be valid JSON
+   * @return the JSON object
+   */
+  static String field(String name1, String value1, String name2, String value2) {
+    StringBuilder json = new StringBuilder().append('{');
+    string(json, name1);
+    json.append(':').append(value1).append(',');
+    string(json, name2);
+    return json.append(':').append(value2).append('}').toString();
+  }
+
+  /**
+   * Writes a map of numbers as a JSON object, with the keys as field names.
+   *
+   * @param values the numbers to write
+   * @return the JSON object
+   */
+  static String values(Map<?, Double> values) {
+    StringBuilder json = new StringBuilder().append('{');
+    for (Map.Entry<?, Double> entry : values.entrySet()) {
+      if (json.length() > 1) {
+        json.append(',');
+      }
+      string(json, String.valueOf(entry.getKey()));
+      json.append(':').append(entry.getValue());
+    }
+    return json.append('}').toString();
+  }
+
+  /**
+   * Writes a string as a quoted and escaped JSON string.
+   *
+   * @param value the string to write
+   * @return the JSON string
+   */
+  static String string(String value) {
+    StringBuilder json = new StringBuilder(value.length() + 2);
+    string(json, value);
+    return json.toString();
+  }
+
+  private static void string(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"' -> json.append("\\\"");
+        case '\\' -> json.append("\\\\");
+        case '\n' -> json.append("\\n");
+        case '\r' -> json.append("\\r");
+        case '\t' -> json.append("\\t");
+        default -> {
+          if (c < 0x20) {
+            json.append(String.format("\\u%04x", (int) c));
+          } else {
+            json.append(c);
+          }
+        }
+      }
+    }
+    json.append('"');
+  }
+}
@@ -0,0 +1,295 @@
+package edu.ntnu.idi.idatt.cdc;
+
+import edu.ntnu.idi.idatt.cdc.ChangeRecord.Operation;
+import edu.ntnu.idi.idatt.cdc.ChangeRecord.Source;
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.Recipe;
+import edu.ntnu.idi.idatt.models.RecipeListener;
+import edu.ntnu.idi.idatt.models.StorageListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes every change to the attached fridges and cookbooks as {@link ChangeRecord}s, for
+ * consumers such as analytics or a search index.
+ *
+ * <p>The changes are kept in a ring buffer with a fixed capacity. A change is only written to the
+ * buffer by the thread that made it, so {@code addItem} and {@code removeItem} never wait for a
+ * subscriber. Every subscriber reads from the buffer at its own pace on a virtual thread, and is
+ * sent batches of up to a maximum size, one batch for each request. A subscriber that falls so
+ * far behind that its next change has been overwritten gets an error, and can subscribe again from
+ * {@link #getOldestSequence()}.</p>
+ *
+ * <p>A consumer that stores the sequence number of the last change it has handled can resume from
+ * the next one with {@link #subscribe(Flow.Subscriber, long)}, as long as it is still in the
+ * buffer.</p>
+ */
+public class ChangeFeed implements Flow.Publisher<List<ChangeRecord>>, AutoCloseable {
+
+  private final ChangeRecord[] buffer;
+  private final int maxBatchSize;
+  private final List<ChangeSubscription> subscriptions;
+  private final ExecutorService executor;
+
+  /**
+   * The sequence number of the last change, or zero if there are no changes yet.
+   */
+  private long lastSequence;
+  private volatile boolean closed;
+
+  /**
+   * Constructor that initializes an empty feed.
+   *
+   * @param capacity     the number of changes kept for subscribers that are behind
+   * @param maxBatchSize the maximum number of changes sent to a subscriber at a time
+   * @throws IllegalArgumentException if the capacity or the batch size is not positive
+   */
+  public ChangeFeed(int capacity, int maxBatchSize) {
+    if (capacity <= 0 || maxBatchSize <= 0) {
+      throw new IllegalArgumentException("Capacity and batch size must be greater than zero");
+    }
+    this.buffer = new ChangeRecord[capacity];
+    this.maxBatchSize = maxBatchSize;
+    this.subscriptions = new CopyOnWriteArrayList<>();
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  /**
+   * Starts publishing the changes to the items in a fridge.
+   *
+   * @param foodStorage the fridge
+   * @return the listener that was added to the fridge, which can be removed to stop publishing
+   * @throws IllegalArgumentException if the fridge is null
+   */
+  public StorageListener attach(FoodStorage foodStorage) {
+    if (foodStorage == null) {
+      throw new IllegalArgumentException("Food storage cannot be null");
+    }
+    StorageListener listener = this::itemChanged;
+    foodStorage.addListener(listener);
+    return listener;
+  }
+
+  /**
+   * Starts publishing the recipes that are added to or removed from a cookbook.
+   *
+   * @param cookBook the cookbook
+   * @return the listener that was added to the cookbook, which can be removed to stop publishing
+   * @throws IllegalArgumentException if the cookbook is null
+   */
+  public RecipeListener attach(CookBook cookBook) {
+    if (cookBook == null) {
+      throw new IllegalArgumentException("Cookbook cannot be null");
+    }
+    RecipeListener listener = this::recipeChanged;
+    cookBook.addListener(listener);
+    return listener;
+  }
+
+  /**
+   * Returns the sequence number of the last change, or zero if nothing has changed yet.
+   *
+   * @return the last sequence number
+   */
+  public synchronized long getLastSequence() {
+    return lastSequence;
+  }
+
+  /**
+   * Returns the sequence number of the oldest change that is still kept.
+   *
+   * @return the oldest sequence number that can be resumed from
+   */
+  public synchronized long getOldestSequence() {
+    return Math.max(1, lastSequence - buffer.length + 1);
+  }
+
+  /**
+   * Subscribes to the changes made after this call.
+   *
+   * @param subscriber the subscriber
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super List<ChangeRecord>> subscriber) {
+    subscribe(subscriber, getLastSequence() + 1);
+  }
+
+  /**
+   * Subscribes to the changes from a sequence number. If the change is no longer kept, the
+   * subscriber gets an error as soon as it requests changes.
+   *
+   * @param subscriber   the subscriber
+   * @param fromSequence the sequence number of the first change to send
+   * @throws NullPointerException if the subscriber is null
+   */
+  public void subscribe(Flow.Subscriber<? super List<ChangeRecord>> subscriber,
+      long fromSequence) {
+    if (subscriber == null) {
+      throw new NullPointerException("Subscriber cannot be null");
+    }
+    ChangeSubscription subscription = new ChangeSubscription(subscriber, Math.max(1, fromSequence));
+    subscriptions.add(subscription);
+    subscriber.onSubscribe(subscription);
+    subscription.signal();
+  }
+
+  /**
+   * Stops publishing. Subscribers are sent the changes they have requested that are still kept,
+   * and are then completed. Subscribers that have not requested any more changes are completed at
+   * once, without the changes they have not requested.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    subscriptions.forEach(ChangeSubscription::signal);
+    executor.close();
+  }
+
+  private void itemChanged(Ingredient item, double before, double after) {
+    append(Source.FRIDGE, item.getNameItem(), item.getUnitItem(), item, before, after);
+  }
+
+  private void recipeChanged(Recipe recipe, int before, int after) {
+    append(Source.COOKBOOK, recipe.getNameRecipe(), "servings", null, before, after);
+  }
+
+  /**
+   * Writes a change to the buffer and wakes up the subscribers. Never waits for a subscriber.
+   */
+  private void append(Source source, String name, String unit, Ingredient item, double before,
+      double after) {
+    if (closed) {
+      return;
+    }
+    synchronized (this) {
+      lastSequence++;
+      buffer[(int) (lastSequence % buffer.length)] = new ChangeRecord(lastSequence, source,
+          Operation.of(before, after), name, unit, item == null ? null : item.getBestBefore(),
+          before, after);
+    }
+    for (ChangeSubscription subscription : subscriptions) {
+      subscription.signal();
+    }
+  }
+
+  /**
+   * Copies the changes from a sequence number out of the buffer.
+   *
+   * @param from the sequence number of the first change
+   * @param max  the maximum number of changes
+   * @return the changes, which is empty if there are no new changes
+   * @throws IllegalStateException if the first change has been overwritten
+   */
+  private synchronized List<ChangeRecord> read(long from, int max) {
+    if (from < getOldestSequence()) {
+      throw new IllegalStateException(String.format(
+          "The change %d is no longer kept, the oldest change is %d", from, getOldestSequence()));
+    }
+    long to = Math.min(lastSequence, from + max - 1);
+    List<ChangeRecord> batch = new ArrayList<>((int) Math.max(0, to - from + 1));
+    for (long sequence = from; sequence <= to; sequence++) {
+      batch.add(buffer[(int) (sequence % buffer.length)]);
+    }
+    return batch;
+  }
+
+  /**
+   * A subscriber with its position in the feed and the number of batches it has requested. The
+   * batches are sent by one task at a time, so the subscriber is never called concurrently.
+   */
+  private final class ChangeSubscription implements Flow.Subscription {
+
+    private final Flow.Subscriber<? super List<ChangeRecord>> subscriber;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean cancelled;
+    private long next;
+
+    private ChangeSubscription(Flow.Subscriber<? super List<ChangeRecord>> subscriber,
+        long next) {
+      this.subscriber = subscriber;
+      this.next = next;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        cancel();
+        subscriber.onError(new IllegalArgumentException("Request must be greater than zero"));
+        return;
+      }
+      demand.getAndAccumulate(n, (current, added) -> {
+        long sum = current + added;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+      });
+      signal();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      subscriptions.remove(this);
+    }
+
+    /**
+     * Starts a delivery task, unless one is already running. A running task sees the signal and
+     * runs once more before it stops.
+     */
+    private void signal() {
+      if (!cancelled && pending.getAndIncrement() == 0) {
+        try {
+          executor.execute(this::deliver);
+        } catch (RuntimeException e) {
+          // Feeden er lukket og alle leveranser er ferdige
+          pending.set(0);
+        }
+      }
+    }
+
+    private void deliver() {
+      int missed = 1;
+      while (true) {
+        while (!cancelled && demand.get() > 0) {
+          List<ChangeRecord> batch;
+          try {
+            batch = read(next, maxBatchSize);
+          } catch (IllegalStateException e) {
+            cancel();
+            subscriber.onError(e);
+            break;
+          }
+          if (batch.isEmpty()) {
+            break;
+          }
+          next = batch.getLast().sequence() + 1;
+          demand.decrementAndGet();
+          try {
+            subscriber.onNext(batch);
+          } catch (RuntimeException e) {
+            // En abonnent som feiler skal ikke stoppe leveransene, så den avsluttes
+            cancel();
+            subscriber.onError(e);
+            break;
+          }
+        }
+        // Etter lukking fullføres også abonnenter som ikke har bedt om flere endringer
+        if (!cancelled && closed && (next > getLastSequence() || demand.get() == 0)) {
+          cancel();
+          subscriber.onComplete();
+        }
+        missed = pending.addAndGet(-missed);
+        if (missed == 0) {
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package edu.ntnu.idi.idatt.cdc;
+
+import java.time.LocalDate;
+
+/**
+ * One change to a fridge or a cookbook, as published by a {@link ChangeFeed}.
+ *
+ * <p>For an item in a fridge, the quantities are the quantity of the lot before and after the
+ * change. For a recipe, they are the servings of the recipe, so an added recipe goes from zero and
+ * a removed recipe goes to zero.</p>
+ *
+ * @param sequence   the number of the change, counted from 1 without gaps by the feed
+ * @param source     whether the change was made to a fridge or a cookbook
+ * @param operation  what kind of change it was
+ * @param name       the name of the item or recipe
+ * @param unit       the unit of the item, or {@code servings} for a recipe
+ * @param bestBefore the best-before date of the item, or null for a recipe
+ * @param before     the quantity before the change
+ * @param after      the quantity after the change
+ */
+public record ChangeRecord(long sequence, Source source, Operation operation, String name,
+                           String unit, LocalDate bestBefore, double before, double after) {
+
+  /**
+   * Where a change was made.
+   */
+  public enum Source {
+    FRIDGE,
+    COOKBOOK
+  }
+
+  /**
+   * The kind of a change.
+   */
+  public enum Operation {
+    ADDED,
+    CHANGED,
+    REMOVED;
+
+    /**
+     * Returns the kind of a change from the quantities before and after it.
+     *
+     * @param before the quantity before the change
+     * @param after  the quantity after the change
+     * @return {@link #ADDED} if there was nothing before, {@link #REMOVED} if there is nothing
+     *     after, and {@link #CHANGED} otherwise
+     */
+    public static Operation of(double before, double after) {
+      if (before <= 0) {
+        return ADDED;
+      }
+      return after <= 0 ? REMOVED : CHANGED;
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package edu.ntnu.idi.idatt.history;
+
+import java.time.LocalDate;
+
+/**
+ * One change to the stock of an ingredient in a household, as recorded in a {@link HistoryStore}.
+ *
+ * @param type       what happened to the stock
+ * @param household  the id of the household
+ * @param ingredient the name of the ingredient
+ * @param date       the day it happened
+ * @param quantity   the quantity that was added, used or thrown away
+ * @param value      the value of the quantity
+ */
+public record HistoryEvent(Type type, String household, String ingredient, LocalDate date,
+                           double quantity, double value) {
+
+  /**
+   * What happened to the stock of an ingredient.
+   */
+  public enum Type {
+    /**
+     * Bought and added to the fridge.
+     */
+    ADDED,
+    /**
+     * Used, e.g. removed from the fridge for cooking.
+     */
+    CONSUMED,
+    /**
+     * Thrown away because it expired.
+     */
+    WASTED
+  }
+}
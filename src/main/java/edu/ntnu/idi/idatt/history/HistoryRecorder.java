@@ -0,0 +1,115 @@
+package edu.ntnu.idi.idatt.history;
+
+import edu.ntnu.idi.idatt.history.HistoryEvent.Type;
+import edu.ntnu.idi.idatt.models.ExpiryScheduler;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.StorageListener;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Records the changes to one household's fridge in a {@link HistoryStore}. New items and larger
+ * quantities are recorded as added, smaller quantities as consumed, and items that expire as
+ * wasted. Removing an item that has already expired is not recorded again, since it was counted
+ * as waste when it expired. For the same reason, quantity added to an item that has already
+ * expired is recorded both as added and as wasted.
+ */
+public class HistoryRecorder implements StorageListener {
+
+  private final String household;
+  private final FoodStorage foodStorage;
+  private final ExpiryScheduler scheduler;
+  private final HistoryStore store;
+  private final Set<Ingredient> expired;
+  private final Consumer<Ingredient> expiryCallback;
+
+  private HistoryRecorder(String household, FoodStorage foodStorage, ExpiryScheduler scheduler,
+      HistoryStore store) {
+    this.household = household;
+    this.foodStorage = foodStorage;
+    this.scheduler = scheduler;
+    this.store = store;
+    this.expired = Collections.newSetFromMap(new IdentityHashMap<>());
+    this.expiryCallback = this::itemExpired;
+  }
+
+  /**
+   * Creates a recorder and starts recording the changes to a fridge. The recorder is registered
+   * with the fridge and the scheduler after it has been created, so no change is reported to a
+   * recorder that is not ready.
+   *
+   * @param household   the id of the household
+   * @param foodStorage the fridge of the household
+   * @param scheduler   the scheduler that reports when the items in the fridge expire
+   * @param store       the store to record the history in
+   * @return the recorder
+   * @throws IllegalArgumentException if any of the arguments is null
+   */
+  public static HistoryRecorder start(String household, FoodStorage foodStorage,
+      ExpiryScheduler scheduler, HistoryStore store) {
+    if (household == null || foodStorage == null || scheduler == null || store == null) {
+      throw new IllegalArgumentException(
+          "Household, food storage, scheduler and history store cannot be null");
+    }
+    HistoryRecorder recorder = new HistoryRecorder(household, foodStorage, scheduler, store);
+    scheduler.getExpiredItems().forEach(recorder.expired::add);
+    scheduler.onExpired(recorder.expiryCallback);
+    foodStorage.addListener(recorder);
+    return recorder;
+  }
+
+  /**
+   * Stops recording the changes to the fridge and the items that expire.
+   */
+  public void close() {
+    foodStorage.removeListener(this);
+    scheduler.removeOnExpired(expiryCallback);
+  }
+
+  /**
+   * Records an addition or a consumption when the quantity of an item changes.
+   *
+   * @param item   the item that was changed
+   * @param before the quantity of the item before the change
+   * @param after  the quantity of the item after the change
+   */
+  @Override
+  public synchronized void quantityChanged(Ingredient item, double before, double after) {
+    double change = after - before;
+    if (expired.contains(item)) {
+      if (after <= 0) {
+        expired.remove(item);
+      }
+      if (change > 0) {
+        // Mengde lagt til en utgått vare er både lagt til og kastet
+        record(Type.ADDED, item, change);
+        if (before > 0) {
+          // En ny vare som allerede er utgått ble telt som kastet da den ble lagt til
+          record(Type.WASTED, item, change);
+        }
+      }
+      return;
+    }
+    if (change != 0) {
+      record(change > 0 ? Type.ADDED : Type.CONSUMED, item, Math.abs(change));
+    }
+  }
+
+  private synchronized void itemExpired(Ingredient item) {
+    expired.add(item);
+    record(Type.WASTED, item, item.getQuantityItem());
+  }
+
+  private void record(Type type, Ingredient item, double quantity) {
+    store.record(type, household, item.getNameItem(), today(), quantity,
+        quantity * item.getPricePerUnit());
+  }
+
+  private LocalDate today() {
+    return LocalDate.now(foodStorage.getClock());
+  }
+}
@@ -0,0 +1,295 @@
+package edu.ntnu.idi.idatt.history;
+
+import edu.ntnu.idi.idatt.history.HistoryEvent.Type;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Stores the history of additions, consumption and waste for many households, so that waste can
+ * be analyzed over time.
+ *
+ * <p>Events are stored in columnar segments of {@link #SEGMENT_SIZE} events, with one primitive
+ * array per field, and ingredient names and household ids are stored once in dictionaries. Every
+ * event is also added to daily, weekly and monthly rollups with the total quantity and value per
+ * ingredient and type. A query over a date range is answered from the largest rollups that fit
+ * inside the range, so asking for a year of waste only reads about twelve monthly totals per
+ * ingredient, no matter how many events were recorded.</p>
+ */
+public class HistoryStore {
+
+  /**
+   * The number of events in one segment.
+   */
+  static final int SEGMENT_SIZE = 4096;
+
+  private static final Type[] TYPES = Type.values();
+
+  private final List<Segment> segments;
+  private final Dictionary ingredients;
+  private final Dictionary households;
+  private final Rollup daily;
+  private final Rollup weekly;
+  private final Rollup monthly;
+  private long eventCount;
+
+  /**
+   * Constructor that initializes an empty history.
+   */
+  public HistoryStore() {
+    this.segments = new ArrayList<>();
+    this.ingredients = new Dictionary();
+    this.households = new Dictionary();
+    this.daily = new Rollup(day -> day);
+    this.weekly = new Rollup(day -> LocalDate.ofEpochDay(day).with(DayOfWeek.MONDAY).toEpochDay());
+    this.monthly = new Rollup(day -> LocalDate.ofEpochDay(day).withDayOfMonth(1).toEpochDay());
+  }
+
+  /**
+   * Records one event.
+   *
+   * @param type       what happened to the stock
+   * @param household  the id of the household
+   * @param ingredient the name of the ingredient
+   * @param date       the day it happened
+   * @param quantity   the quantity that was added, used or thrown away
+   * @param value      the value of the quantity
+   * @throws IllegalArgumentException if the type, household, ingredient or date is null, or the
+   *                                  quantity is negative
+   */
+  public synchronized void record(Type type, String household, String ingredient, LocalDate date,
+      double quantity, double value) {
+    if (type == null || household == null || ingredient == null || date == null) {
+      throw new IllegalArgumentException("Type, household, ingredient and date cannot be null");
+    }
+    if (quantity < 0) {
+      throw new IllegalArgumentException("Quantity cannot be negative");
+    }
+    int ingredientId = ingredients.idOf(ingredient);
+    int householdId = households.idOf(household);
+    long day = date.toEpochDay();
+
+    Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    if (segment == null || segment.size == SEGMENT_SIZE) {
+      segment = new Segment();
+      segments.add(segment);
+    }
+    segment.add((byte) type.ordinal(), householdId, ingredientId, day, quantity, value);
+    eventCount++;
+
+    daily.add(day, ingredientId, type, quantity, value);
+    weekly.add(day, ingredientId, type, quantity, value);
+    monthly.add(day, ingredientId, type, quantity, value);
+  }
+
+  /**
+   * Returns the number of recorded events.
+   *
+   * @return the number of events
+   */
+  public synchronized long getEventCount() {
+    return eventCount;
+  }
+
+  /**
+   * Returns the total value per ingredient for one type of event in a date range, e.g. the waste
+   * value per ingredient for the last 12 months.
+   *
+   * @param type the type of event
+   * @param from the first day of the range
+   * @param to   the last day of the range
+   * @return the value per ingredient, for the ingredients that have any events in the range
+   * @throws IllegalArgumentException if the type or a date is null, or the range is empty
+   */
+  public synchronized Map<String, Double> getValueByIngredient(Type type, LocalDate from,
+      LocalDate to) {
+    return totalsByIngredient(type, from, to, true);
+  }
+
+  /**
+   * Returns the total quantity per ingredient for one type of event in a date range.
+   *
+   * @param type the type of event
+   * @param from the first day of the range
+   * @param to   the last day of the range
+   * @return the quantity per ingredient, for the ingredients that have any events in the range
+   * @throws IllegalArgumentException if the type or a date is null, or the range is empty
+   */
+  public synchronized Map<String, Double> getQuantityByIngredient(Type type, LocalDate from,
+      LocalDate to) {
+    return totalsByIngredient(type, from, to, false);
+  }
+
+  /**
+   * Returns the events of one household in a date range, in the order they were recorded.
+   *
+   * @param household the id of the household
+   * @param from      the first day of the range
+   * @param to        the last day of the range
+   * @return the events of the household
+   * @throws IllegalArgumentException if the household or a date is null, or the range is empty
+   */
+  public synchronized List<HistoryEvent> getEvents(String household, LocalDate from,
+      LocalDate to) {
+    checkRange(from, to);
+    if (household == null) {
+      throw new IllegalArgumentException("Household cannot be null");
+    }
+    List<HistoryEvent> result = new ArrayList<>();
+    int householdId = households.find(household);
+    if (householdId < 0) {
+      return result;
+    }
+    long first = from.toEpochDay();
+    long last = to.toEpochDay();
+    for (Segment segment : segments) {
+      if (segment.maxDay < first || segment.minDay > last) {
+        continue; // Hele segmentet er utenfor perioden
+      }
+      for (int i = 0; i < segment.size; i++) {
+        if (segment.households[i] == householdId && segment.days[i] >= first
+            && segment.days[i] <= last) {
+          result.add(new HistoryEvent(TYPES[segment.types[i]], households.nameOf(householdId),
+              ingredients.nameOf(segment.ingredients[i]), LocalDate.ofEpochDay(segment.days[i]),
+              segment.quantities[i], segment.values[i]));
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sums the rollups that cover a date range, using a monthly total when a whole month is inside
+   * the range, otherwise a weekly total when a whole week is inside, and daily totals for the rest.
+   */
+  private Map<String, Double> totalsByIngredient(Type type, LocalDate from, LocalDate to,
+      boolean value) {
+    checkRange(from, to);
+    if (type == null) {
+      throw new IllegalArgumentException("Type cannot be null");
+    }
+    int column = type.ordinal() * 2 + (value ? 1 : 0);
+    Map<Integer, Double> totals = new HashMap<>();
+    LocalDate cursor = from;
+    while (!cursor.isAfter(to)) {
+      LocalDate next;
+      Rollup rollup;
+      if (cursor.getDayOfMonth() == 1 && !cursor.plusMonths(1).minusDays(1).isAfter(to)) {
+        rollup = monthly;
+        next = cursor.plusMonths(1);
+      } else if (cursor.getDayOfWeek() == DayOfWeek.MONDAY && !cursor.plusDays(6).isAfter(to)) {
+        rollup = weekly;
+        next = cursor.plusWeeks(1);
+      } else {
+        rollup = daily;
+        next = cursor.plusDays(1);
+      }
+      Map<Integer, double[]> period = rollup.periods.get(cursor.toEpochDay());
+      if (period != null) {
+        period.forEach((id, sums) -> {
+          if (sums[column] != 0) {
+            totals.merge(id, sums[column], Double::sum);
+          }
+        });
+      }
+      cursor = next;
+    }
+
+    Map<String, Double> result = new LinkedHashMap<>();
+    totals.entrySet().stream()
+        .sorted(Map.Entry.<Integer, Double>comparingByValue().reversed())
+        .forEach(entry -> result.put(ingredients.nameOf(entry.getKey()), entry.getValue()));
+    return result;
+  }
+
+  private static void checkRange(LocalDate from, LocalDate to) {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Dates cannot be null");
+    }
+    if (from.isAfter(to)) {
+      throw new IllegalArgumentException("The start date cannot be after the end date");
+    }
+  }
+
+  /**
+   * A block of events, stored as one array per field.
+   */
+  private static final class Segment {
+
+    private final byte[] types = new byte[SEGMENT_SIZE];
+    private final int[] households = new int[SEGMENT_SIZE];
+    private final int[] ingredients = new int[SEGMENT_SIZE];
+    private final long[] days = new long[SEGMENT_SIZE];
+    private final double[] quantities = new double[SEGMENT_SIZE];
+    private final double[] values = new double[SEGMENT_SIZE];
+    private long minDay = Long.MAX_VALUE;
+    private long maxDay = Long.MIN_VALUE;
+    private int size;
+
+    private void add(byte type, int household, int ingredient, long day, double quantity,
+        double value) {
+      types[size] = type;
+      households[size] = household;
+      ingredients[size] = ingredient;
+      days[size] = day;
+      quantities[size] = quantity;
+      values[size] = value;
+      minDay = Math.min(minDay, day);
+      maxDay = Math.max(maxDay, day);
+      size++;
+    }
+  }
+
+  /**
+   * Totals per period and ingredient. The totals of an ingredient are stored as quantity and value
+   * for each type of event, in the order of {@link Type}.
+   */
+  private static final class Rollup {
+
+    private final LongUnaryOperator periodStart;
+    private final TreeMap<Long, Map<Integer, double[]>> periods = new TreeMap<>();
+
+    private Rollup(LongUnaryOperator periodStart) {
+      this.periodStart = periodStart;
+    }
+
+    private void add(long day, int ingredient, Type type, double quantity, double value) {
+      double[] sums = periods.computeIfAbsent(periodStart.applyAsLong(day), p -> new HashMap<>())
+          .computeIfAbsent(ingredient, i -> new double[TYPES.length * 2]);
+      sums[type.ordinal() * 2] += quantity;
+      sums[type.ordinal() * 2 + 1] += value;
+    }
+  }
+
+  /**
+   * Gives every name a small number, so that names are stored once. Names are compared without
+   * regard to case, and the first spelling seen is kept.
+   */
+  private static final class Dictionary {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    private int idOf(String name) {
+      return ids.computeIfAbsent(name.toLowerCase(Locale.ROOT), key -> {
+        names.add(name);
+        return names.size() - 1;
+      });
+    }
+
+    private int find(String name) {
+      return ids.getOrDefault(name.toLowerCase(Locale.ROOT), -1);
+    }
+
+    private String nameOf(int id) {
+      return names.get(id);
+    }
+  }
+}
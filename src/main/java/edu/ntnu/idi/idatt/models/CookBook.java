@@ -1,26 +1,155 @@
 package edu.ntnu.idi.idatt.models;
 
+import edu.ntnu.idi.idatt.monitoring.CookBookEvent;
+import edu.ntnu.idi.idatt.utils.QueryCache;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 /**
  * Represents the "CookBook" part of the application that manages recipes. It allows users to store,
  * add, remove or expand a recipe.
+ *
+ * <p>The queries do not change any shared state of the cookbook: results that read a fridge are
+ * cached with the fridge, and the other caches are replaced as a whole or locked. A cookbook can
+ * therefore be queried from several threads at the same time, as long as no thread adds or removes
+ * recipes or changes the substitutions while it is queried, and each fridge is only used by one
+ * thread at a time.</p>
  */
 public class CookBook {
 
+  private static final double QUANTITY_TOLERANCE = 1e-9;
+
+  /**
+   * The default number of bands in the similarity index. With {@link #DEFAULT_ROWS} rows, recipes
+   * with a similarity above about 0.5 are likely to be found.
+   */
+  public static final int DEFAULT_BANDS = 16;
+
+  /**
+   * The default number of signature values in each band of the similarity index.
+   */
+  public static final int DEFAULT_ROWS = 4;
+
   /**
    * A list of recipes in the cookbook. This list stores all the recipes that have been added by the
    * user.
    */
   private final List<Recipe> recipes;
 
+  /**
+   * The recipes in the cookbook by lower case name, so a recipe can be found without searching
+   * through the whole list.
+   */
+  private final Map<String, Recipe> recipesByName;
+
+  /**
+   * The modification version of the cookbook. It is increased every time a recipe is added or
+   * removed.
+   */
+  private long version;
+
+  /**
+   * Cache for results of repeated queries that do not read a fridge, such as expanding the same
+   * recipe again. Results that read a fridge are cached with the fridge (see
+   * {@link FoodStorage#cacheFor(CookBook)}).
+   */
+  private final QueryCache<Object, Object> queryCache;
+
+  /**
+   * Listeners that are notified every time a recipe is added or removed.
+   */
+  private final List<RecipeListener> listeners;
+
+  /**
+   * Ingredients that can be used instead of the ingredients of a recipe when checking if it can be
+   * made.
+   */
+  private final SubstitutionGraph substitutions;
+
+  /**
+   * The requirements of all recipes by ingredient id, used by
+   * {@link #suggestNearMisses(FoodStorage, int)}. Built the first time it is needed after the
+   * recipes or the substitutions change, and replaced as a whole, so that readers on other threads
+   * never see an index that is half built. Null until it is first needed.
+   */
+  private volatile IngredientIndex ingredientIndex;
+
+  /**
+   * MinHash signatures of the ingredients of every recipe, used to find similar recipes.
+   */
+  private final SimilarityIndex similarityIndex;
+
   /**
    * Constructor that initializes the cookbook with an empty list of recipes.
    */
   public CookBook() {
+    this(DEFAULT_BANDS, DEFAULT_ROWS);
+  }
+
+  /**
+   * Constructor that initializes the cookbook with an empty list of recipes, and a similarity
+   * index with the given number of bands and rows (see
+   * {@link #findSimilarRecipes(String, int)}). More bands find more of the similar recipes but are
+   * slower, and more rows are faster but only find recipes that are more similar.
+   *
+   * @param bands the number of bands in the similarity index
+   * @param rows  the number of signature values in each band
+   * @throws IllegalArgumentException if the number of bands or rows is not positive
+   */
+  public CookBook(int bands, int rows) {
+    if (bands <= 0 || rows <= 0) {
+      throw new IllegalArgumentException("Bands and rows must be greater than zero");
+    }
     this.recipes = new ArrayList<>();
+    this.recipesByName = new HashMap<>();
+    this.queryCache = new QueryCache<>(256);
+    this.listeners = new ArrayList<>();
+    this.substitutions = new SubstitutionGraph();
+    this.similarityIndex = new SimilarityIndex(bands, rows);
+  }
+
+  /**
+   * Returns the substitutions the cookbook uses when checking if recipes can be made, which can be
+   * changed to add or remove substitutes. Results are computed again after it changes.
+   *
+   * @return the substitution graph of the cookbook
+   */
+  public SubstitutionGraph getSubstitutions() {
+    return substitutions;
+  }
+
+  /**
+   * Registers a listener that is notified every time a recipe is added or removed.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null
+   */
+  public void addListener(RecipeListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener that was added with {@link #addListener(RecipeListener)}.
+   *
+   * @param listener the listener to remove
+   */
+  public void removeListener(RecipeListener listener) {
+    listeners.remove(listener);
   }
 
   /**
@@ -32,6 +161,26 @@ public class CookBook {
     return new ArrayList<>(recipes);
   }
 
+  /**
+   * Checks if the cookbook has a recipe with the given name (case-insensitive).
+   *
+   * @param recipeName the name of the recipe
+   * @return true if the recipe is in the cookbook, false otherwise
+   */
+  public boolean hasRecipe(String recipeName) {
+    return recipesByName.containsKey(key(recipeName));
+  }
+
+  /**
+   * Returns the modification version of the cookbook. The version never decreases and is increased
+   * every time a recipe is added or removed.
+   *
+   * @return the current modification version
+   */
+  public long getVersion() {
+    return version;
+  }
+
   /**
    * Expands and displays a specific recipe with its details which includes its instructions and
    * ingredients.
@@ -41,7 +190,20 @@ public class CookBook {
    * @throws IllegalArgumentException if the recipe is not found in the cookbook.
    */
   public String expandRecipe(String recipeName) {
-    Recipe recipe = findRecipeByName(recipeName);
+    CookBookEvent event = beginEvent();
+    String details = (String) queryCache.get(new ExpandQuery(key(recipeName)), version,
+        () -> buildRecipeDetails(findRecipeByName(recipeName)));
+    commitEvent(event, "expandRecipe", recipeName, 1);
+    return details;
+  }
+
+  /**
+   * Builds the full details of a recipe, used by {@link #expandRecipe(String)}.
+   *
+   * @param recipe the recipe to build the details for.
+   * @return a formatted string with full details of the recipe.
+   */
+  private String buildRecipeDetails(Recipe recipe) {
     // StringBuilder, endrer innhold uten å opprette nye objekter (mutable), *ChatGPT
     StringBuilder details = new StringBuilder();
     details.append("Recipe name: ").append(recipe.getNameRecipe()).append("\n")
@@ -49,12 +211,13 @@ public class CookBook {
         .append("Recipe instructions: ").append(recipe.getInstructionsRecipe()).append("\n")
         .append("Ingredients: \n");
 
-    recipe.getIngredientsRecipe().forEach(ingredient ->
-        details.append(String.format("- %s: %.2f %s",
-            ingredient.getNameItem(),
-            ingredient.getQuantityItem(),
-            ingredient.getUnitItem()))
-    );
+    Requirements requirements = recipe.getRequirements();
+    for (int i = 0; i < requirements.size(); i++) {
+      details.append(String.format("- %s: %.2f %s",
+          requirements.name(i),
+          requirements.quantity(i),
+          Units.nameOf(requirements.unitId(i))));
+    }
     details.append("Servings: ").append(recipe.getServingsRecipe()).append("\n");
     return details.toString();
   }
@@ -78,14 +241,19 @@ public class CookBook {
     if (newRecipe.getIngredientsRecipe() == null || newRecipe.getIngredientsRecipe().isEmpty()) {
       throw new IllegalArgumentException("A recipe must at least have one ingredient");
     }
-    if (recipes.stream()
-        .anyMatch(r -> r.getNameRecipe().equalsIgnoreCase(newRecipe.getNameRecipe()))) {
+    if (recipesByName.containsKey(key(newRecipe.getNameRecipe()))) {
       throw new IllegalArgumentException(
           String.format("A recipe with the name '%s' already exist in the cookbook"
               + ". Try with a different name.", newRecipe.getNameRecipe()));
     }
 
+    CookBookEvent event = beginEvent();
     recipes.add(newRecipe);
+    recipesByName.put(key(newRecipe.getNameRecipe()), newRecipe);
+    similarityIndex.add(newRecipe);
+    version++;
+    notifyListeners(newRecipe, 0, newRecipe.getServingsRecipe());
+    commitEvent(event, "addRecipe", newRecipe.getNameRecipe(), 1);
     return String.format("The recipe '%s' is added to the cookbook.", newRecipe.getNameRecipe());
   }
 
@@ -97,13 +265,21 @@ public class CookBook {
    * @throws IllegalArgumentException if the recipe does not exist in the cookbook.
    */
   public String removeRecipe(String recipeName) {
+    CookBookEvent event = beginEvent();
     Recipe recipeToRemove = findRecipeByName(recipeName);
     recipes.remove(recipeToRemove);
+    recipesByName.remove(key(recipeToRemove.getNameRecipe()));
+    similarityIndex.remove(recipeToRemove);
+    version++;
+    notifyListeners(recipeToRemove, recipeToRemove.getServingsRecipe(), 0);
+    commitEvent(event, "removeRecipe", recipeName, 1);
     return String.format("The recipe '%s' is removed from the cookbook.", recipeName);
   }
 
   /**
-   * Checking if a recipe kan be made by items/ingredients in the "fridge".
+   * Checking if a recipe kan be made by items/ingredients in the "fridge". Ingredients that are
+   * missing can be replaced by their substitutes (see {@link #getSubstitutions()}), and the message
+   * then tells which substitutes are used.
    *
    * @param recipeName  the name of the recipe to check
    * @param foodStorage the "fridge" to check for available ingredients
@@ -111,29 +287,350 @@ public class CookBook {
    * @throws IllegalArgumentException if the recipe does not exist in the cookbook.
    */
   public String canMakeRecipe(String recipeName, FoodStorage foodStorage) {
+    CookBookEvent event = beginEvent();
     Recipe recipe = findRecipeByName(recipeName);
+    String result = (String) foodStorage.cacheFor(this).queries().get(
+        new CanMakeQuery(recipeName), stamp(recipe, foodStorage),
+        () -> checkRecipe(recipe, recipeName, foodStorage, event));
+    commitEvent(event, "canMakeRecipe", recipeName, 1);
+    return result;
+  }
+
+  /**
+   * Builds the message for {@link #canMakeRecipe(String, FoodStorage)}.
+   *
+   * @param recipe      the recipe to check
+   * @param recipeName  the name of the recipe as given by the user
+   * @param foodStorage the "fridge" to check for available ingredients
+   * @param event       the event of the operation, which counts the lots that are read
+   * @return a message indicating whether the recipe can be made, or which ingredients are missing.
+   */
+  private String checkRecipe(Recipe recipe, String recipeName, FoodStorage foodStorage,
+      CookBookEvent event) {
     StringBuilder result = new StringBuilder();
-    boolean canMake = recipe.getIngredientsRecipe().stream()
-        .allMatch(ingredient -> isIngredientAvailable(ingredient, foodStorage, result));
+    StringBuilder substituted = new StringBuilder();
+    Requirements requirements = recipe.getRequirements();
+    Map<Integer, Double> firstLots = firstLots(foodStorage, event);
+    SubstitutionGraph.Snapshot graph = substitutions.snapshot();
+    boolean canMake = true;
+    for (int i = 0; i < requirements.size() && canMake; i++) {
+      canMake = isIngredientAvailable(requirements, i, firstLots, graph, result, substituted);
+    }
 
     if (canMake) {
-      return "You have all the ingredients to make " + recipeName + "!\n";
+      return "You have all the ingredients to make " + recipeName + "!\n" + substituted;
     }
     result.insert(0, "You do not have all the ingredients to make " + recipeName + "\n");
     return result.toString();
   }
 
   /**
-   * Returns a list of suggested recipes based by items/ingredients in the "fridge".
+   * Returns a list of suggested recipes based by items/ingredients in the "fridge". Substitutes
+   * (see {@link #getSubstitutions()}) are accepted for missing ingredients.
    *
    * @param foodStorage the "fridge" to check for available ingredients
    * @return a list of recipe names that can be made
    */
+  @SuppressWarnings("unchecked")
   public List<String> suggestRecipe(FoodStorage foodStorage) {
-    return recipes.stream()
-        .filter(recipe -> canMake(recipe, foodStorage))
-        .map(Recipe::getNameRecipe)
-        .collect(Collectors.toList());
+    CookBookEvent event = beginEvent();
+    List<String> cached = (List<String>) foodStorage.cacheFor(this).queries().get(
+        new SuggestQuery(), stamp(foodStorage),
+        () -> {
+          Map<Integer, Double> largestLots = largestLots(foodStorage, event);
+          SubstitutionGraph.Snapshot graph = substitutions.snapshot();
+          return recipes.stream()
+              .filter(recipe -> canMake(recipe, largestLots, graph))
+              .map(Recipe::getNameRecipe)
+              .toList();
+        });
+    commitEvent(event, "suggestRecipe", null, cached.size());
+    return new ArrayList<>(cached);
+  }
+
+  /**
+   * Returns the recipes that can be made if at most a number of ingredients are bought, so that the
+   * user can see what to buy to make more recipes. An ingredient counts as in stock in the same way
+   * as in {@link #suggestRecipe(FoodStorage)}, so substitutes are accepted. The recipes with the
+   * fewest missing ingredients come first, then the ones with the smallest missing part of those
+   * ingredients.
+   *
+   * <p>Each ingredient in the fridge adds to a counter for every recipe that uses it, through an
+   * index from ingredient to recipe, so this costs about as much as {@link #suggestRecipe}
+   * whatever the number of missing ingredients allowed.</p>
+   *
+   * @param foodStorage the "fridge" to check for available ingredients
+   * @param maxMissing  the largest number of missing ingredients, where 0 gives only the recipes
+   *                    that can be made
+   * @return the recipes missing at most {@code maxMissing} ingredients, best first
+   * @throws IllegalArgumentException if the fridge is null or the number of missing ingredients is
+   *                                  negative
+   */
+  @SuppressWarnings("unchecked")
+  public List<NearMiss> suggestNearMisses(FoodStorage foodStorage, int maxMissing) {
+    if (foodStorage == null) {
+      throw new IllegalArgumentException("Food storage cannot be null");
+    }
+    if (maxMissing < 0) {
+      throw new IllegalArgumentException("Number of missing ingredients cannot be negative");
+    }
+    CookBookEvent event = beginEvent();
+    List<NearMiss> cached = (List<NearMiss>) foodStorage.cacheFor(this).queries().get(
+        new NearMissQuery(maxMissing), stamp(foodStorage),
+        () -> nearMisses(largestLots(foodStorage, event), maxMissing));
+    commitEvent(event, "suggestNearMisses", null, cached.size());
+    return new ArrayList<>(cached);
+  }
+
+  /**
+   * Finds the largest number of servings of a recipe that can be made with the items in the
+   * fridge. The quantities in the recipe are for {@link Recipe#getServingsRecipe()} servings, and
+   * are scaled to the number of servings. All items in the fridge with the same name as an
+   * ingredient are counted together, after converting them to the canonical unit of the
+   * ingredient (see {@link Units}). Items in a unit that cannot be converted are not counted.
+   * Items of the substitutes of an ingredient (see {@link #getSubstitutions()}) are counted too.
+   *
+   * @param recipe      the recipe to check
+   * @param foodStorage the "fridge" to check for available ingredients
+   * @return the largest number of servings that can be made, or zero if none can be made
+   * @throws IllegalArgumentException if the recipe or the fridge is null
+   */
+  public int maxServings(Recipe recipe, FoodStorage foodStorage) {
+    if (recipe == null || foodStorage == null) {
+      throw new IllegalArgumentException("Recipe and food storage cannot be null");
+    }
+    CookBookEvent event = beginEvent();
+    int result = maxServings(recipe, canonicalTotals(foodStorage, event),
+        substitutions.snapshot());
+    commitEvent(event, "maxServings", recipe.getNameRecipe(), 1);
+    return result;
+  }
+
+  /**
+   * Checks if a number of servings of a recipe can be made with the items in the fridge. The
+   * quantities in the recipe are scaled to the number of servings.
+   *
+   * @param recipe      the recipe to check
+   * @param servings    the number of servings to make
+   * @param foodStorage the "fridge" to check for available ingredients
+   * @return true if there is enough of every ingredient, false otherwise
+   * @throws IllegalArgumentException if the recipe or the fridge is null, or the servings is not
+   *                                  positive
+   */
+  public boolean canMake(Recipe recipe, int servings, FoodStorage foodStorage) {
+    if (servings <= 0) {
+      throw new IllegalArgumentException("Servings must be greater than zero");
+    }
+    return maxServings(recipe, foodStorage) >= servings;
+  }
+
+  /**
+   * Finds the largest number of servings of every recipe in the cookbook that can be made with
+   * the items in the fridge. The fridge is only read once, and the total quantity of each
+   * ingredient is then looked up for every recipe.
+   *
+   * @param foodStorage the "fridge" to check for available ingredients
+   * @return the largest number of servings by recipe name, in the order of the recipes
+   * @throws IllegalArgumentException if the fridge is null
+   */
+  @SuppressWarnings("unchecked")
+  public Map<String, Integer> maxServingsForAll(FoodStorage foodStorage) {
+    if (foodStorage == null) {
+      throw new IllegalArgumentException("Food storage cannot be null");
+    }
+    CookBookEvent event = beginEvent();
+    Map<String, Integer> cached = (Map<String, Integer>) foodStorage.cacheFor(this).queries().get(
+        new MaxServingsQuery(), stamp(foodStorage), () -> {
+          Map<Long, Double> available = canonicalTotals(foodStorage, event);
+          SubstitutionGraph.Snapshot graph = substitutions.snapshot();
+          Map<String, Integer> servings = new LinkedHashMap<>();
+          for (Recipe recipe : recipes) {
+            servings.put(recipe.getNameRecipe(), maxServings(recipe, available, graph));
+          }
+          return Collections.unmodifiableMap(servings);
+        });
+    commitEvent(event, "maxServingsForAll", null, cached.size());
+    return new LinkedHashMap<>(cached);
+  }
+
+  /**
+   * Creates a shopping list for a meal plan. The ingredients of all the planned recipes are scaled
+   * to the planned servings and added up per ingredient and canonical unit (see {@link Units}), and
+   * the stock in the fridge with the same name and canonical unit is subtracted. Names are compared
+   * without regard to case. The quantity to buy is given in the unit the ingredient was first
+   * written in.
+   *
+   * @param plan        the recipes to make, with the number of servings of each
+   * @param foodStorage the "fridge" with the current stock
+   * @return the quantity to buy of every ingredient there is not enough of, in the order the
+   *         ingredients first appear in the plan
+   * @throws IllegalArgumentException if the plan or the fridge is null
+   */
+  public List<ShoppingItem> createShoppingList(List<PlannedRecipe> plan,
+      FoodStorage foodStorage) {
+    if (plan == null || foodStorage == null) {
+      throw new IllegalArgumentException("Plan and food storage cannot be null");
+    }
+    CookBookEvent event = beginEvent();
+    Map<Long, ShoppingTotal> needed = new LinkedHashMap<>();
+    for (PlannedRecipe planned : plan) {
+      Requirements requirements = planned.recipe().getRequirements();
+      double scale = (double) planned.servings() / planned.recipe().getServingsRecipe();
+      for (int i = 0; i < requirements.size(); i++) {
+        int index = i;
+        needed.computeIfAbsent(
+                stockKey(requirements.ingredientId(i), Units.canonicalId(requirements.unitId(i))),
+                k -> new ShoppingTotal(requirements.name(index), requirements.unitId(index)))
+            .quantity += requirements.canonicalQuantity(i) * scale;
+      }
+    }
+    // Trekker fra det som allerede er i kjøleskapet, med én gjennomgang av varene
+    for (Ingredient item : foodStorage.getItems()) {
+      event.lotsScanned++;
+      int ingredientId = Requirements.findIngredientId(item.getNameItem());
+      if (ingredientId >= 0) {
+        int unitId = Units.idOf(item.getUnitItem());
+        ShoppingTotal total = needed.get(stockKey(ingredientId, Units.canonicalId(unitId)));
+        if (total != null) {
+          total.quantity -= Units.toCanonical(item.getQuantityItem(), unitId);
+        }
+      }
+    }
+
+    List<ShoppingItem> result = new ArrayList<>();
+    for (ShoppingTotal total : needed.values()) {
+      double quantity = total.quantity / Units.factor(total.unitId);
+      if (quantity > QUANTITY_TOLERANCE) {
+        result.add(new ShoppingItem(total.name, quantity, Units.nameOf(total.unitId)));
+      }
+    }
+    commitEvent(event, "createShoppingList", null, result.size());
+    return result;
+  }
+
+  /**
+   * Finds what a recipe costs to make with the items in the fridge. The ingredients are taken from
+   * the items that expire first, in the same order as {@link FoodStorage#removeItem(String,
+   * double)} would use them, and each item is priced at its own price per unit. Items in a unit
+   * that cannot be converted to the unit of the ingredient are not used (see {@link Units}). The
+   * fridge is not changed.
+   *
+   * <p>The result is cached, and is only computed again when an item of one of the ingredients
+   * of the recipe changes. Adding, removing or changing other recipes does not affect it.</p>
+   *
+   * @param recipeName  the name of the recipe
+   * @param foodStorage the "fridge" with the items to use
+   * @return the cost of the recipe, and the ingredients there is not enough of
+   * @throws IllegalArgumentException if the recipe does not exist, or the fridge is null
+   */
+  public RecipeCost costRecipe(String recipeName, FoodStorage foodStorage) {
+    if (foodStorage == null) {
+      throw new IllegalArgumentException("Food storage cannot be null");
+    }
+    CookBookEvent event = beginEvent();
+    Recipe recipe = findRecipeByName(recipeName);
+    CookBookCache cache = foodStorage.cacheFor(this);
+    cache.retainCosts(version, recipes);
+    long[] versions = ingredientVersions(recipe, foodStorage);
+    RecipeCost result = cache.cost(recipe, versions);
+    if (result == null) {
+      result = cost(recipe, lotsByIngredient(List.of(recipe), foodStorage, event));
+      cache.putCost(recipe, versions, result);
+    }
+    commitEvent(event, "costRecipe", recipeName, 1);
+    return result;
+  }
+
+  /**
+   * Finds what every recipe in the cookbook costs to make with the items in the fridge, see
+   * {@link #costRecipe(String, FoodStorage)}. The fridge is read once, and the recipes are then
+   * costed in parallel. Recipes whose ingredients have not changed since they were last costed are
+   * taken from the cache, and the fridge is only read for the ingredients of the other recipes.
+   *
+   * @param foodStorage the "fridge" with the items to use
+   * @return the cost of every recipe by recipe name, in the order of the recipes
+   * @throws IllegalArgumentException if the fridge is null
+   */
+  public Map<String, RecipeCost> costAllRecipes(FoodStorage foodStorage) {
+    if (foodStorage == null) {
+      throw new IllegalArgumentException("Food storage cannot be null");
+    }
+    CookBookEvent event = beginEvent();
+    CookBookCache cache = foodStorage.cacheFor(this);
+    cache.retainCosts(version, recipes);
+    RecipeCost[] costs = new RecipeCost[recipes.size()];
+    long[][] versions = new long[recipes.size()][];
+    List<Recipe> stale = new ArrayList<>();
+    IntStream.Builder staleIndexes = IntStream.builder();
+    for (int i = 0; i < costs.length; i++) {
+      versions[i] = ingredientVersions(recipes.get(i), foodStorage);
+      costs[i] = cache.cost(recipes.get(i), versions[i]);
+      if (costs[i] == null) {
+        stale.add(recipes.get(i));
+        staleIndexes.add(i);
+      }
+    }
+    if (!stale.isEmpty()) {
+      // Kjøleskapet er ikke trådsikkert, så alt leses før arbeidet deles på flere tråder
+      Map<Integer, List<Ingredient>> lots = lotsByIngredient(stale, foodStorage, event);
+      int[] indexes = staleIndexes.build().toArray();
+      List<RecipeCost> computed = Arrays.stream(indexes).parallel()
+          .mapToObj(i -> cost(recipes.get(i), lots))
+          .toList();
+      for (int j = 0; j < indexes.length; j++) {
+        costs[indexes[j]] = computed.get(j);
+        cache.putCost(recipes.get(indexes[j]), versions[indexes[j]], computed.get(j));
+      }
+    }
+    Map<String, RecipeCost> result = new LinkedHashMap<>();
+    for (RecipeCost cost : costs) {
+      result.put(cost.recipeName(), cost);
+    }
+    commitEvent(event, "costAllRecipes", null, result.size());
+    return result;
+  }
+
+  /**
+   * Finds the recipes with ingredients most like the ingredients of a recipe, measured by the
+   * Jaccard similarity of the sets of ingredient names. The search is approximate: only recipes
+   * that share a bucket with the recipe in the MinHash index are compared, so the time depends on
+   * the number of similar recipes and not on the size of the cookbook, but a recipe that is only a
+   * little similar may be missed. See {@link #CookBook(int, int)} for how to change the trade-off.
+   *
+   * @param recipeName the name of the recipe
+   * @param count      the largest number of recipes to return
+   * @return the most similar recipes, most similar first, not including the recipe itself
+   * @throws IllegalArgumentException if the recipe does not exist, or the count is not positive
+   */
+  public List<SimilarRecipe> findSimilarRecipes(String recipeName, int count) {
+    if (count <= 0) {
+      throw new IllegalArgumentException("Count must be greater than zero");
+    }
+    CookBookEvent event = beginEvent();
+    List<SimilarRecipe> result = similarityIndex.similarTo(findRecipeByName(recipeName), count);
+    commitEvent(event, "findSimilarRecipes", recipeName, result.size());
+    return result;
+  }
+
+  /**
+   * Finds the recipes most similar to a recipe by comparing it with every recipe in the cookbook.
+   * Gives the exact answer that {@link #findSimilarRecipes(String, int)} approximates, but the time
+   * grows with the size of the cookbook.
+   *
+   * @param recipeName the name of the recipe
+   * @param count      the largest number of recipes to return
+   * @return the most similar recipes that share at least one ingredient, most similar first
+   * @throws IllegalArgumentException if the recipe does not exist, or the count is not positive
+   */
+  public List<SimilarRecipe> findSimilarRecipesExact(String recipeName, int count) {
+    if (count <= 0) {
+      throw new IllegalArgumentException("Count must be greater than zero");
+    }
+    CookBookEvent event = beginEvent();
+    List<SimilarRecipe> result =
+        similarityIndex.exactSimilarTo(findRecipeByName(recipeName), count);
+    commitEvent(event, "findSimilarRecipesExact", recipeName, result.size());
+    return result;
   }
 
   // Ekstra metoder som kan bli gjenbrukt for å finne en oppskrift etter navn eller sjekke om det er
@@ -148,54 +645,562 @@ public class CookBook {
    * @throws IllegalArgumentException if the recipe does not exist in the cookbook
    */
   private Recipe findRecipeByName(String recipeName) {
-    return recipes.stream()
-        .filter(recipe -> recipe.getNameRecipe().equalsIgnoreCase(recipeName))
-        .findFirst()
-        .orElseThrow(() -> new IllegalArgumentException(
-            (String.format("The recipe '%s' does not exist in the cookbook.", recipeName))
-        ));
+    Recipe recipe = recipesByName.get(key(recipeName));
+    if (recipe == null) {
+      throw new IllegalArgumentException(
+          String.format("The recipe '%s' does not exist in the cookbook.", recipeName));
+    }
+    return recipe;
+  }
+
+  /**
+   * Returns the key used to look up a recipe by name, so that the lookup is case-insensitive.
+   *
+   * @param recipeName the name of the recipe
+   * @return the lower case name, or null if the name is null
+   */
+  private static String key(String recipeName) {
+    return recipeName == null ? null : recipeName.toLowerCase(Locale.ROOT);
   }
 
   /**
-   * Checking if a specific ingredient is available in the fridge.
+   * Checking if a specific ingredient is available in the fridge. Like before, only the first item
+   * in the fridge with the same name is looked at. If there is not enough of the ingredient, a
+   * substitute from the substitution graph can be used instead.
    *
-   * @param ingredient  the ingredient to check
-   * @param foodStorage the fridge to check for the ingredient
-   * @param result      the result to update if the ingredient is not available
+   * @param requirements the ingredients of the recipe
+   * @param index        the index of the ingredient to check
+   * @param firstLots    the quantity of the first item in the fridge by ingredient id
+   * @param graph        the substitutions to use
+   * @param result       the result to update if the ingredient is not available
+   * @param substituted  the result to update if a substitute is used
    * @return true if the ingredient is available, false otherwise
    */
-  private boolean isIngredientAvailable(Ingredient ingredient, FoodStorage foodStorage,
-      StringBuilder result) {
+  private boolean isIngredientAvailable(Requirements requirements, int index,
+      Map<Integer, Double> firstLots, SubstitutionGraph.Snapshot graph, StringBuilder result,
+      StringBuilder substituted) {
     // Sjekker om alle ingredienser er i kjøleskapet
-    Ingredient available = foodStorage.getItems().stream()
-        .filter(item -> item.getNameItem().equalsIgnoreCase(ingredient.getNameItem()))
-        .findFirst()
-        .orElse(null);
+    Double available = firstLots.get(requirements.ingredientId(index));
+    double needed = requirements.quantity(index);
+    if (available != null && available >= needed) {
+      return true;
+    }
+    int substitute = findSubstitute(requirements.ingredientId(index), needed, firstLots, graph);
+    if (substitute >= 0) {
+      substituted.append(String.format("Using %s instead of %s\n",
+          graph.nameOf(substitute), requirements.name(index)));
+      return true;
+    }
 
     // Hvis ingrediensene ikke finnes eller det er for lite av den
-    if (available == null || available.getQuantityItem() < ingredient.getQuantityItem()) {
-      double missingAmount =
-          ingredient.getQuantityItem() - (available == null ? 0 : available.getQuantityItem());
-      result.append(String.format("Missing: %s (you need %.2f %s)",
-          ingredient.getNameItem(), missingAmount, ingredient.getUnitItem()));
-      return false;
+    double missingAmount = needed - (available == null ? 0 : available);
+    result.append(String.format("Missing: %s (you need %.2f %s)",
+        requirements.name(index), missingAmount, Units.nameOf(requirements.unitId(index))));
+    return false;
+  }
+
+  /**
+   * Finds a substitute for an ingredient with enough in one item, after the ratio of the
+   * substitute is applied. Ingredients without substitutes are answered from an empty set, so this
+   * costs almost nothing when no substitutions are set up.
+   *
+   * @param ingredientId the ingredient to replace
+   * @param needed       the quantity of the ingredient that is needed
+   * @param lots         the quantity of an item in the fridge by ingredient id
+   * @param graph        the substitutions to use
+   * @return the ingredient id of the substitute, or -1 if no substitute can be used
+   */
+  private static int findSubstitute(int ingredientId, double needed, Map<Integer, Double> lots,
+      SubstitutionGraph.Snapshot graph) {
+    BitSet substitutes = graph.substitutesOf(ingredientId);
+    for (int id = substitutes.nextSetBit(0); id >= 0; id = substitutes.nextSetBit(id + 1)) {
+      Double available = lots.get(id);
+      if (available != null && available >= needed * graph.ratio(ingredientId, id)) {
+        return id;
+      }
     }
-    return true;
+    return -1;
+  }
+
+  /**
+   * Finds the quantity of the first item in the fridge for every ingredient that is used in a
+   * recipe, in one pass over the fridge.
+   *
+   * @param foodStorage the fridge to read
+   * @param event       the event of the operation, which counts the lots that are read
+   * @return the quantity of the first item by ingredient id
+   */
+  private static Map<Integer, Double> firstLots(FoodStorage foodStorage, CookBookEvent event) {
+    Map<Integer, Double> lots = new HashMap<>();
+    for (Ingredient item : foodStorage.getItems()) {
+      event.lotsScanned++;
+      int ingredientId = Requirements.findIngredientId(item.getNameItem());
+      if (ingredientId >= 0) {
+        lots.putIfAbsent(ingredientId, item.getQuantityItem());
+      }
+    }
+    return lots;
+  }
+
+  /**
+   * Finds the quantity of the largest item in the fridge for every ingredient that is used in a
+   * recipe, in one pass over the fridge.
+   *
+   * @param foodStorage the fridge to read
+   * @param event       the event of the operation, which counts the lots that are read
+   * @return the quantity of the largest item by ingredient id
+   */
+  private static Map<Integer, Double> largestLots(FoodStorage foodStorage, CookBookEvent event) {
+    Map<Integer, Double> lots = new HashMap<>();
+    for (Ingredient item : foodStorage.getItems()) {
+      event.lotsScanned++;
+      int ingredientId = Requirements.findIngredientId(item.getNameItem());
+      if (ingredientId >= 0) {
+        lots.merge(ingredientId, item.getQuantityItem(), Math::max);
+      }
+    }
+    return lots;
+  }
+
+  /**
+   * Adds up the quantity of every item in the fridge in its canonical unit, by ingredient id and
+   * canonical unit, in one pass over the fridge.
+   *
+   * @param foodStorage the fridge to read
+   * @param event       the event of the operation, which counts the lots that are read
+   * @return the total quantity by {@link #stockKey(int, int)}
+   */
+  private static Map<Long, Double> canonicalTotals(FoodStorage foodStorage, CookBookEvent event) {
+    Map<Long, Double> totals = new HashMap<>();
+    for (Ingredient item : foodStorage.getItems()) {
+      event.lotsScanned++;
+      int ingredientId = Requirements.findIngredientId(item.getNameItem());
+      if (ingredientId >= 0) {
+        int unitId = Units.idOf(item.getUnitItem());
+        totals.merge(stockKey(ingredientId, Units.canonicalId(unitId)),
+            Units.toCanonical(item.getQuantityItem(), unitId), Double::sum);
+      }
+    }
+    return totals;
+  }
+
+  /**
+   * Returns the versions of the cookbook, the substitutions and the whole fridge, used to tell if
+   * a cached result that reads every recipe and item is still valid.
+   *
+   * @param foodStorage the fridge the result was found from
+   * @return the version stamp of the cookbook and the fridge
+   */
+  private Stamp stamp(FoodStorage foodStorage) {
+    return new Stamp(version, substitutions.getVersion(), new long[] {foodStorage.getVersion()});
+  }
+
+  /**
+   * Returns the versions of the cookbook, the substitutions and the items of every ingredient of a
+   * recipe and of their substitutes, used to tell if a cached result for the recipe is still
+   * valid.
+   *
+   * @param recipe      the recipe
+   * @param foodStorage the fridge the result was found from
+   * @return the version stamp of the recipe and its ingredients
+   */
+  private Stamp stamp(Recipe recipe, FoodStorage foodStorage) {
+    SubstitutionGraph.Snapshot graph = substitutions.snapshot();
+    Requirements requirements = recipe.getRequirements();
+    LongStream.Builder versions = LongStream.builder();
+    for (int i = 0; i < requirements.size(); i++) {
+      versions.add(foodStorage.getIngredientVersion(requirements.name(i)));
+      BitSet substitutes = graph.substitutesOf(requirements.ingredientId(i));
+      for (int id = substitutes.nextSetBit(0); id >= 0; id = substitutes.nextSetBit(id + 1)) {
+        versions.add(foodStorage.getIngredientVersion(Requirements.ingredientName(id)));
+      }
+    }
+    return new Stamp(version, graph.version(), versions.build().toArray());
   }
 
   /**
-   * Checks if a recipe can be made with the ingredients in the fridge.
+   * Finds the version of every ingredient of a recipe in a fridge. The cost of a recipe only
+   * depends on these, unlike {@link #stamp(Recipe, FoodStorage)} which also covers the cookbook
+   * and the substitutes.
+   *
+   * @param recipe      the recipe
+   * @param foodStorage the fridge
+   * @return the version of each ingredient, in the order of the recipe
+   */
+  private static long[] ingredientVersions(Recipe recipe, FoodStorage foodStorage) {
+    Requirements requirements = recipe.getRequirements();
+    long[] versions = new long[requirements.size()];
+    for (int i = 0; i < versions.length; i++) {
+      versions[i] = foodStorage.getIngredientVersion(requirements.name(i));
+    }
+    return versions;
+  }
+
+  /**
+   * Finds the items in the fridge of every ingredient used in some recipes, sorted by expiry date.
+   *
+   * @param recipes     the recipes
+   * @param foodStorage the fridge to read
+   * @param event       the event of the operation, which counts the lots that are read
+   * @return the items by ingredient id
+   */
+  private static Map<Integer, List<Ingredient>> lotsByIngredient(List<Recipe> recipes,
+      FoodStorage foodStorage, CookBookEvent event) {
+    Map<Integer, List<Ingredient>> lots = new HashMap<>();
+    for (Recipe recipe : recipes) {
+      Requirements requirements = recipe.getRequirements();
+      for (int i = 0; i < requirements.size(); i++) {
+        if (!lots.containsKey(requirements.ingredientId(i))) {
+          List<Ingredient> items = foodStorage.searchItem(requirements.name(i));
+          event.lotsScanned += items.size();
+          lots.put(requirements.ingredientId(i), items);
+        }
+      }
+    }
+    return lots;
+  }
+
+  /**
+   * Finds the cost of a recipe by using the items of each ingredient in order, without changing
+   * them. An item that is used by two ingredients of the recipe is only used once.
+   *
+   * @param recipe the recipe to cost
+   * @param lots   the items of every ingredient, sorted by expiry date
+   * @return the cost of the recipe
+   */
+  private static RecipeCost cost(Recipe recipe, Map<Integer, List<Ingredient>> lots) {
+    Requirements requirements = recipe.getRequirements();
+    Map<Ingredient, Double> used = new IdentityHashMap<>();
+    List<ShoppingItem> missing = new ArrayList<>();
+    double total = 0;
+    for (int i = 0; i < requirements.size(); i++) {
+      int canonicalId = Units.canonicalId(requirements.unitId(i));
+      double needed = requirements.canonicalQuantity(i);
+      for (Ingredient item : lots.getOrDefault(requirements.ingredientId(i), List.of())) {
+        if (needed <= QUANTITY_TOLERANCE) {
+          break;
+        }
+        int unitId = Units.idOf(item.getUnitItem());
+        if (Units.canonicalId(unitId) != canonicalId) {
+          continue;
+        }
+        double available = Units.toCanonical(item.getQuantityItem(), unitId)
+            - used.getOrDefault(item, 0.0);
+        double taken = Math.min(needed, available);
+        if (taken > 0) {
+          used.merge(item, taken, Double::sum);
+          // Prisen er per enhet av varen, så den regnes om til kanonisk enhet
+          total += taken * item.getPricePerUnit() / Units.factor(unitId);
+          needed -= taken;
+        }
+      }
+      if (needed > QUANTITY_TOLERANCE) {
+        missing.add(new ShoppingItem(requirements.name(i),
+            needed / Units.factor(requirements.unitId(i)), Units.nameOf(requirements.unitId(i))));
+      }
+    }
+    return new RecipeCost(recipe.getNameRecipe(), recipe.getServingsRecipe(), total, missing);
+  }
+
+  /**
+   * Finds the recipes missing at most a number of ingredients, by counting the requirements of
+   * every recipe that the items in the fridge meet.
+   *
+   * @param largestLots the quantity of the largest item in the fridge by ingredient id
+   * @param maxMissing  the largest number of missing ingredients
+   * @return the matching recipes, best first
+   */
+  private List<NearMiss> nearMisses(Map<Integer, Double> largestLots, int maxMissing) {
+    IngredientIndex index = ingredientIndex();
+    List<Recipe> indexed = index.recipes();
+    int[] met = new int[indexed.size()];
+    BitSet metRequirements = new BitSet();
+    // Bare oppskrifter som bruker noe fra kjøleskapet blir besøkt
+    for (Map.Entry<Integer, Double> lot : largestLots.entrySet()) {
+      for (RequirementUse use : index.uses().getOrDefault(lot.getKey(), List.of())) {
+        if (lot.getValue() >= use.quantity() && !metRequirements.get(use.requirement())) {
+          metRequirements.set(use.requirement());
+          met[use.recipe()]++;
+        }
+      }
+    }
+
+    List<NearMiss> result = new ArrayList<>();
+    for (int r = 0; r < indexed.size(); r++) {
+      Requirements requirements = indexed.get(r).getRequirements();
+      if (requirements.size() - met[r] > maxMissing) {
+        continue;
+      }
+      List<ShoppingItem> missing = new ArrayList<>();
+      double shortfall = 0;
+      for (int i = 0; i < requirements.size(); i++) {
+        if (!metRequirements.get(index.firstRequirements()[r] + i)) {
+          double needed = requirements.quantity(i);
+          double lacking = needed - largestLots.getOrDefault(requirements.ingredientId(i), 0.0);
+          missing.add(new ShoppingItem(requirements.name(i), lacking,
+              Units.nameOf(requirements.unitId(i))));
+          shortfall += lacking / needed;
+        }
+      }
+      result.add(new NearMiss(indexed.get(r).getNameRecipe(), missing, shortfall));
+    }
+    result.sort(Comparator.comparingInt(NearMiss::missingCount)
+        .thenComparingDouble(NearMiss::shortfall));
+    return Collections.unmodifiableList(result);
+  }
+
+  /**
+   * Returns the index of the requirements by ingredient, and builds it again if the recipes or the
+   * substitutions have changed since it was built. Two threads may both build it after a change,
+   * but they build the same index, and each one is complete before it is published.
+   *
+   * @return an index for the current recipes and substitutions
+   */
+  private IngredientIndex ingredientIndex() {
+    SubstitutionGraph.Snapshot graph = substitutions.snapshot();
+    IngredientIndex index = ingredientIndex;
+    if (index != null && index.cookBookVersion() == version
+        && index.graphVersion() == graph.version()) {
+      return index;
+    }
+    index = IngredientIndex.build(List.copyOf(recipes), version, graph);
+    ingredientIndex = index;
+    return index;
+  }
+
+  /**
+   * Combines an ingredient id and a canonical unit id into one key.
+   */
+  private static long stockKey(int ingredientId, int canonicalUnitId) {
+    return ((long) ingredientId << 32) | canonicalUnitId;
+  }
+
+  /**
+   * Finds the largest number of servings of a recipe, from the total quantity of each ingredient.
+   * The stock of the substitutes of an ingredient with the same canonical unit is counted as well,
+   * divided by the ratio of the substitute. A substitute that can replace two ingredients of the
+   * same recipe is counted for both.
+   *
+   * @param recipe    the recipe to check
+   * @param available the total quantity by {@link #stockKey(int, int)}
+   * @param graph     the substitutions to use
+   * @return the largest number of servings that can be made
+   */
+  private static int maxServings(Recipe recipe, Map<Long, Double> available,
+      SubstitutionGraph.Snapshot graph) {
+    Requirements requirements = recipe.getRequirements();
+    double max = Integer.MAX_VALUE;
+    for (int i = 0; i < requirements.size(); i++) {
+      double perServing = requirements.canonicalQuantity(i) / recipe.getServingsRecipe();
+      int ingredientId = requirements.ingredientId(i);
+      int canonicalId = Units.canonicalId(requirements.unitId(i));
+      double quantity = available.getOrDefault(stockKey(ingredientId, canonicalId), 0.0);
+      BitSet substitutes = graph.substitutesOf(ingredientId);
+      for (int id = substitutes.nextSetBit(0); id >= 0; id = substitutes.nextSetBit(id + 1)) {
+        quantity += available.getOrDefault(stockKey(id, canonicalId), 0.0)
+            / graph.ratio(ingredientId, id);
+      }
+      // Litt slingringsmonn, slik at 0.3 / 0.1 blir 3 og ikke 2.999...
+      max = Math.min(max, Math.floor(quantity / perServing + QUANTITY_TOLERANCE));
+    }
+    return (int) max;
+  }
+
+  /**
+   * Checks if a recipe can be made with the ingredients in the fridge, meaning there is an item
+   * with enough of every ingredient or of one of its substitutes.
    *
    * @param recipe      the recipe to check
-   * @param foodStorage the fridge to check for available ingredients
+   * @param largestLots the quantity of the largest item in the fridge by ingredient id
+   * @param graph       the substitutions to use
    * @return true if the recipe can be made, false otherwise
    */
-  private boolean canMake(Recipe recipe, FoodStorage foodStorage) {
-    return recipe.getIngredientsRecipe().stream()
-        .allMatch(ingredient ->
-            foodStorage.getItems().stream()
-                .anyMatch(item -> item.getNameItem().equalsIgnoreCase(ingredient.getNameItem())
-                    && item.getQuantityItem() >= ingredient.getQuantityItem())
-        );
+  private static boolean canMake(Recipe recipe, Map<Integer, Double> largestLots,
+      SubstitutionGraph.Snapshot graph) {
+    Requirements requirements = recipe.getRequirements();
+    for (int i = 0; i < requirements.size(); i++) {
+      Double largest = largestLots.get(requirements.ingredientId(i));
+      if ((largest == null || largest < requirements.quantity(i))
+          && findSubstitute(requirements.ingredientId(i), requirements.quantity(i),
+          largestLots, graph) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Notifies all listeners that a recipe has been added or removed.
+   *
+   * @param recipe the recipe that was changed
+   * @param before the servings before the change
+   * @param after  the servings after the change
+   */
+  private void notifyListeners(Recipe recipe, int before, int after) {
+    for (RecipeListener listener : listeners) {
+      listener.recipeChanged(recipe, before, after);
+    }
+  }
+
+  /**
+   * Starts a flight recorder event for an operation. The event also counts the lots the operation
+   * reads, so that the count belongs to the operation and not to the cookbook, which may be used
+   * by many threads at the same time.
+   *
+   * @return the started event
+   */
+  private static CookBookEvent beginEvent() {
+    CookBookEvent event = new CookBookEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Fills in and writes a flight recorder event, if a recording wants it.
+   *
+   * @param event      the event from {@link #beginEvent()}
+   * @param operation  the name of the operation
+   * @param recipeName the name of the recipe the operation was about, or null
+   * @param resultSize the number of recipes returned or changed
+   */
+  private static void commitEvent(CookBookEvent event, String operation, String recipeName,
+      int resultSize) {
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.recipe = recipeName;
+      event.resultSize = resultSize;
+      event.commit();
+    }
+  }
+
+  /**
+   * The versions a cached result was found from. The versions are compared one by one and not
+   * added up, since a sum can stay the same when one version goes up and another term goes away,
+   * e.g. when a substitute is removed.
+   */
+  private record Stamp(long cookBookVersion, long graphVersion, long[] fridgeVersions) {
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Stamp other && cookBookVersion == other.cookBookVersion
+          && graphVersion == other.graphVersion
+          && Arrays.equals(fridgeVersions, other.fridgeVersions);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(cookBookVersion, graphVersion, Arrays.hashCode(fridgeVersions));
+    }
+
+    @Override
+    public String toString() {
+      return "Stamp[" + cookBookVersion + ", " + graphVersion + ", "
+          + Arrays.toString(fridgeVersions) + "]";
+    }
+  }
+
+  /**
+   * Cache key for {@link #expandRecipe(String)}.
+   */
+  private record ExpandQuery(String recipeKey) {
+
+  }
+
+  /**
+   * Cache key for {@link #canMakeRecipe(String, FoodStorage)} in the cache of the fridge. The name
+   * is kept as given since it is part of the message.
+   */
+  private record CanMakeQuery(String recipeName) {
+
+  }
+
+  /**
+   * Cache key for {@link #suggestRecipe(FoodStorage)} in the cache of the fridge.
+   */
+  private record SuggestQuery() {
+
+  }
+
+  /**
+   * Cache key for {@link #maxServingsForAll(FoodStorage)} in the cache of the fridge.
+   */
+  private record MaxServingsQuery() {
+
+  }
+
+  /**
+   * Cache key for {@link #suggestNearMisses(FoodStorage, int)} in the cache of the fridge.
+   */
+  private record NearMissQuery(int maxMissing) {
+
+  }
+
+  /**
+   * The requirements of a list of recipes by ingredient id, also listed under the ids of their
+   * substitutes, so that {@link #suggestNearMisses(FoodStorage, int)} only has to look at the
+   * recipes that use the ingredients in the fridge. Every requirement gets a number, and is listed
+   * under its ingredient with its own quantity and under each substitute with the quantity of the
+   * substitute. Nothing in it is changed after it is built.
+   *
+   * @param recipes           the recipes, in the order of the recipe numbers
+   * @param firstRequirements the number of the first requirement of each recipe
+   * @param uses              the requirements by ingredient id
+   * @param cookBookVersion   the version of the cookbook the recipes come from
+   * @param graphVersion      the version of the substitutions
+   */
+  private record IngredientIndex(List<Recipe> recipes, int[] firstRequirements,
+                                 Map<Integer, List<RequirementUse>> uses, long cookBookVersion,
+                                 long graphVersion) {
+
+    static IngredientIndex build(List<Recipe> recipes, long cookBookVersion,
+        SubstitutionGraph.Snapshot graph) {
+      Map<Integer, List<RequirementUse>> uses = new HashMap<>();
+      int[] firstRequirements = new int[recipes.size()];
+      int requirement = 0;
+      for (int r = 0; r < recipes.size(); r++) {
+        firstRequirements[r] = requirement;
+        Requirements requirements = recipes.get(r).getRequirements();
+        for (int i = 0; i < requirements.size(); i++, requirement++) {
+          int ingredientId = requirements.ingredientId(i);
+          double quantity = requirements.quantity(i);
+          uses.computeIfAbsent(ingredientId, id -> new ArrayList<>())
+              .add(new RequirementUse(requirement, r, quantity));
+          BitSet substitutes = graph.substitutesOf(ingredientId);
+          for (int id = substitutes.nextSetBit(0); id >= 0; id = substitutes.nextSetBit(id + 1)) {
+            uses.computeIfAbsent(id, k -> new ArrayList<>()).add(new RequirementUse(requirement,
+                r, quantity * graph.ratio(ingredientId, id)));
+          }
+        }
+      }
+      return new IngredientIndex(recipes, firstRequirements, uses, cookBookVersion,
+          graph.version());
+    }
+  }
+
+  /**
+   * A requirement of a recipe in an {@link IngredientIndex}.
+   *
+   * @param requirement the number of the requirement among all requirements of all recipes
+   * @param recipe      the index of the recipe
+   * @param quantity    the quantity of the ingredient, or of the substitute, that is needed
+   */
+  private record RequirementUse(int requirement, int recipe, double quantity) {
+
+  }
+
+  /**
+   * The running total of an ingredient on a shopping list in its canonical unit, with the name and
+   * unit as first seen.
+   */
+  private static final class ShoppingTotal {
+
+    private final String name;
+    private final int unitId;
+    private double quantity;
+
+    private ShoppingTotal(String name, int unitId) {
+      this.name = name;
+      this.unitId = unitId;
+    }
   }
 }
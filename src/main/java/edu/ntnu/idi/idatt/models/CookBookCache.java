@@ -0,0 +1,96 @@
+package edu.ntnu.idi.idatt.models;
+
+import edu.ntnu.idi.idatt.utils.QueryCache;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The results one cookbook has cached for one fridge, such as which recipes can be made. Every
+ * fridge keeps one for each cookbook that has been used with it (see
+ * {@link FoodStorage#cacheFor(CookBook)}), so fridges that share a cookbook, like the households of
+ * a {@link edu.ntnu.idi.idatt.services.HouseholdRegistry}, neither share nor compete for one cache,
+ * and the cached results go away together with the fridge.
+ *
+ * <p>The costs of recipes are kept in their own table with one entry for each recipe in the
+ * cookbook, so costing every recipe never pushes other results out of the query cache. A cost
+ * only depends on the items of the ingredients of its recipe, so adding or changing other recipes
+ * does not make it stale.</p>
+ */
+final class CookBookCache {
+
+  /**
+   * The number of query results kept for each cookbook and fridge.
+   */
+  static final int CAPACITY = 64;
+
+  private final QueryCache<Object, Object> queries;
+  private final Map<Recipe, CostEntry> costs;
+  private volatile long costsVersion;
+
+  /**
+   * Constructor that initializes an empty cache.
+   */
+  CookBookCache() {
+    this.queries = new QueryCache<>(CAPACITY);
+    this.costs = new ConcurrentHashMap<>();
+    this.costsVersion = -1;
+  }
+
+  /**
+   * Returns the cache for the results of queries that read the fridge.
+   *
+   * @return the query cache
+   */
+  QueryCache<Object, Object> queries() {
+    return queries;
+  }
+
+  /**
+   * Returns the cached cost of a recipe, if it was found with the same versions of the
+   * ingredients of the recipe.
+   *
+   * @param recipe   the recipe
+   * @param versions the current version of each ingredient of the recipe, in order
+   * @return the cached cost, or null if there is none or it is stale
+   */
+  RecipeCost cost(Recipe recipe, long[] versions) {
+    CostEntry entry = costs.get(recipe);
+    return entry != null && Arrays.equals(entry.versions(), versions) ? entry.cost() : null;
+  }
+
+  /**
+   * Caches the cost of a recipe.
+   *
+   * @param recipe   the recipe
+   * @param versions the versions of the ingredients of the recipe the cost was found with
+   * @param cost     the cost
+   */
+  void putCost(Recipe recipe, long[] versions, RecipeCost cost) {
+    costs.put(recipe, new CostEntry(versions, cost));
+  }
+
+  /**
+   * Removes the costs of recipes that are no longer in the cookbook. Nothing is done if the
+   * cookbook has not changed since the last time.
+   *
+   * @param cookBookVersion the version of the cookbook
+   * @param recipes         the recipes in the cookbook
+   */
+  void retainCosts(long cookBookVersion, Collection<Recipe> recipes) {
+    if (costsVersion == cookBookVersion) {
+      return;
+    }
+    Set<Recipe> current = Collections.newSetFromMap(new IdentityHashMap<>());
+    current.addAll(recipes);
+    costs.keySet().retainAll(current);
+    costsVersion = cookBookVersion;
+  }
+
+  private record CostEntry(long[] versions, RecipeCost cost) {
+  }
+}
@@ -0,0 +1,335 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of when the items in a {@link FoodStorage} expire, and moves them into an "expired"
+ * set the moment their best-before day has passed. The expired items and their total value are
+ * kept up to date as the fridge changes, so they can be read without scanning the whole fridge.
+ *
+ * <p>The items that have not expired yet are kept in a timing wheel with one slot per day. Items
+ * that expire further ahead than the wheel covers are kept in an overflow map, and are moved into
+ * the wheel as the days pass. Time is read from an injectable {@link Clock}, so that the scheduler
+ * can be tested and benchmarked with simulated time. This includes the ticks run by
+ * {@link #scheduleDaily(ScheduledExecutorService)}, which follow the date of the clock rather than
+ * the time that has passed.</p>
+ */
+public class ExpiryScheduler implements StorageListener {
+
+  /**
+   * The number of days covered by the timing wheel. Must be a power of two.
+   */
+  private static final int WHEEL_SIZE = 512;
+  private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+  /**
+   * How often {@link #scheduleDaily(ScheduledExecutorService)} reads the clock to see if the date
+   * has changed.
+   */
+  private static final Duration CHECK_INTERVAL = Duration.ofMinutes(1);
+
+  private final FoodStorage foodStorage;
+  private final Clock clock;
+
+  /**
+   * The timing wheel. Slot {@code day & WHEEL_MASK} holds the items that expire on that epoch
+   * day, for all days from {@link #today} and less than {@link #WHEEL_SIZE} days ahead.
+   */
+  private final List<List<Ingredient>> wheel;
+
+  /**
+   * Items that expire {@link #WHEEL_SIZE} days or more after {@link #today}, by epoch day of
+   * expiry.
+   */
+  private final TreeMap<Long, List<Ingredient>> overflow;
+
+  /**
+   * Items that are waiting to expire. Items that are used up are removed from here, and are then
+   * skipped when their slot in the wheel is reached, instead of being searched for in the wheel.
+   */
+  private final Set<Ingredient> pending;
+
+  private final Set<Ingredient> expired;
+  private final List<Consumer<Ingredient>> expiryCallbacks;
+
+  /**
+   * The last day the scheduler has been advanced to, as an epoch day.
+   */
+  private long today;
+  private double expiredValue;
+
+  private ExpiryScheduler(FoodStorage foodStorage, Clock clock) {
+    this.foodStorage = foodStorage;
+    this.clock = clock;
+    this.wheel = new ArrayList<>(WHEEL_SIZE);
+    for (int i = 0; i < WHEEL_SIZE; i++) {
+      wheel.add(new ArrayList<>());
+    }
+    this.overflow = new TreeMap<>();
+    this.pending = Collections.newSetFromMap(new IdentityHashMap<>());
+    this.expired = Collections.newSetFromMap(new IdentityHashMap<>());
+    this.expiryCallbacks = new ArrayList<>();
+    this.today = LocalDate.now(clock).toEpochDay();
+
+    foodStorage.getItems().forEach(this::schedule);
+  }
+
+  /**
+   * Creates a scheduler that starts tracking the items in the given fridge. Items that have
+   * already expired are moved into the expired set at once. The scheduler is registered as a
+   * listener of the fridge after it has been created.
+   *
+   * @param foodStorage the fridge to track
+   * @param clock       the clock used to find today's date
+   * @return the scheduler
+   * @throws IllegalArgumentException if the fridge or the clock is null
+   */
+  public static ExpiryScheduler start(FoodStorage foodStorage, Clock clock) {
+    if (foodStorage == null) {
+      throw new IllegalArgumentException("Food storage cannot be null");
+    }
+    if (clock == null) {
+      throw new IllegalArgumentException("Clock cannot be null");
+    }
+    ExpiryScheduler scheduler = new ExpiryScheduler(foodStorage, clock);
+    foodStorage.addListener(scheduler);
+    return scheduler;
+  }
+
+  /**
+   * Creates a scheduler that starts tracking the items in the given fridge, using the clock of the
+   * fridge.
+   *
+   * @param foodStorage the fridge to track
+   * @return the scheduler
+   * @throws IllegalArgumentException if the fridge is null
+   */
+  public static ExpiryScheduler start(FoodStorage foodStorage) {
+    return start(foodStorage, foodStorage == null ? null : foodStorage.getClock());
+  }
+
+  /**
+   * Registers a callback that is called with every item that expires. Items that had already
+   * expired when the callback was added are not reported. The callback should not change the
+   * fridge, since it is called while the scheduler is advancing.
+   *
+   * @param callback the callback to add
+   * @throws IllegalArgumentException if the callback is null
+   */
+  public synchronized void onExpired(Consumer<Ingredient> callback) {
+    if (callback == null) {
+      throw new IllegalArgumentException("Callback cannot be null");
+    }
+    expiryCallbacks.add(callback);
+  }
+
+  /**
+   * Removes a callback added with {@link #onExpired(Consumer)}, so it is no longer called.
+   *
+   * @param callback the callback to remove
+   */
+  public synchronized void removeOnExpired(Consumer<Ingredient> callback) {
+    expiryCallbacks.remove(callback);
+  }
+
+  /**
+   * Advances the scheduler to today's date according to the clock, and moves every item whose
+   * best-before date has passed into the expired set.
+   *
+   * @return the number of items that expired
+   */
+  public synchronized int tick() {
+    long newToday = LocalDate.now(clock).toEpochDay();
+    if (newToday <= today) {
+      return 0;
+    }
+    int count = 0;
+    if (newToday - today >= WHEEL_SIZE) {
+      // Hele hjulet er passert, så alt i hjulet har gått ut
+      for (List<Ingredient> slot : wheel) {
+        count += expireAll(slot);
+      }
+    } else {
+      for (long day = today + 1; day <= newToday; day++) {
+        count += expireAll(wheel.get((int) (day & WHEEL_MASK)));
+      }
+    }
+    Map<Long, List<Ingredient>> due = overflow.headMap(newToday, true);
+    for (List<Ingredient> lots : due.values()) {
+      count += expireAll(lots);
+    }
+    due.clear();
+    today = newToday;
+
+    // Flytter varer fra overflow inn i hjulet når de kommer innenfor rekkevidde
+    Map<Long, List<Ingredient>> reachable = overflow.headMap(today + WHEEL_SIZE, false);
+    reachable.forEach((day, lots) -> wheel.get((int) (day & WHEEL_MASK)).addAll(lots));
+    reachable.clear();
+    return count;
+  }
+
+  /**
+   * Schedules {@link #tick()} to run within a minute after every midnight according to the clock.
+   * See {@link #scheduleDaily(ScheduledExecutorService, Duration)}.
+   *
+   * @param executor the executor to run the ticks on
+   * @return the scheduled task, which can be cancelled to stop the ticks
+   */
+  public ScheduledFuture<?> scheduleDaily(ScheduledExecutorService executor) {
+    return scheduleDaily(executor, CHECK_INTERVAL);
+  }
+
+  /**
+   * Schedules {@link #tick()} to run after every midnight according to the clock. The clock is
+   * read at the given interval, and the scheduler is advanced as soon as the date has changed, so
+   * a clock that is simulated or set to another time is followed as well.
+   *
+   * @param executor      the executor to run the ticks on
+   * @param checkInterval how often the clock is read
+   * @return the scheduled task, which can be cancelled to stop the ticks
+   * @throws IllegalArgumentException if the executor is null or the interval is not positive
+   */
+  public ScheduledFuture<?> scheduleDaily(ScheduledExecutorService executor,
+      Duration checkInterval) {
+    if (executor == null) {
+      throw new IllegalArgumentException("Executor cannot be null");
+    }
+    if (checkInterval == null || checkInterval.toMillis() <= 0) {
+      throw new IllegalArgumentException("Check interval must be positive");
+    }
+    // tick() gjør ingenting før datoen har endret seg, så klokken kan leses ofte
+    long interval = checkInterval.toMillis();
+    return executor.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Returns the items that have expired, sorted by best-before date.
+   *
+   * @return a list of the expired items
+   */
+  public synchronized List<Ingredient> getExpiredItems() {
+    List<Ingredient> result = new ArrayList<>(expired);
+    result.sort(Comparator.comparing(Ingredient::getBestBefore));
+    return result;
+  }
+
+  /**
+   * Returns the number of items that have expired.
+   *
+   * @return the number of expired items
+   */
+  public synchronized int getExpiredCount() {
+    return expired.size();
+  }
+
+  /**
+   * Returns the total value of the items that have expired.
+   *
+   * @return the total value of expired items
+   */
+  public synchronized double getExpiredValue() {
+    return expiredValue;
+  }
+
+  /**
+   * Returns the number of items that are waiting to expire.
+   *
+   * @return the number of items that have not expired yet
+   */
+  public synchronized int getPendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * Stops tracking the fridge.
+   */
+  public void close() {
+    foodStorage.removeListener(this);
+  }
+
+  /**
+   * Keeps the scheduler up to date when items are added to, changed in or removed from the fridge.
+   *
+   * @param item   the item that was changed
+   * @param before the quantity of the item before the change
+   * @param after  the quantity of the item after the change
+   */
+  @Override
+  public synchronized void quantityChanged(Ingredient item, double before, double after) {
+    if (expired.contains(item)) {
+      expiredValue += (after - before) * item.getPricePerUnit();
+      if (after <= 0) {
+        expired.remove(item);
+      }
+    } else if (after <= 0) {
+      pending.remove(item);
+    } else if (before <= 0) {
+      schedule(item);
+    }
+  }
+
+  /**
+   * Places a new item in the wheel, in the overflow map, or directly in the expired set if its
+   * best-before date has already passed.
+   *
+   * @param item the item to schedule
+   */
+  private void schedule(Ingredient item) {
+    // Varen går ut dagen etter best-før-datoen
+    long expiryDay = item.getBestBefore().toEpochDay() + 1;
+    if (expiryDay <= today) {
+      expire(item);
+    } else if (expiryDay - today < WHEEL_SIZE) {
+      pending.add(item);
+      wheel.get((int) (expiryDay & WHEEL_MASK)).add(item);
+    } else {
+      pending.add(item);
+      overflow.computeIfAbsent(expiryDay, day -> new ArrayList<>()).add(item);
+    }
+  }
+
+  /**
+   * Expires all items in a slot that are still waiting, and empties the slot.
+   *
+   * @param lots the items in the slot
+   * @return the number of items that expired
+   */
+  private int expireAll(List<Ingredient> lots) {
+    int count = 0;
+    for (Ingredient item : lots) {
+      if (pending.remove(item)) {
+        expire(item);
+        count++;
+      }
+    }
+    lots.clear();
+    return count;
+  }
+
+  /**
+   * Moves an item into the expired set and calls the expiry callbacks.
+   *
+   * @param item the item that expired
+   */
+  private void expire(Ingredient item) {
+    expired.add(item);
+    expiredValue += item.getQuantityItem() * item.getPricePerUnit();
+    for (Consumer<Ingredient> callback : expiryCallbacks) {
+      callback.accept(item);
+    }
+  }
+}
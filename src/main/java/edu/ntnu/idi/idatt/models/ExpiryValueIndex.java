@@ -0,0 +1,102 @@
+package edu.ntnu.idi.idatt.models;
+
+import edu.ntnu.idi.idatt.utils.FenwickTree;
+import java.time.LocalDate;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The value of the items in a fridge, summed by best-before date. The values are kept in a
+ * {@link FenwickTree} with one position per day, so the value of any range of dates is found in
+ * O(log D), where D is the number of days the tree covers, and a change costs the same.
+ *
+ * <p>The tree covers a window of days that grows when items with dates outside it are added, up
+ * to {@link #MAX_DAYS}. The few items with dates that would make the window larger than that,
+ * like dates far in the future, are kept in a sorted map instead.</p>
+ */
+final class ExpiryValueIndex {
+
+  /**
+   * The largest number of days the tree covers, about 180 years.
+   */
+  static final int MAX_DAYS = 1 << 16;
+
+  private static final int INITIAL_DAYS = 64;
+
+  private FenwickTree days;
+  private long firstDay;
+  private final NavigableMap<Long, Double> outside = new TreeMap<>();
+
+  /**
+   * Adds a value to the total of a date.
+   *
+   * @param date  the best-before date
+   * @param value the value to add, which is negative when an item is used
+   */
+  void add(LocalDate date, double value) {
+    long day = date.toEpochDay();
+    if (days == null) {
+      // Litt plass til datoer bakover i tid
+      firstDay = day - INITIAL_DAYS / 4;
+      days = new FenwickTree(INITIAL_DAYS);
+    }
+    if (covers(day) || grow(day)) {
+      days.add((int) (day - firstDay), value);
+    } else {
+      outside.merge(day, value, Double::sum);
+    }
+  }
+
+  /**
+   * Returns the total value of the dates in a range.
+   *
+   * @param from the first date
+   * @param to   the last date
+   * @return the value of the items with a best-before date from {@code from} to {@code to}
+   */
+  double sum(LocalDate from, LocalDate to) {
+    if (days == null || from.isAfter(to)) {
+      return 0;
+    }
+    long fromDay = from.toEpochDay();
+    long toDay = to.toEpochDay();
+    long first = Math.max(fromDay, firstDay);
+    long last = Math.min(toDay, firstDay + days.size() - 1);
+    double sum = first <= last ? days.sum((int) (first - firstDay), (int) (last - firstDay)) : 0;
+    for (double value : outside.subMap(fromDay, true, toDay, true).values()) {
+      sum += value;
+    }
+    // Avrundingsfeil kan gi en liten negativ sum når alt er brukt opp
+    return Math.max(sum, 0);
+  }
+
+  private boolean covers(long day) {
+    return day >= firstDay && day < firstDay + days.size();
+  }
+
+  /**
+   * Makes the window large enough to cover a day, by at least doubling it. The values already in
+   * the tree are moved to the new tree.
+   *
+   * @param day the day to cover
+   * @return false if the window would become larger than {@link #MAX_DAYS}
+   */
+  private boolean grow(long day) {
+    long end = Math.max(firstDay + days.size(), day + 1);
+    long span = end - Math.min(firstDay, day);
+    if (span > MAX_DAYS) {
+      return false;
+    }
+    int size = (int) Math.min(Math.max(span, 2L * days.size()), MAX_DAYS);
+    // Vokser mot den siden dagen ligger på
+    long start = day < firstDay ? end - size : firstDay;
+    double[] values = new double[size];
+    int shift = (int) (firstDay - start);
+    for (int i = 0; i < days.size(); i++) {
+      values[shift + i] = days.get(i);
+    }
+    days = new FenwickTree(values);
+    firstDay = start;
+    return true;
+  }
+}
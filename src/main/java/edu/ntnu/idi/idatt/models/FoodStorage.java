@@ -1,9 +1,18 @@
 package edu.ntnu.idi.idatt.models;
 
+import edu.ntnu.idi.idatt.monitoring.FoodStorageEvent;
+import java.time.Clock;
 import java.time.LocalDate; //Newer version than util.date (help from Co-pilot)
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
 
 /**
  * Represent the "food storage" of the application that manages items in a fridge. It allows users
@@ -12,29 +21,179 @@ import java.util.List;
 public class FoodStorage {
 
   /**
-   * A list of ingredients in the fridge. This list stores all items that have been added by the
-   * user.
+   * The numbers of days {@link #getValueAtRisk()} reports the value at risk for.
    */
-  private final List<Ingredient> items;
+  private static final int[] RISK_HORIZONS = {1, 3, 7, 30};
+
+  /**
+   * The ingredients in the fridge by their key in the ordered indexes, in the order they were
+   * added. This stores all items that have been added by the user and are not used up.
+   */
+  private final Map<LotKey, Ingredient> items;
+
+  /**
+   * The modification version of the fridge. It is increased every time an item is added, changed
+   * or removed, and is used to tell if cached query results are still valid.
+   */
+  private long version;
+
+  /**
+   * The version at which each ingredient (by lower case name) was last changed. Queries that only
+   * read one ingredient can use this instead of {@link #version} to avoid being invalidated by
+   * changes to other ingredients.
+   */
+  private final Map<String, Long> ingredientVersions;
+
+  /**
+   * The items ordered by best-before date, and then by the order they were added in. This is the
+   * order the queries return the items in, so a query only has to read the part of the index it
+   * returns.
+   */
+  private final TreeMap<LotKey, Ingredient> byDate;
+
+  /**
+   * The items of each ingredient (by lower case name), in the same order as {@link #byDate}.
+   */
+  private final TreeMap<String, TreeMap<LotKey, Ingredient>> byName;
+
+  /**
+   * The number of items with each best-before date, used to estimate how many items a date range
+   * query will read.
+   */
+  private final TreeMap<LocalDate, Integer> dateCounts;
+
+  /**
+   * The value of the items summed by best-before date, used to find the value that expires within
+   * a number of days without reading the items.
+   */
+  private final ExpiryValueIndex valueByDate;
+
+  /**
+   * The key of every item in the indexes. Items are found by identity, since two items with the
+   * same values can be in the fridge at the same time.
+   */
+  private final Map<Ingredient, LotKey> lotKeys;
+
+  /**
+   * The number given to the next item that is added, used to keep items with the same date in the
+   * order they were added.
+   */
+  private long nextLot;
+
+  /**
+   * Listeners that are notified every time the quantity of an item changes.
+   */
+  private final List<StorageListener> listeners;
+
+  /**
+   * The clock used to find today's date, so that time can be simulated in tests and benchmarks.
+   */
+  private final Clock clock;
+
+  /**
+   * The number of lots the current operation has looked at, reported in {@link FoodStorageEvent}.
+   */
+  private int lotsScanned;
+
+  /**
+   * The results cookbooks have cached for this fridge, by cookbook. The cookbooks are only weakly
+   * referenced, so a fridge does not keep a cookbook that is no longer used alive.
+   */
+  private final Map<CookBook, CookBookCache> cookBookCaches;
 
   /**
    * Constructor that initializes the food storage with an empty list of items.
    */
   public FoodStorage() {
-    this.items = new ArrayList<>();
+    this(Clock.systemDefaultZone());
+  }
+
+  /**
+   * Constructor that initializes the food storage with an empty list of items, using the given
+   * clock to find today's date.
+   *
+   * @param clock the clock used to decide which items have expired
+   * @throws IllegalArgumentException if the clock is null
+   */
+  public FoodStorage(Clock clock) {
+    if (clock == null) {
+      throw new IllegalArgumentException("Clock cannot be null");
+    }
+    this.items = new LinkedHashMap<>();
+    this.ingredientVersions = new HashMap<>();
+    this.byDate = new TreeMap<>();
+    this.byName = new TreeMap<>();
+    this.dateCounts = new TreeMap<>();
+    this.valueByDate = new ExpiryValueIndex();
+    this.lotKeys = new IdentityHashMap<>();
+    this.listeners = new ArrayList<>();
+    this.clock = clock;
+    this.cookBookCaches = new WeakHashMap<>();
+  }
+
+  /**
+   * Returns the clock the fridge uses to find today's date.
+   *
+   * @return the clock of the fridge
+   */
+  public Clock getClock() {
+    return clock;
+  }
+
+  /**
+   * Registers a listener that is notified every time the quantity of an item changes.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null
+   */
+  public void addListener(StorageListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener that was added with {@link #addListener(StorageListener)}.
+   *
+   * @param listener the listener to remove
+   */
+  public void removeListener(StorageListener listener) {
+    listeners.remove(listener);
   }
 
   // Fikk hjelp fra *Co-pilot til å endre metodene fra for/each loop til stream hvor det er
   // nødvendig. Dette for å gjøre koden mer robust, kortere og lettere å lese.
 
   /**
-   * Returns a copy of all items in the fridge. Changes to the returned list do not affect the
-   * original list.
+   * Returns a copy of all items in the fridge, in the order they were added. Changes to the
+   * returned list do not affect the original list.
    *
    * @return a copy of the list of items in the fridge.
    */
   public List<Ingredient> getItems() {
-    return new ArrayList<>(items);
+    return new ArrayList<>(items.values());
+  }
+
+  /**
+   * Returns the modification version of the fridge. The version never decreases and is increased
+   * every time the content of the fridge changes.
+   *
+   * @return the current modification version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the version at which the given ingredient was last changed, or zero if it has never
+   * been in the fridge. Like {@link #getVersion()} it never decreases.
+   *
+   * @param name the name of the ingredient (case-insensitive)
+   * @return the modification version of the ingredient
+   */
+  public long getIngredientVersion(String name) {
+    return name == null ? 0 : ingredientVersions.getOrDefault(name.toLowerCase(Locale.ROOT), 0L);
   }
 
   /**
@@ -49,16 +208,19 @@ public class FoodStorage {
     if (newItem == null || newItem.getQuantityItem() <= 0) {
       throw new IllegalArgumentException("Invalid item or quantity");
     }
-    items.stream()
-        .filter(item -> item.getNameItem().equalsIgnoreCase(newItem.getNameItem())
-            && item.getBestBefore().equals(newItem.getBestBefore())
-            && item.getPricePerUnit() == newItem.getPricePerUnit())
-        .findFirst()
-        .ifPresentOrElse(
-            item -> item.setQuantityItem(item.getQuantityItem() + newItem.getQuantityItem()),
-            // Oppdaterer mengden
-            () -> items.add(newItem) // Legger til ny vare
-        );
+    FoodStorageEvent event = beginEvent();
+    Ingredient item = findSameLot(newItem);
+    if (item != null) {
+      // Oppdaterer mengden
+      changeQuantity(item, item.getQuantityItem() + newItem.getQuantityItem());
+    } else {
+      index(newItem); // Legger til ny vare
+      valueByDate.add(newItem.getBestBefore(),
+          newItem.getQuantityItem() * newItem.getPricePerUnit());
+      markModified(newItem.getNameItem());
+      notifyListeners(newItem, 0, newItem.getQuantityItem());
+    }
+    commitEvent(event, "addItem", newItem.getNameItem(), 1);
     return String.format("%.2f %s of %s has been added to the fridge!",
         newItem.getQuantityItem(), newItem.getUnitItem(), newItem.getNameItem());
   }
@@ -75,35 +237,38 @@ public class FoodStorage {
    * stock status.
    */
   public String removeItem(String name, double quantity) {
+    FoodStorageEvent event = beginEvent();
+    int changed = 0;
     double remainingQuantity = quantity;
-    items.sort(Comparator.comparing(Ingredient::getBestBefore)); // Sorterer varer etter dato
+    // Varene med samme navn ligger allerede sortert etter dato i indeksen
+    NavigableMap<LotKey, Ingredient> lots = nameIndex(name);
     StringBuilder result = new StringBuilder();
 
-    for (Ingredient item : items) {
-      if (remainingQuantity <= 0) {
-        break; // Hvis alt blir fjernet bryter man ut av løkken
-      }
+    while (remainingQuantity > 0 && !lots.isEmpty()) {
+      Ingredient item = lots.firstEntry().getValue();
+      lotsScanned++;
 
-      // Hvis det finnes flere varer med samme navn i kjøleskapet.
-      if (item.getNameItem().equalsIgnoreCase(name)) {
-        // Hvor mye vi kan fjerne (fjerner varen som går ut først)
-        double amountToRemove = Math.min(remainingQuantity, item.getQuantityItem());
-        item.setQuantityItem(item.getQuantityItem() - amountToRemove); // Oppdaterer mengden i stock
-        remainingQuantity -= amountToRemove; // Oppdaterer hvor mye vi fortsatt må fjerne
-
-        result.append(String.format(
-            "%.2f %s of %s with best before %s is removed. Remaining in stock: %.2f\n",
-            amountToRemove, item.getUnitItem(), item.getNameItem(), item.getBestBefore(),
-            item.getQuantityItem()
-        ));
+      // Hvor mye vi kan fjerne (fjerner varen som går ut først)
+      double amountToRemove = Math.min(remainingQuantity, item.getQuantityItem());
+      changeQuantity(item, item.getQuantityItem() - amountToRemove); // Oppdaterer mengden i stock
+      if (item.getQuantityItem() <= 0) {
+        unindex(item); // Varen er brukt opp, så den tas ut av indeksene
       }
+      remainingQuantity -= amountToRemove; // Oppdaterer hvor mye vi fortsatt må fjerne
+      changed++;
+
+      result.append(String.format(
+          "%.2f %s of %s with best before %s is removed. Remaining in stock: %.2f\n",
+          amountToRemove, item.getUnitItem(), item.getNameItem(), item.getBestBefore(),
+          item.getQuantityItem()
+      ));
     }
     // Hvis ikke nok i stock for å fjerne ønsket mengde
     if (remainingQuantity > 0) {
       result.append(String.format("Not enough %s in stock to remove %.2f. Stock in fridge: %.2f.",
           name, quantity, remainingQuantity));
     }
-    items.removeIf(item -> item.getQuantityItem() <= 0);
+    commitEvent(event, "removeItem", name, changed);
     return result.toString();
   }
 
@@ -113,12 +278,23 @@ public class FoodStorage {
    * @return the item if found, or null if not
    */
   public List<Ingredient> searchItem(String name) {
-    return new ArrayList<>(// 2. gjør den mutable fra toList() *ChatGPT
-        items.stream()
-            .filter(item -> item.getNameItem().equalsIgnoreCase(name))
-            .sorted(Comparator.comparing(Ingredient::getBestBefore))
-            .toList() // 1. lager en immutable liste *ChatGPT
-    );
+    FoodStorageEvent event = beginEvent();
+    // Indeksen er allerede sortert etter dato, så den kopieres bare
+    List<Ingredient> result = new ArrayList<>(nameIndex(name).values());
+    lotsScanned = result.size();
+    commitEvent(event, "searchItem", name, result.size());
+    return result;
+  }
+
+  /**
+   * Returns a lazy cursor over the items with a name, sorted by expiry date. Gives the same items
+   * as {@link #searchItem(String)}, but only reads the items that are asked for.
+   *
+   * @param name the name of the item (case-insensitive)
+   * @return a cursor at the first matching item
+   */
+  public ItemCursor searchCursor(String name) {
+    return ItemCursor.over(nameIndex(name));
   }
 
   /**
@@ -129,15 +305,23 @@ public class FoodStorage {
    * @return a list ingredients that expires on or before the specified date.
    */
   public List<Ingredient> getItemsBeforeDate(LocalDate date) {
-    return new ArrayList<>(// 2. making it mutable from toList()
-        items.stream()
-            .filter(item -> {
-              LocalDate bestBefore = item.getBestBefore();
-              return !bestBefore.isAfter(date); // Sjekker varer før eller samme dato
-            })
-            .sorted(Comparator.comparing(Ingredient::getBestBefore))
-            .toList() // 1. making an immutable list
-    );
+    FoodStorageEvent event = beginEvent();
+    List<Ingredient> result = new ArrayList<>(beforeDateIndex(date).values());
+    lotsScanned = result.size();
+    commitEvent(event, "getItemsBeforeDate", null, result.size());
+    return result;
+  }
+
+  /**
+   * Returns a lazy cursor over the items that expire on or before a date, sorted by expiry date.
+   * Gives the same items as {@link #getItemsBeforeDate(LocalDate)}, but only reads the items that
+   * are asked for, so the first 20 items cost the same no matter how many items are in the fridge.
+   *
+   * @param date the specific expiry date.
+   * @return a cursor at the item that expires first
+   */
+  public ItemCursor beforeDateCursor(LocalDate date) {
+    return ItemCursor.over(beforeDateIndex(date));
   }
 
   /**
@@ -146,13 +330,60 @@ public class FoodStorage {
    * @return the list of expired items and its total value.
    */
   public List<Ingredient> getExpiredItems() {
-    LocalDate today = LocalDate.now();
-    return new ArrayList<>(
-        items.stream()
-            .filter(item -> item.getBestBefore().isBefore(today))
-            .sorted(Comparator.comparing(Ingredient::getBestBefore))
-            .toList()
-    );
+    FoodStorageEvent event = beginEvent();
+    List<Ingredient> expired = new ArrayList<>(expiredIndex().values());
+    lotsScanned = expired.size();
+    commitEvent(event, "getExpiredItems", null, expired.size());
+    return expired;
+  }
+
+  /**
+   * Returns a lazy cursor over the items that have expired, sorted by expiry date. Gives the same
+   * items as {@link #getExpiredItems()}, but only reads the items that are asked for.
+   *
+   * @return a cursor at the item that expired first
+   */
+  public ItemCursor expiredCursor() {
+    return ItemCursor.over(expiredIndex());
+  }
+
+  /**
+   * Runs a query that combines conditions on the items. The query reads the items from the index
+   * that is expected to give the fewest items: the name index for a name or a name prefix, the
+   * date index for a best-before range, or every item if the query has none of these. The other
+   * conditions are checked on each item that is read.
+   *
+   * @param query the query to run
+   * @return the matching items sorted by expiry date, with the plan and the number of items read
+   * @throws IllegalArgumentException if the query is null
+   */
+  public QueryResult query(ItemQuery query) {
+    if (query == null) {
+      throw new IllegalArgumentException("Query cannot be null");
+    }
+    FoodStorageEvent event = beginEvent();
+    QueryPlan plan = plan(query);
+    NavigableMap<LotKey, Ingredient> source = switch (plan.accessPath()) {
+      case NAME -> dateSlice(nameIndex(query.name()), query);
+      case NAME_PREFIX -> prefixIndex(query);
+      case BEST_BEFORE_RANGE -> dateSlice(byDate, query);
+      case FULL_SCAN -> byDate;
+    };
+    List<Ingredient> result = new ArrayList<>();
+    // Telles lokalt, siden lotsScanned bare er til diagnostikk i hendelsen
+    int rowsScanned = 0;
+    for (Ingredient item : source.values()) {
+      if (result.size() == query.limit()) {
+        break;
+      }
+      rowsScanned++;
+      if (query.matches(item)) {
+        result.add(item);
+      }
+    }
+    lotsScanned = rowsScanned;
+    commitEvent(event, "query", query.name(), result.size());
+    return new QueryResult(result, plan, rowsScanned);
   }
 
   /**
@@ -161,9 +392,303 @@ public class FoodStorage {
    * @return the total value.
    */
   public double calculateTotalValue() {
-    return items.stream()
+    FoodStorageEvent event = beginEvent();
+    double total = items.values().stream()
         .mapToDouble(item -> item.getQuantityItem() * item.getPricePerUnit())
         .sum();
+    lotsScanned = items.size();
+    commitEvent(event, "calculateTotalValue", null, 0);
+    return total;
+  }
+
+  /**
+   * Returns the total value of the items that have expired, without reading the items.
+   *
+   * @return the value of the items with a best-before date before today
+   */
+  public double getExpiredValue() {
+    return valueByDate.sum(LocalDate.MIN, LocalDate.now(clock).minusDays(1));
   }
-}
 
+  /**
+   * Returns the total value of the items that expire within a number of days, that is items with
+   * a best-before date from today up to and including the given number of days from today. Items
+   * that have already expired are not included. The value is found in O(log D) from the sums kept
+   * by best-before date, no matter how many items are in the fridge.
+   *
+   * @param days the number of days from today
+   * @return the value that expires within the days
+   * @throws IllegalArgumentException if the number of days is negative
+   */
+  public double getValueExpiringWithin(int days) {
+    if (days < 0) {
+      throw new IllegalArgumentException("Number of days cannot be negative");
+    }
+    LocalDate today = LocalDate.now(clock);
+    return valueByDate.sum(today, today.plusDays(days));
+  }
+
+  /**
+   * Returns the value at risk of expiring within each of the standard horizons of 1, 3, 7 and 30
+   * days.
+   *
+   * @return the value that expires within each number of days, sorted by the number of days
+   */
+  public NavigableMap<Integer, Double> getValueAtRisk() {
+    return getValueAtRisk(RISK_HORIZONS);
+  }
+
+  /**
+   * Returns the value at risk of expiring within each of the given numbers of days, see
+   * {@link #getValueExpiringWithin(int)}.
+   *
+   * @param horizons the numbers of days from today
+   * @return the value that expires within each number of days, sorted by the number of days
+   * @throws IllegalArgumentException if a number of days is negative
+   */
+  public NavigableMap<Integer, Double> getValueAtRisk(int... horizons) {
+    NavigableMap<Integer, Double> curve = new TreeMap<>();
+    for (int days : horizons) {
+      curve.put(days, getValueExpiringWithin(days));
+    }
+    return curve;
+  }
+
+  /**
+   * Returns the cache a cookbook keeps its results for this fridge in. The cache belongs to the
+   * fridge, so a cookbook that is used with many fridges does not keep them alive.
+   *
+   * @param cookBook the cookbook
+   * @return the cache of the cookbook for this fridge
+   */
+  CookBookCache cacheFor(CookBook cookBook) {
+    // Kort lås, siden et replikert kjøleskap kan brukes fra flere tråder
+    synchronized (cookBookCaches) {
+      return cookBookCaches.computeIfAbsent(cookBook, key -> new CookBookCache());
+    }
+  }
+
+  /**
+   * Finds the item with the same name, best-before date and price as a new item, which the new
+   * item is merged into. Only the items of the name with the same date are read.
+   *
+   * @param newItem the item that is added
+   * @return the item to merge into, or null if there is none
+   */
+  private Ingredient findSameLot(Ingredient newItem) {
+    LocalDate date = newItem.getBestBefore();
+    for (Ingredient item : nameIndex(newItem.getNameItem())
+        .subMap(new LotKey(date, Long.MIN_VALUE), true, new LotKey(date, Long.MAX_VALUE), true)
+        .values()) {
+      lotsScanned++;
+      if (item.getPricePerUnit() == newItem.getPricePerUnit()) {
+        return item;
+      }
+    }
+    return null;
+  }
+
+  private NavigableMap<LotKey, Ingredient> nameIndex(String name) {
+    TreeMap<LotKey, Ingredient> lots =
+        name == null ? null : byName.get(name.toLowerCase(Locale.ROOT));
+    return lots == null ? new TreeMap<>() : lots;
+  }
+
+  /**
+   * Finds the access path of a query that is expected to read the fewest items. The estimates come
+   * from the sizes of the indexes, so the plan is found without reading any items.
+   *
+   * @param query the query to plan
+   * @return the cheapest plan
+   */
+  private QueryPlan plan(ItemQuery query) {
+    QueryPlan.AccessPath best = QueryPlan.AccessPath.FULL_SCAN;
+    long estimate = byDate.size();
+    if (query.hasDateRange()) {
+      long rows = 0;
+      for (int count : dateCounts.subMap(query.from(), true, query.to(), true).values()) {
+        rows += count;
+      }
+      if (rows < estimate) {
+        best = QueryPlan.AccessPath.BEST_BEFORE_RANGE;
+        estimate = rows;
+      }
+    }
+    if (query.namePrefix() != null) {
+      long rows = 0;
+      for (TreeMap<LotKey, Ingredient> lots : prefixNames(query.namePrefix()).values()) {
+        rows += lots.size();
+      }
+      if (rows <= estimate) {
+        best = QueryPlan.AccessPath.NAME_PREFIX;
+        estimate = rows;
+      }
+    }
+    if (query.name() != null) {
+      long rows = nameIndex(query.name()).size();
+      if (rows <= estimate) {
+        best = QueryPlan.AccessPath.NAME;
+        estimate = rows;
+      }
+    }
+    return new QueryPlan(best, estimate, query.conditions(best));
+  }
+
+  private NavigableMap<String, TreeMap<LotKey, Ingredient>> prefixNames(String prefix) {
+    // Alle navn som starter med prefikset ligger etter hverandre i treet
+    return byName.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+  }
+
+  /**
+   * Merges the items of every name that starts with the prefix of a query into one index, in the
+   * same order as {@link #byDate}.
+   *
+   * @param query the query with the prefix
+   * @return the items of the matching names
+   */
+  private NavigableMap<LotKey, Ingredient> prefixIndex(ItemQuery query) {
+    TreeMap<LotKey, Ingredient> merged = new TreeMap<>();
+    for (TreeMap<LotKey, Ingredient> lots : prefixNames(query.namePrefix()).values()) {
+      merged.putAll(dateSlice(lots, query));
+    }
+    return merged;
+  }
+
+  private NavigableMap<LotKey, Ingredient> dateSlice(NavigableMap<LotKey, Ingredient> index,
+      ItemQuery query) {
+    if (!query.hasDateRange()) {
+      return index;
+    }
+    return index.subMap(new LotKey(query.from(), Long.MIN_VALUE), true,
+        new LotKey(query.to(), Long.MAX_VALUE), true);
+  }
+
+  private NavigableMap<LotKey, Ingredient> beforeDateIndex(LocalDate date) {
+    // Varer før eller samme dato
+    return byDate.headMap(new LotKey(date, Long.MAX_VALUE), true);
+  }
+
+  private NavigableMap<LotKey, Ingredient> expiredIndex() {
+    return byDate.headMap(new LotKey(LocalDate.now(clock), Long.MIN_VALUE), false);
+  }
+
+  /**
+   * Adds a new item to the fridge and the ordered indexes.
+   *
+   * @param item the item that was added to the fridge
+   */
+  private void index(Ingredient item) {
+    LotKey key = new LotKey(item.getBestBefore(), nextLot++);
+    lotKeys.put(item, key);
+    items.put(key, item);
+    byDate.put(key, item);
+    dateCounts.merge(item.getBestBefore(), 1, Integer::sum);
+    byName.computeIfAbsent(item.getNameItem().toLowerCase(Locale.ROOT), name -> new TreeMap<>())
+        .put(key, item);
+  }
+
+  /**
+   * Removes an item that is used up from the fridge and the ordered indexes.
+   *
+   * @param item the item that is removed from the fridge
+   */
+  private void unindex(Ingredient item) {
+    LotKey key = lotKeys.remove(item);
+    if (key == null) {
+      return;
+    }
+    items.remove(key);
+    byDate.remove(key);
+    dateCounts.computeIfPresent(item.getBestBefore(),
+        (date, count) -> count == 1 ? null : count - 1);
+    String name = item.getNameItem().toLowerCase(Locale.ROOT);
+    TreeMap<LotKey, Ingredient> lots = byName.get(name);
+    lots.remove(key);
+    if (lots.isEmpty()) {
+      byName.remove(name);
+    }
+  }
+
+  /**
+   * Starts a flight recorder event for an operation, and resets the number of scanned lots.
+   *
+   * @return the started event
+   */
+  private FoodStorageEvent beginEvent() {
+    lotsScanned = 0;
+    FoodStorageEvent event = new FoodStorageEvent();
+    event.begin();
+    return event;
+  }
+
+  /**
+   * Fills in and writes a flight recorder event, if a recording wants it.
+   *
+   * @param event      the event from {@link #beginEvent()}
+   * @param operation  the name of the operation
+   * @param ingredient the name of the ingredient the operation was about, or null
+   * @param resultSize the number of lots returned or changed
+   */
+  private void commitEvent(FoodStorageEvent event, String operation, String ingredient,
+      int resultSize) {
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.ingredient = ingredient;
+      event.lotsScanned = lotsScanned;
+      event.resultSize = resultSize;
+      event.commit();
+    }
+  }
+
+  /**
+   * Sets a new quantity for an item in the fridge, and marks the change so that cached results and
+   * listeners are updated.
+   *
+   * @param item     the item to change
+   * @param quantity the new quantity of the item
+   */
+  private void changeQuantity(Ingredient item, double quantity) {
+    double before = item.getQuantityItem();
+    item.setQuantityItem(quantity);
+    valueByDate.add(item.getBestBefore(), (quantity - before) * item.getPricePerUnit());
+    markModified(item.getNameItem());
+    notifyListeners(item, before, quantity);
+  }
+
+  /**
+   * Notifies all listeners that the quantity of an item has changed.
+   *
+   * @param item   the item that was changed
+   * @param before the quantity before the change
+   * @param after  the quantity after the change
+   */
+  private void notifyListeners(Ingredient item, double before, double after) {
+    for (StorageListener listener : listeners) {
+      listener.quantityChanged(item, before, after);
+    }
+  }
+
+  /**
+   * Increases the version of the fridge and marks the given ingredient as changed at the new
+   * version.
+   *
+   * @param name the name of the ingredient that was changed
+   */
+  private void markModified(String name) {
+    version++;
+    ingredientVersions.put(name.toLowerCase(Locale.ROOT), version);
+  }
+
+  /**
+   * The key of an item in the ordered indexes: the best-before date, and then the order the items
+   * were added in.
+   */
+  private record LotKey(LocalDate bestBefore, long lot) implements Comparable<LotKey> {
+
+    @Override
+    public int compareTo(LotKey other) {
+      int byDate = bestBefore.compareTo(other.bestBefore);
+      return byDate != 0 ? byDate : Long.compare(lot, other.lot);
+    }
+  }
+}
@@ -22,8 +22,10 @@ public class Ingredient {
    * @param unitItem     the unit of the item
    * @param pricePerUnit the price per unit of the item
    * @param bestBefore   the expiry date of the item
-   * @throws IllegalArgumentException if the name is null or empty, if the quantity is negative, if
-   *                                  the unit is null or empty or if the date is null.
+   * @throws IllegalArgumentException if the name is null or empty, if the quantity is not a
+   *                                  finite number greater than zero, if the price is not a finite
+   *                                  number of at least zero, if the unit is null or empty or if
+   *                                  the date is null.
    */
   public Ingredient(String nameItem, double quantityItem, String unitItem, double pricePerUnit,
       LocalDate bestBefore) {
@@ -31,10 +33,23 @@ public class Ingredient {
       throw new IllegalArgumentException("Name cannot be null or blank");
     }
 
+    if (!Double.isFinite(quantityItem)) {
+      throw new IllegalArgumentException("Quantity must be a finite number");
+    }
+
     if (quantityItem <= 0) {
       throw new IllegalArgumentException("Quantity must be greater than zero");
     }
 
+    // Verdien summeres i indeksene til kjøleskapet, og NaN kan aldri trekkes fra igjen
+    if (!Double.isFinite(pricePerUnit) || pricePerUnit < 0) {
+      throw new IllegalArgumentException("Price must be a finite number and cannot be negative");
+    }
+
+    if (!Double.isFinite(quantityItem * pricePerUnit)) {
+      throw new IllegalArgumentException("The value of the item is too large");
+    }
+
     if (unitItem == null || unitItem.isBlank()) {
       throw new IllegalArgumentException("Unit cannot be null or blank");
     }
@@ -71,15 +86,20 @@ public class Ingredient {
   // Hjelp fra *Co-pilot
 
   /**
-   * Updates the quantity of the item. If the quantity is negative, an exception will be thrown.
+   * Updates the quantity of the item. If the quantity is negative or not finite, an exception
+   * will be thrown.
    *
    * @param quantityItem the new quantity of the ingredient
-   * @throws IllegalArgumentException if the quantity is negative
+   * @throws IllegalArgumentException if the quantity is negative, or the quantity or the value of
+   *                                  the item is not finite
    */
   public void setQuantityItem(double quantityItem) {
     if (quantityItem < 0) {
       throw new IllegalArgumentException("Quantity cannot be negative");
     }
+    if (!Double.isFinite(quantityItem) || !Double.isFinite(quantityItem * pricePerUnit)) {
+      throw new IllegalArgumentException("Quantity must be a finite number");
+    }
     this.quantityItem = quantityItem;
   }
 
@@ -109,4 +129,4 @@ public class Ingredient {
   public LocalDate getBestBefore() {
     return bestBefore;
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives every distinct string a small number, so that repeated names and units can be stored as
+ * an int and compared without comparing strings. Numbers are given out from zero and are never
+ * reused. Safe to use from several threads.
+ */
+final class Interner {
+
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+  private volatile String[] values = new String[64];
+  private int size;
+
+  /**
+   * Returns the number of a string, giving it a new number the first time it is seen.
+   *
+   * @param value the string
+   * @return the number of the string
+   */
+  int idOf(String value) {
+    Integer id = ids.get(value);
+    return id != null ? id : add(value);
+  }
+
+  /**
+   * Returns the number of a string, without adding it.
+   *
+   * @param value the string
+   * @return the number of the string, or -1 if it has not been seen
+   */
+  int find(String value) {
+    Integer id = ids.get(value);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Returns the string with the given number.
+   *
+   * @param id the number of the string
+   * @return the string
+   */
+  String valueOf(int id) {
+    return values[id];
+  }
+
+  private synchronized int add(String value) {
+    Integer existing = ids.get(value);
+    if (existing != null) {
+      return existing;
+    }
+    String[] current = values;
+    if (size == current.length) {
+      current = Arrays.copyOf(current, size * 2);
+    }
+    current[size] = value;
+    // Tabellen publiseres før id-en, slik at andre tråder alltid finner strengen
+    values = current;
+    ids.put(value, size);
+    return size++;
+  }
+}
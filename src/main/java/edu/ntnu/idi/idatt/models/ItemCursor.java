@@ -0,0 +1,124 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * A lazy, resumable position in the result of a fridge query. The items are read directly from
+ * an ordered index of the fridge, so reading the first items of a result only costs as much as the
+ * number of items that are read, no matter how many items match.
+ *
+ * <p>The cursor remembers the last item it has returned, and every call to {@link #next(int)}
+ * continues right after it. The fridge can be changed between two calls: items that are added
+ * after the position are returned, and items that are removed are not. The stream from
+ * {@link #stream()} must be used up before the fridge is changed.</p>
+ */
+public final class ItemCursor {
+
+  private final NavigableMap<Object, Ingredient> view;
+  private Object position;
+  private boolean started;
+
+  @SuppressWarnings("unchecked")
+  private ItemCursor(NavigableMap<?, Ingredient> view) {
+    this.view = (NavigableMap<Object, Ingredient>) view;
+  }
+
+  /**
+   * Returns a cursor over a view of an index of a fridge. The view must keep the order of the
+   * query, and is read again on every call.
+   *
+   * @param view the part of the index that matches the query
+   * @return a cursor at the start of the view
+   */
+  static ItemCursor over(NavigableMap<?, Ingredient> view) {
+    return new ItemCursor(view);
+  }
+
+  /**
+   * Returns a cursor over a list of items that has already been made, for fridges that do not
+   * keep ordered indexes.
+   *
+   * @param items the result of the query, in order
+   * @return a cursor at the start of the list
+   */
+  public static ItemCursor of(List<Ingredient> items) {
+    TreeMap<Integer, Ingredient> view = new TreeMap<>();
+    for (int i = 0; i < items.size(); i++) {
+      view.put(i, items.get(i));
+    }
+    return new ItemCursor(view);
+  }
+
+  /**
+   * Returns the next items, and moves the cursor past them.
+   *
+   * @param count the maximum number of items to return
+   * @return up to {@code count} items, or an empty list if there are no more items
+   * @throws IllegalArgumentException if the count is negative
+   */
+  public List<Ingredient> next(int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Count cannot be negative");
+    }
+    List<Ingredient> result = new ArrayList<>(Math.min(count, 64));
+    for (Map.Entry<Object, Ingredient> entry : remaining().entrySet()) {
+      if (result.size() == count) {
+        break;
+      }
+      result.add(entry.getValue());
+      position = entry.getKey();
+      started = true;
+    }
+    return result;
+  }
+
+  /**
+   * Moves the cursor past a number of items without returning them.
+   *
+   * @param offset the number of items to skip
+   * @return this cursor
+   * @throws IllegalArgumentException if the offset is negative
+   */
+  public ItemCursor skip(long offset) {
+    if (offset < 0) {
+      throw new IllegalArgumentException("Offset cannot be negative");
+    }
+    long skipped = 0;
+    for (Object key : remaining().keySet()) {
+      if (skipped == offset) {
+        break;
+      }
+      position = key;
+      started = true;
+      skipped++;
+    }
+    return this;
+  }
+
+  /**
+   * Checks if there are more items after the cursor.
+   *
+   * @return true if {@link #next(int)} would return at least one item
+   */
+  public boolean hasNext() {
+    return !remaining().isEmpty();
+  }
+
+  /**
+   * Returns a lazy stream of the items after the cursor. The stream does not move the cursor.
+   *
+   * @return a stream of the remaining items
+   */
+  public Stream<Ingredient> stream() {
+    return remaining().values().stream();
+  }
+
+  private NavigableMap<Object, Ingredient> remaining() {
+    return started ? view.tailMap(position, false) : view;
+  }
+}
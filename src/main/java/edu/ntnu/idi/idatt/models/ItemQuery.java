@@ -0,0 +1,293 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A query for items in a fridge, made by combining conditions on the name, unit, price, quantity
+ * and best-before date. Every method returns a new query with one more condition, so a query can
+ * be built step by step and reused, e.g.
+ *
+ * <pre>
+ * ItemQuery.all().nameStartsWith("milk").priceBetween(0, 5).bestBeforeBetween(today, sunday)
+ * </pre>
+ *
+ * <p>The query is run with {@link FoodStorage#query(ItemQuery)}, which picks the index that
+ * matches the fewest items and checks the other conditions on the items it reads. The result is
+ * sorted by best-before date, like the other queries of the fridge. All text conditions are
+ * case-insensitive, and all ranges include both ends.</p>
+ */
+public final class ItemQuery {
+
+  private String name;
+  private String namePrefix;
+  private String unit;
+  private double minPrice = Double.NEGATIVE_INFINITY;
+  private double maxPrice = Double.POSITIVE_INFINITY;
+  private double minQuantity = Double.NEGATIVE_INFINITY;
+  private double maxQuantity = Double.POSITIVE_INFINITY;
+  private LocalDate from = LocalDate.MIN;
+  private LocalDate to = LocalDate.MAX;
+  private int limit = Integer.MAX_VALUE;
+
+  private ItemQuery() {
+  }
+
+  /**
+   * Returns a query for all items, which conditions can be added to.
+   *
+   * @return a query without conditions
+   */
+  public static ItemQuery all() {
+    return new ItemQuery();
+  }
+
+  /**
+   * Returns a query that only matches items with the given name.
+   *
+   * @param name the name of the items (case-insensitive)
+   * @return a new query with the condition added
+   * @throws IllegalArgumentException if the name is null
+   */
+  public ItemQuery named(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("Name cannot be null");
+    }
+    ItemQuery query = copy();
+    query.name = name.toLowerCase(Locale.ROOT);
+    return query;
+  }
+
+  /**
+   * Returns a query that only matches items with a name that starts with the given text.
+   *
+   * @param prefix the start of the name (case-insensitive)
+   * @return a new query with the condition added
+   * @throws IllegalArgumentException if the prefix is null
+   */
+  public ItemQuery nameStartsWith(String prefix) {
+    if (prefix == null) {
+      throw new IllegalArgumentException("Prefix cannot be null");
+    }
+    ItemQuery query = copy();
+    query.namePrefix = prefix.toLowerCase(Locale.ROOT);
+    return query;
+  }
+
+  /**
+   * Returns a query that only matches items with the given unit.
+   *
+   * @param unit the unit of the items (case-insensitive)
+   * @return a new query with the condition added
+   * @throws IllegalArgumentException if the unit is null
+   */
+  public ItemQuery unit(String unit) {
+    if (unit == null) {
+      throw new IllegalArgumentException("Unit cannot be null");
+    }
+    ItemQuery query = copy();
+    query.unit = unit;
+    return query;
+  }
+
+  /**
+   * Returns a query that only matches items with a price per unit in the given range.
+   *
+   * @param min the lowest price
+   * @param max the highest price
+   * @return a new query with the condition added
+   * @throws IllegalArgumentException if the lowest price is greater than the highest
+   */
+  public ItemQuery priceBetween(double min, double max) {
+    checkRange(min, max);
+    ItemQuery query = copy();
+    query.minPrice = min;
+    query.maxPrice = max;
+    return query;
+  }
+
+  /**
+   * Returns a query that only matches items with a quantity in the given range.
+   *
+   * @param min the lowest quantity
+   * @param max the highest quantity
+   * @return a new query with the condition added
+   * @throws IllegalArgumentException if the lowest quantity is greater than the highest
+   */
+  public ItemQuery quantityBetween(double min, double max) {
+    checkRange(min, max);
+    ItemQuery query = copy();
+    query.minQuantity = min;
+    query.maxQuantity = max;
+    return query;
+  }
+
+  /**
+   * Returns a query that only matches items with a quantity below the given quantity.
+   *
+   * @param quantity the quantity the items must be below
+   * @return a new query with the condition added
+   */
+  public ItemQuery quantityBelow(double quantity) {
+    return quantityBetween(Double.NEGATIVE_INFINITY, Math.nextDown(quantity));
+  }
+
+  /**
+   * Returns a query that only matches items with a best-before date in the given range.
+   *
+   * @param from the first date
+   * @param to   the last date
+   * @return a new query with the condition added
+   * @throws IllegalArgumentException if a date is null or the first date is after the last
+   */
+  public ItemQuery bestBeforeBetween(LocalDate from, LocalDate to) {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Dates cannot be null");
+    }
+    if (from.isAfter(to)) {
+      throw new IllegalArgumentException("The start date cannot be after the end date");
+    }
+    ItemQuery query = copy();
+    query.from = from;
+    query.to = to;
+    return query;
+  }
+
+  /**
+   * Returns a query that stops after the given number of items.
+   *
+   * @param limit the maximum number of items
+   * @return a new query with the limit set
+   * @throws IllegalArgumentException if the limit is not positive
+   */
+  public ItemQuery limit(int limit) {
+    if (limit <= 0) {
+      throw new IllegalArgumentException("Limit must be greater than zero");
+    }
+    ItemQuery query = copy();
+    query.limit = limit;
+    return query;
+  }
+
+  /**
+   * Runs the query by reading every item in a list, for fridges that do not keep indexes.
+   *
+   * @param items the items to query
+   * @return the matching items, sorted by best-before date
+   */
+  public QueryResult scan(List<Ingredient> items) {
+    List<Ingredient> sorted = new ArrayList<>(items);
+    sorted.sort((a, b) -> a.getBestBefore().compareTo(b.getBestBefore()));
+    List<Ingredient> result = new ArrayList<>();
+    int scanned = 0;
+    for (Ingredient item : sorted) {
+      if (result.size() == limit) {
+        break;
+      }
+      scanned++;
+      if (matches(item)) {
+        result.add(item);
+      }
+    }
+    QueryPlan plan = new QueryPlan(QueryPlan.AccessPath.FULL_SCAN, items.size(),
+        conditions(QueryPlan.AccessPath.FULL_SCAN));
+    return new QueryResult(result, plan, scanned);
+  }
+
+  /**
+   * Checks if an item meets every condition of the query.
+   *
+   * @param item the item to check
+   * @return true if the item matches
+   */
+  boolean matches(Ingredient item) {
+    String itemName = item.getNameItem().toLowerCase(Locale.ROOT);
+    return (name == null || itemName.equals(name))
+        && (namePrefix == null || itemName.startsWith(namePrefix))
+        && (unit == null || item.getUnitItem().equalsIgnoreCase(unit))
+        && item.getPricePerUnit() >= minPrice && item.getPricePerUnit() <= maxPrice
+        && item.getQuantityItem() >= minQuantity && item.getQuantityItem() <= maxQuantity
+        && !item.getBestBefore().isBefore(from) && !item.getBestBefore().isAfter(to);
+  }
+
+  /**
+   * Returns the conditions that are checked on every item read with the given access path, that
+   * is all conditions except the one the index already takes care of.
+   *
+   * @param path the access path of the plan
+   * @return a description of each condition
+   */
+  List<String> conditions(QueryPlan.AccessPath path) {
+    List<String> conditions = new ArrayList<>();
+    if (name != null && path != QueryPlan.AccessPath.NAME) {
+      conditions.add("name = '" + name + "'");
+    }
+    if (namePrefix != null && path != QueryPlan.AccessPath.NAME_PREFIX) {
+      conditions.add("name starts with '" + namePrefix + "'");
+    }
+    if (unit != null) {
+      conditions.add("unit = '" + unit + "'");
+    }
+    if (minPrice != Double.NEGATIVE_INFINITY || maxPrice != Double.POSITIVE_INFINITY) {
+      conditions.add("price " + range(minPrice, maxPrice));
+    }
+    if (minQuantity != Double.NEGATIVE_INFINITY || maxQuantity != Double.POSITIVE_INFINITY) {
+      conditions.add("quantity " + range(minQuantity, maxQuantity));
+    }
+    if (hasDateRange() && path != QueryPlan.AccessPath.BEST_BEFORE_RANGE) {
+      conditions.add("best before " + from + " to " + to);
+    }
+    return conditions;
+  }
+
+  String name() {
+    return name;
+  }
+
+  String namePrefix() {
+    return namePrefix;
+  }
+
+  LocalDate from() {
+    return from;
+  }
+
+  LocalDate to() {
+    return to;
+  }
+
+  int limit() {
+    return limit;
+  }
+
+  boolean hasDateRange() {
+    return !from.equals(LocalDate.MIN) || !to.equals(LocalDate.MAX);
+  }
+
+  private static String range(double min, double max) {
+    return String.format(Locale.ROOT, "%s to %s", min, max);
+  }
+
+  private static void checkRange(double min, double max) {
+    if (min > max) {
+      throw new IllegalArgumentException("The minimum cannot be greater than the maximum");
+    }
+  }
+
+  private ItemQuery copy() {
+    ItemQuery copy = new ItemQuery();
+    copy.name = name;
+    copy.namePrefix = namePrefix;
+    copy.unit = unit;
+    copy.minPrice = minPrice;
+    copy.maxPrice = maxPrice;
+    copy.minQuantity = minQuantity;
+    copy.maxQuantity = maxQuantity;
+    copy.from = from;
+    copy.to = to;
+    copy.limit = limit;
+    return copy;
+  }
+}
@@ -0,0 +1,30 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.util.List;
+
+/**
+ * A recipe that can almost be made with the items in a fridge, together with what is missing.
+ *
+ * @param recipeName the name of the recipe
+ * @param missing    the quantity of every ingredient there is not enough of
+ * @param shortfall  how much is missing, as the sum of the missing part of each missing
+ *                   ingredient, from 0 (nothing missing) up to 1 per ingredient (none in stock)
+ */
+public record NearMiss(String recipeName, List<ShoppingItem> missing, double shortfall) {
+
+  /**
+   * Constructor that makes an unmodifiable copy of the missing ingredients.
+   */
+  public NearMiss {
+    missing = List.copyOf(missing);
+  }
+
+  /**
+   * Returns the number of ingredients that are missing.
+   *
+   * @return the number of missing ingredients
+   */
+  public int missingCount() {
+    return missing.size();
+  }
+}
@@ -0,0 +1,597 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemoryLayout.PathElement;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * A fridge that keeps its items outside the Java heap, in memory segments allocated from an
+ * {@link Arena}. Every item is stored as a fixed-size record with the name, unit, quantity, price
+ * and best-before date, where names and units are stored as numbers. The operations work directly
+ * on the records, so a fridge with millions of items only keeps a few small tables and one number
+ * per item on the heap, and the garbage collector does not have to look at the items.
+ *
+ * <p>The operations give the same results and messages as {@link FoodStorage}, with these
+ * differences:</p>
+ * <ul>
+ *   <li>The returned items are copies made from the records, so changing them does not change the
+ *   fridge.</li>
+ *   <li>Listeners are not supported, since the items have no identity that could be reported.</li>
+ * </ul>
+ *
+ * <p>The memory is freed when the fridge is closed, after which it cannot be used. Like
+ * {@link FoodStorage}, the fridge is not thread-safe, but it can be used from any thread as long
+ * as the access is synchronized.</p>
+ */
+public class OffHeapFoodStorage extends FoodStorage implements AutoCloseable {
+
+  /**
+   * The layout of one item record.
+   */
+  static final StructLayout LOT = MemoryLayout.structLayout(
+      ValueLayout.JAVA_INT.withName("nameId"),
+      ValueLayout.JAVA_INT.withName("keyId"),
+      ValueLayout.JAVA_INT.withName("unitId"),
+      MemoryLayout.paddingLayout(4),
+      ValueLayout.JAVA_DOUBLE.withName("quantity"),
+      ValueLayout.JAVA_DOUBLE.withName("price"),
+      ValueLayout.JAVA_LONG.withName("bestBefore"));
+
+  private static final long LOT_SIZE = LOT.byteSize();
+  private static final long NAME_ID = offsetOf("nameId");
+  private static final long KEY_ID = offsetOf("keyId");
+  private static final long UNIT_ID = offsetOf("unitId");
+  private static final long QUANTITY = offsetOf("quantity");
+  private static final long PRICE = offsetOf("price");
+  private static final long BEST_BEFORE = offsetOf("bestBefore");
+
+  /**
+   * The number of records in one segment. Must be a power of two.
+   */
+  private static final int CHUNK_SHIFT = 16;
+  private static final int CHUNK_LOTS = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_LOTS - 1;
+
+  private final Arena arena;
+  private final List<MemorySegment> chunks;
+
+  /**
+   * Names as written, and lower case names used to compare names without regard to case.
+   */
+  private final Interner names;
+  private final Interner keys;
+
+  /**
+   * The number of records in use, including records of items that have been used up.
+   */
+  private int size;
+
+  /**
+   * The number of records of items that have been used up. They are skipped by all operations,
+   * and are removed when they make up more than half of the records.
+   */
+  private int removed;
+
+  private long version;
+
+  /**
+   * The version at which each ingredient was last changed, by the number of its lower case name.
+   */
+  private long[] ingredientVersions;
+
+  /**
+   * The records of every ingredient that are not used up, by the number of its lower case name,
+   * sorted by best-before date and then by record. Adding and removing an item only reads the
+   * records of its ingredient.
+   */
+  private int[][] lotsByKey;
+  private int[] lotCounts;
+
+  /**
+   * Constructor that initializes an empty off-heap fridge.
+   */
+  public OffHeapFoodStorage() {
+    this(Clock.systemDefaultZone());
+  }
+
+  /**
+   * Constructor that initializes an empty off-heap fridge, using the given clock to find today's
+   * date.
+   *
+   * @param clock the clock used to decide which items have expired
+   * @throws IllegalArgumentException if the clock is null
+   */
+  public OffHeapFoodStorage(Clock clock) {
+    super(clock);
+    this.arena = Arena.ofShared();
+    this.chunks = new ArrayList<>();
+    this.names = new Interner();
+    this.keys = new Interner();
+    this.ingredientVersions = new long[64];
+    this.lotsByKey = new int[64][];
+    this.lotCounts = new int[64];
+  }
+
+  /**
+   * Not supported, since the items of an off-heap fridge have no identity.
+   *
+   * @param listener the listener to add
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void addListener(StorageListener listener) {
+    throw new UnsupportedOperationException("Listeners are not supported by an off-heap fridge");
+  }
+
+  /**
+   * Returns a copy of all items in the fridge, in the order they were added.
+   *
+   * @return a list of the items in the fridge
+   */
+  @Override
+  public List<Ingredient> getItems() {
+    List<Ingredient> result = new ArrayList<>(size - removed);
+    for (int i = 0; i < size; i++) {
+      if (quantity(i) > 0) {
+        result.add(toIngredient(i));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of items in the fridge.
+   *
+   * @return the number of items
+   */
+  public int getItemCount() {
+    return size - removed;
+  }
+
+  @Override
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public long getIngredientVersion(String name) {
+    int keyId = name == null ? -1 : keys.find(name.toLowerCase(Locale.ROOT));
+    return keyId < 0 || keyId >= ingredientVersions.length ? 0 : ingredientVersions[keyId];
+  }
+
+  /**
+   * Adds an item to the fridge. If an item with the same name, expiry date and price already
+   * exists, the quantities are combined. Otherwise, a new record is added.
+   *
+   * @param newItem the item to be added.
+   * @return a message that the item have been added successfully.
+   * @throws IllegalArgumentException if the item is null or the quantity is zero or negative.
+   */
+  @Override
+  public String addItem(Ingredient newItem) {
+    if (newItem == null || newItem.getQuantityItem() <= 0) {
+      throw new IllegalArgumentException("Invalid item or quantity");
+    }
+    int keyId = keys.idOf(newItem.getNameItem().toLowerCase(Locale.ROOT));
+    long bestBefore = newItem.getBestBefore().toEpochDay();
+    double price = newItem.getPricePerUnit();
+
+    int existing = findLot(keyId, bestBefore, price);
+    if (existing >= 0) {
+      setQuantity(existing, quantity(existing) + newItem.getQuantityItem());
+    } else {
+      int index = size++;
+      if (index >> CHUNK_SHIFT == chunks.size()) {
+        chunks.add(arena.allocate(LOT_SIZE * CHUNK_LOTS, LOT.byteAlignment()));
+      }
+      MemorySegment chunk = chunk(index);
+      long offset = offset(index);
+      chunk.set(ValueLayout.JAVA_INT, offset + NAME_ID, names.idOf(newItem.getNameItem()));
+      chunk.set(ValueLayout.JAVA_INT, offset + KEY_ID, keyId);
+      chunk.set(ValueLayout.JAVA_INT, offset + UNIT_ID, Units.idOf(newItem.getUnitItem()));
+      chunk.set(ValueLayout.JAVA_DOUBLE, offset + QUANTITY, newItem.getQuantityItem());
+      chunk.set(ValueLayout.JAVA_DOUBLE, offset + PRICE, price);
+      chunk.set(ValueLayout.JAVA_LONG, offset + BEST_BEFORE, bestBefore);
+      insertLot(keyId, index, bestBefore);
+    }
+    markModified(keyId);
+    return String.format("%.2f %s of %s has been added to the fridge!",
+        newItem.getQuantityItem(), newItem.getUnitItem(), newItem.getNameItem());
+  }
+
+  /**
+   * Removes a specified quantity of an item from the fridge, starting with the earliest expiry
+   * date. Items that are used up are removed from the fridge.
+   *
+   * @param name     the name of the item to remove
+   * @param quantity the quantity of the item to remove
+   * @return a summary of the removing process, including details about removed items and updated
+   * stock status.
+   */
+  @Override
+  public String removeItem(String name, double quantity) {
+    double remainingQuantity = quantity;
+    StringBuilder result = new StringBuilder();
+    int keyId = name == null ? -1 : keys.find(name.toLowerCase(Locale.ROOT));
+
+    int count = lotCount(keyId);
+    if (count > 0 && remainingQuantity > 0) {
+      // Samme rekkefølge som FoodStorage: tidligste dato først, ellers den som ble lagt til først
+      int[] lots = lotsByKey[keyId];
+      int usedUp = 0;
+      for (int p = 0; p < count && remainingQuantity > 0; p++) {
+        int i = lots[p];
+        double amountToRemove = Math.min(remainingQuantity, quantity(i));
+        double remaining = quantity(i) - amountToRemove;
+        setQuantity(i, remaining);
+        remainingQuantity -= amountToRemove;
+        if (remaining <= 0) {
+          removed++;
+          usedUp++;
+        }
+        result.append(String.format(
+            "%.2f %s of %s with best before %s is removed. Remaining in stock: %.2f\n",
+            amountToRemove, Units.nameOf(unitId(i)), names.valueOf(nameId(i)),
+            LocalDate.ofEpochDay(bestBefore(i)), remaining
+        ));
+      }
+      // Bare den siste varen kan være delvis brukt, så de brukte varene ligger først
+      System.arraycopy(lots, usedUp, lots, 0, count - usedUp);
+      lotCounts[keyId] = count - usedUp;
+      markModified(keyId);
+    }
+    if (remainingQuantity > 0) {
+      result.append(String.format("Not enough %s in stock to remove %.2f. Stock in fridge: %.2f.",
+          name, quantity, remainingQuantity));
+    }
+    if (removed > size / 2) {
+      compact();
+    }
+    return result.toString();
+  }
+
+  /**
+   * Searches for items by name in the fridge, and returns the matches sorted by expiry date.
+   *
+   * @param name the name of the item (case-insensitive)
+   * @return a list of the matching items
+   */
+  @Override
+  public List<Ingredient> searchItem(String name) {
+    int keyId = name == null ? -1 : keys.find(name.toLowerCase(Locale.ROOT));
+    int count = lotCount(keyId);
+    List<Ingredient> result = new ArrayList<>(count);
+    for (int p = 0; p < count; p++) {
+      result.add(toIngredient(lotsByKey[keyId][p]));
+    }
+    return result;
+  }
+
+  /**
+   * Retrieves a list of ingredients that expire on or before the specified date. The returned list
+   * is sorted by the increasing expiry date.
+   *
+   * @param date the specific expiry date.
+   * @return a list ingredients that expires on or before the specified date.
+   */
+  @Override
+  public List<Ingredient> getItemsBeforeDate(LocalDate date) {
+    long last = date.toEpochDay();
+    return sortedItems(IntStream.range(0, size)
+        .filter(i -> bestBefore(i) <= last && quantity(i) > 0));
+  }
+
+  /**
+   * Returns the items that expired before today, sorted by expiry date.
+   *
+   * @return the list of expired items
+   */
+  @Override
+  public List<Ingredient> getExpiredItems() {
+    long today = LocalDate.now(getClock()).toEpochDay();
+    return sortedItems(IntStream.range(0, size)
+        .filter(i -> bestBefore(i) < today && quantity(i) > 0));
+  }
+
+  /**
+   * Returns a cursor over the result of {@link #searchItem(String)}. The result is made at once,
+   * since this fridge does not keep ordered indexes of items.
+   *
+   * @param name the name of the item (case-insensitive)
+   * @return a cursor at the first matching item
+   */
+  @Override
+  public ItemCursor searchCursor(String name) {
+    return ItemCursor.of(searchItem(name));
+  }
+
+  /**
+   * Returns a cursor over the result of {@link #getItemsBeforeDate(LocalDate)}, which is made at
+   * once.
+   *
+   * @param date the specific expiry date.
+   * @return a cursor at the item that expires first
+   */
+  @Override
+  public ItemCursor beforeDateCursor(LocalDate date) {
+    return ItemCursor.of(getItemsBeforeDate(date));
+  }
+
+  /**
+   * Returns a cursor over the result of {@link #getExpiredItems()}, which is made at once.
+   *
+   * @return a cursor at the item that expired first
+   */
+  @Override
+  public ItemCursor expiredCursor() {
+    return ItemCursor.of(getExpiredItems());
+  }
+
+  /**
+   * Runs a query by reading every item, since this fridge does not keep the indexes the planner
+   * of {@link FoodStorage#query(ItemQuery)} uses.
+   *
+   * @param query the query to run
+   * @return the matching items sorted by expiry date, with the plan and the number of items read
+   * @throws IllegalArgumentException if the query is null
+   */
+  @Override
+  public QueryResult query(ItemQuery query) {
+    if (query == null) {
+      throw new IllegalArgumentException("Query cannot be null");
+    }
+    return query.scan(getItems());
+  }
+
+  /**
+   * Returns the total value of the items that have expired, by reading every record.
+   *
+   * @return the value of the items with a best-before date before today
+   */
+  @Override
+  public double getExpiredValue() {
+    long today = LocalDate.now(getClock()).toEpochDay();
+    return valueBetween(Long.MIN_VALUE, today - 1);
+  }
+
+  /**
+   * Returns the total value of the items that expire within a number of days, by reading every
+   * record.
+   *
+   * @param days the number of days from today
+   * @return the value that expires within the days
+   * @throws IllegalArgumentException if the number of days is negative
+   */
+  @Override
+  public double getValueExpiringWithin(int days) {
+    if (days < 0) {
+      throw new IllegalArgumentException("Number of days cannot be negative");
+    }
+    long today = LocalDate.now(getClock()).toEpochDay();
+    return valueBetween(today, today + days);
+  }
+
+  /**
+   * Calculates the total value of all items in the fridge.
+   *
+   * @return the total value.
+   */
+  @Override
+  public double calculateTotalValue() {
+    double total = 0;
+    for (int i = 0; i < size; i++) {
+      MemorySegment chunk = chunk(i);
+      long offset = offset(i);
+      // Brukte varer har mengde 0 og bidrar ikke
+      total += chunk.get(ValueLayout.JAVA_DOUBLE, offset + QUANTITY)
+          * chunk.get(ValueLayout.JAVA_DOUBLE, offset + PRICE);
+    }
+    return total;
+  }
+
+  /**
+   * Frees the memory of the fridge. The fridge cannot be used after it has been closed.
+   */
+  @Override
+  public void close() {
+    arena.close();
+  }
+
+  /**
+   * Turns the records with the given indexes into items, sorted by expiry date. Records with the
+   * same date keep their order.
+   *
+   * @param indexes the indexes of the records, in increasing order
+   * @return a list of the items
+   */
+  private List<Ingredient> sortedItems(IntStream indexes) {
+    return indexes.boxed()
+        .sorted(Comparator.comparingLong(this::bestBefore))
+        .map(this::toIngredient)
+        .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+  }
+
+  /**
+   * Moves all records of items that are not used up to the start of the segments, keeping their
+   * order.
+   */
+  private void compact() {
+    int[] moved = new int[size];
+    int target = 0;
+    for (int i = 0; i < size; i++) {
+      if (quantity(i) > 0) {
+        if (target != i) {
+          MemorySegment.copy(chunk(i), offset(i), chunk(target), offset(target), LOT_SIZE);
+        }
+        moved[i] = target++;
+      }
+    }
+    // Rekkefølgen beholdes, så listene per ingrediens er fortsatt sortert
+    for (int keyId = 0; keyId < lotCounts.length; keyId++) {
+      for (int p = 0; p < lotCounts[keyId]; p++) {
+        lotsByKey[keyId][p] = moved[lotsByKey[keyId][p]];
+      }
+    }
+    size = target;
+    removed = 0;
+  }
+
+  /**
+   * Returns the number of records of an ingredient that are not used up.
+   *
+   * @param keyId the number of the lower case name of the ingredient, or -1
+   * @return the number of records in {@link #lotsByKey} for the ingredient
+   */
+  private int lotCount(int keyId) {
+    return keyId < 0 || keyId >= lotCounts.length ? 0 : lotCounts[keyId];
+  }
+
+  /**
+   * Finds the record of an ingredient with the given best-before date and price.
+   *
+   * @param keyId      the number of the lower case name of the ingredient
+   * @param bestBefore the best-before date as an epoch day
+   * @param price      the price per unit
+   * @return the index of the record, or -1 if there is none
+   */
+  private int findLot(int keyId, long bestBefore, double price) {
+    int count = lotCount(keyId);
+    if (count == 0) {
+      return -1;
+    }
+    int[] lots = lotsByKey[keyId];
+    for (int p = firstAfter(lots, count, bestBefore - 1);
+        p < count && bestBefore(lots[p]) == bestBefore; p++) {
+      if (price(lots[p]) == price) {
+        return lots[p];
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Adds a new record to the records of its ingredient, after the records with the same or an
+   * earlier best-before date.
+   *
+   * @param keyId      the number of the lower case name of the ingredient
+   * @param index      the index of the record, which is higher than that of every other record
+   * @param bestBefore the best-before date as an epoch day
+   */
+  private void insertLot(int keyId, int index, long bestBefore) {
+    if (keyId >= lotCounts.length) {
+      int length = Math.max(keyId + 1, lotCounts.length * 2);
+      lotsByKey = Arrays.copyOf(lotsByKey, length);
+      lotCounts = Arrays.copyOf(lotCounts, length);
+    }
+    int count = lotCounts[keyId];
+    int[] lots = lotsByKey[keyId];
+    if (lots == null || count == lots.length) {
+      lots = lots == null ? new int[4] : Arrays.copyOf(lots, count * 2);
+      lotsByKey[keyId] = lots;
+    }
+    int position = firstAfter(lots, count, bestBefore);
+    System.arraycopy(lots, position, lots, position + 1, count - position);
+    lots[position] = index;
+    lotCounts[keyId] = count + 1;
+  }
+
+  /**
+   * Finds the first of some sorted records with a best-before date after the given day.
+   *
+   * @param lots  the records, sorted by best-before date
+   * @param count the number of records
+   * @param day   the day as an epoch day
+   * @return the position of the first record after the day, or the count if there is none
+   */
+  private int firstAfter(int[] lots, int count, long day) {
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (bestBefore(lots[middle]) <= day) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private Ingredient toIngredient(int index) {
+    return new Ingredient(names.valueOf(nameId(index)), quantity(index),
+        Units.nameOf(unitId(index)), price(index), LocalDate.ofEpochDay(bestBefore(index)));
+  }
+
+  private MemorySegment chunk(int index) {
+    return chunks.get(index >>> CHUNK_SHIFT);
+  }
+
+  private static long offset(int index) {
+    return (index & CHUNK_MASK) * LOT_SIZE;
+  }
+
+  private int nameId(int index) {
+    return chunk(index).get(ValueLayout.JAVA_INT, offset(index) + NAME_ID);
+  }
+
+  private int unitId(int index) {
+    return chunk(index).get(ValueLayout.JAVA_INT, offset(index) + UNIT_ID);
+  }
+
+  private double valueBetween(long firstDay, long lastDay) {
+    double total = 0;
+    for (int i = 0; i < size; i++) {
+      long day = bestBefore(i);
+      if (day >= firstDay && day <= lastDay) {
+        total += quantity(i) * price(i);
+      }
+    }
+    return total;
+  }
+
+  private double quantity(int index) {
+    return chunk(index).get(ValueLayout.JAVA_DOUBLE, offset(index) + QUANTITY);
+  }
+
+  private void setQuantity(int index, double quantity) {
+    chunk(index).set(ValueLayout.JAVA_DOUBLE, offset(index) + QUANTITY, quantity);
+  }
+
+  private double price(int index) {
+    return chunk(index).get(ValueLayout.JAVA_DOUBLE, offset(index) + PRICE);
+  }
+
+  private long bestBefore(int index) {
+    return chunk(index).get(ValueLayout.JAVA_LONG, offset(index) + BEST_BEFORE);
+  }
+
+  /**
+   * Increases the version of the fridge and marks the given ingredient as changed at the new
+   * version.
+   *
+   * @param keyId the number of the lower case name of the ingredient
+   */
+  private void markModified(int keyId) {
+    version++;
+    if (keyId >= ingredientVersions.length) {
+      ingredientVersions = Arrays.copyOf(ingredientVersions,
+          Math.max(keyId + 1, ingredientVersions.length * 2));
+    }
+    ingredientVersions[keyId] = version;
+  }
+
+  private static long offsetOf(String field) {
+    return LOT.byteOffset(PathElement.groupElement(field));
+  }
+}
@@ -0,0 +1,24 @@
+package edu.ntnu.idi.idatt.models;
+
+/**
+ * A recipe in a meal plan, together with the number of servings to make.
+ *
+ * @param recipe   the recipe to make
+ * @param servings the number of servings to make
+ */
+public record PlannedRecipe(Recipe recipe, int servings) {
+
+  /**
+   * Constructor that checks the recipe and the servings.
+   *
+   * @throws IllegalArgumentException if the recipe is null or the servings is not positive
+   */
+  public PlannedRecipe {
+    if (recipe == null) {
+      throw new IllegalArgumentException("Recipe cannot be null");
+    }
+    if (servings <= 0) {
+      throw new IllegalArgumentException("Servings must be greater than zero");
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.util.List;
+
+/**
+ * How a fridge runs an {@link ItemQuery}: the index the items are read from, how many items the
+ * index was expected to give, and the conditions that are checked on every item that is read.
+ *
+ * @param accessPath    the index the items are read from
+ * @param estimatedRows the number of items the index was expected to give
+ * @param filters       the conditions checked on every item that is read
+ */
+public record QueryPlan(AccessPath accessPath, long estimatedRows, List<String> filters) {
+
+  /**
+   * The ways the items of a query can be read.
+   */
+  public enum AccessPath {
+    /**
+     * The items of one name, from the name index.
+     */
+    NAME,
+    /**
+     * The items of every name that starts with a prefix, from the name index.
+     */
+    NAME_PREFIX,
+    /**
+     * The items with best-before dates in a range, from the date index.
+     */
+    BEST_BEFORE_RANGE,
+    /**
+     * Every item in the fridge.
+     */
+    FULL_SCAN
+  }
+
+  /**
+   * Constructor that makes an unmodifiable copy of the filters.
+   */
+  public QueryPlan {
+    filters = List.copyOf(filters);
+  }
+}
@@ -0,0 +1,32 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.util.List;
+
+/**
+ * The items found by an {@link ItemQuery}, together with the plan that was used and the number
+ * of items that were read to find them.
+ *
+ * @param items       the matching items, sorted by best-before date
+ * @param plan        the plan that was used
+ * @param rowsScanned the number of items that were read
+ */
+public record QueryResult(List<Ingredient> items, QueryPlan plan, int rowsScanned) {
+
+  /**
+   * Returns a description of how the query was run, e.g.
+   * {@code NAME_PREFIX (estimated 12 rows), filter: price 0.0 to 5.0, scanned 12, returned 3}.
+   *
+   * @return the plan and the number of items read and returned
+   */
+  public String explain() {
+    StringBuilder result = new StringBuilder()
+        .append(plan.accessPath())
+        .append(" (estimated ").append(plan.estimatedRows()).append(" rows)");
+    if (!plan.filters().isEmpty()) {
+      result.append(", filter: ").append(String.join(", ", plan.filters()));
+    }
+    return result.append(", scanned ").append(rowsScanned)
+        .append(", returned ").append(items.size())
+        .toString();
+  }
+}
@@ -11,7 +11,7 @@ public class Recipe {
   private final String nameRecipe;
   private final String descriptionRecipe;
   private final String instructionsRecipe;
-  private final List<Ingredient> ingredientsRecipe;
+  private final Requirements requirements;
   private final int servingsRecipe;
 
   /**
@@ -46,8 +46,8 @@ public class Recipe {
     this.nameRecipe = nameRecipe;
     this.instructionsRecipe = instructionsRecipe;
     this.descriptionRecipe = descriptionRecipe;
-    // Sørger for at listen er immutable, kaster også NullPointException *ChatGPT
-    this.ingredientsRecipe = List.copyOf(ingredients);
+    // Lagres kompakt, kaster også NullPointException hvis en ingrediens er null
+    this.requirements = new Requirements(ingredients);
     this.servingsRecipe = servingsRecipe;
   }
 
@@ -79,12 +79,25 @@ public class Recipe {
   }
 
   /**
-   * Returns a immutable list of ingredients for the recipe.
+   * Returns a immutable list of ingredients for the recipe. The recipe only stores the name,
+   * quantity and unit of each ingredient, so the ingredients have no price and
+   * {@link java.time.LocalDate#MAX} as best-before date. Every call to {@code get} makes a new
+   * ingredient, so the ingredients are not the ones the recipe was created with.
    *
    * @return the list of ingredients for the recipe
    */
   public List<Ingredient> getIngredientsRecipe() {
-    return ingredientsRecipe;
+    return requirements.asIngredients();
+  }
+
+  /**
+   * Returns the ingredients of the recipe in compact form, used when matching recipes against a
+   * fridge.
+   *
+   * @return the requirements of the recipe
+   */
+  Requirements getRequirements() {
+    return requirements;
   }
 
   /**
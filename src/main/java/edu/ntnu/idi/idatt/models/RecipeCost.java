@@ -0,0 +1,43 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.util.List;
+
+/**
+ * What a recipe costs to make with the items in a fridge, when the items that expire first are
+ * used first.
+ *
+ * @param recipeName the name of the recipe
+ * @param servings   the number of servings the recipe makes
+ * @param totalCost  the price of the items the recipe uses
+ * @param missing    the quantity of every ingredient there is not enough of, which is not part of
+ *                   the cost
+ */
+public record RecipeCost(String recipeName, int servings, double totalCost,
+                         List<ShoppingItem> missing) {
+
+  /**
+   * Constructor that makes an unmodifiable copy of the missing ingredients.
+   */
+  public RecipeCost {
+    missing = List.copyOf(missing);
+  }
+
+  /**
+   * Returns the cost of one serving of the recipe.
+   *
+   * @return the total cost divided by the number of servings
+   */
+  public double costPerServing() {
+    return totalCost / servings;
+  }
+
+  /**
+   * Checks if the fridge has enough of every ingredient, so that the cost is the full cost of the
+   * recipe.
+   *
+   * @return true if no ingredients are missing
+   */
+  public boolean isComplete() {
+    return missing.isEmpty();
+  }
+}
@@ -0,0 +1,19 @@
+package edu.ntnu.idi.idatt.models;
+
+/**
+ * Listener that is notified by a {@link CookBook} every time a recipe is added or removed. Like
+ * {@link StorageListener}, a new recipe is reported with zero as the servings before, and a
+ * removed recipe is reported with zero as the servings after.
+ */
+@FunctionalInterface
+public interface RecipeListener {
+
+  /**
+   * Called after a recipe has been added to or removed from the cookbook.
+   *
+   * @param recipe the recipe that was changed
+   * @param before the servings of the recipe in the cookbook before the change
+   * @param after  the servings of the recipe in the cookbook after the change
+   */
+  void recipeChanged(Recipe recipe, int before, int after);
+}
@@ -0,0 +1,165 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The ingredients of a recipe, stored in flat arrays instead of as {@link Ingredient} objects.
+ * Recipes only need the name, quantity and unit of an ingredient, so the price and best-before
+ * date are not stored. Names and units are stored as numbers from shared tables.
+ *
+ * <p>Each requirement has an ingredient id, which is the same for all spellings of a name (e.g.
+ * "Milk" and "milk"), the quantity and unit as written, and the quantity in the canonical unit of
+ * the unit (see {@link Units}).</p>
+ */
+final class Requirements {
+
+  /**
+   * Ingredient ids by lower case name, shared by all recipes.
+   */
+  private static final Interner INGREDIENTS = new Interner();
+
+  /**
+   * Names as written, shared by all recipes.
+   */
+  private static final Interner NAMES = new Interner();
+
+  private final int[] ingredientIds;
+  private final int[] nameIds;
+  private final int[] unitIds;
+  private final double[] quantities;
+
+  /**
+   * Constructor that converts a list of ingredients to requirements.
+   *
+   * @param ingredients the ingredients of a recipe
+   * @throws NullPointerException if the list or one of the ingredients is null
+   */
+  Requirements(List<Ingredient> ingredients) {
+    int size = ingredients.size();
+    this.ingredientIds = new int[size];
+    this.nameIds = new int[size];
+    this.unitIds = new int[size];
+    this.quantities = new double[size];
+    for (int i = 0; i < size; i++) {
+      Ingredient ingredient = ingredients.get(i);
+      ingredientIds[i] = ingredientId(ingredient.getNameItem());
+      nameIds[i] = NAMES.idOf(ingredient.getNameItem());
+      unitIds[i] = Units.idOf(ingredient.getUnitItem());
+      quantities[i] = ingredient.getQuantityItem();
+    }
+  }
+
+  /**
+   * Returns the ingredient id of a name, which is the same for all spellings of the name.
+   *
+   * @param name the name of an ingredient
+   * @return the ingredient id
+   */
+  static int ingredientId(String name) {
+    return INGREDIENTS.idOf(name.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Returns the ingredient id of a name without adding it, so that names that are only in a
+   * fridge do not fill up the table.
+   *
+   * @param name the name of an ingredient
+   * @return the ingredient id, or -1 if no recipe has used the name
+   */
+  static int findIngredientId(String name) {
+    return INGREDIENTS.find(name.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Returns the lower case name of an ingredient id.
+   *
+   * @param ingredientId the ingredient id
+   * @return the lower case name
+   */
+  static String ingredientName(int ingredientId) {
+    return INGREDIENTS.valueOf(ingredientId);
+  }
+
+  /**
+   * Returns the number of requirements.
+   *
+   * @return the number of requirements
+   */
+  int size() {
+    return ingredientIds.length;
+  }
+
+  /**
+   * Returns the ingredient id of a requirement.
+   *
+   * @param index the index of the requirement
+   * @return the ingredient id
+   */
+  int ingredientId(int index) {
+    return ingredientIds[index];
+  }
+
+  /**
+   * Returns the name of a requirement as written.
+   *
+   * @param index the index of the requirement
+   * @return the name
+   */
+  String name(int index) {
+    return NAMES.valueOf(nameIds[index]);
+  }
+
+  /**
+   * Returns the quantity of a requirement, in the unit it was written in.
+   *
+   * @param index the index of the requirement
+   * @return the quantity
+   */
+  double quantity(int index) {
+    return quantities[index];
+  }
+
+  /**
+   * Returns the unit id of a requirement, as written.
+   *
+   * @param index the index of the requirement
+   * @return the unit id
+   */
+  int unitId(int index) {
+    return unitIds[index];
+  }
+
+  /**
+   * Returns the quantity of a requirement in its canonical unit.
+   *
+   * @param index the index of the requirement
+   * @return the quantity in the canonical unit
+   */
+  double canonicalQuantity(int index) {
+    return Units.toCanonical(quantities[index], unitIds[index]);
+  }
+
+  /**
+   * Returns a read-only list view of the requirements as ingredients, with no price and
+   * {@link LocalDate#MAX} as best-before date. The ingredients are created when they are read.
+   *
+   * @return the requirements as ingredients
+   */
+  List<Ingredient> asIngredients() {
+    return new AbstractList<>() {
+      @Override
+      public Ingredient get(int index) {
+        return new Ingredient(name(index), quantities[index], Units.nameOf(unitIds[index]), 0.0,
+            LocalDate.MAX);
+      }
+
+      @Override
+      public int size() {
+        return ingredientIds.length;
+      }
+    };
+  }
+}
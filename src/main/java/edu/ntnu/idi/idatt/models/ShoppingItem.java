@@ -0,0 +1,12 @@
+package edu.ntnu.idi.idatt.models;
+
+/**
+ * One line on a shopping list: the quantity of an ingredient that has to be bought.
+ *
+ * @param name     the name of the ingredient
+ * @param quantity the quantity to buy
+ * @param unit     the unit of the quantity
+ */
+public record ShoppingItem(String name, double quantity, String unit) {
+
+}
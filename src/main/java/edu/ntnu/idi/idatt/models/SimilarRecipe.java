@@ -0,0 +1,12 @@
+package edu.ntnu.idi.idatt.models;
+
+/**
+ * A recipe that uses some of the same ingredients as another recipe.
+ *
+ * @param recipeName the name of the recipe
+ * @param similarity the Jaccard similarity of the ingredients of the two recipes, the number of
+ *                   shared ingredients divided by the number of different ingredients in both
+ */
+public record SimilarRecipe(String recipeName, double similarity) {
+
+}
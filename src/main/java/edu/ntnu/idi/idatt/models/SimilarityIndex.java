@@ -0,0 +1,203 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Finds recipes with similar ingredients without comparing every pair of recipes, using MinHash
+ * signatures and locality-sensitive hashing (LSH).
+ *
+ * <p>The signature of a recipe is the smallest hash of its ingredient ids under each of
+ * {@code bands * rows} hash functions. Two recipes have the same value at one position of their
+ * signatures with a probability equal to the Jaccard similarity of their ingredient sets. The
+ * signature is cut into bands of {@code rows} values, and recipes with the same values in a band
+ * are put in the same bucket. Recipes that share a bucket with a recipe are the candidates, and
+ * only the candidates are compared exactly.</p>
+ *
+ * <p>A pair with similarity {@code s} shares a bucket with probability
+ * {@code 1 - (1 - s^rows)^bands}, which rises steeply around {@code (1 / bands)^(1 / rows)}. More
+ * bands find more of the similar recipes but give more candidates to compare; more rows give fewer
+ * candidates but miss more of the recipes that are only a little similar.</p>
+ */
+final class SimilarityIndex {
+
+  private final int bands;
+  private final int rows;
+  private final long[] seeds;
+  private final List<Map<Long, List<Recipe>>> buckets;
+  private final Map<Recipe, Entry> entries;
+
+  /**
+   * Constructor that initializes an empty index.
+   *
+   * @param bands the number of bands
+   * @param rows  the number of signature values in each band
+   */
+  SimilarityIndex(int bands, int rows) {
+    this.bands = bands;
+    this.rows = rows;
+    // Fast frø, slik at samme oppskrift alltid får samme signatur
+    Random random = new Random(0x5EED);
+    this.seeds = new long[bands * rows];
+    for (int i = 0; i < seeds.length; i++) {
+      seeds[i] = random.nextLong();
+    }
+    this.buckets = new ArrayList<>(bands);
+    for (int b = 0; b < bands; b++) {
+      buckets.add(new HashMap<>());
+    }
+    this.entries = new IdentityHashMap<>();
+  }
+
+  /**
+   * Adds a recipe to the index.
+   *
+   * @param recipe the recipe to add
+   */
+  void add(Recipe recipe) {
+    Entry entry = entry(recipe);
+    entries.put(recipe, entry);
+    for (int b = 0; b < bands; b++) {
+      buckets.get(b).computeIfAbsent(entry.bandKeys()[b], key -> new ArrayList<>(2)).add(recipe);
+    }
+  }
+
+  /**
+   * Removes a recipe from the index.
+   *
+   * @param recipe the recipe to remove
+   */
+  void remove(Recipe recipe) {
+    Entry entry = entries.remove(recipe);
+    if (entry == null) {
+      return;
+    }
+    for (int b = 0; b < bands; b++) {
+      Map<Long, List<Recipe>> band = buckets.get(b);
+      List<Recipe> bucket = band.get(entry.bandKeys()[b]);
+      bucket.removeIf(other -> other == recipe);
+      if (bucket.isEmpty()) {
+        band.remove(entry.bandKeys()[b]);
+      }
+    }
+  }
+
+  /**
+   * Finds the recipes most similar to a recipe among the recipes that share a bucket with it.
+   *
+   * @param recipe the recipe to find similar recipes for
+   * @param count  the largest number of recipes to return
+   * @return the most similar recipes with their exact Jaccard similarity, most similar first
+   */
+  List<SimilarRecipe> similarTo(Recipe recipe, int count) {
+    Entry entry = entries.containsKey(recipe) ? entries.get(recipe) : entry(recipe);
+    Set<Recipe> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int b = 0; b < bands; b++) {
+      candidates.addAll(buckets.get(b).getOrDefault(entry.bandKeys()[b], List.of()));
+    }
+    return best(recipe, entry, candidates, count);
+  }
+
+  /**
+   * Finds the recipes most similar to a recipe by comparing it with every recipe in the index.
+   *
+   * @param recipe the recipe to find similar recipes for
+   * @param count  the largest number of recipes to return
+   * @return the most similar recipes with their Jaccard similarity, most similar first
+   */
+  List<SimilarRecipe> exactSimilarTo(Recipe recipe, int count) {
+    Entry entry = entries.containsKey(recipe) ? entries.get(recipe) : entry(recipe);
+    return best(recipe, entry, entries.keySet(), count);
+  }
+
+  /**
+   * Compares a recipe with other recipes, and returns the most similar ones that share at least
+   * one ingredient with it.
+   */
+  private List<SimilarRecipe> best(Recipe recipe, Entry entry, Iterable<Recipe> others,
+      int count) {
+    List<SimilarRecipe> result = new ArrayList<>();
+    for (Recipe other : others) {
+      double similarity = jaccard(entry.ingredients(), entries.get(other).ingredients());
+      if (other != recipe && similarity > 0) {
+        result.add(new SimilarRecipe(other.getNameRecipe(), similarity));
+      }
+    }
+    result.sort(Comparator.comparingDouble(SimilarRecipe::similarity).reversed()
+        .thenComparing(SimilarRecipe::recipeName));
+    return result.size() > count ? new ArrayList<>(result.subList(0, count)) : result;
+  }
+
+  private Entry entry(Recipe recipe) {
+    int[] ingredients = ingredientIds(recipe);
+    int[] signature = new int[seeds.length];
+    Arrays.fill(signature, Integer.MAX_VALUE);
+    for (int ingredient : ingredients) {
+      for (int i = 0; i < seeds.length; i++) {
+        signature[i] = Math.min(signature[i], (int) mix(ingredient ^ seeds[i]));
+      }
+    }
+    long[] bandKeys = new long[bands];
+    for (int b = 0; b < bands; b++) {
+      long key = b;
+      for (int r = 0; r < rows; r++) {
+        key = mix(key * 31 + signature[b * rows + r]);
+      }
+      bandKeys[b] = key;
+    }
+    return new Entry(ingredients, bandKeys);
+  }
+
+  private static int[] ingredientIds(Recipe recipe) {
+    Requirements requirements = recipe.getRequirements();
+    int[] ids = new int[requirements.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = requirements.ingredientId(i);
+    }
+    return Arrays.stream(ids).sorted().distinct().toArray();
+  }
+
+  private static double jaccard(int[] first, int[] second) {
+    int shared = 0;
+    int i = 0;
+    int j = 0;
+    // Begge er sortert, så de kan flettes
+    while (i < first.length && j < second.length) {
+      if (first[i] == second[j]) {
+        shared++;
+        i++;
+        j++;
+      } else if (first[i] < second[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return (double) shared / (first.length + second.length - shared);
+  }
+
+  /**
+   * The finalizer of SplitMix64, which spreads the bits of a value evenly.
+   */
+  private static long mix(long value) {
+    long z = value;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * The sorted ingredient ids and the bucket key of every band of a recipe.
+   */
+  private record Entry(int[] ingredients, long[] bandKeys) {
+
+  }
+}
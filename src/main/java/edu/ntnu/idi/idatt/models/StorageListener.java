@@ -0,0 +1,19 @@
+package edu.ntnu.idi.idatt.models;
+
+/**
+ * Listener that is notified by a {@link FoodStorage} every time the quantity of an item changes.
+ * A new item is reported with zero as the quantity before, and an item that is used up and removed
+ * from the fridge is reported with zero as the quantity after.
+ */
+@FunctionalInterface
+public interface StorageListener {
+
+  /**
+   * Called after the quantity of an item in the fridge has changed.
+   *
+   * @param item   the item that was changed
+   * @param before the quantity of the item before the change
+   * @param after  the quantity of the item after the change
+   */
+  void quantityChanged(Ingredient item, double before, double after);
+}
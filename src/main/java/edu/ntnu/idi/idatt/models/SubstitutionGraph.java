@@ -0,0 +1,215 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+/**
+ * Ingredients that can be used instead of other ingredients, e.g. margarine instead of butter.
+ * Every substitution has a ratio, which is the quantity of the substitute that replaces one unit
+ * of the ingredient. Substitutions are followed in chains, so if butter can be replaced by
+ * margarine and margarine by oil, butter can also be replaced by oil, with the ratios multiplied.
+ * When there are several chains, the one with the fewest steps is used.
+ *
+ * <p>The substitutes of every ingredient are worked out every time the graph changes, and kept as
+ * a {@link BitSet} of ingredient ids, so checking a recipe with substitutes costs little more than
+ * checking it without. Names are compared without regard to case.</p>
+ *
+ * <p>The substitutes, ratios and names are published together as one snapshot that never changes,
+ * so the graph can be read from many threads at the same time while one thread changes it. Changes
+ * must not be made from more than one thread at a time.</p>
+ */
+public final class SubstitutionGraph {
+
+  private static final BitSet NONE = new BitSet();
+
+  private final Map<Integer, Map<Integer, Double>> edges;
+  private final Map<Integer, String> names;
+
+  /**
+   * What readers see of the graph. It is replaced as a whole after every change.
+   */
+  private volatile Snapshot snapshot;
+
+  /**
+   * Constructor that initializes a graph without substitutions.
+   */
+  public SubstitutionGraph() {
+    this.edges = new HashMap<>();
+    this.names = new HashMap<>();
+    this.snapshot = new Snapshot(new BitSet[0], Map.of(), Map.of(), 0);
+  }
+
+  /**
+   * Adds a substitute for an ingredient, or changes the ratio if it is already added.
+   *
+   * @param ingredient the ingredient that can be replaced
+   * @param substitute the ingredient that can be used instead
+   * @param ratio      the quantity of the substitute that replaces one unit of the ingredient
+   * @throws IllegalArgumentException if a name is null or blank, the names are the same, or the
+   *                                  ratio is not positive
+   */
+  public void addSubstitute(String ingredient, String substitute, double ratio) {
+    if (ingredient == null || ingredient.isBlank() || substitute == null
+        || substitute.isBlank()) {
+      throw new IllegalArgumentException("Ingredient names cannot be null or blank");
+    }
+    if (!(ratio > 0) || Double.isInfinite(ratio)) {
+      throw new IllegalArgumentException("Ratio must be greater than zero");
+    }
+    int from = Requirements.ingredientId(ingredient);
+    int to = Requirements.ingredientId(substitute);
+    if (from == to) {
+      throw new IllegalArgumentException("An ingredient cannot be a substitute for itself");
+    }
+    names.putIfAbsent(from, ingredient);
+    names.putIfAbsent(to, substitute);
+    edges.computeIfAbsent(from, id -> new LinkedHashMap<>()).put(to, ratio);
+    rebuild();
+  }
+
+  /**
+   * Removes a substitute for an ingredient.
+   *
+   * @param ingredient the ingredient that can be replaced
+   * @param substitute the ingredient that can be used instead
+   * @return true if the substitute was removed, false if it was not added
+   */
+  public boolean removeSubstitute(String ingredient, String substitute) {
+    int from = ingredient == null ? -1 : Requirements.findIngredientId(ingredient);
+    int to = substitute == null ? -1 : Requirements.findIngredientId(substitute);
+    Map<Integer, Double> substitutes = edges.get(from);
+    if (substitutes == null || substitutes.remove(to) == null) {
+      return false;
+    }
+    rebuild();
+    return true;
+  }
+
+  /**
+   * Returns the ratio of a substitute for an ingredient, following chains of substitutions.
+   *
+   * @param ingredient the ingredient that can be replaced
+   * @param substitute the ingredient that can be used instead
+   * @return the quantity of the substitute that replaces one unit of the ingredient, or empty if
+   *         the substitute cannot be used
+   */
+  public OptionalDouble getRatio(String ingredient, String substitute) {
+    int from = ingredient == null ? -1 : Requirements.findIngredientId(ingredient);
+    int to = substitute == null ? -1 : Requirements.findIngredientId(substitute);
+    Snapshot current = snapshot;
+    if (from < 0 || to < 0 || !current.substitutesOf(from).get(to)) {
+      return OptionalDouble.empty();
+    }
+    return OptionalDouble.of(current.ratio(from, to));
+  }
+
+  /**
+   * Returns a number that increases every time the graph changes, so that cached results can be
+   * checked.
+   *
+   * @return the version of the graph
+   */
+  public long getVersion() {
+    return snapshot.version();
+  }
+
+  /**
+   * Returns the substitutes of every ingredient at the current version of the graph. An operation
+   * that looks up several substitutes should use one snapshot, so that it sees one version of the
+   * graph even if the graph is changed at the same time.
+   *
+   * @return the current snapshot
+   */
+  Snapshot snapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Finds the substitutes of every ingredient with a breadth-first search from the ingredient, so
+   * that the chain with the fewest steps gives the ratio, and publishes them with a new version.
+   */
+  private void rebuild() {
+    int size = edges.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+    BitSet[] newClosure = new BitSet[size];
+    Map<Long, Double> newRatios = new HashMap<>();
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    for (int from : edges.keySet()) {
+      BitSet reached = new BitSet();
+      Map<Integer, Double> found = new HashMap<>();
+      found.put(from, 1.0);
+      queue.add(from);
+      while (!queue.isEmpty()) {
+        int current = queue.poll();
+        for (Map.Entry<Integer, Double> edge
+            : edges.getOrDefault(current, Map.of()).entrySet()) {
+          int next = edge.getKey();
+          if (next != from && !reached.get(next)) {
+            reached.set(next);
+            found.put(next, found.get(current) * edge.getValue());
+            newRatios.put(key(from, next), found.get(next));
+            queue.add(next);
+          }
+        }
+      }
+      if (!reached.isEmpty()) {
+        newClosure[from] = reached;
+      }
+    }
+    snapshot = new Snapshot(newClosure, newRatios, Map.copyOf(names), snapshot.version() + 1);
+  }
+
+  private static long key(int ingredientId, int substituteId) {
+    return ((long) ingredientId << 32) | substituteId;
+  }
+
+  /**
+   * The substitutes of every ingredient by ingredient id, their ratios by {@link #key(int, int)},
+   * and the names of the ingredients, at one version of the graph. None of them are changed after
+   * the snapshot is made.
+   *
+   * @param closure the substitutes by ingredient id, or null for an ingredient without substitutes
+   * @param ratios  the ratio of every substitute
+   * @param names   the names of the ingredients as they were first written
+   * @param version the version of the graph
+   */
+  record Snapshot(BitSet[] closure, Map<Long, Double> ratios, Map<Integer, String> names,
+                  long version) {
+
+    /**
+     * Returns the ingredient ids of every substitute of an ingredient, not including the
+     * ingredient itself. The set must not be changed.
+     *
+     * @param ingredientId the ingredient id
+     * @return the substitutes, found by following chains of substitutions
+     */
+    BitSet substitutesOf(int ingredientId) {
+      BitSet found = ingredientId < closure.length ? closure[ingredientId] : null;
+      return found == null ? NONE : found;
+    }
+
+    /**
+     * Returns the ratio of a substitute from {@link #substitutesOf(int)}.
+     *
+     * @param ingredientId the ingredient id
+     * @param substituteId the ingredient id of the substitute
+     * @return the quantity of the substitute that replaces one unit of the ingredient
+     */
+    double ratio(int ingredientId, int substituteId) {
+      return ratios.get(key(ingredientId, substituteId));
+    }
+
+    /**
+     * Returns the name of an ingredient in the graph as it was first written.
+     *
+     * @param ingredientId the ingredient id
+     * @return the name
+     */
+    String nameOf(int ingredientId) {
+      return names.get(ingredientId);
+    }
+  }
+}
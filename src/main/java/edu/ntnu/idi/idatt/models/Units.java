@@ -0,0 +1,133 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Converts quantities to canonical units, so that e.g. "0.25 L" and "2.5 dL" can be added and
+ * compared. Volumes are converted to mL, weights to grams and pieces to pcs. Units that are not
+ * known are their own canonical unit, compared without regard to case.
+ *
+ * <p>Every unit, as written, has a number given by {@link #idOf(String)}, and the factor and
+ * canonical unit of a number can then be looked up without any string handling.</p>
+ */
+public final class Units {
+
+  private static final Map<String, Conversion> KNOWN = Map.ofEntries(
+      Map.entry("ml", new Conversion("mL", 1)),
+      Map.entry("cl", new Conversion("mL", 10)),
+      Map.entry("dl", new Conversion("mL", 100)),
+      Map.entry("l", new Conversion("mL", 1000)),
+      Map.entry("g", new Conversion("grams", 1)),
+      Map.entry("gram", new Conversion("grams", 1)),
+      Map.entry("grams", new Conversion("grams", 1)),
+      Map.entry("kg", new Conversion("grams", 1000)),
+      Map.entry("pc", new Conversion("pcs", 1)),
+      Map.entry("pcs", new Conversion("pcs", 1)),
+      Map.entry("stk", new Conversion("pcs", 1)));
+
+  private static final Interner UNITS = new Interner();
+  private static volatile double[] factors = new double[0];
+  private static volatile int[] canonicalIds = new int[0];
+
+  private Units() {
+  }
+
+  /**
+   * Returns the number of a unit as written, e.g. "dL".
+   *
+   * @param unit the unit
+   * @return the number of the unit
+   */
+  public static int idOf(String unit) {
+    int id = UNITS.idOf(unit);
+    if (id >= factors.length) {
+      register(id);
+    }
+    return id;
+  }
+
+  private static double[] factors(int unitId) {
+    double[] current = factors;
+    if (unitId < current.length) {
+      return current;
+    }
+    register(unitId);
+    return factors;
+  }
+
+  /**
+   * Returns the unit with the given number, as it was first written.
+   *
+   * @param unitId the number of the unit
+   * @return the unit
+   */
+  public static String nameOf(int unitId) {
+    return UNITS.valueOf(unitId);
+  }
+
+  /**
+   * Returns the factor that converts a quantity in a unit to its canonical unit, e.g. 100 for dL.
+   *
+   * @param unitId the number of the unit
+   * @return the conversion factor
+   */
+  public static double factor(int unitId) {
+    return factors(unitId)[unitId];
+  }
+
+  /**
+   * Returns the number of the canonical unit of a unit, e.g. the number of "mL" for "dL".
+   *
+   * @param unitId the number of the unit
+   * @return the number of the canonical unit
+   */
+  public static int canonicalId(int unitId) {
+    factors(unitId);
+    return canonicalIds[unitId];
+  }
+
+  /**
+   * Converts a quantity to the canonical unit of its unit.
+   *
+   * @param quantity the quantity
+   * @param unitId   the number of the unit of the quantity
+   * @return the quantity in the canonical unit
+   */
+  public static double toCanonical(double quantity, int unitId) {
+    return quantity * factors(unitId)[unitId];
+  }
+
+  /**
+   * Fills in the factor and canonical unit of new units, up to and including the given number.
+   */
+  private static synchronized void register(int unitId) {
+    int from = factors.length;
+    if (unitId < from) {
+      return;
+    }
+    double[] newFactors = Arrays.copyOf(factors, Math.max(unitId + 1, from * 2));
+    int[] newCanonical = Arrays.copyOf(canonicalIds, newFactors.length);
+    for (int id = from; id < newFactors.length; id++) {
+      String unit = UNITS.valueOf(id);
+      if (unit == null) {
+        // Ikke gitt ut ennå, fylles inn neste gang
+        newFactors = Arrays.copyOf(newFactors, id);
+        newCanonical = Arrays.copyOf(newCanonical, id);
+        break;
+      }
+      String key = unit.toLowerCase(Locale.ROOT);
+      Conversion conversion = KNOWN.getOrDefault(key, new Conversion(key, 1));
+      newFactors[id] = conversion.factor();
+      // Kanoniske enheter er sin egen kanoniske enhet, så dette går ikke i løkke
+      newCanonical[id] = UNITS.idOf(conversion.unit());
+    }
+    canonicalIds = newCanonical;
+    factors = newFactors;
+  }
+
+  private record Conversion(String unit, double factor) {
+
+  }
+}
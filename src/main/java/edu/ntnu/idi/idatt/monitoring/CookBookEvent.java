@@ -0,0 +1,35 @@
+package edu.ntnu.idi.idatt.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for an operation on a cookbook. The event is only filled in and
+ * written when a recording that includes it is running, so it costs close to nothing otherwise.
+ */
+@Name("edu.ntnu.idi.idatt.CookBookOperation")
+@Label("Cookbook Operation")
+@Category({"Foodwaste", "Cookbook"})
+@Description("An operation on a CookBook")
+@StackTrace(false)
+public class CookBookEvent extends Event {
+
+  @Label("Operation")
+  public String operation;
+
+  @Label("Recipe")
+  @Description("The name of the recipe the operation was about, if any")
+  public String recipe;
+
+  @Label("Lots Scanned")
+  @Description("The number of lots in the fridge the operation looked at")
+  public int lotsScanned;
+
+  @Label("Result Size")
+  @Description("The number of recipes returned or changed by the operation")
+  public int resultSize;
+}
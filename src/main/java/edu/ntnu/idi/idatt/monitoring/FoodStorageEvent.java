@@ -0,0 +1,35 @@
+package edu.ntnu.idi.idatt.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event for an operation on a fridge. The event is only filled in and written
+ * when a recording that includes it is running, so it costs close to nothing otherwise.
+ */
+@Name("edu.ntnu.idi.idatt.FoodStorageOperation")
+@Label("Fridge Operation")
+@Category({"Foodwaste", "Fridge"})
+@Description("An operation on a FoodStorage")
+@StackTrace(false)
+public class FoodStorageEvent extends Event {
+
+  @Label("Operation")
+  public String operation;
+
+  @Label("Ingredient")
+  @Description("The name of the ingredient the operation was about, if any")
+  public String ingredient;
+
+  @Label("Lots Scanned")
+  @Description("The number of lots in the fridge the operation looked at")
+  public int lotsScanned;
+
+  @Label("Result Size")
+  @Description("The number of lots returned or changed by the operation")
+  public int resultSize;
+}
@@ -0,0 +1,228 @@
+package edu.ntnu.idi.idatt.monitoring;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.NearMiss;
+import edu.ntnu.idi.idatt.models.PlannedRecipe;
+import edu.ntnu.idi.idatt.models.Recipe;
+import edu.ntnu.idi.idatt.models.RecipeCost;
+import edu.ntnu.idi.idatt.models.ShoppingItem;
+import edu.ntnu.idi.idatt.models.SimilarRecipe;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link CookBook} that records the latency, calls, errors and number of recipes of every
+ * operation in {@link OperationMetrics}. The statistics are shared by all instrumented cookbooks.
+ */
+public class InstrumentedCookBook extends CookBook {
+
+  private static final String COMPONENT = "CookBook";
+  private static final OperationStats GET_RECIPES = OperationMetrics.get(COMPONENT, "getRecipes");
+  private static final OperationStats EXPAND_RECIPE =
+      OperationMetrics.get(COMPONENT, "expandRecipe");
+  private static final OperationStats ADD_RECIPE = OperationMetrics.get(COMPONENT, "addRecipe");
+  private static final OperationStats REMOVE_RECIPE =
+      OperationMetrics.get(COMPONENT, "removeRecipe");
+  private static final OperationStats CAN_MAKE_RECIPE =
+      OperationMetrics.get(COMPONENT, "canMakeRecipe");
+  private static final OperationStats SUGGEST_RECIPE =
+      OperationMetrics.get(COMPONENT, "suggestRecipe");
+  private static final OperationStats MAX_SERVINGS = OperationMetrics.get(COMPONENT, "maxServings");
+  private static final OperationStats MAX_SERVINGS_FOR_ALL =
+      OperationMetrics.get(COMPONENT, "maxServingsForAll");
+  private static final OperationStats CREATE_SHOPPING_LIST =
+      OperationMetrics.get(COMPONENT, "createShoppingList");
+  private static final OperationStats SUGGEST_NEAR_MISSES =
+      OperationMetrics.get(COMPONENT, "suggestNearMisses");
+  private static final OperationStats COST_RECIPE = OperationMetrics.get(COMPONENT, "costRecipe");
+  private static final OperationStats COST_ALL_RECIPES =
+      OperationMetrics.get(COMPONENT, "costAllRecipes");
+  private static final OperationStats FIND_SIMILAR_RECIPES =
+      OperationMetrics.get(COMPONENT, "findSimilarRecipes");
+  private static final OperationStats FIND_SIMILAR_RECIPES_EXACT =
+      OperationMetrics.get(COMPONENT, "findSimilarRecipesExact");
+
+  @Override
+  public List<Recipe> getRecipes() {
+    long start = OperationMetrics.start();
+    try {
+      List<Recipe> result = super.getRecipes();
+      GET_RECIPES.success(start, result.size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      GET_RECIPES.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public String expandRecipe(String recipeName) {
+    long start = OperationMetrics.start();
+    try {
+      String result = super.expandRecipe(recipeName);
+      EXPAND_RECIPE.success(start, 1);
+      return result;
+    } catch (RuntimeException | Error e) {
+      EXPAND_RECIPE.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public String addRecipe(Recipe newRecipe) {
+    long start = OperationMetrics.start();
+    try {
+      String result = super.addRecipe(newRecipe);
+      ADD_RECIPE.success(start, 1);
+      return result;
+    } catch (RuntimeException | Error e) {
+      ADD_RECIPE.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public String removeRecipe(String recipeName) {
+    long start = OperationMetrics.start();
+    try {
+      String result = super.removeRecipe(recipeName);
+      REMOVE_RECIPE.success(start, 1);
+      return result;
+    } catch (RuntimeException | Error e) {
+      REMOVE_RECIPE.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public String canMakeRecipe(String recipeName, FoodStorage foodStorage) {
+    long start = OperationMetrics.start();
+    try {
+      String result = super.canMakeRecipe(recipeName, foodStorage);
+      CAN_MAKE_RECIPE.success(start, 1);
+      return result;
+    } catch (RuntimeException | Error e) {
+      CAN_MAKE_RECIPE.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<String> suggestRecipe(FoodStorage foodStorage) {
+    long start = OperationMetrics.start();
+    try {
+      List<String> result = super.suggestRecipe(foodStorage);
+      SUGGEST_RECIPE.success(start, result.size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      SUGGEST_RECIPE.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<NearMiss> suggestNearMisses(FoodStorage foodStorage, int maxMissing) {
+    long start = OperationMetrics.start();
+    try {
+      List<NearMiss> result = super.suggestNearMisses(foodStorage, maxMissing);
+      SUGGEST_NEAR_MISSES.success(start, result.size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      SUGGEST_NEAR_MISSES.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public int maxServings(Recipe recipe, FoodStorage foodStorage) {
+    long start = OperationMetrics.start();
+    try {
+      int result = super.maxServings(recipe, foodStorage);
+      MAX_SERVINGS.success(start, 1);
+      return result;
+    } catch (RuntimeException | Error e) {
+      MAX_SERVINGS.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public Map<String, Integer> maxServingsForAll(FoodStorage foodStorage) {
+    long start = OperationMetrics.start();
+    try {
+      Map<String, Integer> result = super.maxServingsForAll(foodStorage);
+      MAX_SERVINGS_FOR_ALL.success(start, result.size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      MAX_SERVINGS_FOR_ALL.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<ShoppingItem> createShoppingList(List<PlannedRecipe> plan,
+      FoodStorage foodStorage) {
+    long start = OperationMetrics.start();
+    try {
+      List<ShoppingItem> result = super.createShoppingList(plan, foodStorage);
+      CREATE_SHOPPING_LIST.success(start, result.size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      CREATE_SHOPPING_LIST.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public RecipeCost costRecipe(String recipeName, FoodStorage foodStorage) {
+    long start = OperationMetrics.start();
+    try {
+      RecipeCost result = super.costRecipe(recipeName, foodStorage);
+      COST_RECIPE.success(start, 1);
+      return result;
+    } catch (RuntimeException | Error e) {
+      COST_RECIPE.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public Map<String, RecipeCost> costAllRecipes(FoodStorage foodStorage) {
+    long start = OperationMetrics.start();
+    try {
+      Map<String, RecipeCost> result = super.costAllRecipes(foodStorage);
+      COST_ALL_RECIPES.success(start, result.size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      COST_ALL_RECIPES.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<SimilarRecipe> findSimilarRecipes(String recipeName, int count) {
+    long start = OperationMetrics.start();
+    try {
+      List<SimilarRecipe> result = super.findSimilarRecipes(recipeName, count);
+      FIND_SIMILAR_RECIPES.success(start, result.size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      FIND_SIMILAR_RECIPES.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<SimilarRecipe> findSimilarRecipesExact(String recipeName, int count) {
+    long start = OperationMetrics.start();
+    try {
+      List<SimilarRecipe> result = super.findSimilarRecipesExact(recipeName, count);
+      FIND_SIMILAR_RECIPES_EXACT.success(start, result.size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      FIND_SIMILAR_RECIPES_EXACT.failure(start);
+      throw e;
+    }
+  }
+}
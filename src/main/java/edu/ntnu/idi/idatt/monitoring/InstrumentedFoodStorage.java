@@ -0,0 +1,245 @@
+package edu.ntnu.idi.idatt.monitoring;
+
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.ItemCursor;
+import edu.ntnu.idi.idatt.models.ItemQuery;
+import edu.ntnu.idi.idatt.models.QueryResult;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NavigableMap;
+
+/**
+ * A {@link FoodStorage} that records the latency, calls, errors and number of items of every
+ * operation in {@link OperationMetrics}. The statistics are shared by all instrumented fridges.
+ */
+public class InstrumentedFoodStorage extends FoodStorage {
+
+  private static final String COMPONENT = "FoodStorage";
+  private static final OperationStats GET_ITEMS = OperationMetrics.get(COMPONENT, "getItems");
+  private static final OperationStats ADD_ITEM = OperationMetrics.get(COMPONENT, "addItem");
+  private static final OperationStats REMOVE_ITEM = OperationMetrics.get(COMPONENT, "removeItem");
+  private static final OperationStats SEARCH_ITEM = OperationMetrics.get(COMPONENT, "searchItem");
+  private static final OperationStats ITEMS_BEFORE_DATE =
+      OperationMetrics.get(COMPONENT, "getItemsBeforeDate");
+  private static final OperationStats EXPIRED_ITEMS =
+      OperationMetrics.get(COMPONENT, "getExpiredItems");
+  private static final OperationStats SEARCH_CURSOR =
+      OperationMetrics.get(COMPONENT, "searchCursor");
+  private static final OperationStats BEFORE_DATE_CURSOR =
+      OperationMetrics.get(COMPONENT, "beforeDateCursor");
+  private static final OperationStats EXPIRED_CURSOR =
+      OperationMetrics.get(COMPONENT, "expiredCursor");
+  private static final OperationStats QUERY = OperationMetrics.get(COMPONENT, "query");
+  private static final OperationStats TOTAL_VALUE =
+      OperationMetrics.get(COMPONENT, "calculateTotalValue");
+  private static final OperationStats EXPIRED_VALUE =
+      OperationMetrics.get(COMPONENT, "getExpiredValue");
+  private static final OperationStats VALUE_EXPIRING_WITHIN =
+      OperationMetrics.get(COMPONENT, "getValueExpiringWithin");
+  private static final OperationStats VALUE_AT_RISK =
+      OperationMetrics.get(COMPONENT, "getValueAtRisk");
+
+  /**
+   * Constructor that initializes an empty instrumented fridge.
+   */
+  public InstrumentedFoodStorage() {
+    super();
+  }
+
+  /**
+   * Constructor that initializes an empty instrumented fridge using the given clock.
+   *
+   * @param clock the clock used to decide which items have expired
+   */
+  public InstrumentedFoodStorage(Clock clock) {
+    super(clock);
+  }
+
+  @Override
+  public List<Ingredient> getItems() {
+    long start = OperationMetrics.start();
+    try {
+      List<Ingredient> result = super.getItems();
+      GET_ITEMS.success(start, result.size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      GET_ITEMS.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public String addItem(Ingredient newItem) {
+    long start = OperationMetrics.start();
+    try {
+      String result = super.addItem(newItem);
+      ADD_ITEM.success(start, 1);
+      return result;
+    } catch (RuntimeException | Error e) {
+      ADD_ITEM.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public String removeItem(String name, double quantity) {
+    long start = OperationMetrics.start();
+    try {
+      String result = super.removeItem(name, quantity);
+      REMOVE_ITEM.success(start, 1);
+      return result;
+    } catch (RuntimeException | Error e) {
+      REMOVE_ITEM.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<Ingredient> searchItem(String name) {
+    long start = OperationMetrics.start();
+    try {
+      List<Ingredient> result = super.searchItem(name);
+      SEARCH_ITEM.success(start, result.size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      SEARCH_ITEM.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<Ingredient> getItemsBeforeDate(LocalDate date) {
+    long start = OperationMetrics.start();
+    try {
+      List<Ingredient> result = super.getItemsBeforeDate(date);
+      ITEMS_BEFORE_DATE.success(start, result.size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      ITEMS_BEFORE_DATE.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public List<Ingredient> getExpiredItems() {
+    long start = OperationMetrics.start();
+    try {
+      List<Ingredient> result = super.getExpiredItems();
+      EXPIRED_ITEMS.success(start, result.size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      EXPIRED_ITEMS.failure(start);
+      throw e;
+    }
+  }
+
+  // Markørene leser ingen varer før de blir brukt, så ingen varer telles
+
+  @Override
+  public ItemCursor searchCursor(String name) {
+    long start = OperationMetrics.start();
+    try {
+      ItemCursor result = super.searchCursor(name);
+      SEARCH_CURSOR.success(start, 0);
+      return result;
+    } catch (RuntimeException | Error e) {
+      SEARCH_CURSOR.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public ItemCursor beforeDateCursor(LocalDate date) {
+    long start = OperationMetrics.start();
+    try {
+      ItemCursor result = super.beforeDateCursor(date);
+      BEFORE_DATE_CURSOR.success(start, 0);
+      return result;
+    } catch (RuntimeException | Error e) {
+      BEFORE_DATE_CURSOR.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public ItemCursor expiredCursor() {
+    long start = OperationMetrics.start();
+    try {
+      ItemCursor result = super.expiredCursor();
+      EXPIRED_CURSOR.success(start, 0);
+      return result;
+    } catch (RuntimeException | Error e) {
+      EXPIRED_CURSOR.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public QueryResult query(ItemQuery query) {
+    long start = OperationMetrics.start();
+    try {
+      QueryResult result = super.query(query);
+      QUERY.success(start, result.items().size());
+      return result;
+    } catch (RuntimeException | Error e) {
+      QUERY.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public double calculateTotalValue() {
+    long start = OperationMetrics.start();
+    try {
+      double result = super.calculateTotalValue();
+      TOTAL_VALUE.success(start, 0);
+      return result;
+    } catch (RuntimeException | Error e) {
+      TOTAL_VALUE.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public double getExpiredValue() {
+    long start = OperationMetrics.start();
+    try {
+      double result = super.getExpiredValue();
+      EXPIRED_VALUE.success(start, 0);
+      return result;
+    } catch (RuntimeException | Error e) {
+      EXPIRED_VALUE.failure(start);
+      throw e;
+    }
+  }
+
+  @Override
+  public double getValueExpiringWithin(int days) {
+    long start = OperationMetrics.start();
+    try {
+      double result = super.getValueExpiringWithin(days);
+      VALUE_EXPIRING_WITHIN.success(start, 0);
+      return result;
+    } catch (RuntimeException | Error e) {
+      VALUE_EXPIRING_WITHIN.failure(start);
+      throw e;
+    }
+  }
+
+  // getValueAtRisk() uten horisonter kaller denne, så den telles også her. Kallene til
+  // getValueExpiringWithin herfra er nestet og telles ikke
+  @Override
+  public NavigableMap<Integer, Double> getValueAtRisk(int... horizons) {
+    long start = OperationMetrics.start();
+    try {
+      NavigableMap<Integer, Double> result = super.getValueAtRisk(horizons);
+      VALUE_AT_RISK.success(start, 0);
+      return result;
+    } catch (RuntimeException | Error e) {
+      VALUE_AT_RISK.failure(start);
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package edu.ntnu.idi.idatt.monitoring;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies in nanoseconds with a fixed size. The values are counted in buckets
+ * that grow exponentially, with 32 buckets for every power of two, so that any recorded value is
+ * reported with an error of at most about 3 %. Recording a value does not allocate memory, and
+ * the histogram can be recorded to from many threads at the same time.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  /**
+   * Records one value.
+   *
+   * @param nanos the latency in nanoseconds, where negative values are counted as zero
+   */
+  public void record(long nanos) {
+    counts.incrementAndGet(indexOf(Math.max(0, nanos)));
+  }
+
+  /**
+   * Returns the number of recorded values.
+   *
+   * @return the number of values
+   */
+  public long getCount() {
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += counts.get(i);
+    }
+    return total;
+  }
+
+  /**
+   * Returns the latency that the given share of the recorded values were below or equal to. The
+   * result is the highest value in the bucket the percentile falls in.
+   *
+   * @param percentile the percentile from 0 to 100, e.g. 99.9
+   * @return the latency in nanoseconds, or zero if nothing is recorded
+   */
+  public long getPercentile(double percentile) {
+    long total = getCount();
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return highestValueIn(i);
+      }
+    }
+    return highestValueIn(BUCKETS - 1);
+  }
+
+  /**
+   * Removes all recorded values.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+  }
+
+  /**
+   * Finds the bucket of a value. Values below 32 get a bucket each. Larger values are placed by
+   * their highest bit and the 5 bits after it.
+   *
+   * @param value the value, zero or positive
+   * @return the index of the bucket
+   */
+  static int indexOf(long value) {
+    int highestBit = 63 - Long.numberOfLeadingZeros(value);
+    if (highestBit < SUB_BUCKET_BITS) {
+      return (int) value;
+    }
+    int shift = highestBit - SUB_BUCKET_BITS;
+    int subBucket = (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * Returns the highest value that is placed in a bucket.
+   *
+   * @param index the index of the bucket
+   * @return the highest value in the bucket
+   */
+  static long highestValueIn(int index) {
+    int group = index / SUB_BUCKETS;
+    int subBucket = index % SUB_BUCKETS;
+    if (group == 0) {
+      return subBucket;
+    }
+    int shift = group - 1;
+    long lowest = (long) (SUB_BUCKETS + subBucket) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
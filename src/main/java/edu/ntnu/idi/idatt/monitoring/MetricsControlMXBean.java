@@ -0,0 +1,21 @@
+package edu.ntnu.idi.idatt.monitoring;
+
+/**
+ * Management interface for switching the recording of operation statistics on and off.
+ */
+public interface MetricsControlMXBean {
+
+  /**
+   * Returns whether operation statistics are recorded.
+   *
+   * @return true if recording is switched on
+   */
+  boolean isEnabled();
+
+  /**
+   * Switches the recording of operation statistics on or off.
+   *
+   * @param enabled true to record, false to stop recording
+   */
+  void setEnabled(boolean enabled);
+}
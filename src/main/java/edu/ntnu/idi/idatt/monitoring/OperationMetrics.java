@@ -0,0 +1,163 @@
+package edu.ntnu.idi.idatt.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registry of the statistics of all measured operations. Every {@link OperationStats} is published
+ * as a platform MBean named {@code edu.ntnu.idi.idatt:type=Operation,component=...,name=...}, and
+ * recording can be switched on and off with the {@code edu.ntnu.idi.idatt:type=Metrics} MBean.
+ *
+ * <p>When recording is switched off, {@link #start()} returns {@link #DISABLED} without reading the
+ * clock, and the statistics return at once when they get that value.</p>
+ *
+ * <p>Only the outermost measured call on a thread is recorded. A measured operation that calls
+ * other measured operations, like a cookbook reading the fridge or
+ * {@link edu.ntnu.idi.idatt.models.FoodStorage#getValueAtRisk()} reading the value within each
+ * horizon, is recorded once, and the inner calls get {@link #NESTED} as their start time. The
+ * statistics of an operation therefore count the calls made by its users, and their latency
+ * includes the inner calls.</p>
+ */
+public final class OperationMetrics {
+
+  /**
+   * The start time returned when recording is switched off.
+   */
+  public static final long DISABLED = Long.MIN_VALUE;
+
+  /**
+   * The start time returned for a call made while another measured call on the same thread is
+   * running.
+   */
+  public static final long NESTED = Long.MIN_VALUE + 1;
+
+  private static final String DOMAIN = "edu.ntnu.idi.idatt";
+  private static final Map<String, OperationStats> STATS = new ConcurrentHashMap<>();
+  private static volatile boolean enabled = true;
+
+  /**
+   * The number of measured calls that are running on each thread.
+   */
+  private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+  static {
+    register(new Control(), DOMAIN + ":type=Metrics");
+  }
+
+  private OperationMetrics() {
+  }
+
+  /**
+   * Returns the start time of a call, {@link #NESTED} if the call is made from another measured
+   * call, or {@link #DISABLED} if recording is switched off. Every start time that is not
+   * {@link #DISABLED} must be passed to {@link OperationStats#success(long, long)} or
+   * {@link OperationStats#failure(long)} when the call ends, also when it throws an error.
+   *
+   * @return the current time in nanoseconds, {@link #NESTED} or {@link #DISABLED}
+   */
+  public static long start() {
+    if (!enabled) {
+      return DISABLED;
+    }
+    int[] depth = DEPTH.get();
+    return depth[0]++ == 0 ? System.nanoTime() : NESTED;
+  }
+
+  /**
+   * Ends a call that was started by {@link #start()}.
+   *
+   * @param start the start time of the call
+   * @return true if the call should be recorded, false if it is nested or recording was off
+   */
+  static boolean end(long start) {
+    if (start == DISABLED) {
+      return false;
+    }
+    DEPTH.get()[0]--;
+    return start != NESTED;
+  }
+
+  /**
+   * Returns whether operation statistics are recorded.
+   *
+   * @return true if recording is switched on
+   */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Switches the recording of operation statistics on or off.
+   *
+   * @param enabled true to record, false to stop recording
+   */
+  public static void setEnabled(boolean enabled) {
+    OperationMetrics.enabled = enabled;
+  }
+
+  /**
+   * Returns the statistics of an operation, creating and publishing them the first time.
+   *
+   * @param component the class the operation belongs to, e.g. "FoodStorage"
+   * @param operation the name of the operation, e.g. "addItem"
+   * @return the statistics of the operation
+   */
+  public static OperationStats get(String component, String operation) {
+    return STATS.computeIfAbsent(component + "." + operation, key -> {
+      OperationStats stats = new OperationStats(component, operation);
+      register(stats, String.format("%s:type=Operation,component=%s,name=%s",
+          DOMAIN, ObjectName.quote(component), ObjectName.quote(operation)));
+      return stats;
+    });
+  }
+
+  /**
+   * Returns the statistics of all operations that have been created.
+   *
+   * @return a list of the statistics
+   */
+  public static List<OperationStats> getAll() {
+    return new ArrayList<>(STATS.values());
+  }
+
+  /**
+   * Publishes an MBean on the platform MBean server.
+   *
+   * @param bean the MBean
+   * @param name the object name of the MBean
+   * @throws IllegalStateException if the MBean cannot be published
+   */
+  private static void register(Object bean, String name) {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName objectName = new ObjectName(name);
+      if (!server.isRegistered(objectName)) {
+        server.registerMBean(bean, objectName);
+      }
+    } catch (JMException e) {
+      throw new IllegalStateException("Could not register MBean " + name, e);
+    }
+  }
+
+  /**
+   * The MBean that switches recording on and off.
+   */
+  private static final class Control implements MetricsControlMXBean {
+
+    @Override
+    public boolean isEnabled() {
+      return OperationMetrics.isEnabled();
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+      OperationMetrics.setEnabled(enabled);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package edu.ntnu.idi.idatt.monitoring;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and a latency histogram for one operation, e.g. {@code FoodStorage.addItem}. A call is
+ * measured by taking the time from {@link OperationMetrics#start()} and passing it to
+ * {@link #success(long, long)} or {@link #failure(long)}. When recording is switched off, or the
+ * call is made from another measured call, the start time is a marker value and nothing is
+ * recorded.
+ */
+public class OperationStats implements OperationStatsMXBean {
+
+  private final String component;
+  private final String operation;
+  private final LatencyHistogram histogram = new LatencyHistogram();
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder items = new LongAdder();
+
+  /**
+   * Constructor that initializes empty statistics.
+   *
+   * @param component the class the operation belongs to, e.g. "FoodStorage"
+   * @param operation the name of the operation, e.g. "addItem"
+   */
+  OperationStats(String component, String operation) {
+    this.component = component;
+    this.operation = operation;
+  }
+
+  /**
+   * Records a call that completed.
+   *
+   * @param start the time from {@link OperationMetrics#start()}
+   * @param count the number of items or recipes handled or returned by the call
+   */
+  public void success(long start, long count) {
+    if (!OperationMetrics.end(start)) {
+      return;
+    }
+    histogram.record(System.nanoTime() - start);
+    calls.increment();
+    items.add(count);
+  }
+
+  /**
+   * Records a call that threw an exception.
+   *
+   * @param start the time from {@link OperationMetrics#start()}
+   */
+  public void failure(long start) {
+    if (!OperationMetrics.end(start)) {
+      return;
+    }
+    histogram.record(System.nanoTime() - start);
+    calls.increment();
+    errors.increment();
+  }
+
+  /**
+   * Returns the class the operation belongs to.
+   *
+   * @return the name of the component
+   */
+  public String getComponent() {
+    return component;
+  }
+
+  /**
+   * Returns the name of the operation.
+   *
+   * @return the name of the operation
+   */
+  public String getOperation() {
+    return operation;
+  }
+
+  /**
+   * Returns the latency that the given share of the calls were faster than or equal to.
+   *
+   * @param percentile the percentile from 0 to 100
+   * @return the latency in nanoseconds
+   */
+  public long getPercentileNanos(double percentile) {
+    return histogram.getPercentile(percentile);
+  }
+
+  @Override
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  @Override
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  @Override
+  public long getItems() {
+    return items.sum();
+  }
+
+  @Override
+  public long getP50Nanos() {
+    return histogram.getPercentile(50);
+  }
+
+  @Override
+  public long getP99Nanos() {
+    return histogram.getPercentile(99);
+  }
+
+  @Override
+  public long getP999Nanos() {
+    return histogram.getPercentile(99.9);
+  }
+
+  @Override
+  public long getMaxNanos() {
+    return histogram.getPercentile(100);
+  }
+
+  @Override
+  public void reset() {
+    histogram.reset();
+    calls.reset();
+    errors.reset();
+    items.reset();
+  }
+}
@@ -0,0 +1,61 @@
+package edu.ntnu.idi.idatt.monitoring;
+
+/**
+ * Management interface for the statistics of one operation, published as a platform MBean.
+ */
+public interface OperationStatsMXBean {
+
+  /**
+   * Returns the number of calls, including calls that failed.
+   *
+   * @return the number of calls
+   */
+  long getCalls();
+
+  /**
+   * Returns the number of calls that threw an exception.
+   *
+   * @return the number of failed calls
+   */
+  long getErrors();
+
+  /**
+   * Returns the total number of items or recipes handled or returned by the calls.
+   *
+   * @return the number of items
+   */
+  long getItems();
+
+  /**
+   * Returns the median latency.
+   *
+   * @return the 50th percentile in nanoseconds
+   */
+  long getP50Nanos();
+
+  /**
+   * Returns the 99th percentile of the latency.
+   *
+   * @return the 99th percentile in nanoseconds
+   */
+  long getP99Nanos();
+
+  /**
+   * Returns the 99.9th percentile of the latency.
+   *
+   * @return the 99.9th percentile in nanoseconds
+   */
+  long getP999Nanos();
+
+  /**
+   * Returns the highest latency, rounded up to its histogram bucket.
+   *
+   * @return the highest latency in nanoseconds
+   */
+  long getMaxNanos();
+
+  /**
+   * Resets all counters and the histogram.
+   */
+  void reset();
+}
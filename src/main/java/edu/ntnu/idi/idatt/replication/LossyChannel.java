@@ -0,0 +1,70 @@
+package edu.ntnu.idi.idatt.replication;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A simulated network between in-process replicas. Every message is lost with a given
+ * probability, and the messages that get through are delivered in random order. The random
+ * generator is seeded, so a simulation can be repeated.
+ */
+final class LossyChannel {
+
+  private final double lossRate;
+  private final Random random;
+  private List<ReplicationMessage> inFlight;
+  private long sent;
+  private long dropped;
+
+  /**
+   * Constructor that initializes the channel.
+   *
+   * @param lossRate the probability that a message is lost, from 0 to less than 1
+   * @param seed     the seed used to decide which messages are lost and their order
+   * @throws IllegalArgumentException if the loss rate is not from 0 to less than 1
+   */
+  LossyChannel(double lossRate, long seed) {
+    if (!(lossRate >= 0 && lossRate < 1)) {
+      throw new IllegalArgumentException("Loss rate must be at least 0 and less than 1");
+    }
+    this.lossRate = lossRate;
+    this.random = new Random(seed);
+    this.inFlight = new ArrayList<>();
+  }
+
+  /**
+   * Sends a message, which may be lost.
+   *
+   * @param message the message to send
+   */
+  void send(ReplicationMessage message) {
+    sent++;
+    if (random.nextDouble() < lossRate) {
+      dropped++;
+    } else {
+      inFlight.add(message);
+    }
+  }
+
+  /**
+   * Returns the messages that got through since the last call, in random order.
+   *
+   * @return the delivered messages
+   */
+  List<ReplicationMessage> deliver() {
+    List<ReplicationMessage> delivered = inFlight;
+    inFlight = new ArrayList<>();
+    Collections.shuffle(delivered, random);
+    return delivered;
+  }
+
+  long getSent() {
+    return sent;
+  }
+
+  long getDropped() {
+    return dropped;
+  }
+}
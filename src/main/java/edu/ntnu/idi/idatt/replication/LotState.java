@@ -0,0 +1,203 @@
+package edu.ntnu.idi.idatt.replication;
+
+import edu.ntnu.idi.idatt.models.Ingredient;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The replicated state of one lot, made of two CRDTs:
+ *
+ * <ul>
+ *   <li>The quantity is a PN-counter: every replica only increases its own total of added and
+ *   removed quantity, and the quantity is the sum of the added totals minus the sum of the removed
+ *   totals.</li>
+ *   <li>Whether the lot is in the fridge is an OR-set of dots. Every add creates a new dot, and a
+ *   replica that uses up the lot removes the dots it has seen. A dot that was added at the same
+ *   time on another replica survives the merge, so an add always wins over a concurrent remove.</li>
+ * </ul>
+ *
+ * <p>Two states are merged with {@link #join(LotState)}, which is commutative, associative and
+ * idempotent, so replicas end up with the same state no matter in which order, or how many times,
+ * they receive each other's changes. The same class is used for deltas, which only contain the
+ * entries that were changed by one operation.</p>
+ */
+final class LotState {
+
+  private String name;
+  private String unit;
+
+  // TreeMap, slik at summen regnes i samme rekkefølge på alle replikaer
+  private final Map<String, Double> added;
+  private final Map<String, Double> removed;
+  private final Set<Dot> dots;
+  private final Set<Dot> tombstones;
+  private double value;
+
+  /**
+   * Constructor that initializes an empty state.
+   *
+   * @param name the name of the lot as written
+   * @param unit the unit of the lot
+   */
+  LotState(String name, String unit) {
+    this.name = name;
+    this.unit = unit;
+    this.added = new TreeMap<>();
+    this.removed = new TreeMap<>();
+    this.dots = new HashSet<>();
+    this.tombstones = new HashSet<>();
+  }
+
+  /**
+   * Returns the quantity of the lot according to the counter. It can be negative if several
+   * replicas removed the same quantity at the same time.
+   *
+   * @return the added quantity minus the removed quantity
+   */
+  double value() {
+    return value;
+  }
+
+  /**
+   * Returns the quantity that is shown to the user, which is zero if the lot has been removed.
+   *
+   * @return the visible quantity
+   */
+  double visibleQuantity() {
+    return dots.isEmpty() ? 0 : Math.max(0, value);
+  }
+
+  String name() {
+    return name;
+  }
+
+  String unit() {
+    return unit;
+  }
+
+  /**
+   * Records that a replica has added a quantity, as a new dot.
+   *
+   * @param replica  the replica that added the quantity
+   * @param quantity the quantity to add to the counter
+   * @param dot      the new dot
+   * @return a delta with the changed entries
+   */
+  LotState add(String replica, double quantity, Dot dot) {
+    double total = added.merge(replica, quantity, Double::sum);
+    dots.add(dot);
+    updateValue();
+    LotState delta = new LotState(name, unit);
+    delta.added.put(replica, total);
+    delta.dots.add(dot);
+    return delta;
+  }
+
+  /**
+   * Records that a replica has removed a quantity. If the lot is used up, the dots the replica has
+   * seen are removed.
+   *
+   * @param replica  the replica that removed the quantity
+   * @param quantity the quantity to add to the removed counter
+   * @return a delta with the changed entries
+   */
+  LotState remove(String replica, double quantity) {
+    double total = removed.merge(replica, quantity, Double::sum);
+    updateValue();
+    LotState delta = new LotState(name, unit);
+    delta.removed.put(replica, total);
+    if (value() <= 0) {
+      delta.tombstones.addAll(dots);
+      tombstones.addAll(dots);
+      dots.clear();
+    }
+    return delta;
+  }
+
+  /**
+   * Merges another state into this one.
+   *
+   * @param other the state to merge
+   */
+  void join(LotState other) {
+    // Velger minste skrivemåte, slik at alle replikaer velger den samme
+    if (other.name.compareTo(name) < 0) {
+      name = other.name;
+    }
+    if (other.unit.compareTo(unit) < 0) {
+      unit = other.unit;
+    }
+    other.added.forEach((replica, total) -> added.merge(replica, total, Math::max));
+    other.removed.forEach((replica, total) -> removed.merge(replica, total, Math::max));
+    tombstones.addAll(other.tombstones);
+    for (Dot dot : other.dots) {
+      if (!tombstones.contains(dot)) {
+        dots.add(dot);
+      }
+    }
+    dots.removeAll(other.tombstones);
+    updateValue();
+  }
+
+  /**
+   * Sums the counters again. The sum is always made in the same order, so that replicas with the
+   * same counters get exactly the same quantity.
+   */
+  private void updateValue() {
+    double total = 0;
+    for (double quantity : added.values()) {
+      total += quantity;
+    }
+    for (double quantity : removed.values()) {
+      total -= quantity;
+    }
+    value = total;
+  }
+
+  /**
+   * Returns a copy of this state that is not changed by later operations.
+   *
+   * @return a copy of the state
+   */
+  LotState copy() {
+    LotState copy = new LotState(name, unit);
+    copy.join(this);
+    return copy;
+  }
+
+  /**
+   * Returns the lot as an item, with its visible quantity.
+   *
+   * @param key the key of the lot
+   * @return a new item
+   */
+  Ingredient toIngredient(Key key) {
+    return new Ingredient(name, visibleQuantity(), unit, key.price(),
+        LocalDate.ofEpochDay(key.bestBefore()));
+  }
+
+  /**
+   * Identifies a lot. Items with the same name (case-insensitive), best-before date and price are
+   * the same lot, like in {@link edu.ntnu.idi.idatt.models.FoodStorage#addItem(Ingredient)}.
+   *
+   * @param name       the lower case name
+   * @param bestBefore the best-before date as an epoch day
+   * @param price      the price per unit
+   */
+  record Key(String name, long bestBefore, double price) {
+
+  }
+
+  /**
+   * A unique tag for one add, made of the replica id and a number counted by that replica.
+   *
+   * @param replica the replica that made the add
+   * @param counter the number of the add on that replica
+   */
+  record Dot(String replica, long counter) {
+
+  }
+}
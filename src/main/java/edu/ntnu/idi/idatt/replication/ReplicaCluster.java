@@ -0,0 +1,231 @@
+package edu.ntnu.idi.idatt.replication;
+
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.replication.ReplicationMessage.Ack;
+import edu.ntnu.idi.idatt.replication.ReplicationMessage.DeltaBatch;
+import edu.ntnu.idi.idatt.workload.WorkloadGenerator;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Several in-process replicas of one fridge, connected to each other through a simulated lossy
+ * channel. Used to test that the replicas converge, and to measure how fast they do it.
+ *
+ * <p>In every synchronization round, each replica sends its unacknowledged changes to each of the
+ * other replicas, and the receivers send acknowledgements back. Both the batches and the
+ * acknowledgements can be lost, in which case the changes are sent again in the next round.</p>
+ */
+public class ReplicaCluster {
+
+  private final Map<String, ReplicatedFoodStorage> replicas;
+  private final LossyChannel channel;
+
+  /**
+   * Constructor that initializes a cluster of empty replicas named {@code replica-0},
+   * {@code replica-1} and so on.
+   *
+   * @param replicaCount the number of replicas
+   * @param lossRate     the probability that a message is lost, from 0 to less than 1
+   * @param seed         the seed of the channel
+   * @param clock        the clock used by the replicas
+   * @throws IllegalArgumentException if there are fewer than two replicas, the loss rate is not
+   *                                  from 0 to less than 1 or the clock is null
+   */
+  public ReplicaCluster(int replicaCount, double lossRate, long seed, Clock clock) {
+    if (replicaCount < 2) {
+      throw new IllegalArgumentException("A cluster must have at least two replicas");
+    }
+    this.channel = new LossyChannel(lossRate, seed);
+    this.replicas = new LinkedHashMap<>();
+    for (int i = 0; i < replicaCount; i++) {
+      String id = "replica-" + i;
+      replicas.put(id, new ReplicatedFoodStorage(id, clock));
+    }
+    for (ReplicatedFoodStorage replica : replicas.values()) {
+      for (String peer : replicas.keySet()) {
+        if (!peer.equals(replica.getReplicaId())) {
+          replica.connect(peer);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns a replica.
+   *
+   * @param index the number of the replica
+   * @return the replica
+   * @throws IndexOutOfBoundsException if there is no replica with that number
+   */
+  public ReplicatedFoodStorage getReplica(int index) {
+    return List.copyOf(replicas.values()).get(index);
+  }
+
+  /**
+   * Returns all replicas.
+   *
+   * @return a list of the replicas
+   */
+  public List<ReplicatedFoodStorage> getReplicas() {
+    return List.copyOf(replicas.values());
+  }
+
+  /**
+   * Returns the number of messages that have been sent, including the lost ones.
+   *
+   * @return the number of messages sent
+   */
+  public long getMessagesSent() {
+    return channel.getSent();
+  }
+
+  /**
+   * Returns the number of messages that have been lost.
+   *
+   * @return the number of lost messages
+   */
+  public long getMessagesLost() {
+    return channel.getDropped();
+  }
+
+  /**
+   * Runs one synchronization round.
+   *
+   * @return the number of batches that were sent
+   */
+  public int syncRound() {
+    int batches = 0;
+    for (ReplicatedFoodStorage replica : replicas.values()) {
+      for (String peer : replicas.keySet()) {
+        if (!peer.equals(replica.getReplicaId())) {
+          DeltaBatch batch = replica.prepareDelta(peer);
+          if (batch != null) {
+            channel.send(batch);
+            batches++;
+          }
+        }
+      }
+    }
+    // Leverer batcher, og deretter kvitteringene for dem
+    for (int hop = 0; hop < 2; hop++) {
+      for (ReplicationMessage message : channel.deliver()) {
+        ReplicatedFoodStorage receiver = replicas.get(message.to());
+        switch (message) {
+          case DeltaBatch batch -> channel.send(receiver.receive(batch));
+          case Ack ack -> receiver.acknowledge(ack);
+        }
+      }
+    }
+    return batches;
+  }
+
+  /**
+   * Runs synchronization rounds until every replica has had all its changes acknowledged by every
+   * other replica.
+   *
+   * @param maxRounds the maximum number of rounds to run
+   * @return the number of rounds that were run, or -1 if the replicas did not converge within the
+   *     maximum number of rounds
+   */
+  public int syncUntilConverged(int maxRounds) {
+    for (int round = 0; round < maxRounds; round++) {
+      if (replicas.values().stream().allMatch(replica -> replica.getUnacknowledgedCount() == 0)) {
+        return round;
+      }
+      syncRound();
+    }
+    return replicas.values().stream().allMatch(replica -> replica.getUnacknowledgedCount() == 0)
+        ? maxRounds : -1;
+  }
+
+  /**
+   * Checks if all replicas have the same items.
+   *
+   * @return true if the replicas have converged
+   */
+  public boolean isConverged() {
+    List<Ingredient> first = null;
+    for (ReplicatedFoodStorage replica : replicas.values()) {
+      List<Ingredient> items = replica.getItems();
+      if (first == null) {
+        first = items;
+      } else if (!sameItems(first, items)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if two lists have items with the same name, quantity, unit, price and best-before date
+   * in the same order. The items are copies made by each replica, so they are compared field by
+   * field.
+   *
+   * @param first  the items of one replica
+   * @param second the items of another replica
+   * @return true if the lists have the same items
+   */
+  private static boolean sameItems(List<Ingredient> first, List<Ingredient> second) {
+    if (first.size() != second.size()) {
+      return false;
+    }
+    for (int i = 0; i < first.size(); i++) {
+      Ingredient a = first.get(i);
+      Ingredient b = second.get(i);
+      if (!a.getNameItem().equals(b.getNameItem())
+          || Double.compare(a.getQuantityItem(), b.getQuantityItem()) != 0
+          || !a.getUnitItem().equals(b.getUnitItem())
+          || Double.compare(a.getPricePerUnit(), b.getPricePerUnit()) != 0
+          || !a.getBestBefore().equals(b.getBestBefore())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Runs random adds and removes on random replicas, synchronizing every few operations, and
+   * prints the throughput and the number of rounds needed to converge at the end. The arguments
+   * are the number of replicas, operations, operations between rounds, the loss rate and the seed,
+   * e.g. {@code 4 100000 100 0.2 42}.
+   *
+   * @param args the arguments for the main method
+   */
+  public static void main(String[] args) {
+    int replicaCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+    int operations = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+    int roundInterval = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+    double lossRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.2;
+    long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+
+    ReplicaCluster cluster = new ReplicaCluster(replicaCount, lossRate, seed,
+        Clock.systemDefaultZone());
+    WorkloadGenerator generator = new WorkloadGenerator(seed);
+    Random random = new Random(seed);
+    List<ReplicatedFoodStorage> replicas = new ArrayList<>(cluster.getReplicas());
+
+    long start = System.nanoTime();
+    for (int i = 1; i <= operations; i++) {
+      ReplicatedFoodStorage replica = replicas.get(random.nextInt(replicaCount));
+      if (random.nextInt(10) < 6) {
+        replica.addItem(generator.nextItem());
+      } else {
+        replica.removeItem(generator.nextIngredientName(), 1 + random.nextInt(5));
+      }
+      if (i % roundInterval == 0) {
+        cluster.syncRound();
+      }
+    }
+    int rounds = cluster.syncUntilConverged(1_000);
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    System.out.printf("%d operations on %d replicas in %.2f s (%.0f ops/s)%n", operations,
+        replicaCount, seconds, operations / seconds);
+    System.out.printf("Converged after %d extra rounds: %b, %d of %d messages lost%n", rounds,
+        cluster.isConverged(), cluster.getMessagesLost(), cluster.getMessagesSent());
+  }
+}
@@ -0,0 +1,517 @@
+package edu.ntnu.idi.idatt.replication;
+
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.ItemCursor;
+import edu.ntnu.idi.idatt.models.ItemQuery;
+import edu.ntnu.idi.idatt.models.QueryResult;
+import edu.ntnu.idi.idatt.models.StorageListener;
+import edu.ntnu.idi.idatt.replication.LotState.Dot;
+import edu.ntnu.idi.idatt.replication.LotState.Key;
+import edu.ntnu.idi.idatt.replication.ReplicationMessage.Ack;
+import edu.ntnu.idi.idatt.replication.ReplicationMessage.DeltaBatch;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * One replica of a fridge that is updated from several devices. Every replica accepts adds and
+ * removes at once, without asking the others, and sends its changes to the other replicas as
+ * delta states. Since every lot is a CRDT (see {@link LotState}), the replicas end up with the
+ * same content once they have received each other's changes, no matter in which order the changes
+ * arrive or how often they are sent again.
+ *
+ * <p>Every local change gets a sequence number and is kept until every peer has acknowledged it.
+ * A peer is sent all its unacknowledged changes, joined into one batch, so a lost batch or
+ * acknowledgement is simply covered by the next one. A peer that connects after changes have been
+ * dropped from the log is sent the whole state instead.</p>
+ *
+ * <p>The operations give the same messages as {@link FoodStorage}, with these differences:</p>
+ * <ul>
+ *   <li>Lists of items are sorted by best-before date, then name and price, so that all replicas
+ *   list the same content in the same order.</li>
+ *   <li>If two replicas remove the same quantity at the same time, the lot is used up once, and
+ *   the extra removed quantity is not taken from other lots.</li>
+ *   <li>Listeners are not supported, since the items are copies made from the replicated state.</li>
+ * </ul>
+ *
+ * <p>All methods are synchronized on the replica, so a replica can be changed by a device while it
+ * is synchronized with the others.</p>
+ */
+public class ReplicatedFoodStorage extends FoodStorage {
+
+  private static final Comparator<Key> ORDER = Comparator.comparingLong(Key::bestBefore)
+      .thenComparing(Key::name)
+      .thenComparingDouble(Key::price);
+
+  private final String replicaId;
+
+  /**
+   * The state of every lot that has ever been in the fridge. Lots that are used up are kept, so
+   * that later changes from other replicas can be merged into them.
+   */
+  private final Map<Key, LotState> lots;
+
+  /**
+   * The keys of the lots, by lower case name. Each list is kept in the order of {@link #ORDER}.
+   */
+  private final Map<String, List<Key>> keysByName;
+
+  /**
+   * The deltas of the local changes that some peer has not acknowledged yet, by sequence number.
+   */
+  private final TreeMap<Long, Map<Key, LotState>> log;
+
+  /**
+   * The last sequence number each peer has acknowledged.
+   */
+  private final Map<String, Long> acknowledged;
+
+  private final Map<String, Long> ingredientVersions;
+  private long nextDot;
+  private long sequence;
+  private long prunedUpTo;
+  private long version;
+
+  /**
+   * Constructor that initializes an empty replica.
+   *
+   * @param replicaId the id of the replica, unique among the replicas of the fridge
+   * @throws IllegalArgumentException if the id is null or blank
+   */
+  public ReplicatedFoodStorage(String replicaId) {
+    this(replicaId, Clock.systemDefaultZone());
+  }
+
+  /**
+   * Constructor that initializes an empty replica, using the given clock to find today's date.
+   *
+   * @param replicaId the id of the replica, unique among the replicas of the fridge
+   * @param clock     the clock used to decide which items have expired
+   * @throws IllegalArgumentException if the id is null or blank, or the clock is null
+   */
+  public ReplicatedFoodStorage(String replicaId, Clock clock) {
+    super(clock);
+    if (replicaId == null || replicaId.isBlank()) {
+      throw new IllegalArgumentException("Replica id cannot be blank");
+    }
+    this.replicaId = replicaId;
+    this.lots = new HashMap<>();
+    this.keysByName = new HashMap<>();
+    this.log = new TreeMap<>();
+    this.acknowledged = new HashMap<>();
+    this.ingredientVersions = new HashMap<>();
+  }
+
+  /**
+   * Returns the id of the replica.
+   *
+   * @return the replica id
+   */
+  public String getReplicaId() {
+    return replicaId;
+  }
+
+  /**
+   * Returns the number of local changes that some peer has not acknowledged yet.
+   *
+   * @return the number of unacknowledged changes
+   */
+  public synchronized int getUnacknowledgedCount() {
+    return log.size();
+  }
+
+  /**
+   * Not supported, since the items of a replica are copies made from the replicated state.
+   *
+   * @param listener the listener to add
+   * @throws UnsupportedOperationException always
+   */
+  @Override
+  public void addListener(StorageListener listener) {
+    throw new UnsupportedOperationException("Listeners are not supported by a replicated fridge");
+  }
+
+  /**
+   * Returns a copy of all items in the fridge, sorted by best-before date, name and price.
+   *
+   * @return a list of the items in the fridge
+   */
+  @Override
+  public synchronized List<Ingredient> getItems() {
+    return items(null, key -> true);
+  }
+
+  @Override
+  public synchronized long getVersion() {
+    return version;
+  }
+
+  @Override
+  public synchronized long getIngredientVersion(String name) {
+    return name == null ? 0 : ingredientVersions.getOrDefault(name.toLowerCase(Locale.ROOT), 0L);
+  }
+
+  /**
+   * Adds an item to the replica. If an item with the same name, expiry date and price already
+   * exists, the quantities are combined.
+   *
+   * @param newItem the item to be added.
+   * @return a message that the item have been added successfully.
+   * @throws IllegalArgumentException if the item is null or the quantity is zero or negative.
+   */
+  @Override
+  public synchronized String addItem(Ingredient newItem) {
+    if (newItem == null || newItem.getQuantityItem() <= 0) {
+      throw new IllegalArgumentException("Invalid item or quantity");
+    }
+    Key key = new Key(newItem.getNameItem().toLowerCase(Locale.ROOT),
+        newItem.getBestBefore().toEpochDay(), newItem.getPricePerUnit());
+    LotState state = lot(key, newItem.getNameItem(), newItem.getUnitItem());
+    // Dekker opp et underskudd fra samtidige uttak, slik at lotten får akkurat den nye mengden
+    double increment = newItem.getQuantityItem() + Math.max(0, -state.value());
+    LotState delta = state.add(replicaId, increment, new Dot(replicaId, ++nextDot));
+    record(Map.of(key, delta));
+    return String.format("%.2f %s of %s has been added to the fridge!",
+        newItem.getQuantityItem(), newItem.getUnitItem(), newItem.getNameItem());
+  }
+
+  /**
+   * Removes a specified quantity of an item from the replica, starting with the earliest expiry
+   * date. Items that are used up are removed from the fridge on every replica.
+   *
+   * @param name     the name of the item to remove
+   * @param quantity the quantity of the item to remove
+   * @return a summary of the removing process, including details about removed items and updated
+   * stock status.
+   */
+  @Override
+  public synchronized String removeItem(String name, double quantity) {
+    double remainingQuantity = quantity;
+    StringBuilder result = new StringBuilder();
+    Map<Key, LotState> deltas = new LinkedHashMap<>();
+
+    if (name != null) {
+      String key = name.toLowerCase(Locale.ROOT);
+      for (Map.Entry<Key, LotState> lot : entries(key, k -> true)) {
+        if (remainingQuantity <= 0) {
+          break;
+        }
+        LotState state = lot.getValue();
+        double amountToRemove = Math.min(remainingQuantity, state.visibleQuantity());
+        deltas.put(lot.getKey(), state.remove(replicaId, amountToRemove));
+        remainingQuantity -= amountToRemove;
+        result.append(String.format(
+            "%.2f %s of %s with best before %s is removed. Remaining in stock: %.2f\n",
+            amountToRemove, state.unit(), state.name(),
+            LocalDate.ofEpochDay(lot.getKey().bestBefore()), state.visibleQuantity()
+        ));
+      }
+    }
+    if (remainingQuantity > 0) {
+      result.append(String.format("Not enough %s in stock to remove %.2f. Stock in fridge: %.2f.",
+          name, quantity, remainingQuantity));
+    }
+    if (!deltas.isEmpty()) {
+      record(deltas);
+    }
+    return result.toString();
+  }
+
+  /**
+   * Searches for items by name in the replica, and returns the matches sorted by expiry date.
+   *
+   * @param name the name of the item (case-insensitive)
+   * @return a list of the matching items
+   */
+  @Override
+  public synchronized List<Ingredient> searchItem(String name) {
+    return name == null ? new ArrayList<>() : items(name.toLowerCase(Locale.ROOT), key -> true);
+  }
+
+  /**
+   * Retrieves a list of ingredients that expire on or before the specified date. The returned list
+   * is sorted by the increasing expiry date.
+   *
+   * @param date the specific expiry date.
+   * @return a list ingredients that expires on or before the specified date.
+   */
+  @Override
+  public synchronized List<Ingredient> getItemsBeforeDate(LocalDate date) {
+    long last = date.toEpochDay();
+    return items(null, key -> key.bestBefore() <= last);
+  }
+
+  /**
+   * Returns the items that expired before today, sorted by expiry date.
+   *
+   * @return the list of expired items
+   */
+  @Override
+  public synchronized List<Ingredient> getExpiredItems() {
+    long today = LocalDate.now(getClock()).toEpochDay();
+    return items(null, key -> key.bestBefore() < today);
+  }
+
+  /**
+   * Returns a cursor over the result of {@link #searchItem(String)}. The result is made at once,
+   * since this fridge does not keep ordered indexes of items.
+   *
+   * @param name the name of the item (case-insensitive)
+   * @return a cursor at the first matching item
+   */
+  @Override
+  public synchronized ItemCursor searchCursor(String name) {
+    return ItemCursor.of(searchItem(name));
+  }
+
+  /**
+   * Returns a cursor over the result of {@link #getItemsBeforeDate(LocalDate)}, which is made at
+   * once.
+   *
+   * @param date the specific expiry date.
+   * @return a cursor at the item that expires first
+   */
+  @Override
+  public synchronized ItemCursor beforeDateCursor(LocalDate date) {
+    return ItemCursor.of(getItemsBeforeDate(date));
+  }
+
+  /**
+   * Returns a cursor over the result of {@link #getExpiredItems()}, which is made at once.
+   *
+   * @return a cursor at the item that expired first
+   */
+  @Override
+  public synchronized ItemCursor expiredCursor() {
+    return ItemCursor.of(getExpiredItems());
+  }
+
+  /**
+   * Runs a query by reading every item, since this fridge does not keep the indexes the planner
+   * of {@link FoodStorage#query(ItemQuery)} uses.
+   *
+   * @param query the query to run
+   * @return the matching items sorted by expiry date, with the plan and the number of items read
+   * @throws IllegalArgumentException if the query is null
+   */
+  @Override
+  public synchronized QueryResult query(ItemQuery query) {
+    if (query == null) {
+      throw new IllegalArgumentException("Query cannot be null");
+    }
+    return query.scan(getItems());
+  }
+
+  /**
+   * Returns the total value of the items that have expired, by reading every lot.
+   *
+   * @return the value of the items with a best-before date before today
+   */
+  @Override
+  public synchronized double getExpiredValue() {
+    long today = LocalDate.now(getClock()).toEpochDay();
+    return valueBetween(Long.MIN_VALUE, today - 1);
+  }
+
+  /**
+   * Returns the total value of the items that expire within a number of days, by reading every
+   * lot.
+   *
+   * @param days the number of days from today
+   * @return the value that expires within the days
+   * @throws IllegalArgumentException if the number of days is negative
+   */
+  @Override
+  public synchronized double getValueExpiringWithin(int days) {
+    if (days < 0) {
+      throw new IllegalArgumentException("Number of days cannot be negative");
+    }
+    long today = LocalDate.now(getClock()).toEpochDay();
+    return valueBetween(today, today + days);
+  }
+
+  /**
+   * Calculates the total value of all items in the replica.
+   *
+   * @return the total value.
+   */
+  @Override
+  public synchronized double calculateTotalValue() {
+    double total = 0;
+    for (Map.Entry<Key, LotState> lot : entries(null, key -> true)) {
+      total += lot.getValue().visibleQuantity() * lot.getKey().price();
+    }
+    return total;
+  }
+
+  /**
+   * Starts sending changes to a peer. The peer is first sent everything that is still in the log,
+   * or the whole state if changes have already been dropped from the log.
+   *
+   * @param peerId the id of the peer
+   * @throws IllegalArgumentException if the peer is this replica
+   */
+  synchronized void connect(String peerId) {
+    if (replicaId.equals(peerId)) {
+      throw new IllegalArgumentException("A replica cannot be its own peer");
+    }
+    acknowledged.putIfAbsent(peerId, 0L);
+  }
+
+  /**
+   * Returns the changes a peer has not acknowledged, or null if it has acknowledged everything.
+   *
+   * @param peerId the id of the peer
+   * @return a batch with the unacknowledged changes, or null
+   * @throws IllegalArgumentException if the peer is not connected
+   */
+  synchronized DeltaBatch prepareDelta(String peerId) {
+    Long upTo = acknowledged.get(peerId);
+    if (upTo == null) {
+      throw new IllegalArgumentException(
+          String.format("The replica '%s' is not a peer of '%s'.", peerId, replicaId));
+    }
+    if (upTo >= sequence) {
+      return null;
+    }
+    Map<Key, LotState> batch = new HashMap<>();
+    if (upTo < prunedUpTo) {
+      lots.forEach((key, state) -> batch.put(key, state.copy()));
+    } else {
+      for (Map<Key, LotState> deltas : log.tailMap(upTo, false).values()) {
+        deltas.forEach((key, delta) -> batch.merge(key, delta.copy(), (joined, next) -> {
+          joined.join(next);
+          return joined;
+        }));
+      }
+    }
+    return new DeltaBatch(replicaId, peerId, sequence, batch);
+  }
+
+  /**
+   * Merges a batch of changes from a peer into this replica.
+   *
+   * @param batch the changes
+   * @return the acknowledgement to send back to the peer
+   */
+  synchronized Ack receive(DeltaBatch batch) {
+    batch.lots().forEach((key, delta) -> {
+      lot(key, delta.name(), delta.unit()).join(delta);
+      markModified(key.name());
+    });
+    return new Ack(replicaId, batch.from(), batch.upTo());
+  }
+
+  /**
+   * Records that a peer has received the changes up to a sequence number, and drops the changes
+   * every peer has received from the log.
+   *
+   * @param ack the acknowledgement from the peer
+   */
+  synchronized void acknowledge(Ack ack) {
+    acknowledged.computeIfPresent(ack.from(), (peer, upTo) -> Math.max(upTo, ack.upTo()));
+    prune();
+  }
+
+  /**
+   * Logs the deltas of a local change under a new sequence number, and marks the changed
+   * ingredients as modified.
+   *
+   * @param deltas the delta of every changed lot
+   */
+  private void record(Map<Key, LotState> deltas) {
+    sequence++;
+    log.put(sequence, deltas);
+    deltas.keySet().forEach(key -> markModified(key.name()));
+    prune();
+  }
+
+  /**
+   * Drops the changes that every peer has acknowledged from the log.
+   */
+  private void prune() {
+    long upTo = acknowledged.values().stream().mapToLong(Long::longValue).min().orElse(sequence);
+    if (upTo > prunedUpTo) {
+      log.headMap(upTo, true).clear();
+      prunedUpTo = upTo;
+    }
+  }
+
+  /**
+   * Returns the state of a lot, creating an empty state the first time the lot is seen.
+   *
+   * @param key  the key of the lot
+   * @param name the name of the lot as written
+   * @param unit the unit of the lot
+   * @return the state of the lot
+   */
+  private LotState lot(Key key, String name, String unit) {
+    LotState state = lots.get(key);
+    if (state == null) {
+      state = new LotState(name, unit);
+      lots.put(key, state);
+      List<Key> keys = keysByName.computeIfAbsent(key.name(), n -> new ArrayList<>());
+      keys.add(-Collections.binarySearch(keys, key, ORDER) - 1, key);
+    }
+    return state;
+  }
+
+  private void markModified(String key) {
+    version++;
+    ingredientVersions.put(key, version);
+  }
+
+  private double valueBetween(long firstDay, long lastDay) {
+    double total = 0;
+    for (Map.Entry<Key, LotState> lot
+        : entries(null, key -> key.bestBefore() >= firstDay && key.bestBefore() <= lastDay)) {
+      total += lot.getValue().visibleQuantity() * lot.getKey().price();
+    }
+    return total;
+  }
+
+  /**
+   * Returns the lots that are in the fridge and match a filter, in the order of {@link #ORDER}.
+   *
+   * @param name   the lower case name of the lots, or null for lots with any name
+   * @param filter the filter on the key of the lot
+   * @return the matching lots
+   */
+  private List<Map.Entry<Key, LotState>> entries(String name, Predicate<Key> filter) {
+    List<Map.Entry<Key, LotState>> result = new ArrayList<>();
+    if (name == null) {
+      for (Map.Entry<Key, LotState> lot : lots.entrySet()) {
+        if (lot.getValue().visibleQuantity() > 0 && filter.test(lot.getKey())) {
+          result.add(lot);
+        }
+      }
+      result.sort(Map.Entry.comparingByKey(ORDER));
+    } else {
+      for (Key key : keysByName.getOrDefault(name, List.of())) {
+        LotState state = lots.get(key);
+        if (state.visibleQuantity() > 0 && filter.test(key)) {
+          result.add(Map.entry(key, state));
+        }
+      }
+    }
+    return result;
+  }
+
+  private List<Ingredient> items(String name, Predicate<Key> filter) {
+    List<Ingredient> result = new ArrayList<>();
+    for (Map.Entry<Key, LotState> lot : entries(name, filter)) {
+      result.add(lot.getValue().toIngredient(lot.getKey()));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,41 @@
+package edu.ntnu.idi.idatt.replication;
+
+import java.util.Map;
+
+/**
+ * A message sent between two replicas.
+ */
+sealed interface ReplicationMessage {
+
+  /**
+   * Returns the id of the replica the message is sent to.
+   *
+   * @return the id of the receiving replica
+   */
+  String to();
+
+  /**
+   * The changes a replica has made since the receiver last acknowledged, joined into one delta per
+   * lot.
+   *
+   * @param from  the replica that sent the changes
+   * @param to    the replica the changes are sent to
+   * @param upTo  the sequence number of the last change in the batch
+   * @param lots  the delta of every changed lot
+   */
+  record DeltaBatch(String from, String to, long upTo, Map<LotState.Key, LotState> lots)
+      implements ReplicationMessage {
+
+  }
+
+  /**
+   * Tells a replica that all its changes up to a sequence number have been received.
+   *
+   * @param from the replica that received the changes
+   * @param to   the replica that sent the changes
+   * @param upTo the sequence number of the last change received
+   */
+  record Ack(String from, String to, long upTo) implements ReplicationMessage {
+
+  }
+}
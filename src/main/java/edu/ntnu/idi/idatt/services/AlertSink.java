@@ -0,0 +1,18 @@
+package edu.ntnu.idi.idatt.services;
+
+import java.util.List;
+
+/**
+ * Receives the alerts created by an {@link ExpiryAlertService}. Alerts are delivered in batches,
+ * and a sink may be called from several threads at the same time.
+ */
+@FunctionalInterface
+public interface AlertSink {
+
+  /**
+   * Delivers a batch of alerts.
+   *
+   * @param alerts the alerts to deliver
+   */
+  void deliver(List<ExpiryAlert> alerts);
+}
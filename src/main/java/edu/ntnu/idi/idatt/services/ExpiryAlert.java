@@ -0,0 +1,71 @@
+package edu.ntnu.idi.idatt.services;
+
+import edu.ntnu.idi.idatt.models.Ingredient;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * An alert telling a household that some items in their fridge must be used within a number of
+ * days. The items are copied when the alert is created, so later changes to the fridge do not
+ * change the alert.
+ *
+ * @param householdId   the id of the household the alert is for
+ * @param thresholdDays the number of days the items must be used within
+ * @param date          the date the alert was created
+ * @param items         the items that must be used
+ */
+public record ExpiryAlert(String householdId, int thresholdDays, LocalDate date,
+                          List<Item> items) {
+
+  /**
+   * Constructor that makes the list of items immutable.
+   */
+  public ExpiryAlert {
+    items = List.copyOf(items);
+  }
+
+  /**
+   * Creates an alert from items in a fridge.
+   *
+   * @param householdId   the id of the household the alert is for
+   * @param thresholdDays the number of days the items must be used within
+   * @param date          the date the alert was created
+   * @param ingredients   the items in the fridge that must be used
+   * @return the new alert
+   */
+  public static ExpiryAlert of(String householdId, int thresholdDays, LocalDate date,
+      List<Ingredient> ingredients) {
+    return new ExpiryAlert(householdId, thresholdDays, date, ingredients.stream()
+        .map(item -> new Item(item.getNameItem(), item.getQuantityItem(), item.getUnitItem(),
+            item.getBestBefore()))
+        .toList());
+  }
+
+  /**
+   * Returns the alert as one line of text, for example
+   * {@code home-1;3;2024-12-01;Milk 3.00 dL 2024-12-03}.
+   *
+   * @return the alert as one line
+   */
+  public String toLine() {
+    StringBuilder line = new StringBuilder()
+        .append(householdId).append(';').append(thresholdDays).append(';').append(date);
+    for (Item item : items) {
+      line.append(';').append(String.format("%s %.2f %s %s",
+          item.name(), item.quantity(), item.unit(), item.bestBefore()));
+    }
+    return line.toString();
+  }
+
+  /**
+   * A copy of an item in the fridge.
+   *
+   * @param name       the name of the item
+   * @param quantity   the quantity of the item
+   * @param unit       the unit of the item
+   * @param bestBefore the best-before date of the item
+   */
+  public record Item(String name, double quantity, String unit, LocalDate bestBefore) {
+
+  }
+}
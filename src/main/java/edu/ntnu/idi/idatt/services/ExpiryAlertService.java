@@ -0,0 +1,367 @@
+package edu.ntnu.idi.idatt.services;
+
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.StorageListener;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends "use within N days" alerts for the fridges of many households. Each fridge is watched with
+ * a {@link StorageListener}, and is only checked again when it has changed or when the date has
+ * changed. Every check runs on its own virtual thread, so that tens of thousands of fridges can be
+ * watched without one platform thread per household.
+ *
+ * <p>An item is reported once for every threshold it crosses. With the thresholds 1, 3 and 7, an
+ * item is first reported when it is within 7 days of its best-before date, then again within 3
+ * days and finally within 1 day. The alerts of one round are delivered to the sinks in batches.</p>
+ *
+ * <p>A fridge is read while holding the lock of its household, so code that changes a watched
+ * fridge must hold the same lock while doing so. The lock is either given to
+ * {@link #register(String, FoodStorage, Lock)} or returned by
+ * {@link #register(String, FoodStorage)}. The locks are not monitors, so a check that waits
+ * for a fridge does not pin the carrier thread of its virtual thread.</p>
+ *
+ * <p>If a round started by {@link #start(Duration)} fails, the background thread keeps running and
+ * the failure is kept, see {@link #getLastFailure()}.</p>
+ */
+public class ExpiryAlertService implements AutoCloseable {
+
+  private final Clock clock;
+  private final int[] thresholds;
+  private final int batchSize;
+  private final List<AlertSink> sinks;
+  private final Map<String, Household> households;
+  private final ExecutorService executor;
+  private volatile LocalDate lastRound;
+  private volatile Thread worker;
+  private volatile RuntimeException lastFailure;
+
+  /**
+   * Constructor that initializes the service with thresholds, batch size and sinks.
+   *
+   * @param clock      the clock used to find today's date
+   * @param thresholds the number of days before best-before an item is reported, e.g. 1, 3 and 7
+   * @param batchSize  the maximum number of alerts delivered to a sink at a time
+   * @param sinks      the sinks the alerts are delivered to
+   * @throws IllegalArgumentException if the clock is null, there are no thresholds or sinks, a
+   *                                  threshold is negative or the batch size is not positive
+   */
+  public ExpiryAlertService(Clock clock, List<Integer> thresholds, int batchSize,
+      List<AlertSink> sinks) {
+    if (clock == null) {
+      throw new IllegalArgumentException("Clock cannot be null");
+    }
+    if (thresholds == null || thresholds.isEmpty()) {
+      throw new IllegalArgumentException("There must be at least one threshold");
+    }
+    if (thresholds.stream().anyMatch(days -> days == null || days < 0)) {
+      throw new IllegalArgumentException("Thresholds cannot be negative");
+    }
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("Batch size must be greater than zero");
+    }
+    if (sinks == null || sinks.isEmpty()) {
+      throw new IllegalArgumentException("There must be at least one alert sink");
+    }
+    this.clock = clock;
+    // Sortert stigende, slik at det minste vinduet en vare er innenfor finnes først
+    this.thresholds = thresholds.stream().mapToInt(Integer::intValue).distinct().sorted().toArray();
+    this.batchSize = batchSize;
+    this.sinks = List.copyOf(sinks);
+    this.households = new ConcurrentHashMap<>();
+    this.executor = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  /**
+   * Starts watching the fridge of a household, guarded by a new lock. The checks read the fridge
+   * on other threads while holding the lock, so code that changes the fridge while it is watched
+   * must hold the returned lock while doing so.
+   *
+   * @param householdId the id of the household
+   * @param foodStorage the fridge of the household
+   * @return the lock that guards the fridge
+   * @throws IllegalArgumentException if the id or the fridge is null, or the household is already
+   *                                  watched
+   */
+  public Lock register(String householdId, FoodStorage foodStorage) {
+    Lock lock = new ReentrantLock();
+    register(householdId, foodStorage, lock);
+    return lock;
+  }
+
+  /**
+   * Starts watching the fridge of a household, reading it while holding the given lock. Code that
+   * changes the fridge while it is watched must hold the same lock.
+   *
+   * @param householdId the id of the household
+   * @param foodStorage the fridge of the household
+   * @param lock        the lock that guards the fridge
+   * @throws IllegalArgumentException if the id, the fridge or the lock is null, or the household
+   *                                  is already watched
+   */
+  public void register(String householdId, FoodStorage foodStorage, Lock lock) {
+    if (householdId == null || foodStorage == null || lock == null) {
+      throw new IllegalArgumentException("Household id, food storage and lock cannot be null");
+    }
+    Household household = new Household(householdId, foodStorage, lock);
+    if (households.putIfAbsent(householdId, household) != null) {
+      throw new IllegalArgumentException(
+          String.format("The household '%s' is already registered.", householdId));
+    }
+    lock.lock();
+    try {
+      foodStorage.addListener(household);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Stops watching the fridge of a household.
+   *
+   * @param householdId the id of the household
+   */
+  public void unregister(String householdId) {
+    Household household = households.remove(householdId);
+    if (household != null) {
+      household.lock.lock();
+      try {
+        household.foodStorage.removeListener(household);
+      } finally {
+        household.lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of households that are watched.
+   *
+   * @return the number of households
+   */
+  public int getHouseholdCount() {
+    return households.size();
+  }
+
+  /**
+   * Returns the last failure of a round run by the background thread, or null if no round has
+   * failed.
+   *
+   * @return the last failure, or null
+   */
+  public RuntimeException getLastFailure() {
+    return lastFailure;
+  }
+
+  /**
+   * Checks every fridge that has changed since the last round, or every fridge if the date has
+   * changed, and delivers the new alerts to the sinks.
+   *
+   * <p>A failed check or delivery does not stop the round. The alerts of every other fridge are
+   * delivered to every other sink first, a fridge whose check failed is checked again in the next
+   * round, and the failures are then thrown together.</p>
+   *
+   * @return the number of alerts delivered
+   * @throws InterruptedException  if the thread is interrupted while waiting for the checks
+   * @throws IllegalStateException if a check or a delivery failed, with the first failure as the
+   *                               cause and the others as suppressed exceptions
+   */
+  public int runOnce() throws InterruptedException {
+    LocalDate today = LocalDate.now(clock);
+    boolean newDay = !today.equals(lastRound);
+    lastRound = today;
+
+    Map<Household, Future<List<ExpiryAlert>>> checks = new LinkedHashMap<>();
+    for (Household household : households.values()) {
+      if (newDay || household.dirty) {
+        checks.put(household, executor.submit(() -> household.check(today)));
+      }
+    }
+
+    List<RuntimeException> failures = new ArrayList<>();
+    List<ExpiryAlert> batch = new ArrayList<>(batchSize);
+    int delivered = 0;
+    for (Map.Entry<Household, Future<List<ExpiryAlert>>> check : checks.entrySet()) {
+      List<ExpiryAlert> alerts;
+      try {
+        alerts = check.getValue().get();
+      } catch (ExecutionException e) {
+        check.getKey().dirty = true; // Sjekkes på nytt i neste runde
+        failures.add(new IllegalStateException(
+            String.format("Checking the fridge of '%s' failed", check.getKey().id), e.getCause()));
+        continue;
+      }
+      for (ExpiryAlert alert : alerts) {
+        batch.add(alert);
+        if (batch.size() == batchSize) {
+          deliver(batch, failures);
+          delivered += batch.size();
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+    }
+    if (!batch.isEmpty()) {
+      deliver(batch, failures);
+      delivered += batch.size();
+    }
+    if (!failures.isEmpty()) {
+      // Alt som lyktes er levert, så feilene kastes samlet til slutt
+      IllegalStateException failure = new IllegalStateException(
+          String.format("%d checks or deliveries failed in the round", failures.size()),
+          failures.getFirst());
+      failures.subList(1, failures.size()).forEach(failure::addSuppressed);
+      throw failure;
+    }
+    return delivered;
+  }
+
+  /**
+   * Starts a background virtual thread that calls {@link #runOnce()} at a fixed interval, until
+   * {@link #close()} is called. A round that fails is kept as the last failure, and the next round
+   * runs as usual.
+   *
+   * @param interval the time between two rounds
+   * @throws IllegalStateException if the service is already started
+   */
+  public synchronized void start(Duration interval) {
+    if (worker != null) {
+      throw new IllegalStateException("The alert service is already started");
+    }
+    worker = Thread.ofVirtual().name("expiry-alerts").start(() -> {
+      try {
+        while (!Thread.currentThread().isInterrupted()) {
+          try {
+            runOnce();
+          } catch (RuntimeException e) {
+            // Tråden skal ikke dø stille, så feilen tas vare på og neste runde kjøres
+            lastFailure = e;
+          }
+          Thread.sleep(interval);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+  }
+
+  /**
+   * Stops the background thread and the checks, and stops watching all fridges.
+   */
+  @Override
+  public synchronized void close() {
+    if (worker != null) {
+      worker.interrupt();
+      worker = null;
+    }
+    executor.shutdownNow();
+    List.copyOf(households.keySet()).forEach(this::unregister);
+  }
+
+  /**
+   * Delivers a batch of alerts to every sink. A sink that fails does not stop the delivery to the
+   * other sinks.
+   *
+   * @param batch    the alerts to deliver
+   * @param failures the list the failures of the sinks are added to
+   */
+  private void deliver(List<ExpiryAlert> batch, List<RuntimeException> failures) {
+    List<ExpiryAlert> alerts = List.copyOf(batch);
+    for (AlertSink sink : sinks) {
+      try {
+        sink.deliver(alerts);
+      } catch (RuntimeException e) {
+        failures.add(e);
+      }
+    }
+  }
+
+  /**
+   * A watched fridge, together with the smallest threshold each item has been reported for.
+   */
+  private final class Household implements StorageListener {
+
+    private final String id;
+    private final FoodStorage foodStorage;
+    private final Lock lock;
+    private final Map<Ingredient, Integer> reported;
+    private volatile boolean dirty = true;
+
+    private Household(String id, FoodStorage foodStorage, Lock lock) {
+      this.id = id;
+      this.foodStorage = foodStorage;
+      this.lock = lock;
+      this.reported = Collections.synchronizedMap(new IdentityHashMap<>());
+    }
+
+    @Override
+    public void quantityChanged(Ingredient item, double before, double after) {
+      dirty = true;
+    }
+
+    /**
+     * Finds the items that have crossed a threshold since they were last reported.
+     *
+     * @param today today's date
+     * @return one alert for each threshold that has new items
+     */
+    private List<ExpiryAlert> check(LocalDate today) {
+      dirty = false;
+      int maxThreshold = thresholds[thresholds.length - 1];
+      List<Ingredient> soon;
+      lock.lock();
+      try {
+        soon = foodStorage.getItemsBeforeDate(today.plusDays(maxThreshold));
+      } finally {
+        lock.unlock();
+      }
+
+      List<List<Ingredient>> crossed = new ArrayList<>();
+      for (int i = 0; i < thresholds.length; i++) {
+        crossed.add(new ArrayList<>());
+      }
+      Map<Ingredient, Integer> stillSoon = new IdentityHashMap<>();
+      for (Ingredient item : soon) {
+        if (item.getBestBefore().isBefore(today)) {
+          continue; // Allerede gått ut, vises under utgåtte varer
+        }
+        long daysLeft = item.getBestBefore().toEpochDay() - today.toEpochDay();
+        int index = 0;
+        while (thresholds[index] < daysLeft) {
+          index++;
+        }
+        Integer previous = reported.get(item);
+        if (previous == null || previous > thresholds[index]) {
+          crossed.get(index).add(item);
+          stillSoon.put(item, thresholds[index]);
+        } else {
+          stillSoon.put(item, previous);
+        }
+      }
+      // Varer som er brukt opp glemmes
+      reported.clear();
+      reported.putAll(stillSoon);
+
+      List<ExpiryAlert> alerts = new ArrayList<>();
+      for (int i = 0; i < thresholds.length; i++) {
+        if (!crossed.get(i).isEmpty()) {
+          alerts.add(ExpiryAlert.of(id, thresholds[i], today, crossed.get(i)));
+        }
+      }
+      return alerts;
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package edu.ntnu.idi.idatt.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Alert sink that appends every alert as one line to a local file.
+ */
+public class FileAlertSink implements AlertSink {
+
+  private final Path file;
+
+  /**
+   * Constructor that initializes the sink with the file to write to. The file is created when the
+   * first alert is delivered if it does not exist.
+   *
+   * @param file the file to append the alerts to
+   * @throws IllegalArgumentException if the file is null
+   */
+  public FileAlertSink(Path file) {
+    if (file == null) {
+      throw new IllegalArgumentException("File cannot be null");
+    }
+    this.file = file;
+  }
+
+  /**
+   * Appends a batch of alerts to the file.
+   *
+   * @param alerts the alerts to deliver
+   * @throws UncheckedIOException if the file cannot be written
+   */
+  @Override
+  public synchronized void deliver(List<ExpiryAlert> alerts) {
+    StringBuilder lines = new StringBuilder();
+    alerts.forEach(alert -> lines.append(alert.toLine()).append(System.lineSeparator()));
+    try {
+      Files.writeString(file, lines, StandardCharsets.UTF_8,
+          StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write alerts to " + file, e);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package edu.ntnu.idi.idatt.services;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * One household in a {@link HouseholdRegistry}, with its own fridge and its own private recipes.
+ * The recipes in the shared catalog of the registry are available to every household.
+ *
+ * <p>A household belongs to one shard, and must only be used from the operations the registry
+ * runs on that shard. The fridge and the private recipes are therefore never locked.</p>
+ */
+public final class Household {
+
+  private final String id;
+  private final FoodStorage foodStorage;
+  private final CookBook privateRecipes;
+  private final CookBook catalog;
+  private final Lock catalogReadLock;
+
+  Household(String id, FoodStorage foodStorage, CookBook catalog, Lock catalogReadLock) {
+    this.id = id;
+    this.foodStorage = foodStorage;
+    this.privateRecipes = new CookBook();
+    this.catalog = catalog;
+    this.catalogReadLock = catalogReadLock;
+  }
+
+  /**
+   * Returns the id of the household.
+   *
+   * @return the id
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Returns the fridge of the household.
+   *
+   * @return the fridge
+   */
+  public FoodStorage getFoodStorage() {
+    return foodStorage;
+  }
+
+  /**
+   * Returns the private recipes of the household, which are not shared with other households.
+   *
+   * @return the cookbook with the private recipes
+   */
+  public CookBook getPrivateRecipes() {
+    return privateRecipes;
+  }
+
+  /**
+   * Checks if a recipe can be made from the fridge. Private recipes are looked up before the
+   * shared catalog.
+   *
+   * @param recipeName the name of the recipe
+   * @return a message indicating whether the recipe can be made, or which ingredients are missing
+   * @throws IllegalArgumentException if the recipe is neither private nor in the catalog
+   */
+  public String canMakeRecipe(String recipeName) {
+    if (privateRecipes.hasRecipe(recipeName)) {
+      return privateRecipes.canMakeRecipe(recipeName, foodStorage);
+    }
+    catalogReadLock.lock();
+    try {
+      return catalog.canMakeRecipe(recipeName, foodStorage);
+    } finally {
+      catalogReadLock.unlock();
+    }
+  }
+
+  /**
+   * Suggests the private recipes and the recipes in the shared catalog that can be made from the
+   * fridge.
+   *
+   * @return the names of the recipes that can be made, private recipes first
+   */
+  public List<String> suggestRecipes() {
+    List<String> result = new ArrayList<>(privateRecipes.suggestRecipe(foodStorage));
+    catalogReadLock.lock();
+    try {
+      result.addAll(catalog.suggestRecipe(foodStorage));
+    } finally {
+      catalogReadLock.unlock();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the total value of the items in the fridge that have expired.
+   *
+   * @return the value of the expired items
+   */
+  public double getExpiredValue() {
+    double value = 0;
+    for (Ingredient item : foodStorage.getExpiredItems()) {
+      value += item.getQuantityItem() * item.getPricePerUnit();
+    }
+    return value;
+  }
+}
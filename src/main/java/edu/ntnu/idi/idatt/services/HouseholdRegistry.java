@@ -0,0 +1,234 @@
+package edu.ntnu.idi.idatt.services;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps thousands of households in one process, each with its own fridge and private recipes, and
+ * a shared catalog of recipes that every household can use.
+ *
+ * <p>The households are split into shards by their id, and each shard has one worker thread that
+ * runs every operation on its households. Since only that thread ever touches the fridges in the
+ * shard, the fridges need no locks, and households in different shards are used in parallel.
+ * Operations over all households, like {@link #getTotalExpiredValue()}, run on every shard at the
+ * same time and combine the results, so they scale with the number of shards.</p>
+ *
+ * <p>The catalog is read by all shards at the same time, and is only changed through
+ * {@link #updateCatalog(Consumer)}, which waits until no shard is reading it.</p>
+ */
+public class HouseholdRegistry implements AutoCloseable {
+
+  private final Clock clock;
+  private final CookBook catalog;
+  private final ReadWriteLock catalogLock;
+  private final Shard[] shards;
+
+  /**
+   * Constructor that initializes the registry with one shard per processor.
+   *
+   * @param catalog the shared recipes
+   * @throws IllegalArgumentException if the catalog is null
+   */
+  public HouseholdRegistry(CookBook catalog) {
+    this(Runtime.getRuntime().availableProcessors(), catalog, Clock.systemDefaultZone());
+  }
+
+  /**
+   * Constructor that initializes the registry.
+   *
+   * @param shardCount the number of shards, usually the number of processors
+   * @param catalog    the shared recipes
+   * @param clock      the clock given to the fridges of the households
+   * @throws IllegalArgumentException if the number of shards is not positive, or the catalog or
+   *                                  the clock is null
+   */
+  public HouseholdRegistry(int shardCount, CookBook catalog, Clock clock) {
+    if (shardCount <= 0) {
+      throw new IllegalArgumentException("Number of shards must be greater than zero");
+    }
+    if (catalog == null || clock == null) {
+      throw new IllegalArgumentException("Catalog and clock cannot be null");
+    }
+    this.clock = clock;
+    this.catalog = catalog;
+    this.catalogLock = new ReentrantReadWriteLock();
+    this.shards = new Shard[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      shards[i] = new Shard(i);
+    }
+  }
+
+  /**
+   * Returns the number of shards.
+   *
+   * @return the number of shards
+   */
+  public int getShardCount() {
+    return shards.length;
+  }
+
+  /**
+   * Adds a new household with an empty fridge and no private recipes.
+   *
+   * @param householdId the id of the household
+   * @return a future that completes when the household is added, or fails with an
+   *         IllegalArgumentException if the household is already registered
+   * @throws IllegalArgumentException if the id is null
+   */
+  public CompletableFuture<Void> register(String householdId) {
+    Shard shard = shardOf(householdId);
+    return CompletableFuture.runAsync(() -> {
+      if (shard.households.containsKey(householdId)) {
+        throw new IllegalArgumentException(
+            String.format("The household '%s' is already registered.", householdId));
+      }
+      shard.households.put(householdId, new Household(householdId, new FoodStorage(clock),
+          catalog, catalogLock.readLock()));
+    }, shard.executor);
+  }
+
+  /**
+   * Removes a household.
+   *
+   * @param householdId the id of the household
+   * @return a future that completes with true if the household was removed, or false if it was
+   *         not registered
+   * @throws IllegalArgumentException if the id is null
+   */
+  public CompletableFuture<Boolean> unregister(String householdId) {
+    Shard shard = shardOf(householdId);
+    return CompletableFuture.supplyAsync(
+        () -> shard.households.remove(householdId) != null, shard.executor);
+  }
+
+  /**
+   * Runs an operation on one household, on the worker thread of its shard.
+   *
+   * @param householdId the id of the household
+   * @param operation   the operation to run
+   * @param <T>         the type of the result
+   * @return a future with the result, which fails with an IllegalArgumentException if the
+   *         household is not registered
+   * @throws IllegalArgumentException if the id is null
+   */
+  public <T> CompletableFuture<T> execute(String householdId, Function<Household, T> operation) {
+    Shard shard = shardOf(householdId);
+    return CompletableFuture.supplyAsync(() -> {
+      Household household = shard.households.get(householdId);
+      if (household == null) {
+        throw new IllegalArgumentException(
+            String.format("The household '%s' is not registered.", householdId));
+      }
+      return operation.apply(household);
+    }, shard.executor);
+  }
+
+  /**
+   * Runs an operation on every household and combines the results. Each shard combines the
+   * results of its own households in parallel with the other shards, and the results of the
+   * shards are then combined.
+   *
+   * @param operation the operation to run on each household
+   * @param identity  the result when there are no households
+   * @param combiner  combines two results, must be associative
+   * @param <T>       the type of the result
+   * @return a future with the combined result
+   */
+  public <T> CompletableFuture<T> aggregate(Function<Household, T> operation, T identity,
+      BinaryOperator<T> combiner) {
+    List<CompletableFuture<T>> partials = new ArrayList<>(shards.length);
+    for (Shard shard : shards) {
+      partials.add(CompletableFuture.supplyAsync(() -> {
+        T result = identity;
+        for (Household household : shard.households.values()) {
+          result = combiner.apply(result, operation.apply(household));
+        }
+        return result;
+      }, shard.executor));
+    }
+    return CompletableFuture.allOf(partials.toArray(CompletableFuture[]::new))
+        .thenApply(done -> partials.stream().map(CompletableFuture::join)
+            .reduce(identity, combiner));
+  }
+
+  /**
+   * Returns the number of registered households.
+   *
+   * @return a future with the number of households
+   */
+  public CompletableFuture<Integer> getHouseholdCount() {
+    return aggregate(household -> 1, 0, Integer::sum);
+  }
+
+  /**
+   * Returns the total value of the expired items in all households.
+   *
+   * @return a future with the total expired value
+   */
+  public CompletableFuture<Double> getTotalExpiredValue() {
+    return aggregate(Household::getExpiredValue, 0.0, Double::sum);
+  }
+
+  /**
+   * Changes the shared catalog, e.g. to add or remove recipes. Waits until no household is reading
+   * the catalog, and blocks new readers while the change is made.
+   *
+   * @param change the change to make
+   */
+  public void updateCatalog(Consumer<CookBook> change) {
+    catalogLock.writeLock().lock();
+    try {
+      change.accept(catalog);
+    } finally {
+      catalogLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Stops the worker threads. Operations that are already queued are finished first.
+   */
+  @Override
+  public void close() {
+    for (Shard shard : shards) {
+      shard.executor.shutdown();
+    }
+  }
+
+  private Shard shardOf(String householdId) {
+    if (householdId == null) {
+      throw new IllegalArgumentException("Household id cannot be null");
+    }
+    // Sprer hashen slik at id-er som ligner hverandre havner i ulike shards
+    int hash = householdId.hashCode() * 0x9E3779B9;
+    return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+  }
+
+  /**
+   * A group of households with the single worker thread that owns them. The map is only used from
+   * the worker thread.
+   */
+  private static final class Shard {
+
+    private final Map<String, Household> households;
+    private final ExecutorService executor;
+
+    private Shard(int index) {
+      this.households = new HashMap<>();
+      this.executor = Executors.newSingleThreadExecutor(
+          Thread.ofPlatform().name("household-shard-" + index).daemon().factory());
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package edu.ntnu.idi.idatt.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alert sink that keeps the delivered alerts in a queue in memory, where they can be taken by
+ * another part of the application.
+ */
+public class InMemoryAlertSink implements AlertSink {
+
+  private final BlockingQueue<ExpiryAlert> queue = new LinkedBlockingQueue<>();
+
+  @Override
+  public void deliver(List<ExpiryAlert> alerts) {
+    queue.addAll(alerts);
+  }
+
+  /**
+   * Takes the next alert from the queue, waiting up to the given time if the queue is empty.
+   *
+   * @param timeout how long to wait
+   * @param unit    the unit of the timeout
+   * @return the next alert, or null if no alert arrived in time
+   * @throws InterruptedException if the thread is interrupted while waiting
+   */
+  public ExpiryAlert poll(long timeout, TimeUnit unit) throws InterruptedException {
+    return queue.poll(timeout, unit);
+  }
+
+  /**
+   * Takes all alerts that are in the queue.
+   *
+   * @return a list of the alerts, in the order they were delivered
+   */
+  public List<ExpiryAlert> drain() {
+    List<ExpiryAlert> alerts = new ArrayList<>();
+    queue.drainTo(alerts);
+    return alerts;
+  }
+
+  /**
+   * Returns the number of alerts in the queue.
+   *
+   * @return the number of alerts waiting
+   */
+  public int size() {
+    return queue.size();
+  }
+}
@@ -0,0 +1,115 @@
+package edu.ntnu.idi.idatt.utils;
+
+/**
+ * A Fenwick tree (binary indexed tree) over a fixed number of positions. Adding a value at a
+ * position and summing all values up to a position both take O(log n), so running totals can be
+ * kept up to date while the values change.
+ */
+public class FenwickTree {
+
+  // Indeks 0 brukes ikke, slik at i & -i gir lengden på intervallet til node i
+  private final double[] tree;
+
+  /**
+   * Constructor that initializes a tree where every position is zero.
+   *
+   * @param size the number of positions
+   * @throws IllegalArgumentException if the size is negative
+   */
+  public FenwickTree(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size cannot be negative");
+    }
+    this.tree = new double[size + 1];
+  }
+
+  /**
+   * Constructor that initializes a tree with the given values, in O(n).
+   *
+   * @param values the value of each position
+   */
+  public FenwickTree(double[] values) {
+    this(values.length);
+    for (int i = 1; i < tree.length; i++) {
+      tree[i] += values[i - 1];
+      int parent = i + (i & -i);
+      if (parent < tree.length) {
+        tree[parent] += tree[i];
+      }
+    }
+  }
+
+  /**
+   * Returns the number of positions in the tree.
+   *
+   * @return the number of positions
+   */
+  public int size() {
+    return tree.length - 1;
+  }
+
+  /**
+   * Adds a value to a position.
+   *
+   * @param index the position, from zero
+   * @param delta the value to add, which may be negative
+   * @throws IndexOutOfBoundsException if the position is outside the tree
+   */
+  public void add(int index, double delta) {
+    checkIndex(index);
+    for (int i = index + 1; i < tree.length; i += i & -i) {
+      tree[i] += delta;
+    }
+  }
+
+  /**
+   * Returns the sum of the values at position zero up to and including a position.
+   *
+   * @param index the last position, or -1 for an empty sum
+   * @return the sum of the values
+   * @throws IndexOutOfBoundsException if the position is outside the tree
+   */
+  public double prefixSum(int index) {
+    if (index != -1) {
+      checkIndex(index);
+    }
+    double sum = 0;
+    for (int i = index + 1; i > 0; i -= i & -i) {
+      sum += tree[i];
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the sum of the values from one position up to and including another.
+   *
+   * @param from the first position
+   * @param to   the last position
+   * @return the sum of the values, or zero if the range is empty
+   * @throws IndexOutOfBoundsException if a position is outside the tree
+   */
+  public double sum(int from, int to) {
+    if (from > to) {
+      return 0;
+    }
+    return prefixSum(to) - prefixSum(from - 1);
+  }
+
+  /**
+   * Returns the value at a position.
+   *
+   * @param index the position
+   * @return the value at the position
+   * @throws IndexOutOfBoundsException if the position is outside the tree
+   */
+  public double get(int index) {
+    return sum(index, index);
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("Index " + index + " is outside a tree of size "
+          + size());
+    }
+  }
+}
@@ -0,0 +1,148 @@
+package edu.ntnu.idi.idatt.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A bounded LRU cache for query results. Every cached result is stamped with the version of the
+ * data it was computed from, and is only served as long as the caller asks with the same version.
+ * When the version changes the result is computed again and replaces the old one. Data that has
+ * more than one version, like a recipe and each of its ingredients, can use a stamp object that
+ * holds all of them instead of a single number (see {@link #get(Object, Object, Supplier)}).
+ *
+ * @param <K> the type of the query key
+ * @param <V> the type of the cached result
+ */
+public class QueryCache<K, V> {
+
+  private final int capacity;
+  private final LinkedHashMap<K, Stamped<V>> entries;
+  private long hits;
+  private long misses;
+
+  /**
+   * Constructor that initializes an empty cache with the given maximum number of entries.
+   *
+   * @param capacity the maximum number of cached results
+   * @throws IllegalArgumentException if the capacity is zero or negative
+   */
+  public QueryCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be greater than zero");
+    }
+    this.capacity = capacity;
+    // accessOrder = true gjør at den minst brukte ligger først og fjernes først
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Stamped<V>> eldest) {
+        return size() > QueryCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached result for the key if it was computed at the given version. Otherwise the
+   * result is computed by the loader and stored in the cache.
+   *
+   * @param key     the query key
+   * @param version the current version of the data the query reads
+   * @param loader  computes the result when there is no valid cached result
+   * @return the cached or the newly computed result
+   */
+  public V get(K key, long version, Supplier<V> loader) {
+    synchronized (this) {
+      Stamped<V> cached = entries.get(key);
+      if (cached != null && cached.stamp() == null && cached.version() == version) {
+        hits++;
+        return cached.value();
+      }
+      misses++;
+    }
+    // Beregner utenfor låsen slik at trege spørringer ikke blokkerer andre oppslag
+    V value = loader.get();
+    synchronized (this) {
+      entries.put(key, new Stamped<>(version, null, value));
+    }
+    return value;
+  }
+
+  /**
+   * Returns the cached result for the key if it was computed at an equal stamp. Otherwise the
+   * result is computed by the loader and stored in the cache. The stamps are compared with
+   * {@link Object#equals(Object)}, so a stamp made of several versions only matches when every
+   * version is the same.
+   *
+   * @param key    the query key
+   * @param stamp  the current versions of the data the query reads
+   * @param loader computes the result when there is no valid cached result
+   * @return the cached or the newly computed result
+   * @throws IllegalArgumentException if the stamp is null
+   */
+  public V get(K key, Object stamp, Supplier<V> loader) {
+    if (stamp == null) {
+      throw new IllegalArgumentException("Stamp cannot be null");
+    }
+    synchronized (this) {
+      Stamped<V> cached = entries.get(key);
+      if (cached != null && Objects.equals(cached.stamp(), stamp)) {
+        hits++;
+        return cached.value();
+      }
+      misses++;
+    }
+    V value = loader.get();
+    synchronized (this) {
+      entries.put(key, new Stamped<>(0, stamp, value));
+    }
+    return value;
+  }
+
+  /**
+   * Removes all cached results.
+   */
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Returns the number of cached results.
+   *
+   * @return the number of entries in the cache
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the maximum number of cached results.
+   *
+   * @return the capacity of the cache
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Returns how many lookups were served from the cache.
+   *
+   * @return the number of cache hits
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns how many lookups had to compute the result.
+   *
+   * @return the number of cache misses
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  private record Stamped<V>(long version, Object stamp, V value) {
+
+  }
+}
@@ -1,21 +1,55 @@
 package edu.ntnu.idi.idatt.utils;
 
 import edu.ntnu.idi.idatt.views.UserInterface.MenuOption;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-import java.util.Scanner;
+import java.time.Month;
+import java.time.Year;
+import java.util.NoSuchElementException;
 
 // Hjelp fra *ChatGPT
 
 /**
  * Utility class that handles users input and displays formatted menu and tables. It provides method
  * for reading integers, doubles, strings and date.
+ *
+ * <p>Input is read line by line from a {@link BufferedReader}, which is standard input by default
+ * but can be any source, e.g. a file piped in. Names and dates are checked character by character
+ * instead of with regular expressions and exceptions, so that large inputs are read quickly.</p>
  */
 public class Utils {
 
-  private final Scanner scanner = new Scanner(System.in);
-  private final DateTimeFormatter dateTimeFormat = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+  private static final int BUFFER_SIZE = 1 << 16;
+  private static final int MAX_YEAR = Year.MAX_VALUE;
+
+  private final BufferedReader input;
+  private final PrintStream output;
+
+  /**
+   * Constructor that reads from standard input and writes prompts to standard output.
+   */
+  public Utils() {
+    this(new BufferedReader(new InputStreamReader(System.in), BUFFER_SIZE), System.out);
+  }
+
+  /**
+   * Constructor that reads from the given input and writes prompts to the given output.
+   *
+   * @param input  the source of the user's input
+   * @param output where prompts and error messages are written
+   * @throws IllegalArgumentException if the input or the output is null
+   */
+  public Utils(BufferedReader input, PrintStream output) {
+    if (input == null || output == null) {
+      throw new IllegalArgumentException("Input and output cannot be null");
+    }
+    this.input = input;
+    this.output = output;
+  }
 
   /**
    * Reads a non-empty "string" input from user. It only allows alphabetical characters, including
@@ -26,12 +60,12 @@ public class Utils {
    */
   public String readString(String prompt) {
     while (true) {
-      System.out.print(prompt);
-      String input = scanner.nextLine().trim();
-      if (!input.isBlank() && input.matches("[a-zA-ZÆØÅæøå\\s]+")) {
-        return input;
+      output.print(prompt);
+      String line = nextLine().trim();
+      if (isValidName(line)) {
+        return line;
       }
-      System.out.println("Invalid input, please try again. ");
+      output.println("Invalid input, please try again. ");
     }
   }
 
@@ -43,11 +77,21 @@ public class Utils {
    */
   public int readInt(String prompt) {
     while (true) {
-      System.out.print(prompt);
+      output.print(prompt);
+      String line = nextLine();
+      int begin = 0;
+      int end = line.length();
+      // Samme som trim(), men uten å lage en ny streng
+      while (begin < end && line.charAt(begin) <= ' ') {
+        begin++;
+      }
+      while (end > begin && line.charAt(end - 1) <= ' ') {
+        end--;
+      }
       try {
-        return Integer.parseInt(scanner.nextLine().trim());
+        return Integer.parseInt(line, begin, end, 10);
       } catch (NumberFormatException e) {
-        System.out.print("Invalid input, please enter a number. ");
+        output.print("Invalid input, please enter a number. ");
       }
     }
   }
@@ -60,15 +104,16 @@ public class Utils {
    */
   public double readDouble(String prompt) {
     while (true) {
-      System.out.print(prompt);
+      output.print(prompt);
       try {
-        double value = Double.parseDouble(scanner.nextLine().trim());
+        // parseDouble ignorerer mellomrom rundt tallet selv
+        double value = Double.parseDouble(nextLine());
         if (value > 0) {
           return value;
         }
-        System.out.print("Invalid input, quantity cannot be negative. Please try again. ");
+        output.print("Invalid input, quantity cannot be negative. Please try again. ");
       } catch (NumberFormatException e) {
-        System.out.print("Invalid input, please enter a number. ");
+        output.print("Invalid input, please enter a number. ");
       }
     }
   }
@@ -81,27 +126,134 @@ public class Utils {
    */
   public LocalDate readDate(String prompt) {
     while (true) {
-      System.out.print(prompt);
-      try {
-        return LocalDate.parse(scanner.nextLine(), dateTimeFormat);
-      } catch (DateTimeParseException e) {
-        System.out.print("Invalid date format, please use dd-MM-yyyy.");
+      output.print(prompt);
+      LocalDate date = parseDate(nextLine());
+      if (date != null) {
+        return date;
       }
+      output.print("Invalid date format, please use dd-MM-yyyy.");
     }
   }
 
+  /**
+   * Checks if a name is valid input, meaning it is not blank and only contains letters from a-z,
+   * "Æ, Ø, Å" (both upper and lower case) and whitespace.
+   *
+   * @param text the text to check
+   * @return true if the text is a valid name, false otherwise
+   */
+  public static boolean isValidName(CharSequence text) {
+    boolean hasLetter = false;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+          || c == 'Æ' || c == 'Ø' || c == 'Å' || c == 'æ' || c == 'ø' || c == 'å') {
+        hasLetter = true;
+      } else if (!isWhitespace(c)) {
+        return false;
+      }
+    }
+    return hasLetter;
+  }
+
+  /**
+   * Parses a date in the format "dd-MM-yyyy", following the same rules as
+   * {@code LocalDate.parse(text, DateTimeFormatter.ofPattern("dd-MM-yyyy"))}: the day must be
+   * between 01 and 31 and is moved back to the last day of the month if the month is shorter, the
+   * month must be between 01 and 12, and the year must have four digits, or a plus sign followed
+   * by more than four digits for years after 9999.
+   *
+   * @param text the text to parse
+   * @return the date, or null if the text is not a valid date
+   */
+  public static LocalDate parseDate(CharSequence text) {
+    int length = text.length();
+    if (length < 10 || text.charAt(2) != '-' || text.charAt(5) != '-') {
+      return null;
+    }
+    int day = twoDigits(text, 0);
+    int month = twoDigits(text, 3);
+    if (day < 1 || day > 31 || month < 1 || month > 12) {
+      return null;
+    }
+
+    int start = 6;
+    if (text.charAt(6) == '+') {
+      // Med fortegn må året ha flere enn fire siffer (og maks 19)
+      start = 7;
+      if (length - start <= 4 || length - start > 19) {
+        return null;
+      }
+    } else if (length != 10) {
+      return null;
+    }
+    long year = 0;
+    for (int i = start; i < length; i++) {
+      int digit = text.charAt(i) - '0';
+      if (digit < 0 || digit > 9) {
+        return null;
+      }
+      year = Math.min(year * 10 + digit, MAX_YEAR + 1L);
+    }
+    if (year < 1 || year > MAX_YEAR) {
+      return null;
+    }
+    int lastDay = Month.of(month).length(Year.isLeap(year));
+    return LocalDate.of((int) year, month, Math.min(day, lastDay));
+  }
+
+  /**
+   * Reads the next line of input.
+   *
+   * @return the line, without the line break
+   * @throws NoSuchElementException if there is no more input
+   * @throws UncheckedIOException   if the input cannot be read
+   */
+  private String nextLine() {
+    try {
+      String line = input.readLine();
+      if (line == null) {
+        throw new NoSuchElementException("No line found");
+      }
+      return line;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Returns the value of two digits, or -1 if one of the characters is not a digit.
+   */
+  private static int twoDigits(CharSequence text, int index) {
+    int tens = text.charAt(index) - '0';
+    int ones = text.charAt(index + 1) - '0';
+    if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+      return -1;
+    }
+    return tens * 10 + ones;
+  }
+
+  /**
+   * Checks for the same whitespace characters as {@code \s} in a regular expression.
+   */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
   /**
    * Prints menu display for the user.
+   *
+   * @param menuOptions the options to list in the menu
    */
-  public static void printMenu(MenuOption[] menuOptions) {
-    System.out.println("============== Fridge and Cookbook Manager ==============");
-    System.out.println(" - Manage items in the fridge - ");
-    for (MenuOption option : MenuOption.values()) {
+  public void printMenu(MenuOption[] menuOptions) {
+    output.println("============== Fridge and Cookbook Manager ==============");
+    output.println(" - Manage items in the fridge - ");
+    for (MenuOption option : menuOptions) {
       if (option.getValue() == 8) {
-        System.out.println();
-        System.out.println(" - Cookbook - ");
+        output.println();
+        output.println(" - Cookbook - ");
       }
-      System.out.printf("%d. %s%n", option.getValue(), option.getDescription());
+      output.printf("%d. %s%n", option.getValue(), option.getDescription());
     }
   }
 
@@ -109,20 +261,20 @@ public class Utils {
    * Prints the table header for displaying items in fridge.
    */
   public void printListItem() {
-    System.out.println();
-    System.out.println("Name         | Quantity  Unit   | Price per unit | Best before date   ");
-    System.out.println("-------------------------------------------------------------------");
+    output.println();
+    output.println("Name         | Quantity  Unit   | Price per unit | Best before date   ");
+    output.println("-------------------------------------------------------------------");
   }
 
   /**
    * Prints the table header for displaying recipes in the cookbook.
    */
   public void printListRecipes() {
-    System.out.println("Recipes in the cookbook: ");
-    System.out.println();
-    System.out.println(
+    output.println("Recipes in the cookbook: ");
+    output.println();
+    output.println(
         "Name               | Description                                        | Servings");
-    System.out.println(
+    output.println(
         "-----------------------------------------------------------------------------------");
   }
 }
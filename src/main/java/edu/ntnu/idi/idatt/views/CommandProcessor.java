@@ -0,0 +1,274 @@
+package edu.ntnu.idi.idatt.views;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.Recipe;
+import edu.ntnu.idi.idatt.utils.Utils;
+import edu.ntnu.idi.idatt.views.UserInterface.MenuOption;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Runs line-oriented commands against a fridge and a cookbook, without any menu or prompts. Every
+ * command is the batch command of a {@link MenuOption} followed by its arguments:
+ *
+ * <pre>
+ * items
+ * add Milk 3 dL 10 20-12-2024          (name, quantity, unit, price per unit, best before)
+ * remove Milk 2
+ * search Milk
+ * bydate 20-12-2024
+ * expired
+ * value
+ * recipes
+ * expand Pannekake
+ * addrecipe Toast|Crispy bread|Toast the bread|1|Bread 2 pcs,Butter 10 grams
+ * removerecipe Toast
+ * check Pannekake
+ * suggest
+ * exit
+ * </pre>
+ *
+ * <p>Every command gives one result line, starting with {@code OK} or {@code ERR}. Lists are
+ * written as a count followed by the elements separated by {@code ;}, and the fields of an item
+ * are separated by {@code |}, e.g. {@code OK 1 Milk|3.0|dL|10.0|20-12-2024}. Messages are written
+ * on one line with line breaks as {@code \n}. Empty lines and lines starting with {@code #} are
+ * skipped, and {@code exit} stops the run.</p>
+ */
+public class CommandProcessor {
+
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+  private final FoodStorage foodStorage;
+  private final CookBook cookBook;
+
+  /**
+   * Constructor that initializes the processor with the fridge and cookbook to run commands on.
+   *
+   * @param foodStorage the fridge
+   * @param cookBook    the cookbook
+   * @throws IllegalArgumentException if the fridge or the cookbook is null
+   */
+  public CommandProcessor(FoodStorage foodStorage, CookBook cookBook) {
+    if (foodStorage == null || cookBook == null) {
+      throw new IllegalArgumentException("Food storage and cookbook cannot be null");
+    }
+    this.foodStorage = foodStorage;
+    this.cookBook = cookBook;
+  }
+
+  /**
+   * Runs all commands from the input until the input ends or an {@code exit} command is read.
+   *
+   * @param input  the commands, one per line
+   * @param output where the result lines are written
+   * @return the number of commands that were run
+   * @throws IOException if reading or writing fails
+   */
+  public long run(BufferedReader input, Writer output) throws IOException {
+    long count = 0;
+    String line;
+    while ((line = input.readLine()) != null) {
+      String trimmed = line.strip();
+      if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+        continue;
+      }
+      if (isExit(trimmed)) {
+        break;
+      }
+      output.write(execute(trimmed));
+      output.write('\n');
+      count++;
+    }
+    output.flush();
+    return count;
+  }
+
+  /**
+   * Runs one command and returns its result line, without a line break. A command that throws an
+   * exception gives {@code ERR} followed by the message of the exception, or its class name if it
+   * has no message.
+   *
+   * @param line the command
+   * @return the result, starting with {@code OK} or {@code ERR}
+   */
+  public String execute(String line) {
+    String trimmed = line.strip();
+    int space = trimmed.indexOf(' ');
+    String command = space < 0 ? trimmed : trimmed.substring(0, space);
+    String arguments = space < 0 ? "" : trimmed.substring(space + 1).strip();
+
+    Optional<MenuOption> option = MenuOption.fromCommand(command);
+    if (option.isEmpty()) {
+      return "ERR Unknown command: " + command;
+    }
+    try {
+      return switch (option.get()) {
+        case SHOW_ITEMS -> "OK " + formatItems(foodStorage.getItems());
+        case ADD_ITEM -> addItem(arguments);
+        case REMOVE_ITEM -> removeItem(arguments);
+        case SEARCH_ITEM -> "OK " + formatItems(foodStorage.searchItem(required(arguments)));
+        case SHOW_ITEM_BY_DATE ->
+            "OK " + formatItems(foodStorage.getItemsBeforeDate(parseDate(arguments)));
+        case SHOW_EXPIRED -> "OK " + formatItems(foodStorage.getExpiredItems());
+        case SHOW_TOTAL_VALUE -> "OK " + foodStorage.calculateTotalValue();
+        case SHOW_ALL_RECIPES -> "OK " + formatNames(cookBook.getRecipes().stream()
+            .map(Recipe::getNameRecipe).toList());
+        case EXPAND_RECIPE -> "OK " + escape(cookBook.expandRecipe(required(arguments)));
+        case ADD_NEW_RECIPE -> addRecipe(arguments);
+        case REMOVE_RECIPE -> {
+          cookBook.removeRecipe(required(arguments));
+          yield "OK";
+        }
+        case CHECK_RECIPE -> checkRecipe(arguments);
+        case SUGGEST_RECIPE -> "OK " + formatNames(cookBook.suggestRecipe(foodStorage));
+        case EXIT_OPTION -> "OK";
+      };
+    } catch (RuntimeException e) {
+      // En feil i én kommando skal ikke stoppe resten av kjøringen
+      String message = e.getMessage();
+      return "ERR " + escape(message == null || message.isBlank()
+          ? e.getClass().getSimpleName() : message);
+    }
+  }
+
+  private static boolean isExit(String line) {
+    return MenuOption.EXIT_OPTION.getCommand().equalsIgnoreCase(line);
+  }
+
+  /**
+   * Adds an item from the arguments {@code <name> <quantity> <unit> <price> <dd-MM-yyyy>}, where
+   * the name may contain spaces.
+   */
+  private String addItem(String arguments) {
+    String[] parts = WHITESPACE.split(arguments);
+    if (parts.length < 5) {
+      throw new IllegalArgumentException(
+          "Usage: add <name> <quantity> <unit> <price> <dd-MM-yyyy>");
+    }
+    int n = parts.length;
+    String name = String.join(" ", List.of(parts).subList(0, n - 4));
+    foodStorage.addItem(new Ingredient(name, parseNumber(parts[n - 4]), parts[n - 3],
+        parseNumber(parts[n - 2]), parseDate(parts[n - 1])));
+    return "OK";
+  }
+
+  /**
+   * Removes a quantity of an item from the arguments {@code <name> <quantity>}, where the name may
+   * contain spaces.
+   */
+  private String removeItem(String arguments) {
+    int space = arguments.lastIndexOf(' ');
+    if (space < 0) {
+      throw new IllegalArgumentException("Usage: remove <name> <quantity>");
+    }
+    double quantity = parseNumber(arguments.substring(space + 1));
+    if (quantity <= 0) {
+      throw new IllegalArgumentException("Quantity must be greater than zero");
+    }
+    return "OK " + escape(foodStorage.removeItem(arguments.substring(0, space).strip(), quantity));
+  }
+
+  /**
+   * Adds a recipe from the arguments
+   * {@code <name>|<description>|<instructions>|<servings>|<ingredient> <quantity> <unit>,...}.
+   */
+  private String addRecipe(String arguments) {
+    String[] fields = arguments.split("\\|");
+    if (fields.length != 5) {
+      throw new IllegalArgumentException("Usage: addrecipe <name>|<description>|<instructions>"
+          + "|<servings>|<ingredient> <quantity> <unit>,...");
+    }
+    List<Ingredient> ingredients = new ArrayList<>();
+    for (String ingredient : fields[4].split(",")) {
+      String[] parts = WHITESPACE.split(ingredient.strip());
+      if (parts.length < 3) {
+        throw new IllegalArgumentException("Ingredients must be written as <name> <quantity> <unit>");
+      }
+      int n = parts.length;
+      String name = String.join(" ", List.of(parts).subList(0, n - 2));
+      ingredients.add(new Ingredient(name, parseNumber(parts[n - 2]), parts[n - 1], 0.0,
+          LocalDate.MAX));
+    }
+    int servings;
+    try {
+      servings = Integer.parseInt(fields[3].strip());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid number: " + fields[3].strip());
+    }
+    cookBook.addRecipe(new Recipe(fields[0].strip(), fields[1].strip(), fields[2].strip(),
+        ingredients, servings));
+    return "OK";
+  }
+
+  /**
+   * Checks a recipe, giving {@code OK true} or {@code OK false} followed by the missing items.
+   */
+  private String checkRecipe(String arguments) {
+    String result = cookBook.canMakeRecipe(required(arguments), foodStorage);
+    if (result.startsWith("You have all")) {
+      return "OK true";
+    }
+    return "OK false " + escape(result.substring(result.indexOf('\n') + 1));
+  }
+
+  private static String required(String argument) {
+    if (argument.isEmpty()) {
+      throw new IllegalArgumentException("Missing name");
+    }
+    return argument;
+  }
+
+  private static double parseNumber(String text) {
+    double number;
+    try {
+      number = Double.parseDouble(text);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid number: " + text);
+    }
+    if (!Double.isFinite(number)) {
+      throw new IllegalArgumentException("Invalid number: " + text);
+    }
+    return number;
+  }
+
+  private static LocalDate parseDate(String text) {
+    LocalDate date = Utils.parseDate(text.strip());
+    if (date == null) {
+      throw new IllegalArgumentException("Invalid date format, please use dd-MM-yyyy.");
+    }
+    return date;
+  }
+
+  private static String formatItems(List<Ingredient> items) {
+    StringBuilder result = new StringBuilder().append(items.size());
+    char separator = ' ';
+    for (Ingredient item : items) {
+      result.append(separator)
+          .append(item.getNameItem()).append('|')
+          .append(item.getQuantityItem()).append('|')
+          .append(item.getUnitItem()).append('|')
+          .append(item.getPricePerUnit()).append('|')
+          .append(DATE_FORMAT.format(item.getBestBefore()));
+      separator = ';';
+    }
+    return result.toString();
+  }
+
+  private static String formatNames(List<String> names) {
+    return names.isEmpty() ? "0" : names.size() + " " + String.join(";", names);
+  }
+
+  private static String escape(String message) {
+    return message.strip().replace("\n", "\\n");
+  }
+}
@@ -1,11 +1,17 @@
 package edu.ntnu.idi.idatt.views;
 
+import edu.ntnu.idi.idatt.api.HttpApiServer;
 import edu.ntnu.idi.idatt.models.CookBook;
 import edu.ntnu.idi.idatt.models.FoodStorage;
 import edu.ntnu.idi.idatt.models.Ingredient;
 import edu.ntnu.idi.idatt.models.Recipe;
 import edu.ntnu.idi.idatt.models.TestData;
+import edu.ntnu.idi.idatt.monitoring.InstrumentedCookBook;
+import edu.ntnu.idi.idatt.monitoring.InstrumentedFoodStorage;
 import edu.ntnu.idi.idatt.utils.Utils;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -24,34 +30,36 @@ import java.util.Optional;
  */
 public class UserInterface {
 
-  private final FoodStorage foodStorage = new FoodStorage();
-  private final CookBook cookBook = new CookBook();
+  private final FoodStorage foodStorage = new InstrumentedFoodStorage();
+  private final CookBook cookBook = new InstrumentedCookBook();
   private final Utils utils = new Utils();
 
   /**
    * Enum representing menu options for the user from 1-14.
    */
   public enum MenuOption {
-    SHOW_ITEMS(1, "Show items in the fridge"),
-    ADD_ITEM(2, "Add new item"),
-    REMOVE_ITEM(3, "Remove item"),
-    SEARCH_ITEM(4, "Search for an item"),
-    SHOW_ITEM_BY_DATE(5, "Show list of items by date"),
-    SHOW_EXPIRED(6, "Show expired items"),
-    SHOW_TOTAL_VALUE(7, "Show total value in the fridge"),
-    SHOW_ALL_RECIPES(8, "Show all recipes"),
-    EXPAND_RECIPE(9, "Expand a recipe"),
-    ADD_NEW_RECIPE(10, "Add new recipe"),
-    REMOVE_RECIPE(11, "Remove recipe"),
-    CHECK_RECIPE(12, "Check if a recipe can be made from items in fridge"),
-    SUGGEST_RECIPE(13, "Suggest recipes from items in fridge"),
-    EXIT_OPTION(14, "End program");
+    SHOW_ITEMS(1, "items", "Show items in the fridge"),
+    ADD_ITEM(2, "add", "Add new item"),
+    REMOVE_ITEM(3, "remove", "Remove item"),
+    SEARCH_ITEM(4, "search", "Search for an item"),
+    SHOW_ITEM_BY_DATE(5, "bydate", "Show list of items by date"),
+    SHOW_EXPIRED(6, "expired", "Show expired items"),
+    SHOW_TOTAL_VALUE(7, "value", "Show total value in the fridge"),
+    SHOW_ALL_RECIPES(8, "recipes", "Show all recipes"),
+    EXPAND_RECIPE(9, "expand", "Expand a recipe"),
+    ADD_NEW_RECIPE(10, "addrecipe", "Add new recipe"),
+    REMOVE_RECIPE(11, "removerecipe", "Remove recipe"),
+    CHECK_RECIPE(12, "check", "Check if a recipe can be made from items in fridge"),
+    SUGGEST_RECIPE(13, "suggest", "Suggest recipes from items in fridge"),
+    EXIT_OPTION(14, "exit", "End program");
 
     private final int value;
+    private final String command;
     private final String description;
 
-    MenuOption(int value, String description) {
+    MenuOption(int value, String command, String description) {
       this.value = value;
+      this.command = command;
       this.description = description;
     }
 
@@ -63,6 +71,15 @@ public class UserInterface {
       return description;
     }
 
+    /**
+     * Returns the word used for the menu option in batch mode, e.g. "add" or "suggest".
+     *
+     * @return the batch command of the menu option
+     */
+    public String getCommand() {
+      return command;
+    }
+
     /**
      * Finds a menu option based on its value.
      *
@@ -72,6 +89,18 @@ public class UserInterface {
     public static Optional<MenuOption> fromValue(int value) {
       return Arrays.stream(values()).filter(option -> option.value == value).findFirst();
     }
+
+    /**
+     * Finds a menu option based on its batch command (case-insensitive).
+     *
+     * @param command the batch command of the menu option
+     * @return an Optional, containing the matching value from MenuOption
+     */
+    public static Optional<MenuOption> fromCommand(String command) {
+      return Arrays.stream(values())
+          .filter(option -> option.command.equalsIgnoreCase(command))
+          .findFirst();
+    }
   }
 
   /**
@@ -82,6 +111,34 @@ public class UserInterface {
     TestData.getPreDefineRecipes().forEach(cookBook::addRecipe);
   }
 
+  /**
+   * Runs the application without the menu, executing one command per line from the input and
+   * writing one result line per command to the output. See {@link CommandProcessor} for the
+   * commands and the result format.
+   *
+   * @param input  the commands to run
+   * @param output where the results are written
+   * @return the number of commands that were run
+   * @throws IOException if reading or writing fails
+   */
+  public long startBatch(BufferedReader input, Writer output) throws IOException {
+    return new CommandProcessor(foodStorage, cookBook).run(input, output);
+  }
+
+  /**
+   * Starts an HTTP/JSON server for the fridge and the cookbook on the loopback address. See
+   * {@link HttpApiServer} for the endpoints.
+   *
+   * @param port the port to listen on, or 0 to choose a free port
+   * @return the running server, which must be closed to stop it
+   * @throws IOException if the server cannot be started on the port
+   */
+  public HttpApiServer startServer(int port) throws IOException {
+    HttpApiServer server = new HttpApiServer(foodStorage, cookBook, port);
+    server.start();
+    return server;
+  }
+
   /**
    * Starts the application, representing the menu and handling users input.
    */
@@ -89,7 +146,7 @@ public class UserInterface {
     Map<MenuOption, Runnable> actions = createActions(); // Kartlegging av menyvalg til funksjoner
 
     while (true) {
-      Utils.printMenu(MenuOption.values()); // Kaller på printMenu metoden fra utils.
+      utils.printMenu(MenuOption.values()); // Kaller på printMenu metoden fra utils.
       int choice = utils.readInt("Choose an option: ");
       Optional<MenuOption> menuOption = MenuOption.fromValue(choice);
 
@@ -228,7 +285,7 @@ public class UserInterface {
 
   /**
    * Displays expired items and its total value. Encourages the user to check items before throwing
-   * out to reduce food waste.
+   * out to reduce food waste, and shows the value that expires within the next days.
    */
   private void handleShowExpiredItems() {
     List<Ingredient> expiredItems = foodStorage.getExpiredItems();
@@ -253,6 +310,11 @@ public class UserInterface {
           + "Trust your senses, reduce food waste! :)");
       System.out.println();
     }
+    // Verdi som går ut snart, så man rekker å bruke den
+    System.out.println("Value at risk of expiring:");
+    foodStorage.getValueAtRisk().forEach((days, value) ->
+        System.out.printf("  within %2d days: %8.2f kr%n", days, value));
+    System.out.println();
   }
 
   /**
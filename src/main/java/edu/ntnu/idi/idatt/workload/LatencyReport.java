@@ -0,0 +1,106 @@
+package edu.ntnu.idi.idatt.workload;
+
+import edu.ntnu.idi.idatt.workload.OperationMix.Operation;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The latency distribution of a replayed workload, for each kind of operation.
+ */
+public class LatencyReport {
+
+  private final Map<Operation, long[]> latencies;
+  private final long elapsedNanos;
+
+  /**
+   * Constructor that sorts the recorded latencies.
+   *
+   * @param latencies    the latency of every operation in nanoseconds, by kind of operation
+   * @param elapsedNanos the total time of the replay in nanoseconds
+   */
+  public LatencyReport(Map<Operation, long[]> latencies, long elapsedNanos) {
+    this.latencies = new EnumMap<>(Operation.class);
+    latencies.forEach((operation, values) -> {
+      long[] sorted = values.clone();
+      Arrays.sort(sorted);
+      this.latencies.put(operation, sorted);
+    });
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  /**
+   * Returns the number of operations of a kind.
+   *
+   * @param operation the kind of operation
+   * @return the number of operations
+   */
+  public int getCount(Operation operation) {
+    return latencies.getOrDefault(operation, new long[0]).length;
+  }
+
+  /**
+   * Returns the total number of operations.
+   *
+   * @return the number of operations
+   */
+  public int getTotalCount() {
+    return latencies.values().stream().mapToInt(values -> values.length).sum();
+  }
+
+  /**
+   * Returns the latency that the given share of the operations were faster than or equal to.
+   *
+   * @param operation  the kind of operation
+   * @param percentile the percentile from 0 to 100, e.g. 99.9
+   * @return the latency in nanoseconds, or zero if there were no operations of the kind
+   */
+  public long getPercentile(Operation operation, double percentile) {
+    long[] values = latencies.getOrDefault(operation, new long[0]);
+    if (values.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * values.length) - 1;
+    return values[Math.max(0, Math.min(index, values.length - 1))];
+  }
+
+  /**
+   * Returns the total time of the replay.
+   *
+   * @return the elapsed time in nanoseconds
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Returns the number of operations per second that was achieved.
+   *
+   * @return operations per second
+   */
+  public double getThroughput() {
+    return elapsedNanos == 0 ? 0 : getTotalCount() * 1e9 / elapsedNanos;
+  }
+
+  /**
+   * Returns the report as a table with one line per kind of operation, with latencies in
+   * microseconds.
+   *
+   * @return the formatted report
+   */
+  @Override
+  public String toString() {
+    StringBuilder report = new StringBuilder();
+    report.append(String.format("%d operations in %.2f s (%.0f ops/s)%n",
+        getTotalCount(), elapsedNanos / 1e9, getThroughput()));
+    report.append(String.format("%-8s | %9s | %9s | %9s | %9s | %9s%n",
+        "Op", "Count", "p50 us", "p99 us", "p99.9 us", "max us"));
+    for (Operation operation : latencies.keySet()) {
+      report.append(String.format("%-8s | %9d | %9.1f | %9.1f | %9.1f | %9.1f%n",
+          operation, getCount(operation),
+          getPercentile(operation, 50) / 1e3, getPercentile(operation, 99) / 1e3,
+          getPercentile(operation, 99.9) / 1e3, getPercentile(operation, 100) / 1e3));
+    }
+    return report.toString();
+  }
+}
@@ -0,0 +1,56 @@
+package edu.ntnu.idi.idatt.workload;
+
+import java.util.Random;
+
+/**
+ * The share of each kind of operation in a replayed workload, given as relative weights. For
+ * example {@code new OperationMix(30, 20, 40, 10)} gives 30 % adds, 20 % removes, 40 % searches and
+ * 10 % recipe suggestions.
+ *
+ * @param add     the weight of adding an item
+ * @param remove  the weight of removing an item
+ * @param search  the weight of searching for an item
+ * @param suggest the weight of suggesting recipes
+ */
+public record OperationMix(int add, int remove, int search, int suggest) {
+
+  /**
+   * Constructor that validates the weights.
+   *
+   * @throws IllegalArgumentException if a weight is negative or all weights are zero
+   */
+  public OperationMix {
+    if (add < 0 || remove < 0 || search < 0 || suggest < 0) {
+      throw new IllegalArgumentException("Weights cannot be negative");
+    }
+    if (add + remove + search + suggest == 0) {
+      throw new IllegalArgumentException("At least one weight must be greater than zero");
+    }
+  }
+
+  /**
+   * Draws the next operation according to the weights.
+   *
+   * @param random the random generator to draw from
+   * @return the next operation
+   */
+  public Operation next(Random random) {
+    int value = random.nextInt(add + remove + search + suggest);
+    if (value < add) {
+      return Operation.ADD;
+    }
+    value -= add;
+    if (value < remove) {
+      return Operation.REMOVE;
+    }
+    value -= remove;
+    return value < search ? Operation.SEARCH : Operation.SUGGEST;
+  }
+
+  /**
+   * The kinds of operations in a replayed workload.
+   */
+  public enum Operation {
+    ADD, REMOVE, SEARCH, SUGGEST
+  }
+}
@@ -0,0 +1,229 @@
+package edu.ntnu.idi.idatt.workload;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.Recipe;
+import edu.ntnu.idi.idatt.models.TestData;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates realistic fridges and cookbooks of any size for load testing. The items in
+ * {@link TestData} are used as templates for names, units and prices, and are repeated with a
+ * number after the name when more ingredients are needed ("Milk", "Milk 2", "Milk 3" ...).
+ *
+ * <p>The ingredients follow a Zipf distribution, so a few ingredients are in most fridges and
+ * recipes. Best-before dates are clustered around weekly shopping days, and the number of
+ * ingredients in a recipe is drawn from a normal distribution. Everything is drawn from a seeded
+ * random generator, so the same seed always gives the same fridges and cookbooks.</p>
+ */
+public class WorkloadGenerator {
+
+  private static final int DAYS_BETWEEN_SHOPPING = 7;
+  private static final int SHOPPING_DAYS = 11;
+  private static final double MEAN_RECIPE_SIZE = 7;
+  private static final double RECIPE_SIZE_DEVIATION = 2.5;
+  private static final int MAX_RECIPE_SIZE = 20;
+
+  private final Random random;
+  private final List<Ingredient> templates;
+  private final ZipfSampler popularity;
+  private final LocalDate firstShoppingDay;
+  private int recipeCount;
+
+  /**
+   * Constructor that initializes the generator with 1000 ingredients, a Zipf exponent of 1 and
+   * dates around 1 December 2024.
+   *
+   * @param seed the seed of the random generator
+   */
+  public WorkloadGenerator(long seed) {
+    this(seed, 1000, 1.0, LocalDate.of(2024, 12, 1));
+  }
+
+  /**
+   * Constructor that initializes the generator.
+   *
+   * @param seed            the seed of the random generator
+   * @param ingredientCount the number of different ingredients
+   * @param zipfExponent    how skewed the popularity of the ingredients is, where 0 is uniform
+   * @param today           the date the best-before dates are generated around
+   * @throws IllegalArgumentException if the number of ingredients is not positive, the exponent
+   *                                  is negative or the date is null
+   */
+  public WorkloadGenerator(long seed, int ingredientCount, double zipfExponent, LocalDate today) {
+    if (today == null) {
+      throw new IllegalArgumentException("Date cannot be null");
+    }
+    this.random = new Random(seed);
+    this.templates = TestData.getPreDefinedItems();
+    this.popularity = new ZipfSampler(ingredientCount, zipfExponent);
+    // To uker tilbake, slik at noen varer allerede har gått ut
+    this.firstShoppingDay = today.minusDays(2L * DAYS_BETWEEN_SHOPPING);
+  }
+
+  /**
+   * Returns the number of different ingredients.
+   *
+   * @return the number of ingredients
+   */
+  public int getIngredientCount() {
+    return popularity.size();
+  }
+
+  /**
+   * Returns the name of an ingredient, where 0 is the most popular.
+   *
+   * @param index the number of the ingredient
+   * @return the name of the ingredient
+   */
+  public String ingredientName(int index) {
+    String name = template(index).getNameItem();
+    int copy = index / templates.size();
+    return copy == 0 ? name : name + " " + (copy + 1);
+  }
+
+  /**
+   * Draws the name of an ingredient, following the popularity of the ingredients.
+   *
+   * @return the name of an ingredient
+   */
+  public String nextIngredientName() {
+    return ingredientName(popularity.next(random));
+  }
+
+  /**
+   * Generates one item for a fridge.
+   *
+   * @return a new item
+   */
+  public Ingredient nextItem() {
+    int index = popularity.next(random);
+    Ingredient template = template(index);
+    double quantity = round(template.getQuantityItem() * (0.5 + random.nextDouble()), 1);
+    // Prisen varierer i steg på 5 %, slik at noen varer kan slås sammen
+    double price = round(template.getPricePerUnit() * (1 + 0.05 * (random.nextInt(5) - 2)), 2);
+    return new Ingredient(ingredientName(index), Math.max(quantity, 0.1), template.getUnitItem(),
+        price, nextBestBefore());
+  }
+
+  /**
+   * Generates a number of items for a fridge.
+   *
+   * @param count the number of items
+   * @return a list of new items
+   */
+  public List<Ingredient> generateItems(int count) {
+    List<Ingredient> items = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      items.add(nextItem());
+    }
+    return items;
+  }
+
+  /**
+   * Generates a fridge with the given number of items added.
+   *
+   * @param lots the number of items to add
+   * @return the new fridge
+   */
+  public FoodStorage generateFridge(int lots) {
+    FoodStorage fridge = new FoodStorage();
+    for (int i = 0; i < lots; i++) {
+      fridge.addItem(nextItem());
+    }
+    return fridge;
+  }
+
+  /**
+   * Generates one recipe with a unique name.
+   *
+   * @return a new recipe
+   */
+  public Recipe nextRecipe() {
+    int size = nextRecipeSize();
+    Set<Integer> chosen = new LinkedHashSet<>();
+    // Populære ingredienser trekkes oftest, men hver ingrediens brukes bare en gang
+    for (int attempt = 0; chosen.size() < size && attempt < size * 10; attempt++) {
+      chosen.add(popularity.next(random));
+    }
+    for (int index = 0; chosen.size() < size; index++) {
+      chosen.add(index);
+    }
+
+    List<Ingredient> ingredients = new ArrayList<>(size);
+    for (int index : chosen) {
+      Ingredient template = template(index);
+      double quantity = round(template.getQuantityItem() * (0.05 + 0.25 * random.nextDouble()), 2);
+      ingredients.add(new Ingredient(ingredientName(index), Math.max(quantity, 0.01),
+          template.getUnitItem(), 0.0, LocalDate.MAX));
+    }
+    recipeCount++;
+    return new Recipe("Recipe " + recipeCount, "Generated recipe", "Mix everything and enjoy",
+        ingredients, 1 + random.nextInt(8));
+  }
+
+  /**
+   * Generates a number of recipes with unique names.
+   *
+   * @param count the number of recipes
+   * @return a list of new recipes
+   */
+  public List<Recipe> generateRecipes(int count) {
+    List<Recipe> recipes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      recipes.add(nextRecipe());
+    }
+    return recipes;
+  }
+
+  /**
+   * Generates a cookbook with the given number of recipes.
+   *
+   * @param count the number of recipes
+   * @return the new cookbook
+   */
+  public CookBook generateCookBook(int count) {
+    CookBook cookBook = new CookBook();
+    for (int i = 0; i < count; i++) {
+      cookBook.addRecipe(nextRecipe());
+    }
+    return cookBook;
+  }
+
+  /**
+   * Draws the number of ingredients in a recipe from a normal distribution, limited to between 1
+   * and the number of ingredients available.
+   *
+   * @return the number of ingredients in a recipe
+   */
+  public int nextRecipeSize() {
+    long size = Math.round(MEAN_RECIPE_SIZE + RECIPE_SIZE_DEVIATION * random.nextGaussian());
+    return (int) Math.max(1, Math.min(size, Math.min(MAX_RECIPE_SIZE, popularity.size())));
+  }
+
+  /**
+   * Draws a best-before date close to one of the weekly shopping days.
+   *
+   * @return a best-before date
+   */
+  private LocalDate nextBestBefore() {
+    int shoppingDay = random.nextInt(SHOPPING_DAYS) * DAYS_BETWEEN_SHOPPING;
+    long offset = Math.round(2 * random.nextGaussian());
+    return firstShoppingDay.plusDays(shoppingDay + offset);
+  }
+
+  private Ingredient template(int index) {
+    return templates.get(index % templates.size());
+  }
+
+  private static double round(double value, int decimals) {
+    double scale = Math.pow(10, decimals);
+    return Math.round(value * scale) / scale;
+  }
+}
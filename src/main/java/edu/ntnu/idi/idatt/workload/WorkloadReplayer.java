@@ -0,0 +1,146 @@
+package edu.ntnu.idi.idatt.workload;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.workload.OperationMix.Operation;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a stream of mixed add, remove, search and suggest operations against a fridge and a
+ * cookbook, and records the latency of every operation.
+ *
+ * <p>With a target rate, every operation has a planned start time, and its latency is measured
+ * from the planned start. If an operation is slow, the operations waiting behind it are measured
+ * with the time they had to wait, just like the users of a real system would notice it.</p>
+ */
+public class WorkloadReplayer {
+
+  private static final long SPIN_THRESHOLD_NANOS = 50_000;
+
+  private final WorkloadGenerator generator;
+  private final OperationMix mix;
+  private final Random random;
+
+  /**
+   * Constructor that initializes the replayer.
+   *
+   * @param generator the generator used to create the items and names of the operations
+   * @param mix       the share of each kind of operation
+   * @param seed      the seed used to choose the operations
+   * @throws IllegalArgumentException if the generator or the mix is null
+   */
+  public WorkloadReplayer(WorkloadGenerator generator, OperationMix mix, long seed) {
+    if (generator == null || mix == null) {
+      throw new IllegalArgumentException("Generator and operation mix cannot be null");
+    }
+    this.generator = generator;
+    this.mix = mix;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Replays a number of operations against the fridge and the cookbook.
+   *
+   * @param fridge     the fridge to run the operations against
+   * @param cookBook   the cookbook to suggest recipes from
+   * @param operations the number of operations to run
+   * @param targetRate the number of operations per second to aim for, or zero to run as fast as
+   *                   possible
+   * @return the latency distribution of the operations
+   * @throws IllegalArgumentException if the number of operations or the rate is negative
+   */
+  public LatencyReport replay(FoodStorage fridge, CookBook cookBook, int operations,
+      double targetRate) {
+    if (operations < 0 || targetRate < 0) {
+      throw new IllegalArgumentException("Operations and target rate cannot be negative");
+    }
+    long interval = targetRate == 0 ? 0 : (long) (1e9 / targetRate);
+    Operation[] kinds = new Operation[operations];
+    long[] latencies = new long[operations];
+
+    long start = System.nanoTime();
+    for (int i = 0; i < operations; i++) {
+      Operation operation = mix.next(random);
+      long planned = interval == 0 ? System.nanoTime() : start + i * interval;
+      waitUntil(planned);
+      run(operation, fridge, cookBook);
+      kinds[i] = operation;
+      latencies[i] = System.nanoTime() - planned;
+    }
+    long elapsed = System.nanoTime() - start;
+
+    Map<Operation, long[]> byOperation = new EnumMap<>(Operation.class);
+    int[] counts = new int[Operation.values().length];
+    for (Operation kind : kinds) {
+      counts[kind.ordinal()]++;
+    }
+    for (Operation operation : Operation.values()) {
+      byOperation.put(operation, new long[counts[operation.ordinal()]]);
+    }
+    Arrays.fill(counts, 0);
+    for (int i = 0; i < operations; i++) {
+      byOperation.get(kinds[i])[counts[kinds[i].ordinal()]++] = latencies[i];
+    }
+    return new LatencyReport(byOperation, elapsed);
+  }
+
+  /**
+   * Runs one operation.
+   *
+   * @param operation the kind of operation
+   * @param fridge    the fridge to run the operation against
+   * @param cookBook  the cookbook to suggest recipes from
+   */
+  private void run(Operation operation, FoodStorage fridge, CookBook cookBook) {
+    switch (operation) {
+      case ADD -> fridge.addItem(generator.nextItem());
+      case REMOVE -> fridge.removeItem(generator.nextIngredientName(), 1 + random.nextInt(5));
+      case SEARCH -> fridge.searchItem(generator.nextIngredientName());
+      case SUGGEST -> cookBook.suggestRecipe(fridge);
+      default -> throw new IllegalStateException("Unknown operation " + operation);
+    }
+  }
+
+  /**
+   * Waits until the planned start time, parking the thread for long waits and spinning for the
+   * last microseconds.
+   *
+   * @param planned the planned start time from {@link System#nanoTime()}
+   */
+  private static void waitUntil(long planned) {
+    long remaining;
+    while ((remaining = planned - System.nanoTime()) > 0) {
+      if (remaining > SPIN_THRESHOLD_NANOS) {
+        LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+      } else {
+        Thread.onSpinWait();
+      }
+    }
+  }
+
+  /**
+   * Generates a fridge and a cookbook and replays a workload against them, then prints the
+   * latency report. The arguments are the number of lots, recipes and operations, the target rate
+   * and the seed, e.g. {@code 10000 1000 100000 5000 42}.
+   *
+   * @param args the arguments for the main method
+   */
+  public static void main(String[] args) {
+    int lots = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int recipes = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+    int operations = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+    double rate = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+    long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+
+    WorkloadGenerator generator = new WorkloadGenerator(seed);
+    FoodStorage fridge = generator.generateFridge(lots);
+    CookBook cookBook = generator.generateCookBook(recipes);
+    WorkloadReplayer replayer = new WorkloadReplayer(generator, new OperationMix(30, 20, 40, 10),
+        seed);
+    System.out.println(replayer.replay(fridge, cookBook, operations, rate));
+  }
+}
@@ -0,0 +1,60 @@
+package edu.ntnu.idi.idatt.workload;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws numbers from 0 to n-1 following a Zipf distribution, where number k is drawn with a
+ * probability proportional to {@code 1 / (k + 1)^exponent}. Low numbers are therefore much more
+ * common than high numbers, like a few popular ingredients are in most fridges.
+ */
+public class ZipfSampler {
+
+  private final double[] cumulative;
+
+  /**
+   * Constructor that precomputes the cumulative distribution.
+   *
+   * @param n        the number of different values
+   * @param exponent how skewed the distribution is, where 0 is uniform
+   * @throws IllegalArgumentException if n is not positive or the exponent is negative
+   */
+  public ZipfSampler(int n, double exponent) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("Number of values must be greater than zero");
+    }
+    if (exponent < 0) {
+      throw new IllegalArgumentException("Exponent cannot be negative");
+    }
+    cumulative = new double[n];
+    double sum = 0;
+    for (int k = 0; k < n; k++) {
+      sum += 1.0 / Math.pow(k + 1, exponent);
+      cumulative[k] = sum;
+    }
+    for (int k = 0; k < n; k++) {
+      cumulative[k] /= sum;
+    }
+  }
+
+  /**
+   * Draws the next value.
+   *
+   * @param random the random generator to draw from
+   * @return a value from 0 to n-1
+   */
+  public int next(Random random) {
+    int index = Arrays.binarySearch(cumulative, random.nextDouble());
+    // binarySearch gir (-(innsettingspunkt) - 1) når verdien ikke finnes
+    return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+  }
+
+  /**
+   * Returns the number of different values.
+   *
+   * @return n
+   */
+  public int size() {
+    return cumulative.length;
+  }
+}
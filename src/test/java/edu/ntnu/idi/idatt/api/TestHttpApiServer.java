@@ -0,0 +1,219 @@
+package edu.ntnu.idi.idatt.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.Recipe;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestHttpApiServer {
+
+  FoodStorage foodStorage;
+  CookBook cookBook;
+  HttpApiServer server;
+  HttpClient client;
+
+  @BeforeEach
+  public void setUp() throws IOException {
+    foodStorage = new FoodStorage();
+    cookBook = new CookBook();
+    foodStorage.addItem(new Ingredient("Milk", 3, "dL", 10, LocalDate.of(2024, 12, 20)));
+    cookBook.addRecipe(new Recipe("Milkshake", "Cold milk", "Shake it",
+        List.of(new Ingredient("Milk", 2, "dL", 0.0, LocalDate.MAX)), 1));
+    server = new HttpApiServer(foodStorage, cookBook, 0);
+    server.start();
+    client = HttpClient.newHttpClient();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    server.close();
+  }
+
+  private HttpResponse<String> send(String method, String path, String body) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(
+            URI.create("http://localhost:" + server.getPort() + path))
+        .method(method, body == null ? BodyPublishers.noBody() : BodyPublishers.ofString(body))
+        .build();
+    return client.send(request, BodyHandlers.ofString());
+  }
+
+  @Nested
+  @DisplayName("Negative tests for HttpApiServer")
+  public class Negative {
+
+    @Test
+    @DisplayName("An invalid date gives status 400 with the error message")
+    public void testAddItem_returnsBadRequest_onInvalidDate() throws Exception {
+      HttpResponse<String> response = send("POST",
+          "/items?name=Egg&quantity=6&unit=pcs&price=4&bestBefore=2024-12-20", null);
+      assertEquals(400, response.statusCode());
+      assertEquals("{\"error\":\"Invalid date format, please use dd-MM-yyyy.\"}", response.body());
+      assertEquals(1, foodStorage.getItems().size());
+    }
+
+    @Test
+    @DisplayName("A failure in the fridge gives status 500 with a JSON error")
+    public void testHandle_returnsServerError_onFailure() throws Exception {
+      server.close();
+      FoodStorage broken = new FoodStorage() {
+        @Override
+        public double calculateTotalValue() {
+          throw new IllegalStateException("Broken fridge");
+        }
+      };
+      server = new HttpApiServer(broken, cookBook, 0);
+      server.start();
+      HttpResponse<String> response = send("GET", "/value", null);
+      assertEquals(500, response.statusCode());
+      assertEquals("{\"error\":\"Internal error\"}", response.body());
+      assertEquals(200, send("GET", "/items", null).statusCode());
+    }
+
+    @Test
+    @DisplayName("A price that is not a finite number gives status 400")
+    public void testAddItem_returnsBadRequest_onNonFinitePrice() throws Exception {
+      HttpResponse<String> response = send("POST",
+          "/items?name=Junk&quantity=1&unit=L&price=NaN&bestBefore=20-12-2024", null);
+      assertEquals(400, response.statusCode());
+      assertEquals("{\"error\":\"Invalid number for price: NaN\"}", response.body());
+      assertEquals(200, send("GET", "/value/risk", null).statusCode());
+    }
+
+    @Test
+    @DisplayName("An unknown path gives status 404 and a wrong method gives 405")
+    public void testRoute_returnsErrors_onUnknownRequests() throws Exception {
+      assertEquals(404, send("GET", "/fridge", null).statusCode());
+      assertEquals(405, send("POST", "/value", null).statusCode());
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for HttpApiServer")
+  public class Positive {
+
+    @Test
+    @DisplayName("Requests wait for other code that holds the lock of the fridge")
+    public void testRequests_waitForFridgeLock() throws Exception {
+      CompletableFuture<HttpResponse<String>> response;
+      server.getFoodStorageLock().lock();
+      try {
+        response = client.sendAsync(HttpRequest.newBuilder(
+            URI.create("http://localhost:" + server.getPort() + "/value")).build(),
+            BodyHandlers.ofString());
+        Thread.sleep(200);
+        assertFalse(response.isDone());
+      } finally {
+        server.getFoodStorageLock().unlock();
+      }
+      assertEquals(200, response.get(5, TimeUnit.SECONDS).statusCode());
+    }
+
+    @Test
+    @DisplayName("GET /items returns the items as JSON")
+    public void testGetItems_returnsJson() throws Exception {
+      HttpResponse<String> response = send("GET", "/items", null);
+      assertEquals(200, response.statusCode());
+      assertEquals("[{\"name\":\"Milk\",\"quantity\":3.0,\"unit\":\"dL\",\"pricePerUnit\":10.0,"
+          + "\"bestBefore\":\"20-12-2024\"}]", response.body());
+    }
+
+    @Test
+    @DisplayName("POST /items adds an item with a name of several words")
+    public void testAddItem_addsItem() throws Exception {
+      HttpResponse<String> response = send("POST",
+          "/items?name=Sour+cream&quantity=2&unit=dL&price=15&bestBefore=24-12-2024", null);
+      assertEquals(200, response.statusCode());
+      assertEquals(1, foodStorage.searchItem("Sour cream").size());
+    }
+
+    @Test
+    @DisplayName("GET /recipes/suggest and /value answer on the same connection")
+    public void testSuggest_returnsRecipes() throws Exception {
+      assertEquals("[\"Milkshake\"]", send("GET", "/recipes/suggest", null).body());
+      assertEquals("{\"value\":30.0}", send("GET", "/value", null).body());
+    }
+
+    @Test
+    @DisplayName("GET /value/risk returns the expired value and the risk curve")
+    public void testValueRisk_returnsCurve() throws Exception {
+      String body = send("GET", "/value/risk", null).body();
+      assertTrue(body.startsWith("{\"expired\":"), body);
+      assertTrue(body.contains("\"risk\":{\"1\":"), body);
+      assertTrue(body.endsWith(",\"30\":" + foodStorage.getValueExpiringWithin(30) + "}}"), body);
+    }
+
+    @Test
+    @DisplayName("GET /items/before with offset and limit returns one page")
+    public void testItemsBefore_returnsPage() throws Exception {
+      foodStorage.addItem(new Ingredient("Egg", 6, "pcs", 4, LocalDate.of(2024, 12, 18)));
+      foodStorage.addItem(new Ingredient("Ham", 1, "pcs", 30, LocalDate.of(2024, 12, 19)));
+      HttpResponse<String> response = send("GET", "/items/before?date=31-12-2024&offset=1&limit=1",
+          null);
+      assertEquals(200, response.statusCode());
+      assertTrue(response.body().startsWith("[{\"name\":\"Ham\""));
+      assertEquals(400, send("GET", "/items/expired?limit=-1", null).statusCode());
+    }
+
+    @Test
+    @DisplayName("POST /batch runs every line of the body and returns one result per line")
+    public void testBatch_runsAllCommands() throws Exception {
+      HttpResponse<String> response = send("POST", "/batch",
+          "remove Milk 2\nvalue\ncheck Milkshake\n");
+      assertEquals(200, response.statusCode());
+      String[] lines = response.body().split("\n");
+      assertEquals(3, lines.length);
+      assertTrue(lines[0].startsWith("OK "));
+      assertEquals("OK 10.0", lines[1]);
+      assertTrue(lines[2].startsWith("OK false"));
+    }
+
+    @Test
+    @DisplayName("A slow POST /batch upload does not hold up other requests")
+    public void testBatch_doesNotLockWhileReadingBody() throws Exception {
+      byte[] body = "value\n".getBytes(StandardCharsets.UTF_8);
+      try (Socket socket = new Socket("localhost", server.getPort())) {
+        OutputStream output = socket.getOutputStream();
+        output.write(("POST /batch HTTP/1.1\r\nHost: localhost\r\nContent-Length: "
+            + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        output.write(body, 0, 2);
+        output.flush();
+        Thread.sleep(100);
+
+        // Låsene er ledige mens resten av forespørselen fortsatt er på vei
+        assertTrue(server.getCookBookLock().tryLock());
+        server.getCookBookLock().unlock();
+        assertTrue(server.getFoodStorageLock().tryLock());
+        server.getFoodStorageLock().unlock();
+
+        output.write(body, 2, body.length - 2);
+        output.flush();
+        String reply = new String(socket.getInputStream().readNBytes(12),
+            StandardCharsets.US_ASCII);
+        assertEquals("HTTP/1.1 200", reply);
+      }
+    }
+  }
+}
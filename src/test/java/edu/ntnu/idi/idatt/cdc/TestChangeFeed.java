@@ -0,0 +1,241 @@
+package edu.ntnu.idi.idatt.cdc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idi.idatt.cdc.ChangeRecord.Operation;
+import edu.ntnu.idi.idatt.cdc.ChangeRecord.Source;
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.Recipe;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestChangeFeed {
+
+  static final LocalDate DATE = LocalDate.of(2024, 12, 20);
+
+  ChangeFeed feed;
+  FoodStorage foodStorage;
+  CookBook cookBook;
+
+  @BeforeEach
+  public void setUp() {
+    feed = new ChangeFeed(100, 10);
+    foodStorage = new FoodStorage();
+    cookBook = new CookBook();
+    feed.attach(foodStorage);
+    feed.attach(cookBook);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    feed.close();
+  }
+
+  /**
+   * A subscriber that puts every batch in a queue, and only requests when told to.
+   */
+  static class Collector implements Flow.Subscriber<List<ChangeRecord>> {
+
+    final BlockingQueue<List<ChangeRecord>> batches = new LinkedBlockingQueue<>();
+    final CountDownLatch done = new CountDownLatch(1);
+    volatile Flow.Subscription subscription;
+    volatile Throwable error;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(List<ChangeRecord> batch) {
+      batches.add(batch);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+      done.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      done.countDown();
+    }
+
+    List<ChangeRecord> next() throws InterruptedException {
+      return batches.poll(5, TimeUnit.SECONDS);
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for the change feed")
+  public class Negative {
+
+    @Test
+    @DisplayName("the capacity and batch size must be positive")
+    public void testConstructor_throwsException_forInvalidSizes() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> new ChangeFeed(0, 10));
+      assertEquals("Capacity and batch size must be greater than zero", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("a subscriber that resumes from an overwritten change gets an error")
+    public void testSubscribe_errorForOverwrittenChange() throws InterruptedException {
+      for (int i = 0; i < 150; i++) {
+        foodStorage.addItem(new Ingredient("Egg " + i, 1, "pcs", 2.0, DATE));
+      }
+      Collector collector = new Collector();
+      feed.subscribe(collector, 1);
+      collector.subscription.request(1);
+
+      assertTrue(collector.done.await(5, TimeUnit.SECONDS));
+      assertInstanceOf(IllegalStateException.class, collector.error);
+      assertEquals(51, feed.getOldestSequence());
+    }
+
+    @Test
+    @DisplayName("a subscriber that throws in onNext is cancelled and gets the error")
+    public void testDeliver_cancelsSubscriberThatThrows() throws InterruptedException {
+      Collector failing = new Collector() {
+        @Override
+        public void onNext(List<ChangeRecord> batch) {
+          throw new IllegalStateException("Index is down");
+        }
+      };
+      Collector collector = new Collector();
+      feed.subscribe(failing);
+      feed.subscribe(collector);
+      failing.subscription.request(5);
+      collector.subscription.request(5);
+      foodStorage.addItem(new Ingredient("Milk", 3, "dL", 10.0, DATE));
+
+      assertTrue(failing.done.await(5, TimeUnit.SECONDS));
+      assertEquals("Index is down", failing.error.getMessage());
+      assertEquals(1, collector.next().size());
+      foodStorage.addItem(new Ingredient("Egg", 6, "pcs", 2.0, DATE));
+      assertEquals(2, collector.next().getFirst().sequence());
+    }
+
+    @Test
+    @DisplayName("a subscriber gets no changes before it requests them")
+    public void testSubscribe_noChangesWithoutRequest() throws InterruptedException {
+      Collector collector = new Collector();
+      feed.subscribe(collector);
+      foodStorage.addItem(new Ingredient("Milk", 3, "dL", 10.0, DATE));
+      assertNull(collector.batches.poll(100, TimeUnit.MILLISECONDS));
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for the change feed")
+  public class Positive {
+
+    @Test
+    @DisplayName("changes to the fridge and the cookbook are published in order")
+    public void testSubscribe_publishesFridgeAndCookBookChanges() throws InterruptedException {
+      Collector collector = new Collector();
+      feed.subscribe(collector);
+      collector.subscription.request(Long.MAX_VALUE);
+
+      foodStorage.addItem(new Ingredient("Milk", 3, "dL", 10.0, DATE));
+      foodStorage.addItem(new Ingredient("Milk", 2, "dL", 10.0, DATE));
+      foodStorage.removeItem("Milk", 5);
+      cookBook.addRecipe(new Recipe("Toast", "Crispy bread", "Toast the bread",
+          List.of(new Ingredient("Bread", 2, "pcs", 0.0, LocalDate.MAX)), 1));
+
+      List<ChangeRecord> changes = new ArrayList<>();
+      while (changes.size() < 4) {
+        changes.addAll(collector.next());
+      }
+      assertEquals(new ChangeRecord(1, Source.FRIDGE, Operation.ADDED, "Milk", "dL", DATE, 0, 3),
+          changes.get(0));
+      assertEquals(Operation.CHANGED, changes.get(1).operation());
+      assertEquals(Operation.REMOVED, changes.get(2).operation());
+      assertEquals(new ChangeRecord(4, Source.COOKBOOK, Operation.ADDED, "Toast", "servings",
+          null, 0, 1), changes.get(3));
+    }
+
+    @Test
+    @DisplayName("a slow subscriber only gets the batches it has requested")
+    public void testSubscribe_backpressure() throws InterruptedException {
+      Collector collector = new Collector();
+      feed.subscribe(collector);
+      collector.subscription.request(1);
+
+      for (int i = 0; i < 25; i++) {
+        foodStorage.addItem(new Ingredient("Egg " + i, 1, "pcs", 2.0, DATE));
+      }
+      assertEquals(25, feed.getLastSequence());
+
+      List<ChangeRecord> first = collector.next();
+      assertTrue(first.size() <= 10);
+      assertNull(collector.batches.poll(100, TimeUnit.MILLISECONDS));
+
+      collector.subscription.request(Long.MAX_VALUE);
+      long last = first.getLast().sequence();
+      while (last < 25) {
+        List<ChangeRecord> batch = collector.next();
+        assertEquals(last + 1, batch.getFirst().sequence());
+        assertTrue(batch.size() <= 10);
+        last = batch.getLast().sequence();
+      }
+    }
+
+    @Test
+    @DisplayName("a subscriber can resume from a sequence number")
+    public void testSubscribe_resumesFromSequence() throws InterruptedException {
+      for (int i = 0; i < 5; i++) {
+        foodStorage.addItem(new Ingredient("Egg " + i, 1, "pcs", 2.0, DATE));
+      }
+      Collector collector = new Collector();
+      feed.subscribe(collector, 4);
+      collector.subscription.request(1);
+
+      List<ChangeRecord> batch = collector.next();
+      assertEquals(List.of(4L, 5L), batch.stream().map(ChangeRecord::sequence).toList());
+    }
+
+    @Test
+    @DisplayName("close() completes a subscriber that has received everything")
+    public void testClose_completesSubscriber() throws InterruptedException {
+      Collector collector = new Collector();
+      feed.subscribe(collector);
+      collector.subscription.request(1);
+      feed.close();
+
+      assertTrue(collector.done.await(5, TimeUnit.SECONDS));
+      assertNull(collector.error);
+    }
+
+    @Test
+    @DisplayName("close() completes a subscriber that has not requested the remaining changes")
+    public void testClose_completesIdleSubscriber() throws InterruptedException {
+      Collector collector = new Collector();
+      feed.subscribe(collector);
+      foodStorage.addItem(new Ingredient("Milk", 3, "dL", 10.0, DATE));
+      feed.close();
+
+      assertTrue(collector.done.await(5, TimeUnit.SECONDS));
+      assertNull(collector.error);
+      assertTrue(collector.batches.isEmpty());
+    }
+  }
+}
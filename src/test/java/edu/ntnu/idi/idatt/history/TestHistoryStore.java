@@ -0,0 +1,124 @@
+package edu.ntnu.idi.idatt.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.ntnu.idi.idatt.history.HistoryEvent.Type;
+import edu.ntnu.idi.idatt.models.ExpiryScheduler;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.MutableClock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestHistoryStore {
+
+  static final LocalDate TODAY = LocalDate.of(2024, 12, 1);
+
+  HistoryStore store;
+
+  @BeforeEach
+  public void setUp() {
+    store = new HistoryStore();
+  }
+
+  @Nested
+  @DisplayName("Negative tests for HistoryStore")
+  public class Negative {
+
+    @Test
+    @DisplayName("getValueByIngredient() throws IllegalArgumentException on a reversed range")
+    public void testGetValueByIngredient_throwsException_onReversedRange() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> store.getValueByIngredient(Type.WASTED, TODAY, TODAY.minusDays(1)));
+      assertEquals("The start date cannot be after the end date", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("record() throws IllegalArgumentException on a negative quantity")
+    public void testRecord_throwsException_onNegativeQuantity() {
+      assertThrows(IllegalArgumentException.class,
+          () -> store.record(Type.ADDED, "home", "Milk", TODAY, -1, 10));
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for HistoryStore")
+  public class Positive {
+
+    @Test
+    @DisplayName("getValueByIngredient() gives the same totals as summing every event")
+    public void testGetValueByIngredient_matchesEventSums() {
+      Random random = new Random(42);
+      LocalDate start = LocalDate.of(2022, 1, 1);
+      double[] expected = new double[3];
+      LocalDate from = LocalDate.of(2023, 2, 15);
+      LocalDate to = LocalDate.of(2024, 3, 9);
+      for (int i = 0; i < 20_000; i++) {
+        LocalDate date = start.plusDays(random.nextInt(1000));
+        int ingredient = random.nextInt(3);
+        double value = random.nextInt(100);
+        store.record(Type.WASTED, "home-" + random.nextInt(10), "Item " + ingredient, date, 1,
+            value);
+        if (!date.isBefore(from) && !date.isAfter(to)) {
+          expected[ingredient] += value;
+        }
+      }
+      Map<String, Double> result = store.getValueByIngredient(Type.WASTED, from, to);
+      for (int i = 0; i < 3; i++) {
+        assertEquals(expected[i], result.get("Item " + i), 1e-6);
+      }
+      assertEquals(20_000, store.getEventCount());
+    }
+
+    @Test
+    @DisplayName("HistoryRecorder records additions, consumption and waste from a fridge")
+    public void testHistoryRecorder_recordsFridgeChanges() {
+      MutableClock clock = new MutableClock(TODAY);
+      FoodStorage fridge = new FoodStorage(clock);
+      ExpiryScheduler scheduler = ExpiryScheduler.start(fridge);
+      HistoryRecorder.start("home", fridge, scheduler, store);
+
+      fridge.addItem(new Ingredient("Milk", 3, "dL", 10.0, TODAY.plusDays(1)));
+      fridge.addItem(new Ingredient("Egg", 6, "pcs", 2.0, TODAY.plusDays(10)));
+      fridge.removeItem("Milk", 1);
+      clock.setDate(TODAY.plusDays(2));
+      scheduler.tick();
+      fridge.removeItem("Milk", 2);
+
+      List<HistoryEvent> events = store.getEvents("home", TODAY, TODAY.plusDays(2));
+      assertEquals(List.of(Type.ADDED, Type.ADDED, Type.CONSUMED, Type.WASTED),
+          events.stream().map(HistoryEvent::type).toList());
+      assertEquals(Map.of("Milk", 20.0),
+          store.getValueByIngredient(Type.WASTED, TODAY.minusYears(1), TODAY.plusDays(2)));
+      assertEquals(Map.of("Milk", 10.0),
+          store.getValueByIngredient(Type.CONSUMED, TODAY, TODAY));
+    }
+
+    @Test
+    @DisplayName("HistoryRecorder records quantity added to expired items, and stops when closed")
+    public void testHistoryRecorder_recordsAddedToExpiredItems() {
+      MutableClock clock = new MutableClock(TODAY);
+      FoodStorage fridge = new FoodStorage(clock);
+      ExpiryScheduler scheduler = ExpiryScheduler.start(fridge);
+      HistoryRecorder recorder = HistoryRecorder.start("home", fridge, scheduler, store);
+
+      fridge.addItem(new Ingredient("Milk", 3, "dL", 10.0, TODAY.minusDays(1)));
+      fridge.addItem(new Ingredient("Milk", 2, "dL", 10.0, TODAY.minusDays(1)));
+      assertEquals(Map.of("Milk", 50.0), store.getValueByIngredient(Type.ADDED, TODAY, TODAY));
+      assertEquals(Map.of("Milk", 50.0), store.getValueByIngredient(Type.WASTED, TODAY, TODAY));
+
+      recorder.close();
+      fridge.addItem(new Ingredient("Egg", 6, "pcs", 2.0, TODAY));
+      clock.setDate(TODAY.plusDays(1));
+      scheduler.tick();
+      assertEquals(4, store.getEventCount());
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package edu.ntnu.idi.idatt.models;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A clock that can be moved to any date, used to simulate time.
+ */
+public class MutableClock extends Clock {
+
+  private Instant instant;
+
+  public MutableClock(LocalDate date) {
+    instant = startOf(date);
+  }
+
+  public void setDate(LocalDate date) {
+    instant = startOf(date);
+  }
+
+  private static Instant startOf(LocalDate date) {
+    return date.atStartOfDay(ZoneOffset.UTC).toInstant();
+  }
+
+  @Override
+  public ZoneId getZone() {
+    return ZoneOffset.UTC;
+  }
+
+  @Override
+  public Clock withZone(ZoneId zone) {
+    return this;
+  }
+
+  @Override
+  public Instant instant() {
+    return instant;
+  }
+}
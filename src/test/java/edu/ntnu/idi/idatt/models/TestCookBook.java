@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -43,6 +44,22 @@ public class TestCookBook {
           exception.getMessage());
     }
 
+    @Test
+    @DisplayName("costRecipe() throws IllegalArgumentException if the recipe does not exist")
+    public void testCostRecipe_throwsException_ifRecipeDoesNotExist() {
+      assertThrows(IllegalArgumentException.class,
+          () -> cookbook.costRecipe("NonExistent", new FoodStorage()));
+      assertThrows(IllegalArgumentException.class, () -> cookbook.costAllRecipes(null));
+    }
+
+    @Test
+    @DisplayName("suggestNearMisses() throws IllegalArgumentException for a negative count")
+    public void testSuggestNearMisses_throwsException_forNegativeCount() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> cookbook.suggestNearMisses(new FoodStorage(), -1));
+      assertEquals("Number of missing ingredients cannot be negative", exception.getMessage());
+    }
+
     @Test
     @DisplayName("addRecipe() throws IllegalArgumentException if recipe is null")
     public void testAddRecipe_throwsException_ifRecipeIsNull() {
@@ -89,6 +106,32 @@ public class TestCookBook {
       assertEquals("The recipe 'NonExistent' does not exist in the cookbook.",
           exception.getMessage());
     }
+
+    @Test
+    @DisplayName("canMake() throws IllegalArgumentException if the servings is not positive")
+    public void testCanMake_throwsException_ifServingsIsZero() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+        cookbook.canMake(recipe, 0, new FoodStorage());
+      });
+      assertEquals("Servings must be greater than zero", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("findSimilarRecipes() throws IllegalArgumentException if count is not positive")
+    public void testFindSimilarRecipes_throwsException_ifCountIsZero() {
+      cookbook.addRecipe(recipe);
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> cookbook.findSimilarRecipes("Cake", 0));
+      assertEquals("Count must be greater than zero", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("CookBook() throws IllegalArgumentException if the bands are not positive")
+    public void testConstructor_throwsException_ifBandsIsZero() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> new CookBook(0, 4));
+      assertEquals("Bands and rows must be greater than zero", exception.getMessage());
+    }
   }
 
   @Nested
@@ -127,5 +170,240 @@ public class TestCookBook {
       assertEquals("The recipe 'Cake' is removed from the cookbook.", result);
       assertTrue(cookbook.getRecipes().isEmpty());
     }
+
+    @Test
+    @DisplayName("canMakeRecipe() reflects changes in the fridge after a cached check")
+    public void testCanMakeRecipe_reflectsFridgeChanges() {
+      cookbook.addRecipe(recipe);
+      FoodStorage fridge = new FoodStorage();
+      fridge.addItem(new Ingredient("Egg", 12, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      fridge.addItem(new Ingredient("Milk", 3, "dL", 10.0, LocalDate.of(2024, 12, 20)));
+      assertTrue(cookbook.canMakeRecipe("Cake", fridge).startsWith("You do not have"));
+      long version = cookbook.getVersion();
+      fridge.addItem(new Ingredient("Butter", 250, "grams", 0.1, LocalDate.of(2024, 12, 10)));
+      assertTrue(cookbook.canMakeRecipe("Cake", fridge).startsWith("You have all"));
+      assertEquals(version, cookbook.getVersion());
+    }
+  
+    @Test
+    @DisplayName("maxServings() scales the recipe and counts all lots of an ingredient")
+    public void testMaxServings_scalesRecipe() {
+      FoodStorage fridge = new FoodStorage();
+      fridge.addItem(new Ingredient("Egg", 20, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      fridge.addItem(new Ingredient("Milk", 3, "dL", 10.0, LocalDate.of(2024, 12, 20)));
+      fridge.addItem(new Ingredient("Milk", 1.5, "dL", 10.0, LocalDate.of(2024, 12, 22)));
+      fridge.addItem(new Ingredient("Butter", 1000, "grams", 0.1, LocalDate.of(2024, 12, 10)));
+      // 2 egg, 0.5 dL melk og 41.67 gram smør per porsjon, melken rekker til 9
+      assertEquals(9, cookbook.maxServings(recipe, fridge));
+      assertTrue(cookbook.canMake(recipe, 9, fridge));
+      assertFalse(cookbook.canMake(recipe, 10, fridge));
+    }
+
+    @Test
+    @DisplayName("maxServingsForAll() gives the max servings of every recipe")
+    public void testMaxServingsForAll_returnsEveryRecipe() {
+      cookbook.addRecipe(recipe);
+      cookbook.addRecipe(new Recipe("Omelet", "Eggs", "Fry", List.of(
+          new Ingredient("Egg", 3, "pcs", 0.0, LocalDate.MAX)), 1));
+      FoodStorage fridge = new FoodStorage();
+      fridge.addItem(new Ingredient("Egg", 7, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      assertEquals(Map.of("Cake", 0, "Omelet", 2), cookbook.maxServingsForAll(fridge));
+      fridge.addItem(new Ingredient("Egg", 2, "pcs", 2.0, LocalDate.of(2024, 12, 28)));
+      assertEquals(3, cookbook.maxServingsForAll(fridge).get("Omelet"));
+    }
+  
+    @Test
+    @DisplayName("costRecipe() uses the lots that expire first, at their own prices")
+    public void testCostRecipe_usesLotsInExpiryOrder() {
+      cookbook.addRecipe(recipe);
+      FoodStorage fridge = new FoodStorage();
+      fridge.addItem(new Ingredient("Egg", 10, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      fridge.addItem(new Ingredient("Egg", 5, "pcs", 3.0, LocalDate.of(2024, 12, 20)));
+      fridge.addItem(new Ingredient("Milk", 5, "dL", 10.0, LocalDate.of(2024, 12, 20)));
+      fridge.addItem(new Ingredient("Milk", 0.1, "L", 50.0, LocalDate.of(2024, 12, 18)));
+      fridge.addItem(new Ingredient("Butter", 100, "grams", 0.1, LocalDate.of(2024, 12, 10)));
+
+      // Egg: 5 * 3 + 7 * 2, melk: 0.1 L * 50 + 2 dL * 10, smør: 100 * 0.1
+      RecipeCost cost = cookbook.costRecipe("cake", fridge);
+      assertEquals(64, cost.totalCost(), 1e-9);
+      assertEquals(64 / 6.0, cost.costPerServing(), 1e-9);
+      assertFalse(cost.isComplete());
+      assertEquals(List.of(new ShoppingItem("Butter", 150, "grams")), cost.missing());
+      assertEquals(15, fridge.searchItem("Egg").stream()
+          .mapToDouble(Ingredient::getQuantityItem).sum());
+
+      fridge.removeItem("Egg", 5);
+      assertEquals(20 + 25 + 10, cookbook.costRecipe("Cake", fridge).totalCost(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("costAllRecipes() costs every recipe, and keeps results for unchanged ingredients")
+    public void testCostAllRecipes_returnsEveryRecipe() {
+      cookbook.addRecipe(recipe);
+      cookbook.addRecipe(new Recipe("Omelet", "Eggs", "Fry", List.of(
+          new Ingredient("Egg", 3, "pcs", 0.0, LocalDate.MAX)), 1));
+      FoodStorage fridge = new FoodStorage();
+      fridge.addItem(new Ingredient("Egg", 7, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+
+      Map<String, RecipeCost> costs = cookbook.costAllRecipes(fridge);
+      assertEquals(List.of("Cake", "Omelet"), List.copyOf(costs.keySet()));
+      assertEquals(6, costs.get("Omelet").costPerServing(), 1e-9);
+      assertEquals(costs.get("Cake"), cookbook.costRecipe("Cake", fridge));
+
+      RecipeCost omelet = cookbook.costRecipe("Omelet", fridge);
+      fridge.addItem(new Ingredient("Ham", 1, "pcs", 30.0, LocalDate.of(2024, 12, 24)));
+      assertSame(omelet, cookbook.costAllRecipes(fridge).get("Omelet"));
+      fridge.addItem(new Ingredient("Egg", 1, "pcs", 1.0, LocalDate.of(2024, 12, 1)));
+      assertEquals(5, cookbook.costRecipe("Omelet", fridge).totalCost(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("costAllRecipes() keeps every cost when recipes are added, however many there are")
+    public void testCostAllRecipes_keepsCostsWhenRecipesAreAdded() {
+      for (int i = 0; i < 300; i++) {
+        cookbook.addRecipe(new Recipe("Omelet " + i, "Eggs", "Fry", List.of(
+            new Ingredient("Egg", 1 + i % 5, "pcs", 0.0, LocalDate.MAX)), 1));
+      }
+      FoodStorage fridge = new FoodStorage();
+      fridge.addItem(new Ingredient("Egg", 7, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+
+      Map<String, RecipeCost> before = cookbook.costAllRecipes(fridge);
+      cookbook.addRecipe(recipe);
+      Map<String, RecipeCost> after = cookbook.costAllRecipes(fridge);
+      assertEquals(301, after.size());
+      for (int i = 0; i < 300; i++) {
+        assertSame(before.get("Omelet " + i), after.get("Omelet " + i));
+      }
+      assertSame(after.get("Omelet 3"), cookbook.costRecipe("Omelet 3", fridge));
+    }
+
+    @Test
+    @DisplayName("canMakeRecipe() and suggestRecipe() accept substitutes for missing ingredients")
+    public void testCanMakeRecipe_acceptsSubstitutes() {
+      cookbook.addRecipe(recipe);
+      FoodStorage fridge = new FoodStorage();
+      fridge.addItem(new Ingredient("Egg", 12, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      fridge.addItem(new Ingredient("Milk", 3, "dL", 10.0, LocalDate.of(2024, 12, 20)));
+      fridge.addItem(new Ingredient("Oil", 150, "grams", 0.1, LocalDate.of(2024, 12, 30)));
+      assertTrue(cookbook.canMakeRecipe("Cake", fridge).startsWith("You do not have"));
+      assertTrue(cookbook.suggestRecipe(fridge).isEmpty());
+
+      // Smør kan byttes med margarin, og margarin med olje (0.5 gram olje per gram margarin)
+      cookbook.getSubstitutions().addSubstitute("Butter", "Margarine", 1.0);
+      cookbook.getSubstitutions().addSubstitute("Margarine", "Oil", 0.5);
+      assertEquals("You have all the ingredients to make Cake!\nUsing Oil instead of Butter\n",
+          cookbook.canMakeRecipe("Cake", fridge));
+      assertEquals(List.of("Cake"), cookbook.suggestRecipe(fridge));
+      assertEquals(6, cookbook.maxServings(recipe, fridge));
+
+      fridge.removeItem("Oil", 100);
+      assertTrue(cookbook.canMakeRecipe("Cake", fridge).startsWith("You do not have"));
+      assertEquals(Map.of("Cake", 2), cookbook.maxServingsForAll(fridge));
+    }
+
+    @Test
+    @DisplayName("canMakeRecipe() stops using a substitute after it is removed")
+    public void testCanMakeRecipe_reflectsRemovedSubstitute() {
+      cookbook.addRecipe(recipe);
+      FoodStorage fridge = new FoodStorage();
+      // Margarinen får versjon 1, som er like mye som grafen går opp når den fjernes
+      fridge.addItem(new Ingredient("Margarine", 250, "grams", 0.1, LocalDate.of(2024, 12, 30)));
+      fridge.addItem(new Ingredient("Egg", 12, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      fridge.addItem(new Ingredient("Milk", 3, "dL", 10.0, LocalDate.of(2024, 12, 20)));
+      cookbook.getSubstitutions().addSubstitute("Butter", "Margarine", 1.0);
+      assertTrue(cookbook.canMakeRecipe("Cake", fridge).endsWith(
+          "Using Margarine instead of Butter\n"));
+
+      cookbook.getSubstitutions().removeSubstitute("Butter", "Margarine");
+      assertTrue(cookbook.suggestRecipe(fridge).isEmpty());
+      assertTrue(cookbook.canMakeRecipe("Cake", fridge).startsWith("You do not have"));
+    }
+
+    @Test
+    @DisplayName("suggestNearMisses() ranks recipes by missing ingredients and shortfall")
+    public void testSuggestNearMisses_ranksByShortfall() {
+      cookbook.addRecipe(recipe);
+      cookbook.addRecipe(new Recipe("Omelet", "Eggs", "Fry", List.of(
+          new Ingredient("Egg", 3, "pcs", 0.0, LocalDate.MAX)), 1));
+      cookbook.addRecipe(new Recipe("Pancakes", "Breakfast", "Fry", List.of(
+          new Ingredient("Egg", 2, "pcs", 0.0, LocalDate.MAX),
+          new Ingredient("Milk", 4, "dL", 0.0, LocalDate.MAX),
+          new Ingredient("Flour", 200, "grams", 0.0, LocalDate.MAX)), 4));
+      FoodStorage fridge = new FoodStorage();
+      fridge.addItem(new Ingredient("Egg", 12, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      fridge.addItem(new Ingredient("Milk", 2, "dL", 10.0, LocalDate.of(2024, 12, 20)));
+      fridge.addItem(new Ingredient("Butter", 250, "grams", 0.1, LocalDate.of(2024, 12, 10)));
+
+      assertEquals(cookbook.suggestRecipe(fridge), cookbook.suggestNearMisses(fridge, 0).stream()
+          .map(NearMiss::recipeName).toList());
+
+      // Kaken mangler 1 dL melk, pannekakene 2 dL melk og alt melet
+      List<NearMiss> nearMisses = cookbook.suggestNearMisses(fridge, 2);
+      assertEquals(List.of("Omelet", "Cake", "Pancakes"),
+          nearMisses.stream().map(NearMiss::recipeName).toList());
+      assertEquals(List.of(new ShoppingItem("Milk", 1, "dL")), nearMisses.get(1).missing());
+      assertEquals(1.5, nearMisses.get(2).shortfall(), 1e-9);
+      assertEquals(2, cookbook.suggestNearMisses(fridge, 1).size());
+
+      cookbook.getSubstitutions().addSubstitute("Flour", "Oat flour", 1.2);
+      fridge.addItem(new Ingredient("Oat flour", 500, "grams", 0.05, LocalDate.of(2025, 3, 1)));
+      assertEquals(1, cookbook.suggestNearMisses(fridge, 2).get(2).missingCount());
+    }
+
+    @Test
+    @DisplayName("findSimilarRecipes() finds recipes with the same ingredients")
+    public void testFindSimilarRecipes_findsSharedIngredients() {
+      cookbook = new CookBook(32, 2);
+      cookbook.addRecipe(recipe);
+      cookbook.addRecipe(new Recipe("Pancakes", "Breakfast", "Fry", List.of(
+          new Ingredient("Egg", 2, "pcs", 0.0, LocalDate.MAX),
+          new Ingredient("Milk", 4, "dL", 0.0, LocalDate.MAX),
+          new Ingredient("Flour", 200, "grams", 0.0, LocalDate.MAX)), 4));
+      cookbook.addRecipe(new Recipe("Brownies", "Dessert", "Bake", List.of(
+          new Ingredient("Egg", 3, "pcs", 0.0, LocalDate.MAX),
+          new Ingredient("Milk", 1, "dL", 0.0, LocalDate.MAX),
+          new Ingredient("Butter", 200, "grams", 0.0, LocalDate.MAX),
+          new Ingredient("Cocoa", 50, "grams", 0.0, LocalDate.MAX)), 8));
+      cookbook.addRecipe(new Recipe("Salad", "Green", "Toss", List.of(
+          new Ingredient("Lettuce", 1, "pcs", 0.0, LocalDate.MAX)), 2));
+
+      // Brownies deler 3 av 4 ingredienser med kaken, pannekakene 2 av 4
+      List<SimilarRecipe> exact = cookbook.findSimilarRecipesExact("Cake", 5);
+      assertEquals(List.of(new SimilarRecipe("Brownies", 0.75), new SimilarRecipe("Pancakes", 0.5)),
+          exact);
+      assertEquals(exact, cookbook.findSimilarRecipes("Cake", 5));
+      assertEquals(List.of(new SimilarRecipe("Brownies", 0.75)),
+          cookbook.findSimilarRecipes("Cake", 1));
+      assertTrue(cookbook.findSimilarRecipes("Salad", 5).isEmpty());
+
+      cookbook.removeRecipe("Brownies");
+      assertEquals(List.of("Pancakes"), cookbook.findSimilarRecipes("Cake", 5).stream()
+          .map(SimilarRecipe::recipeName).toList());
+    }
+
+    @Test
+    @DisplayName("createShoppingList() merges the plan and subtracts the stock in the fridge")
+    public void testCreateShoppingList_mergesPlanAndSubtractsStock() {
+      Recipe omelet = new Recipe("Omelet", "Eggs", "Fry", List.of(
+          new Ingredient("Egg", 3, "pcs", 0.0, LocalDate.MAX),
+          new Ingredient("milk", 0.05, "L", 0.0, LocalDate.MAX)), 1);
+      FoodStorage fridge = new FoodStorage();
+      fridge.addItem(new Ingredient("Egg", 10, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      fridge.addItem(new Ingredient("Butter", 500, "grams", 0.1, LocalDate.of(2024, 12, 24)));
+      fridge.addItem(new Ingredient("Milk", 1, "dL", 10.0, LocalDate.of(2024, 12, 24)));
+      fridge.addItem(new Ingredient("Milk", 2, "pcs", 10.0, LocalDate.of(2024, 12, 28)));
+
+      // Kake: 12 egg, 3 dL melk og 250 gram smør for 6 porsjoner
+      List<ShoppingItem> list = cookbook.createShoppingList(List.of(
+          new PlannedRecipe(recipe, 3), new PlannedRecipe(omelet, 2)), fridge);
+      assertEquals(2, list.size());
+      assertEquals("Egg", list.get(0).name());
+      assertEquals(2.0, list.get(0).quantity(), 1e-9);
+      assertEquals("pcs", list.get(0).unit());
+      // 1.5 dL til kaken og 1 dL til omeletten, minus 1 dL i kjøleskapet
+      assertEquals("Milk", list.get(1).name());
+      assertEquals(1.5, list.get(1).quantity(), 1e-9);
+      assertEquals("dL", list.get(1).unit());
+    }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package edu.ntnu.idi.idatt.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestExpiryScheduler {
+
+  MutableClock clock;
+  FoodStorage foodStorage;
+  ExpiryScheduler scheduler;
+
+  @BeforeEach
+  public void setUp() {
+    clock = new MutableClock(LocalDate.of(2024, 12, 1));
+    foodStorage = new FoodStorage(clock);
+    foodStorage.addItem(new Ingredient("Milk", 3, "dL", 10.0, LocalDate.of(2024, 12, 5)));
+    foodStorage.addItem(new Ingredient("Egg", 12, "pcs", 2.0, LocalDate.of(2024, 12, 10)));
+    foodStorage.addItem(new Ingredient("Honey", 1, "pcs", 50.0, LocalDate.of(2027, 1, 1)));
+    scheduler = ExpiryScheduler.start(foodStorage);
+  }
+
+  @Nested
+  @DisplayName("Negative tests for ExpiryScheduler")
+  public class Negative {
+
+    @Test
+    @DisplayName("start() throws IllegalArgumentException if the fridge is null")
+    public void testStart_throwsException_ifFridgeIsNull() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> ExpiryScheduler.start(null));
+      assertEquals("Food storage cannot be null", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("tick() does not expire items before their best-before day has passed")
+    public void testTick_doesNotExpireItemsOnBestBeforeDay() {
+      clock.setDate(LocalDate.of(2024, 12, 5));
+      assertEquals(0, scheduler.tick());
+      assertEquals(0, scheduler.getExpiredCount());
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for ExpiryScheduler")
+  public class Positive {
+
+    @Test
+    @DisplayName("scheduleDaily() advances the scheduler when the date of the clock changes")
+    public void testScheduleDaily_followsClock() throws InterruptedException {
+      ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+      try {
+        scheduler.scheduleDaily(executor, Duration.ofMillis(5));
+        clock.setDate(LocalDate.of(2024, 12, 6));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getExpiredCount() == 0 && System.nanoTime() < deadline) {
+          Thread.sleep(5);
+        }
+        assertEquals(1, scheduler.getExpiredCount());
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    @Test
+    @DisplayName("tick() expires items the day after their best-before date")
+    public void testTick_expiresItemsAfterBestBefore() {
+      List<Ingredient> reported = new ArrayList<>();
+      scheduler.onExpired(reported::add);
+      clock.setDate(LocalDate.of(2024, 12, 6));
+      assertEquals(1, scheduler.tick());
+      assertEquals("Milk", reported.getFirst().getNameItem());
+      assertEquals(30.0, scheduler.getExpiredValue(), 0.001);
+    }
+
+    @Test
+    @DisplayName("tick() expires items far ahead in time when jumping over many days")
+    public void testTick_expiresOverflowItems() {
+      clock.setDate(LocalDate.of(2027, 1, 2));
+      assertEquals(3, scheduler.tick());
+      assertEquals(0, scheduler.getPendingCount());
+      assertEquals(30.0 + 24.0 + 50.0, scheduler.getExpiredValue(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Items that are already expired when added are expired at once")
+    public void testAddItem_expiresPastItemAtOnce() {
+      foodStorage.addItem(new Ingredient("Cheese", 100, "grams", 0.2, LocalDate.of(2024, 11, 1)));
+      assertEquals(1, scheduler.getExpiredCount());
+      assertEquals(20.0, scheduler.getExpiredValue(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Removing an expired item updates the expired value")
+    public void testRemoveItem_updatesExpiredValue() {
+      clock.setDate(LocalDate.of(2024, 12, 6));
+      scheduler.tick();
+      foodStorage.removeItem("Milk", 1);
+      assertEquals(20.0, scheduler.getExpiredValue(), 0.001);
+      foodStorage.removeItem("Milk", 2);
+      assertTrue(scheduler.getExpiredItems().isEmpty());
+      assertEquals(0.0, scheduler.getExpiredValue(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Items used up before they expire are never reported")
+    public void testRemoveItem_usedUpItemIsNotExpired() {
+      foodStorage.removeItem("Egg", 12);
+      clock.setDate(LocalDate.of(2024, 12, 20));
+      assertEquals(1, scheduler.tick());
+      assertEquals("Milk", scheduler.getExpiredItems().getFirst().getNameItem());
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package edu.ntnu.idi.idatt.models;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -43,6 +44,14 @@ public class TestFoodStorage {
       assertEquals("Invalid item or quantity", exception.getMessage());
     }
 
+    @Test
+    @DisplayName("getValueExpiringWithin() throws IllegalArgumentException for negative days")
+    public void testGetValueExpiringWithin_throwsException_forNegativeDays() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> foodStorage.getValueExpiringWithin(-1));
+      assertEquals("Number of days cannot be negative", exception.getMessage());
+    }
+
     @Test
     @DisplayName("removeItem() returns error if there is not enough items in stock")
     public void testRemoveItem_returnsError_ifNotEnoughItems() {
@@ -81,6 +90,21 @@ public class TestFoodStorage {
       assertEquals(6, egg.getQuantityItem()); // 12 - 6 = 6
     }
 
+    @Test
+    @DisplayName("removeItem() uses the earliest items first and keeps the order of the other items")
+    public void testRemoveItem_usesEarliestItemsFirst() {
+      foodStorage.addItem(new Ingredient("Egg", 4, "pcs", 3.0, LocalDate.of(2024, 12, 18)));
+      foodStorage.addItem(new Ingredient("Egg", 2, "pcs", 2.0, LocalDate.of(2024, 12, 30)));
+      foodStorage.removeItem("egg", 6);
+
+      assertEquals(List.of(10.0, 2.0), foodStorage.searchItem("Egg").stream()
+          .map(Ingredient::getQuantityItem).toList());
+      assertEquals(List.of("Egg", "Milk", "Butter", "Egg"), foodStorage.getItems().stream()
+          .map(Ingredient::getNameItem).toList());
+      foodStorage.addItem(new Ingredient("Egg", 1, "pcs", 2.0, LocalDate.of(2024, 12, 30)));
+      assertEquals(3, foodStorage.searchItem("Egg").getLast().getQuantityItem());
+    }
+
     @Test
     @DisplayName("searchItem() returns the correct list of items")
     public void testSearchItem_returnsCorrectList() {
@@ -114,5 +138,84 @@ public class TestFoodStorage {
       assertEquals(expectedValue, totalValue,
           0.001); // Delta for å godkjenne avrundingsfeil opp til 0.001
     }
+
+    @Test
+    @DisplayName("getVersion() increases when the fridge is changed")
+    public void testGetVersion_increasesOnChange() {
+      long before = foodStorage.getVersion();
+      foodStorage.removeItem("Egg", 1);
+      assertTrue(foodStorage.getVersion() > before);
+    }
+
+    @Test
+    @DisplayName("getIngredientVersion() only changes for the ingredient that was changed")
+    public void testGetIngredientVersion_onlyChangesForChangedIngredient() {
+      long milk = foodStorage.getIngredientVersion("milk");
+      long egg = foodStorage.getIngredientVersion("Egg");
+      foodStorage.removeItem("Egg", 1);
+      assertEquals(milk, foodStorage.getIngredientVersion("Milk"));
+      assertNotEquals(egg, foodStorage.getIngredientVersion("Egg"));
+    }
+
+    @Test
+    @DisplayName("beforeDateCursor() returns the same items as getItemsBeforeDate(), page by page")
+    public void testBeforeDateCursor_returnsPagesInOrder() {
+      foodStorage.addItem(new Ingredient("Ham", 1, "pcs", 30.0, LocalDate.of(2024, 12, 20)));
+      ItemCursor cursor = foodStorage.beforeDateCursor(LocalDate.of(2024, 12, 31));
+      List<Ingredient> first = cursor.next(2);
+      List<Ingredient> rest = cursor.next(10);
+
+      List<Ingredient> all = foodStorage.getItemsBeforeDate(LocalDate.of(2024, 12, 31));
+      assertEquals(all.subList(0, 2), first);
+      assertEquals(all.subList(2, 4), rest);
+      assertTrue(!cursor.hasNext() && cursor.next(1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("a cursor continues after its position when the fridge is changed")
+    public void testSearchCursor_resumesAfterChange() {
+      foodStorage.addItem(new Ingredient("Egg", 6, "pcs", 2.5, LocalDate.of(2024, 12, 30)));
+      ItemCursor cursor = foodStorage.searchCursor("egg");
+      assertEquals(12, cursor.next(1).getFirst().getQuantityItem());
+
+      foodStorage.removeItem("Egg", 12); // Den første varen brukes opp
+      foodStorage.addItem(new Ingredient("Egg", 3, "pcs", 2.0, LocalDate.of(2024, 12, 31)));
+      assertEquals(List.of(30, 31), cursor.stream()
+          .map(item -> item.getBestBefore().getDayOfMonth()).toList());
+      assertEquals(foodStorage.getExpiredItems(), foodStorage.expiredCursor().stream().toList());
+    }
+
+    @Test
+    @DisplayName("getValueAtRisk() returns the value expiring within each horizon")
+    public void testGetValueAtRisk_returnsRiskCurve() {
+      MutableClock clock = new MutableClock(LocalDate.of(2024, 12, 15));
+      FoodStorage fridge = new FoodStorage(clock);
+      foodStorage.getItems().forEach(fridge::addItem);
+      fridge.addItem(new Ingredient("Ham", 1, "pcs", 30.0, LocalDate.of(2024, 12, 16)));
+      fridge.addItem(new Ingredient("Jam", 1, "pcs", 40.0, LocalDate.of(9999, 1, 1)));
+
+      // Smør er gått ut, skinke går ut i morgen, melk om 5 dager og egg om 9 dager
+      assertEquals(25, fridge.getExpiredValue(), 0.001);
+      assertEquals(List.of(1, 3, 7, 30), List.copyOf(fridge.getValueAtRisk().keySet()));
+      assertEquals(List.of(30.0, 30.0, 60.0, 84.0),
+          List.copyOf(fridge.getValueAtRisk().values()));
+
+      fridge.removeItem("Ham", 1);
+      fridge.removeItem("Milk", 1);
+      assertEquals(20, fridge.getValueExpiringWithin(7), 0.001);
+      assertEquals(84, fridge.getValueExpiringWithin(3_000_000), 0.001);
+
+      clock.setDate(LocalDate.of(2024, 12, 21));
+      assertEquals(45, fridge.getExpiredValue(), 0.001);
+      assertEquals(24, fridge.getValueExpiringWithin(3), 0.001);
+    }
+
+    @Test
+    @DisplayName("searchItem() does not return an outdated result after the item is changed")
+    public void testSearchItem_returnsUpdatedResult_afterChange() {
+      assertEquals(1, foodStorage.searchItem("Egg").size());
+      foodStorage.addItem(new Ingredient("Egg", 6, "pcs", 2.0, LocalDate.of(2024, 12, 30)));
+      assertEquals(2, foodStorage.searchItem("Egg").size());
+    }
   }
-}
\ No newline at end of file
+}
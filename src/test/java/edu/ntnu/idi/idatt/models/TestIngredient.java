@@ -66,6 +66,34 @@ public class TestIngredient {
       assertEquals("Quantity must be greater than zero", exception.getMessage());
     }
 
+    @ParameterizedTest
+    @ValueSource(doubles = {Double.NaN, Double.POSITIVE_INFINITY})
+    @DisplayName("Constructor throws IllegalArgumentExceptions on a quantity that is not finite")
+    public void testConstructor_throwsExceptions_onNonFiniteQuantity(double invalidQuantity) {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> new Ingredient("Egg", invalidQuantity, "pcs", 2, LocalDate.MAX));
+      assertEquals("Quantity must be a finite number", exception.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {Double.NaN, Double.NEGATIVE_INFINITY, -1})
+    @DisplayName("Constructor throws IllegalArgumentExceptions on a negative or non-finite price")
+    public void testConstructor_throwsExceptions_onInvalidPrice(double invalidPrice) {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> new Ingredient("Egg", 12, "pcs", invalidPrice, LocalDate.MAX));
+      assertEquals("Price must be a finite number and cannot be negative", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("setQuantityItem() throws IllegalArgumentException on a value that is not finite")
+    public void testSetQuantityItem_throwsException_onNonFiniteValue() {
+      assertThrows(IllegalArgumentException.class,
+          () -> ingredient.setQuantityItem(Double.NaN));
+      assertThrows(IllegalArgumentException.class,
+          () -> ingredient.setQuantityItem(Double.MAX_VALUE));
+      assertEquals(12, ingredient.getQuantityItem());
+    }
+
     @ParameterizedTest
     @NullSource
     @ValueSource(strings = {"", " "})
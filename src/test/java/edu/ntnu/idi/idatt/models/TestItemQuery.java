@@ -0,0 +1,150 @@
+package edu.ntnu.idi.idatt.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestItemQuery {
+
+  private static final LocalDate START = LocalDate.of(2024, 12, 1);
+
+  FoodStorage foodStorage;
+
+  @BeforeEach
+  public void setUp() {
+    foodStorage = new FoodStorage();
+    String[] names = {"Milk", "Milkshake", "Egg", "Butter", "Cheese", "Bread"};
+    for (int i = 0; i < 60; i++) {
+      foodStorage.addItem(new Ingredient(names[i % names.length], 1 + i % 7,
+          i % 2 == 0 ? "pcs" : "dL", 1 + i % 5, START.plusDays(i)));
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for ItemQuery, throws IllegalArgumentException on wrong input")
+  public class Negative {
+
+    @Test
+    @DisplayName("priceBetween() throws IllegalArgumentException if min is greater than max")
+    public void testPriceBetween_throwsException_forReversedRange() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> ItemQuery.all().priceBetween(5, 1));
+      assertEquals("The minimum cannot be greater than the maximum", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("bestBeforeBetween() throws IllegalArgumentException if from is after to")
+    public void testBestBeforeBetween_throwsException_forReversedDates() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> ItemQuery.all().bestBeforeBetween(START.plusDays(1), START));
+      assertEquals("The start date cannot be after the end date", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("limit() throws IllegalArgumentException if the limit is not positive")
+    public void testLimit_throwsException_forZero() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> ItemQuery.all().limit(0));
+      assertEquals("Limit must be greater than zero", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("query() throws IllegalArgumentException for a null query")
+    public void testQuery_throwsException_forNull() {
+      assertThrows(IllegalArgumentException.class, () -> foodStorage.query(null));
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for ItemQuery with valid input")
+  public class Positive {
+
+    @Test
+    @DisplayName("query() uses the name index for an exact name")
+    public void testQuery_usesNameIndex_forName() {
+      QueryResult result = foodStorage.query(ItemQuery.all().named("EGG").priceBetween(2, 3));
+
+      assertEquals(QueryPlan.AccessPath.NAME, result.plan().accessPath());
+      assertEquals(10, result.rowsScanned());
+      assertTrue(result.items().stream().allMatch(item -> item.getNameItem().equals("Egg")
+          && item.getPricePerUnit() >= 2 && item.getPricePerUnit() <= 3));
+      assertEquals(List.of("price 2.0 to 3.0"), result.plan().filters());
+    }
+
+    @Test
+    @DisplayName("query() uses the name index for a prefix, and reads every matching name")
+    public void testQuery_usesPrefix_forNameStart() {
+      QueryResult result = foodStorage.query(ItemQuery.all().nameStartsWith("milk"));
+
+      assertEquals(QueryPlan.AccessPath.NAME_PREFIX, result.plan().accessPath());
+      assertEquals(20, result.plan().estimatedRows());
+      assertEquals(20, result.items().size());
+    }
+
+    @Test
+    @DisplayName("query() uses the date index when the date range is more selective than the name")
+    public void testQuery_usesDateRange_whenNarrower() {
+      QueryResult result = foodStorage.query(ItemQuery.all()
+          .nameStartsWith("m")
+          .bestBeforeBetween(START, START));
+
+      assertEquals(QueryPlan.AccessPath.BEST_BEFORE_RANGE, result.plan().accessPath());
+      assertEquals(1, result.rowsScanned());
+      assertTrue(result.explain().startsWith("BEST_BEFORE_RANGE (estimated 1 rows)"));
+    }
+
+    @Test
+    @DisplayName("query() stops reading when the limit is reached")
+    public void testQuery_stopsAtLimit() {
+      QueryResult result = foodStorage.query(ItemQuery.all().limit(3));
+
+      assertEquals(QueryPlan.AccessPath.FULL_SCAN, result.plan().accessPath());
+      assertEquals(3, result.items().size());
+      assertEquals(3, result.rowsScanned());
+    }
+
+    @Test
+    @DisplayName("query() returns the same items as a full scan for random queries")
+    public void testQuery_matchesFullScan_forRandomQueries() {
+      Random random = new Random(45);
+      String[] prefixes = {"m", "milk", "e", "b", "x"};
+      for (int i = 0; i < 200; i++) {
+        ItemQuery query = ItemQuery.all();
+        if (random.nextBoolean()) {
+          query = query.nameStartsWith(prefixes[random.nextInt(prefixes.length)]);
+        }
+        if (random.nextInt(4) == 0) {
+          query = query.named("Milk");
+        }
+        if (random.nextBoolean()) {
+          LocalDate from = START.plusDays(random.nextInt(60));
+          query = query.bestBeforeBetween(from, from.plusDays(random.nextInt(10)));
+        }
+        if (random.nextBoolean()) {
+          query = query.unit("PCS").quantityBelow(1 + random.nextInt(7));
+        }
+        if (random.nextBoolean()) {
+          query = query.limit(1 + random.nextInt(10));
+        }
+        assertEquals(query.scan(foodStorage.getItems()).items(), foodStorage.query(query).items());
+      }
+    }
+
+    @Test
+    @DisplayName("query() does not return items that are used up")
+    public void testQuery_skipsRemovedItems() {
+      foodStorage.removeItem("Butter", 1000);
+
+      assertTrue(foodStorage.query(ItemQuery.all().named("butter")).items().isEmpty());
+      assertEquals(0, foodStorage.query(ItemQuery.all().named("butter")).plan().estimatedRows());
+    }
+  }
+}
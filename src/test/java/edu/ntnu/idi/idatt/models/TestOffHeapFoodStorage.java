@@ -0,0 +1,171 @@
+package edu.ntnu.idi.idatt.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestOffHeapFoodStorage {
+
+  MutableClock clock;
+  OffHeapFoodStorage foodStorage;
+
+  @BeforeEach
+  public void setUp() {
+    clock = new MutableClock(LocalDate.of(2024, 12, 15));
+    foodStorage = new OffHeapFoodStorage(clock);
+    foodStorage.addItem(new Ingredient("Egg", 12, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+    foodStorage.addItem(new Ingredient("Milk", 3, "dL", 10.0, LocalDate.of(2024, 12, 20)));
+    foodStorage.addItem(new Ingredient("Butter", 250, "grams", 0.1, LocalDate.of(2024, 12, 10)));
+  }
+
+  @AfterEach
+  public void tearDown() {
+    foodStorage.close();
+  }
+
+  @Nested
+  @DisplayName("Negative tests for the OffHeapFoodStorage")
+  public class Negative {
+
+    @Test
+    @DisplayName("addItem() throws IllegalArgumentException for invalid item or quantity")
+    public void testAddItem_throwsException_forInvalidItem() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> foodStorage.addItem(null));
+      assertEquals("Invalid item or quantity", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("addListener() is not supported")
+    public void testAddListener_throwsException() {
+      assertThrows(UnsupportedOperationException.class,
+          () -> foodStorage.addListener((item, before, after) -> { }));
+    }
+
+    @Test
+    @DisplayName("the fridge cannot be used after it is closed")
+    public void testClose_fridgeCannotBeUsed() {
+      foodStorage.close();
+      assertThrows(IllegalStateException.class, () -> foodStorage.calculateTotalValue());
+      foodStorage = new OffHeapFoodStorage(clock);
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for the OffHeapFoodStorage")
+  public class Positive {
+
+    @Test
+    @DisplayName("addItem() combines quantities for an item with the same name, date and price")
+    public void testAddItem_combinesQuantities() {
+      foodStorage.addItem(new Ingredient("egg", 5, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      List<Ingredient> eggs = foodStorage.searchItem("Egg");
+      assertEquals(1, eggs.size());
+      assertEquals(17, eggs.getFirst().getQuantityItem());
+      assertEquals("Egg", eggs.getFirst().getNameItem());
+    }
+
+    @Test
+    @DisplayName("queries read the records back with all fields")
+    public void testQueries_returnAllFields() {
+      assertEquals(List.of("Butter|250.0|grams|0.1|2024-12-10", "Milk|3.0|dL|10.0|2024-12-20"),
+          lots(foodStorage.getItemsBeforeDate(LocalDate.of(2024, 12, 20))));
+      assertEquals("Butter", foodStorage.getExpiredItems().getFirst().getNameItem());
+      assertEquals(12 * 2 + 3 * 10 + 250 * 0.1, foodStorage.calculateTotalValue(), 0.001);
+    }
+
+    @Test
+    @DisplayName("removeItem() gives the same message as FoodStorage")
+    public void testRemoveItem_sameMessageAsFoodStorage() {
+      FoodStorage reference = new FoodStorage();
+      foodStorage.getItems().forEach(reference::addItem);
+      foodStorage.addItem(new Ingredient("Egg", 4, "pcs", 2.5, LocalDate.of(2024, 12, 18)));
+      reference.addItem(new Ingredient("Egg", 4, "pcs", 2.5, LocalDate.of(2024, 12, 18)));
+
+      assertEquals(reference.removeItem("egg", 20), foodStorage.removeItem("egg", 20));
+      assertTrue(foodStorage.searchItem("Egg").isEmpty());
+      assertEquals(2, foodStorage.getItemCount());
+    }
+
+    @Test
+    @DisplayName("items moved when used-up records are removed can still be combined and removed")
+    public void testCompact_keepsItemsOfIngredients() {
+      foodStorage.addItem(new Ingredient("Egg", 4, "pcs", 2.5, LocalDate.of(2024, 12, 18)));
+      foodStorage.removeItem("Milk", 3);
+      foodStorage.removeItem("Butter", 250);
+      foodStorage.removeItem("Egg", 4);
+      foodStorage.addItem(new Ingredient("Egg", 3, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      assertEquals(1, foodStorage.getItemCount());
+      assertEquals(15, foodStorage.searchItem("egg").getFirst().getQuantityItem());
+      assertTrue(foodStorage.removeItem("Egg", 15).contains("Remaining in stock: 0.00"));
+      assertTrue(foodStorage.searchItem("Egg").isEmpty());
+    }
+
+    @Test
+    @DisplayName("getIngredientVersion() only changes for the ingredient that was changed")
+    public void testGetIngredientVersion_onlyChangesForChangedIngredient() {
+      long milk = foodStorage.getIngredientVersion("milk");
+      long version = foodStorage.getVersion();
+      foodStorage.removeItem("Egg", 1);
+      assertEquals(milk, foodStorage.getIngredientVersion("Milk"));
+      assertTrue(foodStorage.getIngredientVersion("Egg") > version);
+      assertEquals(0, foodStorage.getIngredientVersion("Cheese"));
+    }
+
+    @Test
+    @DisplayName("random operations give the same results as FoodStorage")
+    public void testRandomOperations_sameResultsAsFoodStorage() {
+      FoodStorage reference = new FoodStorage(clock);
+      foodStorage.getItems().forEach(reference::addItem);
+      Random random = new Random(42);
+      String[] names = {"Egg", "Milk", "Butter", "Cheese", "Ham"};
+      Comparator<Ingredient> order = Comparator.comparing(Ingredient::getNameItem)
+          .thenComparing(Ingredient::getBestBefore)
+          .thenComparing(Ingredient::getPricePerUnit);
+
+      for (int i = 0; i < 5000; i++) {
+        String name = names[random.nextInt(names.length)];
+        if (random.nextInt(3) > 0) {
+          Ingredient item = new Ingredient(name, 1 + random.nextInt(5), "pcs",
+              1 + random.nextInt(3), LocalDate.of(2024, 12, 1 + random.nextInt(30)));
+          assertEquals(reference.addItem(item), foodStorage.addItem(item));
+        } else {
+          double quantity = 1 + random.nextInt(10);
+          assertEquals(reference.removeItem(name, quantity), foodStorage.removeItem(name,
+              quantity));
+        }
+        assertEquals(lots(reference.searchItem(name)), lots(foodStorage.searchItem(name)));
+      }
+      assertEquals(lots(reference.getItems().stream().sorted(order).toList()),
+          lots(foodStorage.getItems().stream().sorted(order).toList()));
+      assertEquals(lots(reference.getItemsBeforeDate(LocalDate.of(2024, 12, 20))),
+          lots(foodStorage.getItemsBeforeDate(LocalDate.of(2024, 12, 20))));
+      assertEquals(lots(reference.getExpiredItems()), lots(foodStorage.getExpiredItems()));
+      assertEquals(reference.calculateTotalValue(), foodStorage.calculateTotalValue(), 1e-6);
+      assertEquals(reference.getExpiredValue(), foodStorage.getExpiredValue(), 1e-6);
+      reference.getValueAtRisk().forEach((days, value) ->
+          assertEquals(value, foodStorage.getValueExpiringWithin(days), 1e-6));
+    }
+  }
+
+  /**
+   * Describes every item by its name, quantity, unit, price and best-before date, since items are
+   * only equal to themselves.
+   */
+  private static List<String> lots(List<Ingredient> items) {
+    return items.stream()
+        .map(item -> item.getNameItem() + "|" + item.getQuantityItem() + "|" + item.getUnitItem()
+            + "|" + item.getPricePerUnit() + "|" + item.getBestBefore())
+        .toList();
+  }
+}
@@ -119,8 +119,13 @@ public class TestRecipe {
       assertEquals("Pannekake", recipe.getNameRecipe());
       assertEquals("Breakfast dish", recipe.getDescriptionRecipe());
       assertEquals("Pour batter in pan", recipe.getInstructionsRecipe());
-      assertEquals(ingredients, recipe.getIngredientsRecipe());
-      assertEquals(2, recipe.getIngredientsRecipe().size());
+      List<Ingredient> result = recipe.getIngredientsRecipe();
+      assertEquals(2, result.size());
+      for (int i = 0; i < ingredients.size(); i++) {
+        assertEquals(ingredients.get(i).getNameItem(), result.get(i).getNameItem());
+        assertEquals(ingredients.get(i).getQuantityItem(), result.get(i).getQuantityItem());
+        assertEquals(ingredients.get(i).getUnitItem(), result.get(i).getUnitItem());
+      }
     }
 
     @Test
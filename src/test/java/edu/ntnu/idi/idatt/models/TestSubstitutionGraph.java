@@ -0,0 +1,137 @@
+package edu.ntnu.idi.idatt.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestSubstitutionGraph {
+
+  SubstitutionGraph graph;
+
+  @BeforeEach
+  public void setUp() {
+    graph = new SubstitutionGraph();
+    graph.addSubstitute("Butter", "Margarine", 1.0);
+    graph.addSubstitute("Margarine", "Oil", 0.8);
+  }
+
+  @Nested
+  @DisplayName("Negative tests for SubstitutionGraph")
+  public class Negative {
+
+    @Test
+    @DisplayName("addSubstitute() throws IllegalArgumentException for a ratio that is not positive")
+    public void testAddSubstitute_throwsException_forInvalidRatio() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> graph.addSubstitute("Milk", "Oat milk", 0));
+      assertEquals("Ratio must be greater than zero", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("addSubstitute() throws IllegalArgumentException for the same ingredient")
+    public void testAddSubstitute_throwsException_forSameIngredient() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> graph.addSubstitute("Milk", "milk", 1));
+      assertEquals("An ingredient cannot be a substitute for itself", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("getRatio() is empty for an ingredient that is not a substitute")
+    public void testGetRatio_isEmpty_forNoSubstitute() {
+      assertEquals(OptionalDouble.empty(), graph.getRatio("Oil", "Butter"));
+      assertEquals(OptionalDouble.empty(), graph.getRatio("Unknown", "Butter"));
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for SubstitutionGraph")
+  public class Positive {
+
+    @Test
+    @DisplayName("getRatio() follows chains and multiplies the ratios")
+    public void testGetRatio_followsChains() {
+      assertEquals(0.8, graph.getRatio("butter", "OIL").orElseThrow(), 1e-9);
+      assertEquals(0.8, graph.getRatio("Margarine", "Oil").orElseThrow(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("getRatio() uses the chain with the fewest steps, and cycles end")
+    public void testGetRatio_usesShortestChain() {
+      graph.addSubstitute("Oil", "Butter", 1.25);
+      graph.addSubstitute("Butter", "Oil", 0.9);
+      assertEquals(0.9, graph.getRatio("Butter", "Oil").orElseThrow(), 1e-9);
+      assertEquals(1.25, graph.getRatio("Oil", "Margarine").orElseThrow(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("removeSubstitute() removes the chains through the substitute")
+    public void testRemoveSubstitute_removesChains() {
+      long version = graph.getVersion();
+      assertTrue(graph.removeSubstitute("Margarine", "Oil"));
+      assertFalse(graph.removeSubstitute("Margarine", "Oil"));
+      assertTrue(graph.getVersion() > version);
+      assertTrue(graph.getRatio("Butter", "Oil").isEmpty());
+      assertTrue(graph.getRatio("Butter", "Margarine").isPresent());
+    }
+
+    @Test
+    @DisplayName("snapshot() keeps the substitutes it was taken with after the graph changes")
+    public void testSnapshot_isNotChangedByLaterChanges() {
+      int butter = Requirements.ingredientId("Butter");
+      int oil = Requirements.ingredientId("Oil");
+      SubstitutionGraph.Snapshot before = graph.snapshot();
+      graph.removeSubstitute("Margarine", "Oil");
+      assertTrue(before.substitutesOf(butter).get(oil));
+      assertEquals(0.8, before.ratio(butter, oil), 1e-9);
+      assertFalse(graph.snapshot().substitutesOf(butter).get(oil));
+      assertEquals(before.version() + 1, graph.getVersion());
+    }
+
+    @Test
+    @DisplayName("The graph can be read from several threads while it is changed")
+    public void testSnapshot_canBeReadWhileChanged() throws Exception {
+      int butter = Requirements.ingredientId("Butter");
+      int oil = Requirements.ingredientId("Oil");
+      AtomicBoolean done = new AtomicBoolean();
+      ExecutorService readers = Executors.newFixedThreadPool(4);
+      List<Future<Integer>> reads = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        reads.add(readers.submit(() -> {
+          int count = 0;
+          do {
+            SubstitutionGraph.Snapshot snapshot = graph.snapshot();
+            // Substituttene og forholdstallene må alltid komme fra samme versjon
+            if (snapshot.substitutesOf(butter).get(oil)) {
+              assertEquals(0.8, snapshot.ratio(butter, oil), 1e-9);
+            }
+            graph.getRatio("Butter", "Oil");
+            count++;
+          } while (!done.get());
+          return count;
+        }));
+      }
+      for (int i = 0; i < 2000; i++) {
+        graph.removeSubstitute("Margarine", "Oil");
+        graph.addSubstitute("Margarine", "Oil", 0.8);
+      }
+      done.set(true);
+      for (Future<Integer> read : reads) {
+        assertTrue(read.get() > 0);
+      }
+      readers.shutdown();
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package edu.ntnu.idi.idatt.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.Recipe;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestFlightRecorderEvents {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  @DisplayName("Fridge and cookbook operations are written as flight recorder events")
+  public void testOperations_emitEventsDuringRecording() throws Exception {
+    FoodStorage fridge = new FoodStorage();
+    CookBook cookBook = new CookBook();
+    Path file = tempDir.resolve("operations.jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable(FoodStorageEvent.class);
+      recording.enable(CookBookEvent.class);
+      recording.start();
+      fridge.addItem(new Ingredient("Egg", 12, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      fridge.addItem(new Ingredient("Milk", 3, "dL", 10.0, LocalDate.of(2024, 12, 20)));
+      fridge.searchItem("Milk");
+      cookBook.addRecipe(new Recipe("Omelette", "Eggs", "Fry",
+          List.of(new Ingredient("Egg", 3, "pcs", 0.0, LocalDate.MAX)), 1));
+      cookBook.suggestRecipe(fridge);
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    RecordedEvent search = events.stream()
+        .filter(event -> "searchItem".equals(event.getString("operation")))
+        .findFirst().orElseThrow();
+    assertEquals("Milk", search.getString("ingredient"));
+    assertEquals(1, search.getInt("lotsScanned")); // Bare melken leses fra navneindeksen
+    assertEquals(1, search.getInt("resultSize"));
+
+    RecordedEvent suggest = events.stream()
+        .filter(event -> "suggestRecipe".equals(event.getString("operation")))
+        .findFirst().orElseThrow();
+    assertEquals(1, suggest.getInt("resultSize"));
+    assertTrue(suggest.getInt("lotsScanned") > 0);
+    assertTrue(Files.size(file) > 0);
+  }
+}
@@ -0,0 +1,172 @@
+package edu.ntnu.idi.idatt.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.ItemQuery;
+import edu.ntnu.idi.idatt.models.Recipe;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.List;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestOperationMetrics {
+
+  FoodStorage foodStorage;
+  OperationStats addItem;
+
+  @BeforeEach
+  public void setUp() {
+    foodStorage = new InstrumentedFoodStorage();
+    addItem = OperationMetrics.get("FoodStorage", "addItem");
+    addItem.reset();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    OperationMetrics.setEnabled(true);
+  }
+
+  @Nested
+  @DisplayName("Negative tests for the operation metrics")
+  public class Negative {
+
+    @Test
+    @DisplayName("A call that throws an exception is counted as an error")
+    public void testAddItem_countsError() {
+      assertThrows(IllegalArgumentException.class, () -> foodStorage.addItem(null));
+      assertEquals(1, addItem.getCalls());
+      assertEquals(1, addItem.getErrors());
+    }
+
+    @Test
+    @DisplayName("Nothing is recorded when recording is switched off")
+    public void testAddItem_recordsNothing_whenDisabled() {
+      OperationMetrics.setEnabled(false);
+      foodStorage.addItem(new Ingredient("Egg", 12, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      assertEquals(0, addItem.getCalls());
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for the operation metrics")
+  public class Positive {
+
+    @Test
+    @DisplayName("Calls to an instrumented fridge are counted and published as MBeans")
+    public void testAddItem_recordsCallAndPublishesMBean() throws Exception {
+      foodStorage.addItem(new Ingredient("Egg", 12, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      assertEquals(1, addItem.getCalls());
+      assertEquals(1, addItem.getItems());
+      assertTrue(addItem.getP50Nanos() > 0);
+      Object calls = ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(
+          "edu.ntnu.idi.idatt:type=Operation,component=\"FoodStorage\",name=\"addItem\""),
+          "Calls");
+      assertEquals(1L, calls);
+    }
+
+    @Test
+    @DisplayName("Cursors of an instrumented fridge are counted")
+    public void testCursors_areRecorded() {
+      OperationStats searchCursor = OperationMetrics.get("FoodStorage", "searchCursor");
+      OperationStats beforeDateCursor = OperationMetrics.get("FoodStorage", "beforeDateCursor");
+      OperationStats expiredCursor = OperationMetrics.get("FoodStorage", "expiredCursor");
+      searchCursor.reset();
+      beforeDateCursor.reset();
+      expiredCursor.reset();
+      foodStorage.searchCursor("Egg");
+      foodStorage.beforeDateCursor(LocalDate.of(2024, 12, 24));
+      foodStorage.expiredCursor();
+      assertEquals(1, searchCursor.getCalls());
+      assertEquals(1, beforeDateCursor.getCalls());
+      assertEquals(1, expiredCursor.getCalls());
+    }
+
+    @Test
+    @DisplayName("Queries of an instrumented fridge are counted with the items they return")
+    public void testQuery_isRecorded() {
+      OperationStats query = OperationMetrics.get("FoodStorage", "query");
+      query.reset();
+      foodStorage.addItem(new Ingredient("Egg", 12, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      foodStorage.query(ItemQuery.all().named("Egg"));
+      assertEquals(1, query.getCalls());
+      assertEquals(1, query.getItems());
+    }
+
+    @Test
+    @DisplayName("The value reports of an instrumented fridge are counted")
+    public void testValueReports_areRecorded() {
+      OperationStats expiredValue = OperationMetrics.get("FoodStorage", "getExpiredValue");
+      OperationStats valueAtRisk = OperationMetrics.get("FoodStorage", "getValueAtRisk");
+      OperationStats valueWithin = OperationMetrics.get("FoodStorage", "getValueExpiringWithin");
+      expiredValue.reset();
+      valueAtRisk.reset();
+      valueWithin.reset();
+      foodStorage.getExpiredValue();
+      foodStorage.getValueAtRisk();
+      assertEquals(1, expiredValue.getCalls());
+      assertEquals(1, valueAtRisk.getCalls());
+      assertEquals(0, valueWithin.getCalls());
+      assertThrows(IllegalArgumentException.class, () -> foodStorage.getValueExpiringWithin(-1));
+      assertEquals(1, valueWithin.getCalls());
+      assertEquals(1, valueWithin.getErrors());
+    }
+
+    @Test
+    @DisplayName("A cookbook reading an instrumented fridge is recorded once")
+    public void testCookBook_doesNotRecordNestedFridgeCalls() {
+      OperationStats getItems = OperationMetrics.get("FoodStorage", "getItems");
+      OperationStats searchItem = OperationMetrics.get("FoodStorage", "searchItem");
+      OperationStats suggestRecipe = OperationMetrics.get("CookBook", "suggestRecipe");
+      OperationStats costAllRecipes = OperationMetrics.get("CookBook", "costAllRecipes");
+      getItems.reset();
+      searchItem.reset();
+      suggestRecipe.reset();
+      costAllRecipes.reset();
+      CookBook cookBook = new InstrumentedCookBook();
+      cookBook.addRecipe(new Recipe("Omelette", "Eggs", "Fry",
+          List.of(new Ingredient("Egg", 3, "pcs", 0.0, LocalDate.MAX)), 1));
+      foodStorage.addItem(new Ingredient("Egg", 12, "pcs", 2.0, LocalDate.of(2024, 12, 24)));
+      cookBook.suggestRecipe(foodStorage);
+      cookBook.costAllRecipes(foodStorage);
+      assertEquals(1, suggestRecipe.getCalls());
+      assertEquals(1, costAllRecipes.getCalls());
+      assertEquals(0, getItems.getCalls());
+      assertEquals(0, searchItem.getCalls());
+      foodStorage.getItems();
+      assertEquals(1, getItems.getCalls());
+    }
+
+    @Test
+    @DisplayName("The histogram reports percentiles within 3 percent")
+    public void testHistogram_reportsAccuratePercentiles() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      for (long value = 1; value <= 100_000; value++) {
+        histogram.record(value * 1000);
+      }
+      assertEquals(100_000, histogram.getCount());
+      assertEquals(50_000_000, histogram.getPercentile(50), 50_000_000 * 0.03);
+      assertEquals(99_000_000, histogram.getPercentile(99), 99_000_000 * 0.03);
+      assertEquals(99_900_000, histogram.getPercentile(99.9), 99_900_000 * 0.03);
+    }
+
+    @Test
+    @DisplayName("Every value is placed in a bucket whose highest value is at least the value")
+    public void testHistogram_bucketsContainTheirValues() {
+      for (long value : new long[] {0, 31, 32, 63, 64, 1000, 123_456_789, Long.MAX_VALUE}) {
+        int index = LatencyHistogram.indexOf(value);
+        assertTrue(LatencyHistogram.highestValueIn(index) >= value);
+        assertTrue(index == 0 || LatencyHistogram.highestValueIn(index - 1) < value);
+      }
+    }
+  }
+}
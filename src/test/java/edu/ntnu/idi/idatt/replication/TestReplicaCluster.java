@@ -0,0 +1,182 @@
+package edu.ntnu.idi.idatt.replication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.MutableClock;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestReplicaCluster {
+
+  static final LocalDate DATE = LocalDate.of(2024, 12, 20);
+
+  MutableClock clock;
+  ReplicaCluster cluster;
+  ReplicatedFoodStorage phone;
+  ReplicatedFoodStorage tablet;
+
+  @BeforeEach
+  public void setUp() {
+    clock = new MutableClock(LocalDate.of(2024, 12, 15));
+    cluster = new ReplicaCluster(2, 0.0, 42, clock);
+    phone = cluster.getReplica(0);
+    tablet = cluster.getReplica(1);
+  }
+
+  @Nested
+  @DisplayName("Negative tests for the replicated fridge")
+  public class Negative {
+
+    @Test
+    @DisplayName("a cluster needs at least two replicas")
+    public void testConstructor_throwsException_forOneReplica() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> new ReplicaCluster(1, 0.0, 42, clock));
+      assertEquals("A cluster must have at least two replicas", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("the loss rate must be less than 1")
+    public void testConstructor_throwsException_forInvalidLossRate() {
+      assertThrows(IllegalArgumentException.class, () -> new ReplicaCluster(2, 1.0, 42, clock));
+    }
+
+    @Test
+    @DisplayName("addItem() throws IllegalArgumentException for invalid item or quantity")
+    public void testAddItem_throwsException_forInvalidItem() {
+      assertThrows(IllegalArgumentException.class, () -> phone.addItem(null));
+    }
+
+    @Test
+    @DisplayName("changes are not seen by other replicas before a round")
+    public void testAddItem_notSeenBeforeRound() {
+      phone.addItem(new Ingredient("Milk", 3, "dL", 10.0, DATE));
+      assertTrue(tablet.getItems().isEmpty());
+      assertEquals(1, phone.getUnacknowledgedCount());
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for the replicated fridge")
+  public class Positive {
+
+    @Test
+    @DisplayName("concurrent adds to the same lot are summed")
+    public void testAddItem_concurrentAddsAreSummed() {
+      phone.addItem(new Ingredient("Milk", 3, "dL", 10.0, DATE));
+      tablet.addItem(new Ingredient("milk", 2, "dL", 10.0, DATE));
+      assertEquals(1, cluster.syncUntilConverged(10));
+
+      for (ReplicatedFoodStorage replica : cluster.getReplicas()) {
+        assertEquals(List.of("Milk|5.0|dL|10.0|" + DATE), lots(replica.getItems()));
+        assertEquals(0, replica.getUnacknowledgedCount());
+      }
+    }
+
+    @Test
+    @DisplayName("an add wins over a concurrent remove that used up the lot")
+    public void testAddItem_winsOverConcurrentRemove() {
+      phone.addItem(new Ingredient("Milk", 3, "dL", 10.0, DATE));
+      cluster.syncUntilConverged(10);
+
+      phone.removeItem("Milk", 3);
+      tablet.addItem(new Ingredient("Milk", 2, "dL", 10.0, DATE));
+      cluster.syncUntilConverged(10);
+
+      assertTrue(cluster.isConverged());
+      assertEquals(2, phone.searchItem("Milk").getFirst().getQuantityItem());
+    }
+
+    @Test
+    @DisplayName("concurrent removes of the same quantity use up the lot once")
+    public void testRemoveItem_concurrentRemovesUseUpLotOnce() {
+      phone.addItem(new Ingredient("Milk", 3, "dL", 10.0, DATE));
+      cluster.syncUntilConverged(10);
+
+      phone.removeItem("Milk", 3);
+      tablet.removeItem("Milk", 3);
+      cluster.syncUntilConverged(10);
+      assertTrue(phone.getItems().isEmpty());
+
+      // En ny vare får akkurat den mengden som legges til
+      tablet.addItem(new Ingredient("Milk", 1, "dL", 10.0, DATE));
+      cluster.syncUntilConverged(10);
+      assertEquals(1, phone.searchItem("Milk").getFirst().getQuantityItem());
+    }
+
+    @Test
+    @DisplayName("removeItem() gives the same message as FoodStorage")
+    public void testRemoveItem_sameMessageAsFoodStorage() {
+      phone.addItem(new Ingredient("Egg", 12, "pcs", 2.0, DATE));
+      phone.addItem(new Ingredient("Egg", 4, "pcs", 2.0, DATE.minusDays(5)));
+      String result = phone.removeItem("egg", 20);
+      assertTrue(result.startsWith(String.format(
+          "%.2f pcs of Egg with best before %s is removed. Remaining in stock: %.2f\n",
+          4.0, DATE.minusDays(5), 0.0)));
+      assertTrue(result.endsWith(String.format(
+          "Not enough egg in stock to remove %.2f. Stock in fridge: %.2f.", 20.0, 4.0)));
+    }
+
+    @Test
+    @DisplayName("a replica that connects later is sent the whole state")
+    public void testSync_newPeerGetsWholeState() {
+      ReplicatedFoodStorage laptop = new ReplicatedFoodStorage("laptop", clock);
+      phone.addItem(new Ingredient("Milk", 3, "dL", 10.0, DATE));
+      cluster.syncUntilConverged(10);
+      assertEquals(0, phone.getUnacknowledgedCount());
+
+      phone.connect("laptop");
+      laptop.receive(phone.prepareDelta("laptop"));
+      assertEquals(lots(phone.getItems()), lots(laptop.getItems()));
+    }
+
+    @Test
+    @DisplayName("random operations on four replicas converge over a lossy channel")
+    public void testRandomOperations_convergeOverLossyChannel() {
+      ReplicaCluster lossy = new ReplicaCluster(4, 0.3, 7, clock);
+      Random random = new Random(42);
+      String[] names = {"Egg", "Milk", "Butter", "Cheese"};
+
+      for (int i = 1; i <= 2000; i++) {
+        ReplicatedFoodStorage replica = lossy.getReplica(random.nextInt(4));
+        String name = names[random.nextInt(names.length)];
+        if (random.nextInt(3) > 0) {
+          replica.addItem(new Ingredient(name, 1 + random.nextInt(5), "pcs",
+              1 + random.nextInt(2), DATE.plusDays(random.nextInt(10))));
+        } else {
+          replica.removeItem(name, 1 + random.nextInt(8));
+        }
+        if (i % 25 == 0) {
+          lossy.syncRound();
+        }
+      }
+
+      assertTrue(lossy.syncUntilConverged(100) >= 0);
+      assertTrue(lossy.isConverged());
+      assertTrue(lossy.getMessagesLost() > 0);
+      double value = lossy.getReplica(0).calculateTotalValue();
+      for (ReplicatedFoodStorage replica : lossy.getReplicas()) {
+        assertEquals(value, replica.calculateTotalValue());
+      }
+    }
+  }
+
+  /**
+   * Describes every item by its name, quantity, unit, price and best-before date, since items are
+   * only equal to themselves.
+   */
+  private static List<String> lots(List<Ingredient> items) {
+    return items.stream()
+        .map(item -> item.getNameItem() + "|" + item.getQuantityItem() + "|" + item.getUnitItem()
+            + "|" + item.getPricePerUnit() + "|" + item.getBestBefore())
+        .toList();
+  }
+}
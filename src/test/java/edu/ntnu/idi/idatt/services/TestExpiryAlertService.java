@@ -0,0 +1,194 @@
+package edu.ntnu.idi.idatt.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestExpiryAlertService {
+
+  static final LocalDate TODAY = LocalDate.of(2024, 12, 1);
+
+  Clock clock;
+  InMemoryAlertSink sink;
+  ExpiryAlertService service;
+  FoodStorage fridge;
+
+  @BeforeEach
+  public void setUp() {
+    clock = Clock.fixed(TODAY.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+    sink = new InMemoryAlertSink();
+    service = new ExpiryAlertService(clock, List.of(1, 3, 7), 100, List.of(sink));
+    fridge = new FoodStorage(clock);
+    fridge.addItem(new Ingredient("Milk", 3, "dL", 10.0, TODAY.plusDays(2)));
+    fridge.addItem(new Ingredient("Egg", 12, "pcs", 2.0, TODAY.plusDays(6)));
+    fridge.addItem(new Ingredient("Flour", 1000, "grams", 0.03, TODAY.plusDays(60)));
+    service.register("home", fridge);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    service.close();
+  }
+
+  @Nested
+  @DisplayName("Negative tests for ExpiryAlertService")
+  public class Negative {
+
+    @Test
+    @DisplayName("Constructor throws IllegalArgumentException without thresholds")
+    public void testConstructor_throwsException_withoutThresholds() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> new ExpiryAlertService(clock, List.of(), 100, List.of(sink)));
+      assertEquals("There must be at least one threshold", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("register() throws IllegalArgumentException for a household already registered")
+    public void testRegister_throwsException_forDuplicateHousehold() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> service.register("home", new FoodStorage()));
+      assertEquals("The household 'home' is already registered.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("runOnce() delivers the alerts of other fridges when one check fails")
+    public void testRunOnce_deliversOtherAlerts_whenCheckFails() throws InterruptedException {
+      AtomicBoolean failed = new AtomicBoolean();
+      FoodStorage broken = new FoodStorage(clock) {
+        @Override
+        public List<Ingredient> getItemsBeforeDate(LocalDate date) {
+          if (failed.compareAndSet(false, true)) {
+            throw new IllegalStateException("Disk is full");
+          }
+          return super.getItemsBeforeDate(date);
+        }
+      };
+      broken.addItem(new Ingredient("Cream", 2, "dL", 15.0, TODAY.plusDays(1)));
+      service.register("broken", broken);
+
+      IllegalStateException exception = assertThrows(IllegalStateException.class,
+          service::runOnce);
+      assertEquals("Disk is full", exception.getCause().getCause().getMessage());
+      assertEquals(2, sink.drain().size());
+      assertEquals(1, service.runOnce());
+      assertEquals("Cream", sink.drain().getFirst().items().getFirst().name());
+    }
+
+    @Test
+    @DisplayName("start() keeps running after a failed round, and keeps the failure")
+    public void testStart_keepsRunning_afterFailure() throws InterruptedException {
+      AtomicBoolean failed = new AtomicBoolean();
+      ExpiryAlertService failing = new ExpiryAlertService(clock, List.of(1, 3, 7), 100, List.of(
+          alerts -> {
+            if (failed.compareAndSet(false, true)) {
+              throw new IllegalStateException("Sink is down");
+            }
+          }, sink));
+      ReentrantLock lock = new ReentrantLock();
+      failing.register("home", fridge, lock);
+      try {
+        failing.start(Duration.ofMillis(10));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (failing.getLastFailure() == null && System.nanoTime() < deadline) {
+          Thread.sleep(10);
+        }
+        assertEquals("Sink is down", failing.getLastFailure().getCause().getMessage());
+        assertEquals(2, sink.drain().size());
+
+        lock.lock();
+        try {
+          fridge.addItem(new Ingredient("Butter", 250, "grams", 0.1, TODAY));
+        } finally {
+          lock.unlock();
+        }
+        ExpiryAlert alert = sink.poll(5, TimeUnit.SECONDS);
+        assertEquals("Butter", alert.items().getFirst().name());
+      } finally {
+        failing.close();
+      }
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for ExpiryAlertService")
+  public class Positive {
+
+    @Test
+    @DisplayName("runOnce() reports items by the smallest threshold they are within")
+    public void testRunOnce_reportsItemsBySmallestThreshold() throws InterruptedException {
+      assertEquals(2, service.runOnce());
+      List<ExpiryAlert> alerts = sink.drain();
+      assertEquals(3, alerts.get(0).thresholdDays());
+      assertEquals("Milk", alerts.get(0).items().getFirst().name());
+      assertEquals(7, alerts.get(1).thresholdDays());
+      assertEquals("Egg", alerts.get(1).items().getFirst().name());
+    }
+
+    @Test
+    @DisplayName("runOnce() does not report the same item twice for the same threshold")
+    public void testRunOnce_doesNotRepeatAlerts() throws InterruptedException {
+      service.runOnce();
+      sink.drain();
+      fridge.addItem(new Ingredient("Butter", 250, "grams", 0.1, TODAY));
+      assertEquals(1, service.runOnce());
+      ExpiryAlert alert = sink.drain().getFirst();
+      assertEquals(1, alert.thresholdDays());
+      assertEquals(1, alert.items().size());
+      assertEquals("Butter", alert.items().getFirst().name());
+    }
+
+    @Test
+    @DisplayName("register() returns the lock the checks hold while reading the fridge")
+    public void testRegister_returnsLockOfFridge() throws Exception {
+      FoodStorage other = new FoodStorage(clock);
+      other.addItem(new Ingredient("Milk", 1, "dL", 10.0, TODAY.plusDays(1)));
+      Lock lock = service.register("other", other);
+      CompletableFuture<Integer> round;
+      lock.lock();
+      try {
+        round = CompletableFuture.supplyAsync(() -> {
+          try {
+            return service.runOnce();
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+        });
+        Thread.sleep(100);
+        assertFalse(round.isDone());
+      } finally {
+        lock.unlock();
+      }
+      assertEquals(3, round.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("runOnce() checks many fridges in one round")
+    public void testRunOnce_checksManyFridges() throws InterruptedException {
+      for (int i = 0; i < 1000; i++) {
+        FoodStorage other = new FoodStorage(clock);
+        other.addItem(new Ingredient("Milk", 1, "dL", 10.0, TODAY.plusDays(1)));
+        service.register("house-" + i, other);
+      }
+      assertEquals(1002, service.runOnce());
+      assertEquals(1002, sink.size());
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package edu.ntnu.idi.idatt.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.Recipe;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestHouseholdRegistry {
+
+  static final LocalDate TODAY = LocalDate.of(2024, 12, 1);
+
+  HouseholdRegistry registry;
+
+  @BeforeEach
+  public void setUp() {
+    Clock clock = Clock.fixed(TODAY.atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+    CookBook catalog = new CookBook();
+    catalog.addRecipe(milkshake("Milkshake"));
+    registry = new HouseholdRegistry(4, catalog, clock);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    registry.close();
+  }
+
+  private static Recipe milkshake(String name) {
+    return new Recipe(name, "Cold milk", "Shake it",
+        List.of(new Ingredient("Milk", 2, "dL", 0.0, LocalDate.MAX)), 1);
+  }
+
+  @Nested
+  @DisplayName("Negative tests for HouseholdRegistry")
+  public class Negative {
+
+    @Test
+    @DisplayName("register() fails when the household is already registered")
+    public void testRegister_fails_onDuplicate() {
+      registry.register("home").join();
+      ExecutionException exception = assertThrows(ExecutionException.class,
+          () -> registry.register("home").get());
+      assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+      assertEquals("The household 'home' is already registered.",
+          exception.getCause().getMessage());
+    }
+
+    @Test
+    @DisplayName("execute() fails for a household that is not registered")
+    public void testExecute_fails_onUnknownHousehold() {
+      ExecutionException exception = assertThrows(ExecutionException.class,
+          () -> registry.execute("cabin", Household::getId).get());
+      assertEquals("The household 'cabin' is not registered.", exception.getCause().getMessage());
+    }
+
+    @Test
+    @DisplayName("Constructor throws IllegalArgumentException on zero shards")
+    public void testConstructor_throwsException_onZeroShards() {
+      assertThrows(IllegalArgumentException.class,
+          () -> new HouseholdRegistry(0, new CookBook(), Clock.systemUTC()));
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for HouseholdRegistry")
+  public class Positive {
+
+    @Test
+    @DisplayName("getTotalExpiredValue() sums the expired items of all households")
+    public void testGetTotalExpiredValue_sumsAllHouseholds() {
+      List<CompletableFuture<String>> adds = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        String id = "home-" + i;
+        registry.register(id);
+        adds.add(registry.execute(id, household -> household.getFoodStorage().addItem(
+            new Ingredient("Milk", 1, "dL", 10.0, TODAY.minusDays(1)))));
+        adds.add(registry.execute(id, household -> household.getFoodStorage().addItem(
+            new Ingredient("Egg", 6, "pcs", 2.0, TODAY.plusDays(5)))));
+      }
+      adds.forEach(CompletableFuture::join);
+      assertEquals(100, registry.getHouseholdCount().join());
+      assertEquals(1000.0, registry.getTotalExpiredValue().join(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Households see the shared catalog and their own private recipes only")
+    public void testSuggestRecipes_usesCatalogAndPrivateRecipes() {
+      registry.register("home").join();
+      registry.register("cabin").join();
+      registry.execute("home", household -> {
+        household.getFoodStorage().addItem(
+            new Ingredient("Milk", 3, "dL", 10.0, TODAY.plusDays(5)));
+        return household.getPrivateRecipes().addRecipe(milkshake("Family shake"));
+      }).join();
+      registry.execute("cabin", household -> household.getFoodStorage().addItem(
+          new Ingredient("Milk", 3, "dL", 10.0, TODAY.plusDays(5)))).join();
+
+      assertEquals(List.of("Family shake", "Milkshake"),
+          registry.execute("home", Household::suggestRecipes).join());
+      assertEquals(List.of("Milkshake"),
+          registry.execute("cabin", Household::suggestRecipes).join());
+    }
+
+    @Test
+    @DisplayName("updateCatalog() makes new shared recipes available to every household")
+    public void testUpdateCatalog_addsSharedRecipe() {
+      registry.register("home").join();
+      registry.updateCatalog(catalog -> catalog.addRecipe(milkshake("Hot milk")));
+      String result = registry.execute("home",
+          household -> household.canMakeRecipe("Hot milk")).join();
+      assertTrue(result.startsWith("You do not have all the ingredients to make Hot milk"));
+    }
+
+    @Test
+    @DisplayName("Households on every shard can read the catalog while it is changed")
+    public void testCatalogReads_duringCatalogChanges() {
+      List<String> ids = new ArrayList<>();
+      for (int i = 0; i < 40; i++) {
+        String id = "home-" + i;
+        ids.add(id);
+        registry.register(id);
+        registry.execute(id, household -> household.getFoodStorage().addItem(
+            new Ingredient("Oat milk", 3, "dL", 10.0, TODAY.plusDays(5))));
+      }
+
+      List<CompletableFuture<String>> checks = new ArrayList<>();
+      List<CompletableFuture<List<String>>> suggestions = new ArrayList<>();
+      for (int round = 0; round < 100; round++) {
+        for (String id : ids) {
+          checks.add(registry.execute(id, household -> household.canMakeRecipe("Milkshake")));
+          suggestions.add(registry.execute(id, Household::suggestRecipes));
+        }
+        // Annenhver runde kan havremelk brukes, og da finnes det også en ekstra oppskrift
+        String shake = "Shake " + (round / 2);
+        boolean add = round % 2 == 0;
+        registry.updateCatalog(catalog -> {
+          if (add) {
+            catalog.getSubstitutions().addSubstitute("Milk", "Oat milk", 1.0);
+            catalog.addRecipe(milkshake(shake));
+          } else {
+            catalog.getSubstitutions().removeSubstitute("Milk", "Oat milk");
+            catalog.removeRecipe(shake);
+          }
+        });
+      }
+
+      for (CompletableFuture<String> check : checks) {
+        assertTrue(check.join().contains("ingredients to make Milkshake"));
+      }
+      for (CompletableFuture<List<String>> suggestion : suggestions) {
+        List<String> names = suggestion.join();
+        assertTrue(names.isEmpty() || names.size() == 2 && names.getFirst().equals("Milkshake"),
+            names::toString);
+      }
+      for (String id : ids) {
+        assertTrue(registry.execute(id, household -> household.canMakeRecipe("Milkshake")).join()
+            .startsWith("You do not have"));
+        assertEquals(List.of(), registry.execute(id, Household::suggestRecipes).join());
+      }
+    }
+  }
+}
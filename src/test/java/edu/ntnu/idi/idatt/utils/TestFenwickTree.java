@@ -0,0 +1,73 @@
+package edu.ntnu.idi.idatt.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestFenwickTree {
+
+  @Nested
+  @DisplayName("Negative tests for FenwickTree")
+  public class Negative {
+
+    @Test
+    @DisplayName("Constructor throws IllegalArgumentException on negative size")
+    public void testConstructor_throwsException_onNegativeSize() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> new FenwickTree(-1));
+      assertEquals("Size cannot be negative", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("add() throws IndexOutOfBoundsException outside the tree")
+    public void testAdd_throwsException_outsideTree() {
+      FenwickTree tree = new FenwickTree(4);
+      assertThrows(IndexOutOfBoundsException.class, () -> tree.add(4, 1));
+      assertThrows(IndexOutOfBoundsException.class, () -> tree.prefixSum(-2));
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for FenwickTree")
+  public class Positive {
+
+    @Test
+    @DisplayName("sum() gives the same sums as adding the values one by one")
+    public void testSum_matchesNaiveSums() {
+      Random random = new Random(46);
+      double[] values = new double[100];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = random.nextInt(50);
+      }
+      FenwickTree tree = new FenwickTree(values);
+      for (int i = 0; i < 1000; i++) {
+        int index = random.nextInt(values.length);
+        double delta = random.nextInt(21) - 10;
+        values[index] += delta;
+        tree.add(index, delta);
+
+        int from = random.nextInt(values.length);
+        int to = random.nextInt(values.length);
+        double expected = 0;
+        for (int j = from; j <= to; j++) {
+          expected += values[j];
+        }
+        assertEquals(expected, tree.sum(from, to), 1e-9);
+      }
+      assertEquals(values[7], tree.get(7), 1e-9);
+    }
+
+    @Test
+    @DisplayName("prefixSum() of -1 is zero")
+    public void testPrefixSum_isZeroBeforeStart() {
+      FenwickTree tree = new FenwickTree(new double[] {1, 2, 3});
+      assertEquals(0, tree.prefixSum(-1));
+      assertEquals(6, tree.prefixSum(2));
+      assertEquals(3, tree.size());
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package edu.ntnu.idi.idatt.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestQueryCache {
+
+  QueryCache<String, String> cache;
+  AtomicInteger loads;
+
+  @BeforeEach
+  public void setUp() {
+    cache = new QueryCache<>(2);
+    loads = new AtomicInteger();
+  }
+
+  private String load(String value) {
+    loads.incrementAndGet();
+    return value;
+  }
+
+  @Nested
+  @DisplayName("Negative tests for QueryCache")
+  public class Negative {
+
+    @Test
+    @DisplayName("Constructor throws IllegalArgumentException on zero capacity")
+    public void testConstructor_throwsException_onZeroCapacity() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> new QueryCache<String, String>(0));
+      assertEquals("Capacity must be greater than zero", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("get() throws IllegalArgumentException on a null stamp")
+    public void testGet_throwsException_onNullStamp() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> cache.get("milk", (Object) null, () -> load("a")));
+      assertEquals("Stamp cannot be null", exception.getMessage());
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for QueryCache")
+  public class Positive {
+
+    @Test
+    @DisplayName("get() serves a repeated query from the cache while the version is unchanged")
+    public void testGet_servesCachedResult_forSameVersion() {
+      cache.get("milk", 1, () -> load("a"));
+      String result = cache.get("milk", 1, () -> load("b"));
+      assertEquals("a", result);
+      assertEquals(1, loads.get());
+      assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    @DisplayName("get() computes the result again when the version changes")
+    public void testGet_recomputes_whenVersionChanges() {
+      cache.get("milk", 1, () -> load("a"));
+      String result = cache.get("milk", 2, () -> load("b"));
+      assertEquals("b", result);
+      assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("get() compares every part of a stamp, not only their sum")
+    public void testGet_comparesStampsByEquality() {
+      cache.get("milk", List.of(1L, 2L), () -> load("a"));
+      assertEquals("a", cache.get("milk", List.of(1L, 2L), () -> load("b")));
+      // Samme sum, men andre versjoner
+      assertEquals("c", cache.get("milk", List.of(2L, 1L), () -> load("c")));
+      assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("get() evicts the least recently used entry when full")
+    public void testGet_evictsLeastRecentlyUsed() {
+      cache.get("milk", 1, () -> load("a"));
+      cache.get("egg", 1, () -> load("b"));
+      cache.get("milk", 1, () -> load("a")); // egg er nå minst brukt
+      cache.get("butter", 1, () -> load("c"));
+      assertEquals(2, cache.size());
+      cache.get("milk", 1, () -> load("x"));
+      assertEquals(3, loads.get());
+      cache.get("egg", 1, () -> load("b"));
+      assertEquals(4, loads.get());
+    }
+  }
+}
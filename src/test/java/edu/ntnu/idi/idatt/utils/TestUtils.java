@@ -0,0 +1,157 @@
+package edu.ntnu.idi.idatt.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idi.idatt.views.UserInterface.MenuOption;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestUtils {
+
+  private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+  ByteArrayOutputStream printed = new ByteArrayOutputStream();
+
+  private Utils utils(String lines) {
+    return new Utils(new BufferedReader(new StringReader(lines)),
+        new PrintStream(printed, true, StandardCharsets.UTF_8));
+  }
+
+  private String printed() {
+    return printed.toString(StandardCharsets.UTF_8);
+  }
+
+  private static LocalDate parseWithFormatter(String text) {
+    try {
+      return LocalDate.parse(text, FORMAT);
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  @Nested
+  @DisplayName("Negative tests for Utils")
+  public class Negative {
+
+    @Test
+    @DisplayName("readString() rejects digits and blank lines with the same message as before")
+    public void testReadString_retries_onInvalidName() {
+      String result = utils("Milk2\n   \nSour cream\n").readString("Name: ");
+      assertEquals("Sour cream", result);
+      assertEquals("Name: Invalid input, please try again. " + System.lineSeparator()
+          + "Name: Invalid input, please try again. " + System.lineSeparator() + "Name: ",
+          printed());
+    }
+
+    @Test
+    @DisplayName("readDouble() rejects text and values that are not positive")
+    public void testReadDouble_retries_onInvalidNumber() {
+      assertEquals(2.5, utils("abc\n-1\n 2.5 \n").readDouble(""));
+      assertEquals("Invalid input, please enter a number. "
+          + "Invalid input, quantity cannot be negative. Please try again. ", printed());
+    }
+
+    @Test
+    @DisplayName("readDate() rejects an invalid date")
+    public void testReadDate_retries_onInvalidDate() {
+      assertEquals(LocalDate.of(2024, 12, 20), utils("2024-12-20\n20-12-2024\n").readDate(""));
+      assertEquals("Invalid date format, please use dd-MM-yyyy.", printed());
+    }
+
+    @Test
+    @DisplayName("readInt() throws NoSuchElementException when the input ends")
+    public void testReadInt_throwsException_atEndOfInput() {
+      assertThrows(NoSuchElementException.class, () -> utils("").readInt(""));
+    }
+
+    @Test
+    @DisplayName("parseDate() returns null for dates the formatter rejects")
+    public void testParseDate_returnsNull_onInvalidDate() {
+      for (String text : List.of("32-01-2024", "00-01-2024", "01-13-2024", "1-01-2024",
+          "01-01-24", "01-01-20245", "01-01-+2024", "01-01-0000", " 01-01-2024", "01-01-2024 ",
+          "01/01/2024", "01-01-+1000000000", "01-01--001")) {
+        assertNull(Utils.parseDate(text), text);
+      }
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for Utils")
+  public class Positive {
+
+    @Test
+    @DisplayName("readInt() and readString() read trimmed lines from the input")
+    public void testRead_readsTrimmedLines() {
+      Utils utils = utils(" 12 \n  Rømme  \n");
+      assertEquals(12, utils.readInt(""));
+      assertEquals("Rømme", utils.readString(""));
+    }
+
+    @Test
+    @DisplayName("printMenu() writes the options to the output of the utils")
+    public void testPrintMenu_writesToOutput() {
+      utils("").printMenu(new MenuOption[] {MenuOption.SHOW_ITEMS, MenuOption.EXIT_OPTION});
+      assertTrue(printed().contains("1. Show items in the fridge"));
+      assertTrue(printed().contains("14. End program"));
+    }
+
+    @Test
+    @DisplayName("parseDate() moves the day back to the end of short months like the formatter")
+    public void testParseDate_clampsDayOfMonth() {
+      assertEquals(LocalDate.of(2024, 2, 29), Utils.parseDate("31-02-2024"));
+      assertEquals(LocalDate.of(2023, 2, 28), Utils.parseDate("29-02-2023"));
+      assertEquals(LocalDate.of(20245, 1, 1), Utils.parseDate("01-01-+20245"));
+    }
+
+    @Test
+    @DisplayName("parseDate() gives the same result as LocalDate.parse() for random input")
+    public void testParseDate_matchesFormatter() {
+      Random random = new Random(42);
+      String characters = "0123456789-+ /";
+      for (int i = 0; i < 100_000; i++) {
+        StringBuilder text = new StringBuilder();
+        if (random.nextBoolean()) {
+          // Nesten gyldige datoer, så de fleste reglene blir testet
+          text.append(String.format("%02d-%02d-%04d", random.nextInt(35), random.nextInt(14),
+              random.nextInt(10_000)));
+          if (random.nextInt(4) == 0) {
+            text.setCharAt(random.nextInt(text.length()),
+                characters.charAt(random.nextInt(characters.length())));
+          }
+        } else {
+          int length = 8 + random.nextInt(8);
+          for (int j = 0; j < length; j++) {
+            text.append(characters.charAt(random.nextInt(characters.length())));
+          }
+        }
+        String date = text.toString();
+        assertEquals(parseWithFormatter(date), Utils.parseDate(date), date);
+      }
+    }
+
+    @Test
+    @DisplayName("isValidName() accepts the same names as the old regular expression")
+    public void testIsValidName_matchesRegex() {
+      for (String name : List.of("Milk", "Sour cream", "Rømme", "ÆØÅ æøå", "a\tb", "Milk2",
+          "Crème", "", " ", "Sour-cream", "_")) {
+        boolean expected = !name.isBlank() && name.matches("[a-zA-ZÆØÅæøå\\s]+");
+        assertEquals(expected, Utils.isValidName(name), name);
+      }
+    }
+  }
+}
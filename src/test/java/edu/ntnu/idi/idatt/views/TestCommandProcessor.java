@@ -0,0 +1,115 @@
+package edu.ntnu.idi.idatt.views;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestCommandProcessor {
+
+  FoodStorage foodStorage;
+  CookBook cookBook;
+  CommandProcessor processor;
+
+  @BeforeEach
+  public void setUp() {
+    foodStorage = new FoodStorage();
+    cookBook = new CookBook();
+    processor = new CommandProcessor(foodStorage, cookBook);
+  }
+
+  @Nested
+  @DisplayName("Negative tests for CommandProcessor")
+  public class Negative {
+
+    @Test
+    @DisplayName("execute() reports an unknown command")
+    public void testExecute_returnsError_onUnknownCommand() {
+      assertEquals("ERR Unknown command: cook", processor.execute("cook Pannekake"));
+    }
+
+    @Test
+    @DisplayName("execute() reports an invalid date without changing the fridge")
+    public void testExecute_returnsError_onInvalidDate() {
+      assertEquals("ERR Invalid date format, please use dd-MM-yyyy.",
+          processor.execute("add Milk 3 dL 10 2024-12-20"));
+      assertTrue(foodStorage.getItems().isEmpty());
+    }
+
+    @Test
+    @DisplayName("execute() rejects a price or quantity that is not a finite number")
+    public void testExecute_returnsError_onNonFiniteNumber() {
+      assertEquals("ERR Invalid number: NaN", processor.execute("add Junk 1 L NaN 20-12-2024"));
+      assertEquals("ERR Invalid number: Infinity",
+          processor.execute("add Junk Infinity L 1 20-12-2024"));
+      assertTrue(foodStorage.getItems().isEmpty());
+    }
+
+    @Test
+    @DisplayName("execute() reports a recipe that does not exist")
+    public void testExecute_returnsError_onMissingRecipe() {
+      assertTrue(processor.execute("check Pannekake").startsWith("ERR "));
+    }
+
+    @Test
+    @DisplayName("execute() reports any exception, also one without a message")
+    public void testExecute_returnsError_onOtherException() {
+      CommandProcessor broken = new CommandProcessor(new FoodStorage() {
+        @Override
+        public List<Ingredient> getItems() {
+          throw new IllegalStateException("Disk is full");
+        }
+
+        @Override
+        public double calculateTotalValue() {
+          throw new NullPointerException();
+        }
+      }, cookBook);
+      assertEquals("ERR Disk is full", broken.execute("items"));
+      assertEquals("ERR NullPointerException", broken.execute("value"));
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for CommandProcessor")
+  public class Positive {
+
+    @Test
+    @DisplayName("execute() adds an item with a name of several words and lists it")
+    public void testExecute_addsAndListsItem() {
+      assertEquals("OK", processor.execute("add Sour cream 3 dL 10 20-12-2024"));
+      assertEquals("OK 1 Sour cream|3.0|dL|10.0|20-12-2024", processor.execute("items"));
+    }
+
+    @Test
+    @DisplayName("execute() adds a recipe and checks it against the fridge")
+    public void testExecute_addsAndChecksRecipe() {
+      processor.execute("add Milk 3 dL 10 20-12-2024");
+      assertEquals("OK", processor.execute(
+          "addrecipe Milkshake|Cold milk|Shake it|1|Milk 2 dL"));
+      assertEquals("OK true", processor.execute("check Milkshake"));
+      assertEquals("OK 1 Milkshake", processor.execute("suggest"));
+    }
+
+    @Test
+    @DisplayName("run() skips comments and empty lines and stops at exit")
+    public void testRun_stopsAtExit() throws IOException {
+      String commands = "# fridge\n\nadd Milk 3 dL 10 20-12-2024\nvalue\nexit\nitems\n";
+      StringWriter output = new StringWriter();
+      long count = processor.run(new BufferedReader(new StringReader(commands)), output);
+      assertEquals(2, count);
+      assertEquals("OK\nOK 30.0\n", output.toString());
+    }
+  }
+}
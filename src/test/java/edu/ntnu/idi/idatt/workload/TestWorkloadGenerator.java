@@ -0,0 +1,98 @@
+package edu.ntnu.idi.idatt.workload;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ntnu.idi.idatt.models.CookBook;
+import edu.ntnu.idi.idatt.models.FoodStorage;
+import edu.ntnu.idi.idatt.models.Ingredient;
+import edu.ntnu.idi.idatt.models.Recipe;
+import edu.ntnu.idi.idatt.workload.OperationMix.Operation;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+public class TestWorkloadGenerator {
+
+  @Nested
+  @DisplayName("Negative tests for the workload generator")
+  public class Negative {
+
+    @Test
+    @DisplayName("Constructor throws IllegalArgumentException on zero ingredients")
+    public void testConstructor_throwsException_onZeroIngredients() {
+      IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+          () -> new WorkloadGenerator(1, 0, 1.0, LocalDate.of(2024, 12, 1)));
+      assertEquals("Number of values must be greater than zero", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("OperationMix throws IllegalArgumentException if all weights are zero")
+    public void testOperationMix_throwsException_ifAllWeightsAreZero() {
+      assertThrows(IllegalArgumentException.class, () -> new OperationMix(0, 0, 0, 0));
+    }
+  }
+
+  @Nested
+  @DisplayName("Positive tests for the workload generator")
+  public class Positive {
+
+    @Test
+    @DisplayName("The same seed generates the same items")
+    public void testGenerateItems_sameSeedGivesSameItems() {
+      List<Ingredient> first = new WorkloadGenerator(42).generateItems(100);
+      List<Ingredient> second = new WorkloadGenerator(42).generateItems(100);
+      for (int i = 0; i < first.size(); i++) {
+        assertEquals(first.get(i).getNameItem(), second.get(i).getNameItem());
+        assertEquals(first.get(i).getQuantityItem(), second.get(i).getQuantityItem());
+        assertEquals(first.get(i).getBestBefore(), second.get(i).getBestBefore());
+      }
+    }
+
+    @Test
+    @DisplayName("The most popular ingredient is drawn most often")
+    public void testGenerateItems_followsZipfPopularity() {
+      WorkloadGenerator generator = new WorkloadGenerator(7);
+      Map<String, Long> counts = generator.generateItems(10_000).stream()
+          .collect(Collectors.groupingBy(Ingredient::getNameItem, Collectors.counting()));
+      long egg = counts.get(generator.ingredientName(0));
+      assertTrue(counts.values().stream().allMatch(count -> count <= egg));
+      assertTrue(egg > 500); // Omtrent 13 % med 1000 ingredienser og eksponent 1
+    }
+
+    @Test
+    @DisplayName("Recipes have unique names and distinct ingredients within the size limits")
+    public void testGenerateRecipes_haveValidSizes() {
+      List<Recipe> recipes = new WorkloadGenerator(3).generateRecipes(500);
+      assertEquals(500, recipes.stream().map(Recipe::getNameRecipe).distinct().count());
+      for (Recipe recipe : recipes) {
+        int size = recipe.getIngredientsRecipe().size();
+        assertTrue(size >= 1 && size <= 20);
+        assertEquals(size, recipe.getIngredientsRecipe().stream()
+            .map(Ingredient::getNameItem).distinct().count());
+      }
+    }
+
+    @Test
+    @DisplayName("The replayer runs the requested number of operations of each kind")
+    public void testReplay_runsAllOperations() {
+      WorkloadGenerator generator = new WorkloadGenerator(11, 50, 1.0, LocalDate.of(2024, 12, 1));
+      FoodStorage fridge = generator.generateFridge(200);
+      CookBook cookBook = generator.generateCookBook(20);
+      LatencyReport report = new WorkloadReplayer(generator, new OperationMix(1, 1, 1, 1), 5)
+          .replay(fridge, cookBook, 2000, 0);
+      assertEquals(2000, report.getTotalCount());
+      Map<Operation, Integer> counts = List.of(Operation.values()).stream()
+          .collect(Collectors.toMap(Function.identity(), report::getCount));
+      assertTrue(counts.values().stream().allMatch(count -> count > 300));
+      assertTrue(report.getPercentile(Operation.SEARCH, 50)
+          <= report.getPercentile(Operation.SEARCH, 99));
+    }
+  }
+}